@@ -17,6 +17,35 @@ BEGIN
 END
 GO
 
+-- Sequence cho invoice_number
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'seq_invoice_number')
+BEGIN
+    CREATE SEQUENCE seq_invoice_number
+    START WITH 1
+    INCREMENT BY 1;
+END
+GO
+
+-- Sequences cho khóa chính orders / order_items / order_item_modifiers / payments
+-- (Hibernate pooled optimizer cấp phát 50 id mỗi lần gọi => INCREMENT BY 50, cho phép batch insert)
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'seq_orders_id')
+    CREATE SEQUENCE seq_orders_id START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'seq_order_items_id')
+    CREATE SEQUENCE seq_order_items_id START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'seq_order_item_modifiers_id')
+    CREATE SEQUENCE seq_order_item_modifiers_id START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'seq_payments_id')
+    CREATE SEQUENCE seq_payments_id START WITH 1 INCREMENT BY 50;
+GO
+
+-- Bảng dự phòng cấp phát số chứng từ theo block (khi không dùng được sequence)
+CREATE TABLE document_sequences (
+    name NVARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL,
+    updated_at DATETIME2 DEFAULT SYSUTCDATETIME()
+);
+GO
+
 -- ===========================
 -- USERS (Admin & Staff)
 -- ===========================
@@ -58,8 +87,10 @@ CREATE TABLE categories (
     description NVARCHAR(500),
     display_order INT DEFAULT 0,
     is_active BIT DEFAULT 1,
+    station_code TINYINT NOT NULL DEFAULT 1, -- 1 BAR (quầy pha chế), 2 KITCHEN (bếp)
     created_at DATETIME2 DEFAULT SYSUTCDATETIME(),
-    updated_at DATETIME2 DEFAULT SYSUTCDATETIME()
+    updated_at DATETIME2 DEFAULT SYSUTCDATETIME(),
+    CONSTRAINT CK_categories_station_code CHECK (station_code BETWEEN 1 AND 2)
 );
 GO
 
@@ -158,12 +189,13 @@ GO
 -- ORDERS
 -- ===========================
 CREATE TABLE orders (
-    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    id BIGINT NOT NULL PRIMARY KEY, -- cấp từ seq_orders_id
     order_number NVARCHAR(50) NOT NULL UNIQUE,
     customer_id BIGINT NULL,                -- nếu khách đăng nhập
     guest_name NVARCHAR(100) NULL,          -- nếu khách vãng lai
     guest_phone NVARCHAR(20) NULL,
-    status NVARCHAR(20) NOT NULL CHECK (status IN ('PENDING','APPROVED','COOKING','IN_PROGRESS','DONE','CANCELLED','REFUNDED')),
+    -- 1 PENDING, 2 APPROVED, 3 COOKING, 4 IN_PROGRESS, 5 DONE, 6 CANCELLED, 7 REFUNDED (OrderStatus)
+    status_code TINYINT NOT NULL CONSTRAINT CK_orders_status_code CHECK (status_code BETWEEN 1 AND 7),
     subtotal DECIMAL(12,2) NOT NULL DEFAULT 0,
     tax_amount DECIMAL(12,2) NOT NULL DEFAULT 0,
     discount_amount DECIMAL(12,2) NOT NULL DEFAULT 0,
@@ -183,7 +215,8 @@ CREATE TABLE orders (
 );
 GO
 
-CREATE INDEX IDX_orders_status_createdat ON orders(status, created_at);
+CREATE INDEX IDX_orders_status_createdat ON orders(status_code, created_at);
+CREATE INDEX IDX_orders_createdat ON orders(created_at, id);
 CREATE INDEX IDX_orders_customer ON orders(customer_id);
 GO
 
@@ -191,7 +224,7 @@ GO
 -- ORDER_ITEMS
 -- ===========================
 CREATE TABLE order_items (
-    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    id BIGINT NOT NULL PRIMARY KEY, -- cấp từ seq_order_items_id
     order_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     product_name NVARCHAR(150) NOT NULL, -- denormalized for history
@@ -201,6 +234,8 @@ CREATE TABLE order_items (
     total_price DECIMAL(12,2) NOT NULL, -- (unit_price + modifiers_price) * quantity
     customization_notes NVARCHAR(500),
     created_at DATETIME2 DEFAULT SYSUTCDATETIME(),
+    ready_at DATETIME2 NULL, -- quầy/bếp đánh dấu món đã xong
+    unit_cost DECIMAL(12,2) NULL, -- giá vốn lúc đơn hoàn thành; NULL thì dùng products.cost_price
     CONSTRAINT FK_oi_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
     CONSTRAINT FK_oi_product FOREIGN KEY (product_id) REFERENCES products(id)
 );
@@ -213,7 +248,7 @@ GO
 -- ORDER_ITEM_MODIFIERS (cho từng item)
 -- ===========================
 CREATE TABLE order_item_modifiers (
-    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    id BIGINT NOT NULL PRIMARY KEY, -- cấp từ seq_order_item_modifiers_id
     order_item_id BIGINT NOT NULL,
     modifier_name NVARCHAR(150) NOT NULL,
     price_delta DECIMAL(12,2) NOT NULL DEFAULT 0,
@@ -226,13 +261,14 @@ GO
 -- PAYMENTS
 -- ===========================
 CREATE TABLE payments (
-    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    id BIGINT NOT NULL PRIMARY KEY, -- cấp từ seq_payments_id
     order_id BIGINT NOT NULL UNIQUE, -- 1-1 (một order một payment) - adjust if multiple partial payments needed
     payment_method NVARCHAR(20) NOT NULL CHECK (payment_method IN ('CASH','CARD','QR_CODE','WALLET')),
     amount DECIMAL(12,2) NOT NULL,
     qr_code_data NVARCHAR(2000) NULL,
     qr_expires_at DATETIME2 NULL,
-    status NVARCHAR(20) NOT NULL CHECK (status IN ('PENDING','COMPLETED','FAILED','CANCELLED','REFUNDED')),
+    -- 1 PENDING, 2 COMPLETED, 3 FAILED, 4 CANCELLED, 5 REFUNDED (PaymentStatus)
+    status_code TINYINT NOT NULL CONSTRAINT CK_payments_status_code CHECK (status_code BETWEEN 1 AND 5),
     transaction_id NVARCHAR(200) NULL,
     gateway_response NVARCHAR(2000) NULL,
     paid_at DATETIME2 NULL,
@@ -250,7 +286,7 @@ CREATE TABLE tables (
     created_at DATETIME2 DEFAULT SYSUTCDATETIME()
 );
 
-CREATE INDEX IDX_payments_status ON payments(status);
+CREATE INDEX IDX_payments_status ON payments(status_code);
 GO
 
 -- ===========================
@@ -269,6 +305,32 @@ CREATE TABLE invoices (
 );
 GO
 
+-- ===========================
+-- DAILY_SALES / DAILY_PRODUCT_SALES (tổng hợp cho báo cáo, cập nhật khi đơn DONE / hoàn tiền)
+-- ===========================
+CREATE TABLE daily_sales (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    sales_date DATE NOT NULL CONSTRAINT UQ_daily_sales_date UNIQUE, -- theo ngày tạo đơn
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    updated_at DATETIME2 NULL
+);
+GO
+
+CREATE TABLE daily_product_sales (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    sales_date DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name NVARCHAR(150) NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    cost DECIMAL(14,2) NOT NULL DEFAULT 0, -- quantity * cost_price lúc đơn hoàn thành
+    updated_at DATETIME2 NULL,
+    CONSTRAINT UQ_daily_product_sales UNIQUE (sales_date, product_id),
+    CONSTRAINT FK_dps_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+GO
+
 -- ===========================
 -- TRIGGER: CẬP NHẬT updated_at tự động
 -- Applies to multiple tables using similar trigger logic
@@ -372,11 +434,11 @@ VALUES
 GO
 
 -- CATEGORIES
-INSERT INTO categories (name, description, display_order) VALUES
-('Coffee', 'All coffee drinks', 1),
-('Tea', 'Tea varieties', 2),
-('Smoothies', 'Fresh smoothies', 3),
-('Pastries', 'Baked goods', 4);
+INSERT INTO categories (name, description, display_order, station_code) VALUES
+('Coffee', 'All coffee drinks', 1, 1),
+('Tea', 'Tea varieties', 2, 1),
+('Smoothies', 'Fresh smoothies', 3, 1),
+('Pastries', 'Baked goods', 4, 2);
 GO
 
 -- PRODUCTS
@@ -422,19 +484,19 @@ EXEC sp_generate_order_number;
 DECLARE @seq BIGINT = NEXT VALUE FOR seq_order_number;
 SET @onr = FORMAT(SYSUTCDATETIME(), 'yyyyMMdd') + '-' + RIGHT('000000' + CAST(@seq AS NVARCHAR(20)), 6);
 
-INSERT INTO orders (order_number, guest_name, guest_phone, status, subtotal, tax_amount, discount_amount, total_amount, customer_notes, created_at)
-VALUES (@onr, 'Nguyen Van A', '0909123456', 'PENDING', 45000, 0, 0, 45000, 'No sugar', SYSUTCDATETIME());
+DECLARE @order_id BIGINT = NEXT VALUE FOR seq_orders_id;
 
-DECLARE @order_id BIGINT = SCOPE_IDENTITY();
+INSERT INTO orders (id, order_number, guest_name, guest_phone, status_code, subtotal, tax_amount, discount_amount, total_amount, customer_notes, created_at)
+VALUES (@order_id, @onr, 'Nguyen Van A', '0909123456', 1, 45000, 0, 0, 45000, 'No sugar', SYSUTCDATETIME());
 
 -- order item
-INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price, modifiers_price, total_price)
-SELECT @order_id, p.id, p.name, 1, p.default_price, 0, p.default_price
+INSERT INTO order_items (id, order_id, product_id, product_name, quantity, unit_price, modifiers_price, total_price)
+SELECT NEXT VALUE FOR seq_order_items_id, @order_id, p.id, p.name, 1, p.default_price, 0, p.default_price
 FROM products p WHERE p.name = 'Americano';
 
 -- create payment record (pending)
-INSERT INTO payments (order_id, payment_method, amount, status, created_at)
-VALUES (@order_id, 'QR_CODE', 45000, 'PENDING', SYSUTCDATETIME());
+INSERT INTO payments (id, order_id, payment_method, amount, status_code, created_at)
+VALUES (NEXT VALUE FOR seq_payments_id, @order_id, 'QR_CODE', 45000, 1, SYSUTCDATETIME());
 GO
 
 -- ===========================
@@ -0,0 +1,68 @@
+-- ===========================
+-- V002: orders / order_items / order_item_modifiers / payments
+-- chuyển khóa chính từ IDENTITY sang SEQUENCE (INCREMENT BY 50)
+-- để Hibernate có thể batch insert khi lưu đơn hàng.
+-- Chạy một lần trên database đã tạo bằng CafeShopManagement.sql bản cũ.
+-- ===========================
+USE CafeShopManagement;
+GO
+
+BEGIN TRANSACTION;
+
+-- 1. Bỏ các foreign key trỏ tới những bảng sẽ đổi khóa chính
+DECLARE @sql NVARCHAR(MAX) = N'';
+SELECT @sql += N'ALTER TABLE ' + QUOTENAME(OBJECT_NAME(fk.parent_object_id))
+             + N' DROP CONSTRAINT ' + QUOTENAME(fk.name) + N';'
+FROM sys.foreign_keys fk
+WHERE OBJECT_NAME(fk.referenced_object_id) IN ('orders', 'order_items', 'order_item_modifiers', 'payments');
+EXEC sp_executesql @sql;
+
+-- 2. Dựng lại cột id không còn IDENTITY, giữ nguyên giá trị cũ, và tạo sequence bắt đầu sau MAX(id)
+DECLARE @table SYSNAME, @pk SYSNAME, @seq SYSNAME, @start BIGINT, @stmt NVARCHAR(MAX);
+DECLARE table_cursor CURSOR LOCAL FAST_FORWARD FOR
+    SELECT name FROM (VALUES ('orders'), ('order_items'), ('order_item_modifiers'), ('payments')) AS t(name);
+
+OPEN table_cursor;
+FETCH NEXT FROM table_cursor INTO @table;
+WHILE @@FETCH_STATUS = 0
+BEGIN
+    SELECT @pk = name FROM sys.key_constraints
+    WHERE parent_object_id = OBJECT_ID(@table) AND type = 'PK';
+
+    EXEC (N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD id_new BIGINT NULL');
+    EXEC (N'UPDATE ' + QUOTENAME(@table) + N' SET id_new = id');
+    EXEC (N'ALTER TABLE ' + QUOTENAME(@table) + N' DROP CONSTRAINT ' + QUOTENAME(@pk));
+    EXEC (N'ALTER TABLE ' + QUOTENAME(@table) + N' DROP COLUMN id');
+    SET @stmt = @table + N'.id_new';
+    EXEC sp_rename @stmt, N'id', N'COLUMN';
+    EXEC (N'ALTER TABLE ' + QUOTENAME(@table) + N' ALTER COLUMN id BIGINT NOT NULL');
+    EXEC (N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD CONSTRAINT ' + QUOTENAME(N'PK_' + @table) + N' PRIMARY KEY (id)');
+
+    -- pooled optimizer dùng khoảng (giá trị - 49 .. giá trị], nên bắt đầu tại MAX(id) + 50
+    SET @seq = N'seq_' + @table + N'_id';
+    SET @stmt = N'SELECT @start = ISNULL(MAX(id), 0) + 50 FROM ' + QUOTENAME(@table);
+    EXEC sp_executesql @stmt, N'@start BIGINT OUTPUT', @start = @start OUTPUT;
+    IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = @seq)
+    BEGIN
+        SET @stmt = N'CREATE SEQUENCE ' + QUOTENAME(@seq)
+                  + N' START WITH ' + CAST(@start AS NVARCHAR(20)) + N' INCREMENT BY 50';
+        EXEC sp_executesql @stmt;
+    END
+
+    FETCH NEXT FROM table_cursor INTO @table;
+END
+CLOSE table_cursor;
+DEALLOCATE table_cursor;
+
+-- 3. Tạo lại foreign key
+ALTER TABLE order_items ADD CONSTRAINT FK_oi_order
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE;
+ALTER TABLE order_item_modifiers ADD CONSTRAINT FK_oim_order_item
+    FOREIGN KEY (order_item_id) REFERENCES order_items(id) ON DELETE CASCADE;
+ALTER TABLE payments ADD CONSTRAINT FK_pay_order
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE;
+ALTER TABLE invoices ADD CONSTRAINT FK_inv_order
+    FOREIGN KEY (order_id) REFERENCES orders(id);
+
+COMMIT TRANSACTION;
+GO
@@ -0,0 +1,51 @@
+-- ===========================
+-- V003: orders.status / payments.status chuyển từ NVARCHAR(20) sang mã TINYINT (status_code).
+-- Mã phải khớp với OrderStatus / PaymentStatus trong code Java:
+--   orders   : 1 PENDING, 2 APPROVED, 3 COOKING, 4 IN_PROGRESS, 5 DONE, 6 CANCELLED, 7 REFUNDED
+--   payments : 1 PENDING, 2 COMPLETED, 3 FAILED, 4 CANCELLED, 5 REFUNDED
+-- Chạy một lần sau V002.
+-- ===========================
+USE CafeShopManagement;
+GO
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+-- 1. Thêm cột mã mới và chuyển dữ liệu cũ sang
+ALTER TABLE orders ADD status_code TINYINT NULL;
+ALTER TABLE payments ADD status_code TINYINT NULL;
+
+EXEC (N'UPDATE orders SET status_code = CASE status
+        WHEN ''PENDING'' THEN 1 WHEN ''APPROVED'' THEN 2 WHEN ''COOKING'' THEN 3
+        WHEN ''IN_PROGRESS'' THEN 4 WHEN ''DONE'' THEN 5 WHEN ''CANCELLED'' THEN 6
+        WHEN ''REFUNDED'' THEN 7 END');
+EXEC (N'UPDATE payments SET status_code = CASE status
+        WHEN ''PENDING'' THEN 1 WHEN ''COMPLETED'' THEN 2 WHEN ''FAILED'' THEN 3
+        WHEN ''CANCELLED'' THEN 4 WHEN ''REFUNDED'' THEN 5 END');
+
+EXEC (N'ALTER TABLE orders ALTER COLUMN status_code TINYINT NOT NULL');
+EXEC (N'ALTER TABLE payments ALTER COLUMN status_code TINYINT NOT NULL');
+EXEC (N'ALTER TABLE orders ADD CONSTRAINT CK_orders_status_code CHECK (status_code BETWEEN 1 AND 7)');
+EXEC (N'ALTER TABLE payments ADD CONSTRAINT CK_payments_status_code CHECK (status_code BETWEEN 1 AND 5)');
+
+-- 2. Bỏ index, CHECK constraint (tên tự sinh) và cột status cũ
+DROP INDEX IDX_orders_status_createdat ON orders;
+DROP INDEX IDX_payments_status ON payments;
+
+DECLARE @sql NVARCHAR(MAX) = N'';
+SELECT @sql += N'ALTER TABLE ' + QUOTENAME(OBJECT_NAME(cc.parent_object_id))
+             + N' DROP CONSTRAINT ' + QUOTENAME(cc.name) + N';'
+FROM sys.check_constraints cc
+JOIN sys.columns c ON c.object_id = cc.parent_object_id AND c.column_id = cc.parent_column_id
+WHERE OBJECT_NAME(cc.parent_object_id) IN ('orders', 'payments') AND c.name = 'status';
+EXEC sp_executesql @sql;
+
+ALTER TABLE orders DROP COLUMN status;
+ALTER TABLE payments DROP COLUMN status;
+
+-- 3. Tạo lại index trên cột mã
+EXEC (N'CREATE INDEX IDX_orders_status_createdat ON orders(status_code, created_at)');
+EXEC (N'CREATE INDEX IDX_payments_status ON payments(status_code)');
+
+COMMIT TRANSACTION;
+GO
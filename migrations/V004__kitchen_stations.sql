@@ -0,0 +1,24 @@
+-- ===========================
+-- V004: Màn hình bếp (KDS).
+--   categories.station_code : quầy chế biến của danh mục, khớp với KitchenStation trong code Java
+--                             (1 BAR - quầy pha chế, 2 KITCHEN - bếp)
+--   order_items.ready_at    : thời điểm quầy/bếp đánh dấu món đã xong
+-- Chạy một lần sau V003.
+-- ===========================
+USE CafeShopManagement;
+GO
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+ALTER TABLE categories ADD station_code TINYINT NOT NULL
+    CONSTRAINT DF_categories_station_code DEFAULT 1
+    CONSTRAINT CK_categories_station_code CHECK (station_code BETWEEN 1 AND 2);
+
+-- Bánh ngọt do bếp chuẩn bị, các danh mục đồ uống ở quầy pha chế
+EXEC (N'UPDATE categories SET station_code = 2 WHERE name = ''Pastries''');
+
+ALTER TABLE order_items ADD ready_at DATETIME2 NULL;
+
+COMMIT TRANSACTION;
+GO
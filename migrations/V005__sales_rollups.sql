@@ -0,0 +1,61 @@
+-- ===========================
+-- V005: Bảng tổng hợp doanh thu cho báo cáo.
+--   daily_sales         : số đơn hoàn thành và doanh thu theo ngày (theo ngày tạo đơn)
+--   daily_product_sales : số lượng, doanh thu, giá vốn theo ngày và sản phẩm
+--   order_items.unit_cost : giá vốn của món lúc đơn hoàn thành, để hoàn tiền và tính lại không bị
+--                           lệch khi giá vốn sản phẩm thay đổi
+-- Ứng dụng cập nhật hai bảng trong cùng transaction khi đơn chuyển sang DONE hoặc bị hoàn tiền,
+-- và tính lại 7 ngày gần nhất mỗi đêm. Script này điền dữ liệu từ các đơn đã có.
+-- Chạy một lần sau V004.
+-- ===========================
+USE CafeShopManagement;
+GO
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+CREATE TABLE daily_sales (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    sales_date DATE NOT NULL CONSTRAINT UQ_daily_sales_date UNIQUE,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    updated_at DATETIME2 NULL
+);
+
+CREATE TABLE daily_product_sales (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    sales_date DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name NVARCHAR(150) NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    cost DECIMAL(14,2) NOT NULL DEFAULT 0,
+    updated_at DATETIME2 NULL,
+    CONSTRAINT UQ_daily_product_sales UNIQUE (sales_date, product_id),
+    CONSTRAINT FK_dps_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+ALTER TABLE order_items ADD unit_cost DECIMAL(12,2) NULL;
+
+-- Giá vốn lúc bán của các đơn đã có không được lưu lại, nên unit_cost của chúng để NULL thay vì
+-- chép giá vốn hiện tại vào như thể đó là giá lúc bán. Với các dòng này ứng dụng dùng
+-- products.cost_price hiện tại, giống phần điền daily_product_sales bên dưới.
+
+-- status_code 5 = DONE
+INSERT INTO daily_sales (sales_date, order_count, revenue, updated_at)
+SELECT CAST(o.created_at AS DATE), COUNT(*), SUM(o.total_amount), SYSUTCDATETIME()
+FROM orders o
+WHERE o.status_code = 5
+GROUP BY CAST(o.created_at AS DATE);
+
+INSERT INTO daily_product_sales (sales_date, product_id, product_name, quantity, revenue, cost, updated_at)
+SELECT CAST(o.created_at AS DATE), oi.product_id, MAX(oi.product_name), SUM(oi.quantity), SUM(oi.total_price),
+       SUM(oi.quantity * ISNULL(p.cost_price, 0)), SYSUTCDATETIME()
+FROM order_items oi
+JOIN orders o ON o.id = oi.order_id
+JOIN products p ON p.id = oi.product_id
+WHERE o.status_code = 5
+GROUP BY CAST(o.created_at AS DATE), oi.product_id;
+
+COMMIT TRANSACTION;
+GO
@@ -0,0 +1,11 @@
+-- ===========================
+-- V006: Chỉ mục theo ngày tạo đơn cho xuất CSV (/admin/reports/export).
+--   Xuất dữ liệu đọc đơn theo khoảng ngày và sắp xếp theo (created_at, id); chỉ mục này
+--   cho phép SQL Server trả từng dòng theo thứ tự mà không phải sắp xếp toàn bộ khoảng ngày.
+-- Chạy một lần sau V005.
+-- ===========================
+USE CafeShopManagement;
+GO
+
+CREATE INDEX IDX_orders_createdat ON orders(created_at, id);
+GO
@@ -0,0 +1,50 @@
+-- ===========================
+-- V007: Cấp phát số đơn hàng / hóa đơn theo block (DocumentNumberService).
+--   seq_invoice_number : sequence cho invoice_number (INV-yyyyMMdd-000123)
+--   document_sequences : bảng dự phòng khi database không có sequence
+-- Phần số của order_number / invoice_number không còn đếm lại từ 1 mỗi ngày, nên hai sequence
+-- được khởi động lại sau số lớn nhất đã cấp; nếu không, ngày triển khai sẽ cấp trùng yyyyMMdd-000001.
+-- Ứng dụng cũng kiểm tra lại điều này mỗi lần khởi động.
+-- Chạy một lần sau V006.
+-- ===========================
+USE CafeShopManagement;
+GO
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'seq_order_number')
+    CREATE SEQUENCE seq_order_number START WITH 1 INCREMENT BY 1;
+IF NOT EXISTS (SELECT * FROM sys.sequences WHERE name = 'seq_invoice_number')
+    CREATE SEQUENCE seq_invoice_number START WITH 1 INCREMENT BY 1;
+
+IF OBJECT_ID('document_sequences', 'U') IS NULL
+    CREATE TABLE document_sequences (
+        name NVARCHAR(50) PRIMARY KEY,
+        next_value BIGINT NOT NULL,
+        updated_at DATETIME2 DEFAULT SYSUTCDATETIME()
+    );
+
+DECLARE @max_order BIGINT = ISNULL((
+    SELECT MAX(TRY_CAST(SUBSTRING(order_number, 10, 40) AS BIGINT)) FROM orders
+    WHERE order_number LIKE '________-%'), 0);
+DECLARE @max_invoice BIGINT = ISNULL((
+    SELECT MAX(TRY_CAST(SUBSTRING(invoice_number, 14, 40) AS BIGINT)) FROM invoices
+    WHERE invoice_number LIKE 'INV-________-%'), 0);
+DECLARE @stmt NVARCHAR(300);
+
+-- ALTER SEQUENCE không nhận biến nên câu lệnh được dựng động
+IF (SELECT CAST(current_value AS BIGINT) FROM sys.sequences WHERE name = 'seq_order_number') <= @max_order
+BEGIN
+    SET @stmt = N'ALTER SEQUENCE seq_order_number RESTART WITH ' + CAST(@max_order + 1 AS NVARCHAR(20));
+    EXEC sp_executesql @stmt;
+END
+
+IF (SELECT CAST(current_value AS BIGINT) FROM sys.sequences WHERE name = 'seq_invoice_number') <= @max_invoice
+BEGIN
+    SET @stmt = N'ALTER SEQUENCE seq_invoice_number RESTART WITH ' + CAST(@max_invoice + 1 AS NVARCHAR(20));
+    EXEC sp_executesql @stmt;
+END
+
+COMMIT TRANSACTION;
+GO
@@ -0,0 +1,129 @@
+package com.fu.cafeshop.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Answers clients that accept gzip with a compressed copy of text assets. Each asset is
+ * compressed once, on its first request, and the copy is kept in memory: the assets ship inside
+ * the application and cannot change while it runs.
+ */
+class GzipResourceResolver extends AbstractResourceResolver {
+
+    private static final Set<String> COMPRESSIBLE = Set.of("css", "js", "svg", "json", "txt");
+    // Below this the gzip header and the extra header lines cost about what compression saves
+    private static final int MIN_SIZE = 256;
+    private static final byte[] NOT_WORTH_IT = new byte[0];
+
+    private final Map<String, byte[]> compressed = new ConcurrentHashMap<>();
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || request == null || !acceptsGzip(request)
+                || !COMPRESSIBLE.contains(StringUtils.getFilenameExtension(resource.getFilename()))) {
+            return resource;
+        }
+        byte[] gzipped = compressed.computeIfAbsent(resource.getDescription(), description -> gzip(resource));
+        return gzipped == NOT_WORTH_IT ? resource : new GzippedResource(resource, gzipped);
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accepted = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return accepted != null && accepted.toLowerCase().contains("gzip");
+    }
+
+    private static byte[] gzip(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            byte[] plain = StreamUtils.copyToByteArray(in);
+            if (plain.length < MIN_SIZE) {
+                return NOT_WORTH_IT;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(plain);
+            }
+            return out.size() < plain.length ? out.toByteArray() : NOT_WORTH_IT;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class GzippedResource extends AbstractResource implements HttpResource {
+
+        private final Resource original;
+        private final byte[] gzipped;
+
+        GzippedResource(Resource original, byte[] gzipped) {
+            this.original = original;
+            this.gzipped = gzipped;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(gzipped);
+        }
+
+        @Override
+        public long contentLength() {
+            return gzipped.length;
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return original.lastModified();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        // The content type is taken from the file name
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return "gzip of " + original.getDescription();
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (original instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            return headers;
+        }
+    }
+}
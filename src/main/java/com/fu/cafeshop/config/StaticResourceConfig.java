@@ -0,0 +1,49 @@
+package com.fu.cafeshop.config;
+
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Static assets under {@code static/css}, {@code static/js} and {@code static/images}.
+ *
+ * <p>URLs written with {@code @{...}} in the templates get the MD5 of the file in their name
+ * ({@code /css/cafeshop-1a2b...css}), so a changed file is a new URL and browsers may keep every
+ * URL for a year without asking again. Text assets are sent gzipped to clients that accept it.
+ * These paths skip the security filters, see {@code SecurityConfig}.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    public static final String[] PATHS = {"/css/**", "/js/**", "/images/**", "/webjars/**"};
+    private static final String[] FOLDERS = {"css", "js", "images"};
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String folder : FOLDERS) {
+            registry.addResourceHandler("/" + folder + "/**")
+                    .addResourceLocations("classpath:/static/" + folder + "/")
+                    .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                    .resourceChain(true)
+                    .addResolver(new GzipResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    // Rewrites @{...} asset links in the templates to their fingerprinted names
+    @Bean
+    public FilterRegistrationBean<ResourceUrlEncodingFilter> resourceUrlEncodingFilter() {
+        FilterRegistrationBean<ResourceUrlEncodingFilter> registration =
+                new FilterRegistrationBean<>(new ResourceUrlEncodingFilter());
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ERROR);
+        return registration;
+    }
+}
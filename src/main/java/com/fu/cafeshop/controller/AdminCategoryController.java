@@ -1,6 +1,7 @@
 package com.fu.cafeshop.controller;
 
 import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.KitchenStation;
 import com.fu.cafeshop.service.CategoryService;
 import com.fu.cafeshop.service.ProductService;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +18,11 @@ public class AdminCategoryController {
     private final CategoryService categoryService;
     private final ProductService productService;
 
+    @ModelAttribute("stations")
+    public KitchenStation[] stations() {
+        return KitchenStation.values();
+    }
+
     @GetMapping
     public String listCategories(Model model) {
         model.addAttribute("categories", categoryService.getAllCategories());
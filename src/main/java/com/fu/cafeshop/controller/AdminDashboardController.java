@@ -1,5 +1,6 @@
 package com.fu.cafeshop.controller;
 
+import com.fu.cafeshop.entity.OrderStatus;
 import com.fu.cafeshop.service.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -12,26 +13,23 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RequiredArgsConstructor
 public class AdminDashboardController {
 
-    private final ProductService productService;
-    private final CategoryService categoryService;
     private final OrderService orderService;
-    private final UserService userService;
-    private final ReportService reportService;
+    private final DashboardCounters dashboardCounters;
 
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        // Stats
-        model.addAttribute("totalProducts", productService.countAvailableProducts());
-        model.addAttribute("totalCategories", categoryService.countCategories());
-        model.addAttribute("totalStaff", userService.countByRole("STAFF"));
+        // Stats, from the live counters
+        model.addAttribute("totalProducts", dashboardCounters.getAvailableProducts());
+        model.addAttribute("totalCategories", dashboardCounters.getCategories());
+        model.addAttribute("totalStaff", dashboardCounters.getStaff());
         
         // Order stats
-        model.addAttribute("pendingOrders", orderService.countByStatus("PENDING"));
-        model.addAttribute("todayOrders", orderService.countTodayCompletedOrders());
-        model.addAttribute("todayRevenue", orderService.getTodayRevenue());
+        model.addAttribute("pendingOrders", dashboardCounters.countByStatus(OrderStatus.PENDING));
+        model.addAttribute("todayOrders", dashboardCounters.getTodayCompletedOrders());
+        model.addAttribute("todayRevenue", dashboardCounters.getTodayRevenue());
 
         // Recent orders
-        model.addAttribute("recentOrders", orderService.getRecentOrders());
+        model.addAttribute("recentOrders", orderService.getRecentOrderSummaries());
 
         return "admin/dashboard";
     }
@@ -3,11 +3,13 @@ package com.fu.cafeshop.controller;
 import com.fu.cafeshop.entity.Product;
 import com.fu.cafeshop.entity.ProductModifier;
 import com.fu.cafeshop.service.CategoryService;
+import com.fu.cafeshop.service.ProductImageService;
 import com.fu.cafeshop.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.math.BigDecimal;
@@ -19,6 +21,7 @@ public class AdminProductController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final ProductImageService productImageService;
 
     @GetMapping
     public String listProducts(@RequestParam(required = false) Long categoryId, Model model) {
@@ -42,9 +45,13 @@ public class AdminProductController {
     @PostMapping("/create")
     public String createProduct(@ModelAttribute Product product,
                                @RequestParam Long categoryId,
+                               @RequestParam(required = false) MultipartFile imageFile,
                                RedirectAttributes redirectAttributes) {
         try {
             product.setCategory(categoryService.getCategoryById(categoryId));
+            if (imageFile != null && !imageFile.isEmpty()) {
+                product.setImageUrl(productImageService.store(imageFile));
+            }
             productService.createProduct(product);
             redirectAttributes.addFlashAttribute("success", "Tạo sản phẩm thành công!");
             return "redirect:/admin/products";
@@ -65,9 +72,13 @@ public class AdminProductController {
     public String updateProduct(@PathVariable Long id,
                                @ModelAttribute Product productDetails,
                                @RequestParam Long categoryId,
+                               @RequestParam(required = false) MultipartFile imageFile,
                                RedirectAttributes redirectAttributes) {
         try {
             productDetails.setCategory(categoryService.getCategoryById(categoryId));
+            if (imageFile != null && !imageFile.isEmpty()) {
+                productDetails.setImageUrl(productImageService.store(imageFile));
+            }
             productService.updateProduct(id, productDetails);
             redirectAttributes.addFlashAttribute("success", "Cập nhật thành công!");
             return "redirect:/admin/products";
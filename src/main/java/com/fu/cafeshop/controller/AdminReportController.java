@@ -1,15 +1,31 @@
 package com.fu.cafeshop.controller;
 
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.service.OrderExportService;
 import com.fu.cafeshop.service.OrderService;
 import com.fu.cafeshop.service.ReportService;
+import com.fu.cafeshop.service.SalesAnalyticsService;
+import com.fu.cafeshop.service.SalesRollupService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 
 @Controller
@@ -19,11 +35,13 @@ public class AdminReportController {
 
     private final ReportService reportService;
     private final OrderService orderService;
+    private final SalesRollupService salesRollupService;
+    private final OrderExportService orderExportService;
+    private final SalesAnalyticsService salesAnalyticsService;
 
     @GetMapping
     public String reports(Model model) {
         model.addAttribute("stats", reportService.getDashboardStats());
-        model.addAttribute("todayReport", reportService.getDailyReport(LocalDate.now()));
         return "admin/report/index";
     }
 
@@ -52,6 +70,50 @@ public class AdminReportController {
         return "admin/report/monthly";
     }
 
+    @GetMapping("/weekly")
+    public String weeklyReport(@RequestParam(required = false)
+                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                               Model model) {
+        if (date == null) date = LocalDate.now();
+
+        model.addAttribute("report", reportService.getWeeklyReport(date));
+        model.addAttribute("title", "Báo cáo tuần");
+        return "admin/report/range";
+    }
+
+    @GetMapping("/range")
+    public String rangeReport(@RequestParam(required = false)
+                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                              @RequestParam(required = false)
+                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                              Model model) {
+        if (startDate == null) startDate = LocalDate.now().minusDays(30);
+        if (endDate == null) endDate = LocalDate.now();
+        if (endDate.isBefore(startDate)) {
+            LocalDate swap = startDate;
+            startDate = endDate;
+            endDate = swap;
+        }
+
+        model.addAttribute("report", reportService.getRangeReport(startDate, endDate));
+        model.addAttribute("title", "Báo cáo theo khoảng ngày");
+        return "admin/report/range";
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public String rebuildRollups(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                 RedirectAttributes redirectAttributes) {
+        try {
+            salesRollupService.rebuild(startDate, endDate);
+            redirectAttributes.addFlashAttribute("success", "Đã tính lại số liệu báo cáo từ "
+                    + startDate + " đến " + endDate);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Lỗi: " + e.getMessage());
+        }
+        return "redirect:/admin/reports";
+    }
+
     @GetMapping("/bestsellers")
     public String bestSellers(@RequestParam(required = false) 
                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -67,16 +129,48 @@ public class AdminReportController {
         return "admin/report/bestsellers";
     }
 
+    @GetMapping("/export/{dataset}")
+    public void export(@PathVariable String dataset,
+                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                       HttpServletResponse response) throws IOException {
+        OrderExportService.Dataset export = parseDataset(dataset);
+        if (endDate.isBefore(startDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ngày kết thúc phải sau ngày bắt đầu");
+        }
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + export.getPath() + "_" + startDate + "_" + endDate + ".csv\"");
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+        // BOM so Excel reads the Vietnamese text as UTF-8
+        out.write('\uFEFF');
+        orderExportService.export(export, startDate, endDate, out);
+    }
+
+    @GetMapping("/analytics")
+    public String analytics(Model model) {
+        model.addAttribute("views", salesAnalyticsService.getViews());
+        return "admin/report/analytics";
+    }
+
     @GetMapping("/orders")
-    public String orderHistory(@RequestParam(required = false) String status,
+    public String orderHistory(@RequestParam(required = false) OrderStatus status,
                               Model model) {
-        if (status != null && !status.isBlank()) {
-            model.addAttribute("orders", orderService.getOrdersByStatus(status));
+        if (status != null) {
+            model.addAttribute("orders", orderService.getOrderSummaries(status));
             model.addAttribute("selectedStatus", status);
         } else {
-            model.addAttribute("orders", orderService.getAllOrders());
+            model.addAttribute("orders", orderService.getOrderSummaries());
         }
         return "admin/report/orders";
     }
-}
 
+    private OrderExportService.Dataset parseDataset(String dataset) {
+        try {
+            return OrderExportService.Dataset.fromPath(dataset);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+}
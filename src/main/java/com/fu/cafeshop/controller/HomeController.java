@@ -1,23 +1,28 @@
 package com.fu.cafeshop.controller;
 
-import com.fu.cafeshop.service.CategoryService;
-import com.fu.cafeshop.service.ProductService;
+import com.fu.cafeshop.service.MenuCatalog;
+import com.fu.cafeshop.service.MenuSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @Controller
 @RequiredArgsConstructor
 public class HomeController {
 
-    private final CategoryService categoryService;
-    private final ProductService productService;
+    private final MenuCatalog menuCatalog;
+    private final MenuPageValidator menuPageValidator;
 
     @GetMapping("/")
-    public String home(Model model) {
-        model.addAttribute("categories", categoryService.getActiveCategories());
-        model.addAttribute("featuredProducts", productService.getFeaturedProducts());
+    public String home(ServletWebRequest request, Model model) {
+        MenuSnapshot menu = menuCatalog.getSnapshot();
+        if (menuPageValidator.checkNotModified(request, menu, "home")) {
+            return null;
+        }
+        model.addAttribute("categories", menu.getCategories());
+        model.addAttribute("featuredProducts", menu.getFeaturedProducts());
         return "index";
     }
 
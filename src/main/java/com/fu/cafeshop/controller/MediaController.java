@@ -0,0 +1,61 @@
+package com.fu.cafeshop.controller;
+
+import com.fu.cafeshop.service.ImageVariant;
+import com.fu.cafeshop.service.ProductImageService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@Controller
+@RequestMapping("/media")
+@RequiredArgsConstructor
+public class MediaController {
+
+    private final ProductImageService productImageService;
+
+    /**
+     * Streams a product image variant straight from the file channel to the response. The URL
+     * names the image content, so the file behind it never changes and may be cached for good.
+     */
+    @GetMapping("/products/{key}/{variant}.jpg")
+    public void productImage(@PathVariable String key,
+                             @PathVariable String variant,
+                             ServletWebRequest request,
+                             HttpServletResponse response) throws IOException {
+        ImageVariant size = ImageVariant.fromPath(variant)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        Path path = productImageService.findVariant(key, size)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        if (request.checkNotModified("\"" + key + "-" + size.getSize() + "\"")) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+            response.setContentLengthLong(fileSize);
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < fileSize) {
+                position += channel.transferTo(position, fileSize - position, out);
+            }
+        }
+    }
+}
@@ -1,47 +1,85 @@
 package com.fu.cafeshop.controller;
 
-import com.fu.cafeshop.service.CategoryService;
-import com.fu.cafeshop.service.ProductService;
+import com.fu.cafeshop.service.MenuCatalog;
+import com.fu.cafeshop.service.MenuSnapshot;
+import com.fu.cafeshop.service.ProductImageService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/menu")
 @RequiredArgsConstructor
 public class MenuController {
 
-    private final CategoryService categoryService;
-    private final ProductService productService;
+    private final MenuCatalog menuCatalog;
+    private final MenuPageValidator menuPageValidator;
+    private final ProductImageService productImageService;
 
     @GetMapping
     public String showMenu(@RequestParam(required = false) Long categoryId,
                           @RequestParam(required = false) String search,
+                          ServletWebRequest request,
                           Model model) {
-        model.addAttribute("categories", categoryService.getActiveCategories());
+        // One snapshot per page, so the sidebar and the products are from the same version
+        MenuSnapshot menu = menuCatalog.getSnapshot();
+        if (menuPageValidator.checkNotModified(request, menu, "menu", categoryId, search)) {
+            return null;
+        }
+        model.addAttribute("categories", menu.getCategories());
         
         if (search != null && !search.isBlank()) {
-            model.addAttribute("products", productService.searchProducts(search));
+            model.addAttribute("products", menu.search(search));
             model.addAttribute("searchKeyword", search);
         } else if (categoryId != null) {
-            model.addAttribute("products", productService.getAvailableProductsByCategory(categoryId));
+            model.addAttribute("products", menu.getProductsByCategory(categoryId));
             model.addAttribute("selectedCategoryId", categoryId);
         } else {
-            model.addAttribute("products", productService.getAvailableProducts());
+            model.addAttribute("products", menu.getProducts());
         }
 
         return "menu";
     }
 
     @GetMapping("/product/{id}")
-    public String showProductDetail(@PathVariable Long id, Model model) {
-        model.addAttribute("product", productService.getProductWithModifiers(id));
-        model.addAttribute("categories", categoryService.getActiveCategories());
+    public String showProductDetail(@PathVariable Long id, ServletWebRequest request, Model model) {
+        MenuSnapshot menu = menuCatalog.getSnapshot();
+        MenuSnapshot.ProductView product = menu.findProduct(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        if (menuPageValidator.checkNotModified(request, menu, "product", id)) {
+            return null;
+        }
+        model.addAttribute("product", product);
+        model.addAttribute("categories", menu.getCategories());
         return "product-detail";
     }
-}
 
+    // Search box suggestions while typing: products whose name has a word starting with q
+    @GetMapping(value = "/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<Map<String, Object>> suggest(@RequestParam(defaultValue = "") String q,
+                                             @RequestParam(defaultValue = "8") int limit) {
+        return menuCatalog.getSnapshot().suggest(q, limit).stream()
+                .map(product -> {
+                    Map<String, Object> suggestion = new LinkedHashMap<>();
+                    suggestion.put("id", product.getId());
+                    suggestion.put("name", product.getName());
+                    suggestion.put("categoryName", product.getCategoryName());
+                    suggestion.put("price", product.getDefaultPrice());
+                    suggestion.put("imageUrl", productImageService.variantUrl(product.getImageUrl(), "thumb"));
+                    return suggestion;
+                })
+                .toList();
+    }
+}
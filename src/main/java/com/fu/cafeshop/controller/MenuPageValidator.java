@@ -0,0 +1,81 @@
+package com.fu.cafeshop.controller;
+
+import com.fu.cafeshop.service.CartService;
+import com.fu.cafeshop.service.MenuSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Conditional GET for the public menu pages.
+ *
+ * <p>A page is rendered from one menu snapshot, its own parameters and the visitor's session
+ * (signed-in user, CSRF token in the forms, cart), so its strong ETag is derived from exactly
+ * those and its Last-Modified is the latest time any of them changed. A request whose copy is
+ * current gets a 304 before a model is built or a template rendered. Responses may only be
+ * cached by the browser and must be revalidated on every use.
+ */
+@Component
+@RequiredArgsConstructor
+class MenuPageValidator {
+
+    // The repository CsrfFilter uses by default; it holds the raw token, the request only a masked one
+    private static final HttpSessionCsrfTokenRepository CSRF_TOKENS = new HttpSessionCsrfTokenRepository();
+
+    private final CartService cartService;
+
+    /**
+     * @param page what selects the content within the menu, e.g. the category or search
+     * @return true when the client's copy is current; the response is then a 304 and the
+     *         handler must return without rendering
+     */
+    boolean checkNotModified(ServletWebRequest webRequest, MenuSnapshot menu, Object... page) {
+        HttpServletRequest request = webRequest.getRequest();
+        HttpServletResponse response = webRequest.getResponse();
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(request);
+        if (flash != null && !flash.isEmpty()) {
+            // A one-off message after a redirect must neither be answered with nor replace the cached copy
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+
+        StringBuilder key = new StringBuilder();
+        for (Object part : page) {
+            key.append(part).append('\n');
+        }
+        Principal principal = request.getUserPrincipal();
+        key.append(principal != null ? principal.getName() : "").append('\n');
+        // Makes sure the token the page will render already exists, so the first ETag is the lasting one
+        CsrfToken requestToken = (CsrfToken) request.getAttribute(CsrfToken.class.getName());
+        if (requestToken != null) {
+            requestToken.getToken();
+        }
+        CsrfToken csrf = CSRF_TOKENS.loadToken(request);
+        key.append(csrf != null ? csrf.getToken() : "").append('\n');
+
+        HttpSession session = request.getSession(false);
+        long lastModified = menu.getBuiltAt().toEpochMilli();
+        if (session != null) {
+            key.append(cartService.getCartItemCount());
+            lastModified = Math.max(lastModified, Math.max(session.getCreationTime(), cartService.getModifiedAt()));
+        }
+        String etag = "\"" + menu.getVersion() + "-"
+                + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return webRequest.checkNotModified(etag, lastModified);
+    }
+}
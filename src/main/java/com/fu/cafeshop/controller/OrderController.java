@@ -1,18 +1,26 @@
 package com.fu.cafeshop.controller;
 
-import com.fu.cafeshop.entity.CafeTable;
-import com.fu.cafeshop.entity.Customer;
 import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderStatus;
 import com.fu.cafeshop.service.CafeTableService;
 import com.fu.cafeshop.service.CartService;
-import com.fu.cafeshop.service.CustomerService;
+import com.fu.cafeshop.service.OrderIntakeRequest;
+import com.fu.cafeshop.service.OrderIntakeService;
 import com.fu.cafeshop.service.OrderService;
+import com.fu.cafeshop.service.OrderStatusChannel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.Map;
+
 @Controller
 @RequestMapping("/order")
 @RequiredArgsConstructor
@@ -20,8 +28,9 @@ public class OrderController {
 
     private final CartService cartService;
     private final OrderService orderService;
-    private final CustomerService customerService;
     private final CafeTableService cafeTableService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderStatusChannel orderStatusChannel;
 
     @GetMapping("/checkout")
     public String checkout(Model model) {
@@ -67,32 +76,24 @@ public class OrderController {
                 }
             }
 
-            // Get the table
-            CafeTable cafeTable = cafeTableService.getTableById(tableId);
-
-            // Create or find customer if info provided
-            Customer customer = null;
-            if ((guestPhone != null && !guestPhone.isBlank()) || 
-                (guestName != null && !guestName.isBlank())) {
-                customer = customerService.createOrUpdateCustomer(guestName, guestPhone, null);
-            }
+            // Validate the table before accepting the order
+            cafeTableService.getTableById(tableId);
 
-            // Create order with table
-            Order order = Order.builder()
-                    .customer(customer)
-                    .cafeTable(cafeTable)
-                    .guestName(customer == null ? guestName : null)
-                    .guestPhone(customer == null ? guestPhone : null)
+            OrderIntakeRequest request = OrderIntakeRequest.builder()
+                    .tableId(tableId)
+                    .guestName(guestName)
+                    .guestPhone(guestPhone)
                     .customerNotes(customerNotes)
+                    .cartItems(cartService.toOrderCartItems())
                     .build();
 
-            Order savedOrder = orderService.createOrder(order, cartService.toOrderCartItems());
+            String orderNumber = orderIntakeService.submit(request);
 
             // Clear cart after successful order
             cartService.clearCart();
 
             redirectAttributes.addFlashAttribute("success", "Đặt hàng thành công!");
-            return "redirect:/order/status/" + savedOrder.getOrderNumber();
+            return "redirect:/order/status/" + orderNumber;
 
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Lỗi đặt hàng: " + e.getMessage());
@@ -105,13 +106,37 @@ public class OrderController {
         try {
             Order order = orderService.getOrderByNumber(orderNumber);
             model.addAttribute("order", order);
+            model.addAttribute("liveUpdates", !OrderStatusChannel.FINAL_STATUSES.contains(order.getStatus()));
             return "order-status";
         } catch (Exception e) {
-            model.addAttribute("error", "Không tìm thấy đơn hàng: " + orderNumber);
+            if (orderIntakeService.isPending(orderNumber)) {
+                model.addAttribute("queuedOrderNumber", orderNumber);
+                model.addAttribute("liveUpdates", true);
+            } else {
+                model.addAttribute("error", "Không tìm thấy đơn hàng: " + orderNumber);
+            }
             return "order-status";
         }
     }
 
+    @GetMapping(value = "/status/{orderNumber}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter orderStatusEvents(@PathVariable String orderNumber) {
+        requireKnownOrder(orderNumber);
+        return orderStatusChannel.stream(orderNumber,
+                () -> orderService.findStatusByNumber(orderNumber).orElse(null));
+    }
+
+    // For browsers or proxies that cannot keep an event stream open
+    @GetMapping(value = "/status/{orderNumber}/poll", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public DeferredResult<Map<String, Object>> pollOrderStatus(@PathVariable String orderNumber,
+                                                               @RequestParam(required = false) OrderStatus since) {
+        requireKnownOrder(orderNumber);
+        return orderStatusChannel.poll(orderNumber, since,
+                () -> orderService.findStatusByNumber(orderNumber).orElse(null));
+    }
+
     @GetMapping("/track")
     public String trackOrder(@RequestParam(required = false) String orderNumber, Model model) {
         if (orderNumber != null && !orderNumber.isBlank()) {
@@ -125,6 +150,12 @@ public class OrderController {
         return "order-track";
     }
 
+    private void requireKnownOrder(String orderNumber) {
+        if (!orderIntakeService.isPending(orderNumber) && orderService.findStatusByNumber(orderNumber).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
     @ModelAttribute("cartItemCount")
     public int cartItemCount() {
         return cartService.getCartItemCount();
@@ -1,12 +1,27 @@
 package com.fu.cafeshop.controller;
 
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.service.ActiveOrderBoard;
 import com.fu.cafeshop.service.OrderService;
-import com.fu.cafeshop.service.ReportService;
+import com.fu.cafeshop.service.RejectedOrderService;
+import com.fu.cafeshop.service.StaffEventBroadcaster;
+import com.fu.cafeshop.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
 @RequestMapping("/staff")
@@ -14,31 +29,70 @@ import org.springframework.web.bind.annotation.RequestMapping;
 public class StaffDashboardController {
 
     private final OrderService orderService;
-    private final ReportService reportService;
+    private final ActiveOrderBoard activeOrderBoard;
+    private final StaffEventBroadcaster staffEventBroadcaster;
+    private final RejectedOrderService rejectedOrderService;
+    private final UserService userService;
 
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
+        // Taken before reading the board so nothing published while rendering is missed
+        model.addAttribute("lastEventId", staffEventBroadcaster.getLastEventId());
+
         // Active orders for staff to process
-        model.addAttribute("pendingOrders", orderService.getOrdersByStatus("PENDING"));
-        model.addAttribute("approvedOrders", orderService.getOrdersByStatus("APPROVED"));
-        model.addAttribute("cookingOrders", orderService.getOrdersByStatus("COOKING"));
-        
-        // Stats
-        model.addAttribute("stats", reportService.getDashboardStats());
-        
+        model.addAttribute("pendingOrders", activeOrderBoard.getOrders(OrderStatus.PENDING));
+        model.addAttribute("approvedOrders", activeOrderBoard.getOrders(OrderStatus.APPROVED));
+        model.addAttribute("cookingOrders", activeOrderBoard.getOrders(OrderStatus.COOKING));
+        model.addAttribute("rejectedOrderCount", rejectedOrderService.countUnresolved());
+
         return "staff/dashboard";
     }
 
+    // Single card, fetched by the dashboard when an event says the order changed
+    @GetMapping("/dashboard/orders/{id}")
+    public String dashboardCard(@PathVariable Long id, Model model) {
+        model.addAttribute("order", activeOrderBoard.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+        return "staff/dashboard :: orderCard(order=${order})";
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter events(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(name = "lastEventId", required = false) String lastEventId) {
+        // The header is set by the browser on reconnect; the parameter comes from the rendered page
+        return staffEventBroadcaster.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
     @GetMapping("/orders")
     public String allOrders(Model model) {
-        model.addAttribute("orders", orderService.getActiveOrders());
+        model.addAttribute("orders", activeOrderBoard.getActiveOrders());
         return "staff/orders";
     }
 
     @GetMapping("/completed")
     public String completedOrders(Model model) {
-        model.addAttribute("orders", orderService.getOrdersByStatus("DONE"));
+        model.addAttribute("orders", orderService.getOrderSummaries(OrderStatus.DONE));
         return "staff/completed";
     }
-}
 
+    // Queued checkouts that could not be written as orders; the customer was already given the number
+    @GetMapping("/rejected-orders")
+    public String rejectedOrders(Model model) {
+        model.addAttribute("rejectedOrders", rejectedOrderService.getUnresolved());
+        return "staff/rejected-orders";
+    }
+
+    @PostMapping("/rejected-orders/{id}/resolve")
+    public String resolveRejectedOrder(@PathVariable Long id,
+                                       Authentication authentication,
+                                       RedirectAttributes redirectAttributes) {
+        try {
+            rejectedOrderService.resolve(id, userService.getUserByUsername(authentication.getName()));
+            redirectAttributes.addFlashAttribute("success", "Đã đánh dấu xử lý xong!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Lỗi: " + e.getMessage());
+        }
+        return "redirect:/staff/rejected-orders";
+    }
+}
@@ -0,0 +1,52 @@
+package com.fu.cafeshop.controller;
+
+import com.fu.cafeshop.service.InvoicePdfService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@Controller
+@RequestMapping("/staff/invoices")
+@RequiredArgsConstructor
+public class StaffInvoiceController {
+
+    private final InvoicePdfService invoicePdfService;
+
+    /**
+     * Streams a stored invoice PDF straight from the file channel to the response.
+     * Files are content-addressed, so the browser may cache them indefinitely.
+     */
+    @GetMapping("/{key}.pdf")
+    public void downloadPdf(@PathVariable String key, HttpServletResponse response) throws IOException {
+        Path path = invoicePdfService.findPdf(key)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setContentLengthLong(size);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + key + ".pdf\"");
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
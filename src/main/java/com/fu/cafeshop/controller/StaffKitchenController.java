@@ -0,0 +1,67 @@
+package com.fu.cafeshop.controller;
+
+import com.fu.cafeshop.entity.KitchenStation;
+import com.fu.cafeshop.entity.User;
+import com.fu.cafeshop.service.KitchenDisplayService;
+import com.fu.cafeshop.service.StaffEventBroadcaster;
+import com.fu.cafeshop.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+@Controller
+@RequestMapping("/staff/kitchen")
+@RequiredArgsConstructor
+public class StaffKitchenController {
+
+    private final KitchenDisplayService kitchenDisplayService;
+    private final StaffEventBroadcaster staffEventBroadcaster;
+    private final UserService userService;
+
+    @GetMapping
+    public String kitchen() {
+        return "redirect:/staff/kitchen/" + KitchenStation.BAR.name().toLowerCase();
+    }
+
+    @GetMapping("/{station}")
+    public String station(@PathVariable String station, Model model) {
+        KitchenStation current = parseStation(station);
+        model.addAttribute("lastEventId", staffEventBroadcaster.getLastEventId());
+        model.addAttribute("station", current);
+        model.addAttribute("stations", KitchenStation.values());
+        model.addAttribute("queueSizes", kitchenDisplayService.getQueueSizes());
+        model.addAttribute("tickets", kitchenDisplayService.getQueue(current));
+        return "staff/kitchen";
+    }
+
+    @PostMapping("/{station}/items/{itemId}/ready")
+    public String markReady(@PathVariable String station,
+                            @PathVariable Long itemId,
+                            Authentication authentication,
+                            RedirectAttributes redirectAttributes) {
+        try {
+            User staff = userService.getUserByUsername(authentication.getName());
+            if (kitchenDisplayService.markReady(itemId, staff)) {
+                redirectAttributes.addFlashAttribute("success", "Món cuối cùng đã xong, đơn hàng hoàn thành!");
+            } else {
+                redirectAttributes.addFlashAttribute("success", "Món đã xong!");
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Lỗi: " + e.getMessage());
+        }
+        return "redirect:/staff/kitchen/" + parseStation(station).name().toLowerCase();
+    }
+
+    private KitchenStation parseStation(String station) {
+        try {
+            return KitchenStation.valueOf(station.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+}
@@ -2,17 +2,25 @@ package com.fu.cafeshop.controller;
 
 import com.fu.cafeshop.entity.Invoice;
 import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderStatus;
 import com.fu.cafeshop.entity.User;
+import com.fu.cafeshop.service.InvoicePdfService;
 import com.fu.cafeshop.service.InvoiceService;
 import com.fu.cafeshop.service.OrderService;
 import com.fu.cafeshop.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Controller
 @RequestMapping("/staff/order")
 @RequiredArgsConstructor
@@ -20,9 +28,10 @@ public class StaffOrderController {
 
     private final OrderService orderService;
     private final InvoiceService invoiceService;
+    private final InvoicePdfService invoicePdfService;
     private final UserService userService;
 
-    @GetMapping("/{id}")
+    @GetMapping("/{id:\\d+}")
     public String viewOrder(@PathVariable Long id, Model model) {
         Order order = orderService.getOrderWithItems(id);
         model.addAttribute("order", order);
@@ -30,13 +39,13 @@ public class StaffOrderController {
         return "staff/order-detail";
     }
 
-    @PostMapping("/{id}/approve")
+    @PostMapping("/{id:\\d+}/approve")
     public String approveOrder(@PathVariable Long id,
                               Authentication authentication,
                               RedirectAttributes redirectAttributes) {
         try {
             User staff = userService.getUserByUsername(authentication.getName());
-            orderService.updateOrderStatus(id, "APPROVED", staff);
+            orderService.updateOrderStatus(id, OrderStatus.APPROVED, staff);
             redirectAttributes.addFlashAttribute("success", "Đơn hàng đã được xác nhận!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Lỗi: " + e.getMessage());
@@ -44,7 +53,7 @@ public class StaffOrderController {
         return "redirect:/staff/dashboard";
     }
 
-    @PostMapping("/{id}/reject")
+    @PostMapping("/{id:\\d+}/reject")
     public String rejectOrder(@PathVariable Long id,
                              RedirectAttributes redirectAttributes) {
         try {
@@ -56,13 +65,13 @@ public class StaffOrderController {
         return "redirect:/staff/dashboard";
     }
 
-    @PostMapping("/{id}/cooking")
+    @PostMapping("/{id:\\d+}/cooking")
     public String startCooking(@PathVariable Long id,
                               Authentication authentication,
                               RedirectAttributes redirectAttributes) {
         try {
             User staff = userService.getUserByUsername(authentication.getName());
-            orderService.updateOrderStatus(id, "COOKING", staff);
+            orderService.updateOrderStatus(id, OrderStatus.COOKING, staff);
             redirectAttributes.addFlashAttribute("success", "Bắt đầu pha chế!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Lỗi: " + e.getMessage());
@@ -70,13 +79,13 @@ public class StaffOrderController {
         return "redirect:/staff/dashboard";
     }
 
-    @PostMapping("/{id}/done")
+    @PostMapping("/{id:\\d+}/done")
     public String completeOrder(@PathVariable Long id,
                                Authentication authentication,
                                RedirectAttributes redirectAttributes) {
         try {
             User staff = userService.getUserByUsername(authentication.getName());
-            orderService.updateOrderStatus(id, "DONE", staff);
+            orderService.updateOrderStatus(id, OrderStatus.DONE, staff);
             redirectAttributes.addFlashAttribute("success", "Đơn hàng hoàn thành!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Lỗi: " + e.getMessage());
@@ -84,21 +93,105 @@ public class StaffOrderController {
         return "redirect:/staff/dashboard";
     }
 
-    @GetMapping("/{id}/invoice")
+    @PostMapping("/{id:\\d+}/refund")
+    public String refundOrder(@PathVariable Long id,
+                              Authentication authentication,
+                              RedirectAttributes redirectAttributes) {
+        try {
+            User staff = userService.getUserByUsername(authentication.getName());
+            orderService.updateOrderStatus(id, OrderStatus.REFUNDED, staff);
+            redirectAttributes.addFlashAttribute("success", "Đã hoàn tiền đơn hàng!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Lỗi: " + e.getMessage());
+        }
+        return "redirect:/staff/order/" + id;
+    }
+
+    @PostMapping(value = "/bulk/{action}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<OrderService.StatusChange> bulkUpdateStatusJson(@PathVariable String action,
+                                                                @RequestParam(name = "orderIds", required = false) List<Long> orderIds,
+                                                                Authentication authentication) {
+        User staff = userService.getUserByUsername(authentication.getName());
+        return orderService.bulkUpdateStatus(orderIds, bulkTargetStatus(action), staff);
+    }
+
+    @PostMapping("/bulk/{action}")
+    public String bulkUpdateStatus(@PathVariable String action,
+                                   @RequestParam(name = "orderIds", required = false) List<Long> orderIds,
+                                   Authentication authentication,
+                                   RedirectAttributes redirectAttributes) {
+        OrderStatus targetStatus = bulkTargetStatus(action);
+        if (orderIds == null || orderIds.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Vui lòng chọn ít nhất một đơn hàng");
+            return "redirect:/staff/dashboard";
+        }
+        try {
+            User staff = userService.getUserByUsername(authentication.getName());
+            List<OrderService.StatusChange> results = orderService.bulkUpdateStatus(orderIds, targetStatus, staff);
+
+            long applied = results.stream().filter(OrderService.StatusChange::isApplied).count();
+            redirectAttributes.addFlashAttribute("success", "Đã cập nhật " + applied + "/" + results.size() + " đơn hàng");
+            String failures = results.stream()
+                    .filter(result -> !result.isApplied())
+                    .map(result -> (result.getOrderNumber() != null ? result.getOrderNumber() : "#" + result.getOrderId())
+                            + ": " + result.getMessage())
+                    .collect(Collectors.joining("; "));
+            if (!failures.isEmpty()) {
+                redirectAttributes.addFlashAttribute("error", failures);
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Lỗi: " + e.getMessage());
+        }
+        return "redirect:/staff/dashboard";
+    }
+
+    private OrderStatus bulkTargetStatus(String action) {
+        return switch (action) {
+            case "approve" -> OrderStatus.APPROVED;
+            case "cooking" -> OrderStatus.COOKING;
+            case "done" -> OrderStatus.DONE;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown bulk action: " + action);
+        };
+    }
+
+    @GetMapping("/{id:\\d+}/invoice")
     public String viewInvoice(@PathVariable Long id,
                              Authentication authentication,
                              Model model) {
         Order order = orderService.getOrderWithItems(id);
-        User staff = userService.getUserByUsername(authentication.getName());
-        
-        Invoice invoice = invoiceService.printInvoice(id, staff);
-        
+
+        // Viewing is read-only; print info is only recorded by the print action
+        Invoice invoice = invoiceService.getInvoiceByOrderId(id);
+        if (invoice == null) {
+            User staff = userService.getUserByUsername(authentication.getName());
+            invoice = invoiceService.createInvoice(id, staff);
+        }
+
         model.addAttribute("order", order);
         model.addAttribute("invoice", invoice);
         return "staff/invoice";
     }
 
-    @PostMapping("/{id}/print")
+    @GetMapping("/{id:\\d+}/invoice/pdf")
+    public String downloadInvoicePdf(@PathVariable Long id,
+                                     Authentication authentication,
+                                     RedirectAttributes redirectAttributes) {
+        Invoice invoice = invoiceService.getInvoiceByOrderId(id);
+        if (invoice == null) {
+            User staff = userService.getUserByUsername(authentication.getName());
+            invoice = invoiceService.createInvoice(id, staff);
+        }
+        if (invoice.getPdfUrl() != null) {
+            return "redirect:" + invoice.getPdfUrl();
+        }
+
+        invoicePdfService.enqueue(invoice.getId());
+        redirectAttributes.addFlashAttribute("error", "Hóa đơn PDF đang được tạo, vui lòng thử lại sau giây lát.");
+        return "redirect:/staff/order/" + id + "/invoice";
+    }
+
+    @PostMapping("/{id:\\d+}/print")
     public String printInvoice(@PathVariable Long id,
                               Authentication authentication,
                               RedirectAttributes redirectAttributes) {
@@ -0,0 +1,23 @@
+package com.fu.cafeshop.dto;
+
+import com.fu.cafeshop.entity.KitchenStation;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * One order item waiting at a kitchen station.
+ */
+@Value
+public class KitchenTicket {
+    Long itemId;
+    Long orderId;
+    String orderNumber;
+    Integer tableNumber;
+    String productName;
+    Integer quantity;
+    String notes;
+    KitchenStation station;
+    LocalDateTime orderedAt;
+    LocalDateTime estimatedCompletionTime;
+}
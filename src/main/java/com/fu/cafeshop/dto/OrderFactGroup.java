@@ -0,0 +1,23 @@
+package com.fu.cafeshop.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * One group of an order fact query; see {@code OrderFactQuery.Dimension} for what the key is.
+ */
+@Value
+public class OrderFactGroup {
+    long key;
+    long items;
+    long orders;
+    long quantity;
+    BigDecimal revenue;
+    /** Quantity of items ordered with at least one modifier. */
+    long quantityWithModifiers;
+
+    public double getModifierAttachRate() {
+        return quantity == 0 ? 0 : (double) quantityWithModifiers / quantity;
+    }
+}
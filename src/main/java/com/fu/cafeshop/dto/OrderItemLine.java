@@ -0,0 +1,13 @@
+package com.fu.cafeshop.dto;
+
+import lombok.Value;
+
+/**
+ * One item line of an order, loaded for many orders at once by order id.
+ */
+@Value
+public class OrderItemLine {
+    Long orderId;
+    String productName;
+    Integer quantity;
+}
@@ -0,0 +1,35 @@
+package com.fu.cafeshop.dto;
+
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.OrderStatus;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order header for list pages, selected with a JPQL constructor expression so no
+ * entities, items or associations are loaded.
+ */
+@Value
+public class OrderSummary {
+    Long id;
+    String orderNumber;
+    OrderStatus status;
+    Integer tableNumber;
+    String guestName;
+    String guestPhone;
+    String customerName;
+    Money totalAmount;
+    Integer itemCount;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    LocalDateTime actualCompletionTime;
+
+    public String getStatusDisplay() {
+        return status.getLabel();
+    }
+
+    public String getStatusBadgeClass() {
+        return status.getBadgeClass();
+    }
+}
@@ -0,0 +1,37 @@
+package com.fu.cafeshop.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Approximate sales figures of one sliding window, read from the analytics sketches.
+ * Percentiles are null while the window has no orders.
+ */
+@Value
+public class SalesAnalyticsView {
+    String window;
+    long orders;
+    long distinctCustomers;
+    List<TopProduct> topProducts;
+    Double orderValueP50;
+    Double orderValueP90;
+    Double orderValueP99;
+    Double prepMinutesP50;
+    Double prepMinutesP90;
+    Double prepMinutesP99;
+    LocalDateTime computedAt;
+
+    /**
+     * A best seller with its estimated quantity; the true quantity is at most
+     * {@code error} lower.
+     */
+    @Value
+    public static class TopProduct {
+        Long productId;
+        String productName;
+        long quantity;
+        long error;
+    }
+}
@@ -24,11 +24,17 @@ public class Category {
     private String description;
 
     @Column(name = "display_order")
+    @Builder.Default
     private Integer displayOrder = 0;
 
     @Column(name = "is_active")
+    @Builder.Default
     private Boolean isActive = true;
 
+    @Column(name = "station_code", nullable = false)
+    @Builder.Default
+    private KitchenStation station = KitchenStation.BAR;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -48,6 +54,9 @@ public class Category {
         if (displayOrder == null) {
             displayOrder = 0;
         }
+        if (station == null) {
+            station = KitchenStation.BAR;
+        }
     }
 
     @PreUpdate
@@ -0,0 +1,50 @@
+package com.fu.cafeshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Quantity, revenue and cost of one product on one day (by order date), counting completed
+ * orders only. Cost uses the product's cost price when the order completed, kept on each
+ * order item so a later refund takes out the same amount.
+ */
+@Entity
+@Table(name = "daily_product_sales",
+        uniqueConstraints = @UniqueConstraint(name = "UQ_daily_product_sales", columnNames = {"sales_date", "product_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyProductSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_name", nullable = false, length = 150)
+    private String productName;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long quantity = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal cost = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.fu.cafeshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Completed orders and revenue of one day (by order date), maintained as orders complete or
+ * are reversed. Rebuilt from {@code orders} by {@code SalesRollupService#rebuild}.
+ */
+@Entity
+@Table(name = "daily_sales")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false, unique = true)
+    private LocalDate salesDate;
+
+    @Column(name = "order_count", nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.fu.cafeshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Fallback block counter for databases where the native sequences
+ * (seq_order_number, seq_invoice_number) are not available.
+ */
+@Entity
+@Table(name = "document_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentSequence {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,35 @@
+package com.fu.cafeshop.entity;
+
+/**
+ * Where a category's items are prepared. Stored as a one-byte code
+ * ({@code categories.station_code}); the codes are persisted and must never be reused.
+ */
+public enum KitchenStation {
+    BAR(1, "Quầy pha chế"),
+    KITCHEN(2, "Bếp");
+
+    private final byte code;
+    private final String label;
+
+    KitchenStation(int code, String label) {
+        this.code = (byte) code;
+        this.label = label;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static KitchenStation fromCode(byte code) {
+        for (KitchenStation station : values()) {
+            if (station.code == code) {
+                return station;
+            }
+        }
+        throw new IllegalArgumentException("Unknown kitchen station code: " + code);
+    }
+}
@@ -0,0 +1,18 @@
+package com.fu.cafeshop.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class KitchenStationConverter implements AttributeConverter<KitchenStation, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(KitchenStation station) {
+        return station != null ? station.getCode() : null;
+    }
+
+    @Override
+    public KitchenStation convertToEntityAttribute(Byte code) {
+        return code != null ? KitchenStation.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,134 @@
+package com.fu.cafeshop.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of VND held as a {@code long} count of hundredths, matching the scale of the
+ * DECIMAL(12,2) money columns. Immutable. Arithmetic throws {@link ArithmeticException} on
+ * overflow instead of wrapping.
+ *
+ * <p>It is a {@link Number} so templates can pass it to {@code #numbers.formatDecimal} and compare
+ * it with literals like any other amount. In JSON it is a plain decimal number.
+ */
+public final class Money extends Number implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+    private static final long MINOR_PER_UNIT = 100;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public static Money of(long units) {
+        return ofMinor(Math.multiplyExact(units, MINOR_PER_UNIT));
+    }
+
+    /**
+     * @throws ArithmeticException if {@code amount} has more than two decimals or does not fit
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return ofMinor(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Null is treated as zero, as the nullable money columns are.
+     */
+    public static Money orZero(Money amount) {
+        return amount != null ? amount : ZERO;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return quantity == 1 ? this : ofMinor(Math.multiplyExact(minorUnits, quantity));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    /**
+     * Whole dong, truncated toward zero.
+     */
+    @Override
+    public long longValue() {
+        return minorUnits / MINOR_PER_UNIT;
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return minorUnits / (double) MINOR_PER_UNIT;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * The amount as a plain decimal with two places, e.g. {@code 35000.00}.
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -2,7 +2,6 @@ package com.fu.cafeshop.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,7 +15,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "seq_orders_id", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_number", nullable = false, unique = true, length = 50)
@@ -36,20 +36,20 @@ public class Order {
     @Column(name = "guest_phone", length = 20)
     private String guestPhone;
 
-    @Column(nullable = false, length = 20)
-    private String status; // PENDING, APPROVED, COOKING, IN_PROGRESS, DONE, CANCELLED, REFUNDED
+    @Column(name = "status_code", nullable = false)
+    private OrderStatus status;
 
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal subtotal = BigDecimal.ZERO;
+    private Money subtotal = Money.ZERO;
 
     @Column(name = "tax_amount", nullable = false, precision = 12, scale = 2)
-    private BigDecimal taxAmount = BigDecimal.ZERO;
+    private Money taxAmount = Money.ZERO;
 
     @Column(name = "discount_amount", nullable = false, precision = 12, scale = 2)
-    private BigDecimal discountAmount = BigDecimal.ZERO;
+    private Money discountAmount = Money.ZERO;
 
     @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
-    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private Money totalAmount = Money.ZERO;
 
     @Column(name = "customer_notes", length = 1000)
     private String customerNotes;
@@ -74,21 +74,26 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // The children point back at the order, so they stay out of the generated equals, hashCode and toString
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @Builder.Default
     private List<OrderItem> orderItems = new ArrayList<>();
 
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Payment payment;
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        if (createdAt == null) createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        if (subtotal == null) subtotal = BigDecimal.ZERO;
-        if (taxAmount == null) taxAmount = BigDecimal.ZERO;
-        if (discountAmount == null) discountAmount = BigDecimal.ZERO;
-        if (totalAmount == null) totalAmount = BigDecimal.ZERO;
+        if (subtotal == null) subtotal = Money.ZERO;
+        if (taxAmount == null) taxAmount = Money.ZERO;
+        if (discountAmount == null) discountAmount = Money.ZERO;
+        if (totalAmount == null) totalAmount = Money.ZERO;
     }
 
     @PreUpdate
@@ -97,36 +102,20 @@ public class Order {
     }
 
     public String getStatusDisplay() {
-        return switch (status) {
-            case "PENDING" -> "Chờ xác nhận";
-            case "APPROVED" -> "Đã xác nhận";
-            case "COOKING" -> "Đang pha chế";
-            case "IN_PROGRESS" -> "Đang xử lý";
-            case "DONE" -> "Hoàn thành";
-            case "CANCELLED" -> "Đã hủy";
-            case "REFUNDED" -> "Đã hoàn tiền";
-            default -> status;
-        };
+        return status != null ? status.getLabel() : null;
     }
 
     public String getStatusBadgeClass() {
-        return switch (status) {
-            case "PENDING" -> "bg-yellow-100 text-yellow-800";
-            case "APPROVED" -> "bg-blue-100 text-blue-800";
-            case "COOKING" -> "bg-orange-100 text-orange-800";
-            case "IN_PROGRESS" -> "bg-purple-100 text-purple-800";
-            case "DONE" -> "bg-green-100 text-green-800";
-            case "CANCELLED" -> "bg-red-100 text-red-800";
-            case "REFUNDED" -> "bg-gray-100 text-gray-800";
-            default -> "bg-gray-100 text-gray-800";
-        };
+        return status != null ? status.getBadgeClass() : "bg-gray-100 text-gray-800";
     }
 
     public void calculateTotals() {
-        this.subtotal = orderItems.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        this.totalAmount = this.subtotal.add(this.taxAmount).subtract(this.discountAmount);
+        long subtotalMinor = 0;
+        for (OrderItem item : orderItems) {
+            subtotalMinor = Math.addExact(subtotalMinor, item.getTotalPrice().getMinorUnits());
+        }
+        this.subtotal = Money.ofMinor(subtotalMinor);
+        this.totalAmount = this.subtotal.plus(this.taxAmount).minus(this.discountAmount);
     }
 }
 
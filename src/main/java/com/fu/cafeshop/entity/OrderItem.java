@@ -16,7 +16,8 @@ import java.util.List;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "seq_order_items_id", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -34,13 +35,17 @@ public class OrderItem {
     private Integer quantity;
 
     @Column(name = "unit_price", nullable = false, precision = 12, scale = 2)
-    private BigDecimal unitPrice; // price at time of order (base)
+    private Money unitPrice; // price at time of order (base)
 
     @Column(name = "modifiers_price", precision = 12, scale = 2)
-    private BigDecimal modifiersPrice = BigDecimal.ZERO;
+    private Money modifiersPrice = Money.ZERO;
 
     @Column(name = "total_price", nullable = false, precision = 12, scale = 2)
-    private BigDecimal totalPrice;
+    private Money totalPrice;
+
+    // Product cost price when the order completed; written only by OrderItemRepository#recordUnitCost
+    @Column(name = "unit_cost", precision = 12, scale = 2, insertable = false, updatable = false)
+    private BigDecimal unitCost;
 
     @Column(name = "customization_notes", length = 500)
     private String customizationNotes;
@@ -48,20 +53,25 @@ public class OrderItem {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Set when the preparing station marks the item ready
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
     @OneToMany(mappedBy = "orderItem", cascade = CascadeType.ALL, orphanRemoval = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @Builder.Default
     private List<OrderItemModifier> itemModifiers = new ArrayList<>();
 
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        if (modifiersPrice == null) modifiersPrice = BigDecimal.ZERO;
+        if (modifiersPrice == null) modifiersPrice = Money.ZERO;
         calculateTotalPrice();
     }
 
     public void calculateTotalPrice() {
-        BigDecimal itemTotal = unitPrice.add(modifiersPrice);
-        this.totalPrice = itemTotal.multiply(new BigDecimal(quantity));
+        this.totalPrice = unitPrice.plus(modifiersPrice).times(quantity);
     }
 }
 
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class OrderItemModifier {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_modifiers_seq")
+    @SequenceGenerator(name = "order_item_modifiers_seq", sequenceName = "seq_order_item_modifiers_id", allocationSize = 50)
     private Long id;
 
     @ManyToOne
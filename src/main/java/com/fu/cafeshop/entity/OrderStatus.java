@@ -0,0 +1,90 @@
+package com.fu.cafeshop.entity;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order lifecycle. Stored as a one-byte code ({@code orders.status_code}); the codes are
+ * persisted and must never be reused or renumbered.
+ */
+public enum OrderStatus {
+    PENDING(1, "Chờ xác nhận", "bg-yellow-100 text-yellow-800"),
+    APPROVED(2, "Đã xác nhận", "bg-blue-100 text-blue-800"),
+    COOKING(3, "Đang pha chế", "bg-orange-100 text-orange-800"),
+    IN_PROGRESS(4, "Đang xử lý", "bg-purple-100 text-purple-800"),
+    DONE(5, "Hoàn thành", "bg-green-100 text-green-800"),
+    CANCELLED(6, "Đã hủy", "bg-red-100 text-red-800"),
+    REFUNDED(7, "Đã hoàn tiền", "bg-gray-100 text-gray-800");
+
+    private static final OrderStatus[] BY_CODE = new OrderStatus[8];
+    private static final Map<OrderStatus, Set<OrderStatus>> NEXT = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, Set<OrderStatus>> PREVIOUS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        for (OrderStatus status : values()) {
+            BY_CODE[status.code] = status;
+            NEXT.put(status, EnumSet.noneOf(OrderStatus.class));
+            PREVIOUS.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        allow(PENDING, APPROVED, CANCELLED);
+        allow(APPROVED, COOKING, CANCELLED);
+        allow(COOKING, DONE, IN_PROGRESS);
+        allow(IN_PROGRESS, DONE);
+        allow(DONE, REFUNDED);
+        for (OrderStatus status : values()) {
+            NEXT.put(status, Collections.unmodifiableSet(NEXT.get(status)));
+            PREVIOUS.put(status, Collections.unmodifiableSet(PREVIOUS.get(status)));
+        }
+    }
+
+    private final byte code;
+    private final String label;
+    private final String badgeClass;
+
+    OrderStatus(int code, String label, String badgeClass) {
+        this.code = (byte) code;
+        this.label = label;
+        this.badgeClass = badgeClass;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getBadgeClass() {
+        return badgeClass;
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return NEXT.get(this).contains(target);
+    }
+
+    /**
+     * Statuses from which an order may move to {@code target}.
+     */
+    public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+        return PREVIOUS.get(target);
+    }
+
+    public static OrderStatus fromCode(byte code) {
+        OrderStatus status = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown order status code: " + code);
+        }
+        return status;
+    }
+
+    private static void allow(OrderStatus from, OrderStatus... targets) {
+        for (OrderStatus target : targets) {
+            NEXT.get(from).add(target);
+            PREVIOUS.get(target).add(from);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.fu.cafeshop.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class OrderStatusConverter implements AttributeConverter<OrderStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(OrderStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public OrderStatus convertToEntityAttribute(Byte code) {
+        return code != null ? OrderStatus.fromCode(code) : null;
+    }
+}
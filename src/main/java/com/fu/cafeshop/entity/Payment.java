@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "seq_payments_id", allocationSize = 50)
     private Long id;
 
     @OneToOne
@@ -27,8 +28,8 @@ public class Payment {
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal amount;
 
-    @Column(nullable = false, length = 20)
-    private String status; // PENDING, COMPLETED, FAILED, CANCELLED, REFUNDED
+    @Column(name = "status_code", nullable = false)
+    private PaymentStatus status;
 
     @Column(name = "transaction_id", length = 200)
     private String transactionId;
@@ -58,14 +59,7 @@ public class Payment {
     }
 
     public String getStatusDisplay() {
-        return switch (status) {
-            case "PENDING" -> "Chờ thanh toán";
-            case "COMPLETED" -> "Đã thanh toán";
-            case "FAILED" -> "Thất bại";
-            case "CANCELLED" -> "Đã hủy";
-            case "REFUNDED" -> "Đã hoàn tiền";
-            default -> status;
-        };
+        return status != null ? status.getLabel() : null;
     }
 
     public String getPaymentMethodDisplay() {
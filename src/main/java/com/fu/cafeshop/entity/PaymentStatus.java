@@ -0,0 +1,45 @@
+package com.fu.cafeshop.entity;
+
+/**
+ * Payment state. Stored as a one-byte code ({@code payments.status_code}); the codes are
+ * persisted and must never be reused or renumbered.
+ */
+public enum PaymentStatus {
+    PENDING(1, "Chờ thanh toán"),
+    COMPLETED(2, "Đã thanh toán"),
+    FAILED(3, "Thất bại"),
+    CANCELLED(4, "Đã hủy"),
+    REFUNDED(5, "Đã hoàn tiền");
+
+    private static final PaymentStatus[] BY_CODE = new PaymentStatus[6];
+
+    static {
+        for (PaymentStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final byte code;
+    private final String label;
+
+    PaymentStatus(int code, String label) {
+        this.code = (byte) code;
+        this.label = label;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static PaymentStatus fromCode(byte code) {
+        PaymentStatus status = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown payment status code: " + code);
+        }
+        return status;
+    }
+}
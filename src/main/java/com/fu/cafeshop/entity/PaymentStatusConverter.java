@@ -0,0 +1,18 @@
+package com.fu.cafeshop.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class PaymentStatusConverter implements AttributeConverter<PaymentStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(PaymentStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public PaymentStatus convertToEntityAttribute(Byte code) {
+        return code != null ? PaymentStatus.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.fu.cafeshop.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A journaled checkout the intake writer could not turn into an order. The customer already
+ * holds the order number, so staff follow up from the raw payload and mark it resolved.
+ */
+@Entity
+@Table(name = "rejected_orders")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RejectedOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Null when the journal record could not even be read
+    @Column(name = "order_number", length = 50)
+    private String orderNumber;
+
+    @Column(name = "guest_name", length = 100)
+    private String guestName;
+
+    @Column(name = "guest_phone", length = 20)
+    private String guestPhone;
+
+    @Column(nullable = false, length = 1000)
+    private String reason;
+
+    @Column(nullable = false, length = 100000)
+    private String payload;
+
+    @Column(name = "rejected_at")
+    private LocalDateTime rejectedAt;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    @ManyToOne
+    @JoinColumn(name = "resolved_by_user_id")
+    private User resolvedBy;
+
+    @PrePersist
+    protected void onCreate() {
+        rejectedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.fu.cafeshop.event;
+
+/**
+ * Published when a category is saved for the first time. Listeners run after the transaction
+ * commits.
+ */
+public record CategoryCreatedEvent(Long categoryId) {
+}
@@ -0,0 +1,7 @@
+package com.fu.cafeshop.event;
+
+/**
+ * Published when a new invoice row is saved. Listeners run after the transaction commits.
+ */
+public record InvoiceCreatedEvent(Long invoiceId, Long orderId) {
+}
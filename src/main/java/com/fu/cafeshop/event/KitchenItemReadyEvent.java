@@ -0,0 +1,9 @@
+package com.fu.cafeshop.event;
+
+import com.fu.cafeshop.entity.KitchenStation;
+
+/**
+ * Published when a station marks an order item ready. Listeners run after the transaction commits.
+ */
+public record KitchenItemReadyEvent(Long itemId, Long orderId, KitchenStation station) {
+}
@@ -0,0 +1,8 @@
+package com.fu.cafeshop.event;
+
+/**
+ * Published when anything shown on the public menu changed: a product, a modifier or a
+ * category. Listeners run after the transaction commits.
+ */
+public record MenuChangedEvent() {
+}
@@ -0,0 +1,7 @@
+package com.fu.cafeshop.event;
+
+/**
+ * Published when an order is saved. Listeners run after the transaction commits.
+ */
+public record OrderCreatedEvent(Long orderId, String orderNumber) {
+}
@@ -0,0 +1,10 @@
+package com.fu.cafeshop.event;
+
+import com.fu.cafeshop.entity.OrderStatus;
+
+/**
+ * Published when an order moves between statuses. Listeners run after the transaction commits.
+ */
+public record OrderStatusChangedEvent(Long orderId, String orderNumber, OrderStatus previousStatus,
+                                      OrderStatus status) {
+}
@@ -0,0 +1,8 @@
+package com.fu.cafeshop.event;
+
+/**
+ * Published when a product is created available, or becomes available or unavailable. Listeners
+ * run after the transaction commits.
+ */
+public record ProductAvailabilityChangedEvent(Long productId, boolean available) {
+}
@@ -0,0 +1,10 @@
+package com.fu.cafeshop.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published when the sales rollups of a date range were recomputed. Listeners run after the
+ * transaction commits.
+ */
+public record SalesRollupsRebuiltEvent(LocalDate startDate, LocalDate endDate) {
+}
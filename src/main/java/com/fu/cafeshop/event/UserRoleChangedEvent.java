@@ -0,0 +1,8 @@
+package com.fu.cafeshop.event;
+
+/**
+ * Published when a user is created ({@code previousRole} is null) or given another role.
+ * Listeners run after the transaction commits.
+ */
+public record UserRoleChangedEvent(Long userId, String previousRole, String role) {
+}
@@ -0,0 +1,39 @@
+package com.fu.cafeshop.repository;
+
+import com.fu.cafeshop.entity.DailyProductSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyProductSalesRepository extends JpaRepository<DailyProductSales, Long> {
+
+    @Modifying
+    @Query("UPDATE DailyProductSales d SET d.quantity = d.quantity + :quantity, d.revenue = d.revenue + :revenue, " +
+           "d.cost = d.cost + :cost, d.productName = :productName, d.updatedAt = :now " +
+           "WHERE d.salesDate = :date AND d.productId = :productId")
+    int addTo(@Param("date") LocalDate date, @Param("productId") Long productId, @Param("productName") String productName,
+              @Param("quantity") long quantity, @Param("revenue") BigDecimal revenue, @Param("cost") BigDecimal cost,
+              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM DailyProductSales d WHERE d.salesDate BETWEEN :startDate AND :endDate")
+    int deleteBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // [product id, product name, quantity, revenue, cost] per product over the range, best sellers first
+    @Query("SELECT d.productId, MAX(d.productName), SUM(d.quantity), SUM(d.revenue), SUM(d.cost) " +
+           "FROM DailyProductSales d WHERE d.salesDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY d.productId ORDER BY SUM(d.quantity) DESC")
+    List<Object[]> sumByProductBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT d.productId, MAX(d.productName), SUM(d.quantity), SUM(d.revenue), SUM(d.cost) " +
+           "FROM DailyProductSales d GROUP BY d.productId ORDER BY SUM(d.quantity) DESC")
+    List<Object[]> sumByProduct();
+}
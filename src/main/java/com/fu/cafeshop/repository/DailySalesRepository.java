@@ -0,0 +1,32 @@
+package com.fu.cafeshop.repository;
+
+import com.fu.cafeshop.entity.DailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, Long> {
+
+    Optional<DailySales> findBySalesDate(LocalDate salesDate);
+
+    List<DailySales> findBySalesDateBetweenOrderBySalesDate(LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query("UPDATE DailySales d SET d.orderCount = d.orderCount + :orders, d.revenue = d.revenue + :revenue, " +
+           "d.updatedAt = :now WHERE d.salesDate = :date")
+    int addTo(@Param("date") LocalDate date, @Param("orders") long orders, @Param("revenue") BigDecimal revenue,
+              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM DailySales d WHERE d.salesDate BETWEEN :startDate AND :endDate")
+    int deleteBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,55 @@
+package com.fu.cafeshop.repository;
+
+import com.fu.cafeshop.entity.DocumentSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DocumentSequence s WHERE s.name = :name")
+    Optional<DocumentSequence> findByNameForUpdate(@Param("name") String name);
+
+    // Reserves rangeSize consecutive values from a SQL Server sequence in one round trip
+    @Query(value = "SET NOCOUNT ON; " +
+            "DECLARE @first SQL_VARIANT; " +
+            "EXEC sys.sp_sequence_get_range @sequence_name = :sequenceName, @range_size = :rangeSize, " +
+            "@range_first_value = @first OUTPUT; " +
+            "SELECT CAST(@first AS BIGINT)", nativeQuery = true)
+    Long reserveSequenceRange(@Param("sequenceName") String sequenceName, @Param("rangeSize") long rangeSize);
+
+    // Restarts a SQL Server sequence after maxIssued unless it is already past it. The app lock serializes
+    // nodes starting together, so none restarts the sequence under a block another one has just reserved
+    @Query(value = "SET NOCOUNT ON; " +
+            "EXEC sys.sp_getapplock @Resource = :sequenceName, @LockMode = 'Exclusive', " +
+            "@LockOwner = 'Transaction', @LockTimeout = 10000; " +
+            "IF (SELECT CAST(current_value AS BIGINT) FROM sys.sequences WHERE name = :sequenceName) <= :maxIssued " +
+            "BEGIN " +
+            "DECLARE @restart NVARCHAR(300) = N'ALTER SEQUENCE ' + QUOTENAME(:sequenceName) + " +
+            "N' RESTART WITH ' + CAST(:maxIssued + 1 AS NVARCHAR(20)); " +
+            "EXEC sp_executesql @restart; " +
+            "END; " +
+            "SELECT CAST(current_value AS BIGINT) FROM sys.sequences WHERE name = :sequenceName", nativeQuery = true)
+    Long restartSequenceAfter(@Param("sequenceName") String sequenceName, @Param("maxIssued") long maxIssued);
+
+    @Query(value = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = UPPER(:sequenceName)",
+            nativeQuery = true)
+    long countSequences(@Param("sequenceName") String sequenceName);
+
+    // Highest counter already issued, from the numeric tail of yyyyMMdd-000123
+    @Query(value = "SELECT MAX(CAST(SUBSTRING(order_number, 10, 40) AS BIGINT)) FROM orders " +
+            "WHERE order_number LIKE '________-%'", nativeQuery = true)
+    Long findMaxIssuedOrderValue();
+
+    // Highest counter already issued, from the numeric tail of INV-yyyyMMdd-000123
+    @Query(value = "SELECT MAX(CAST(SUBSTRING(invoice_number, 14, 40) AS BIGINT)) FROM invoices " +
+            "WHERE invoice_number LIKE 'INV-________-%'", nativeQuery = true)
+    Long findMaxIssuedInvoiceValue();
+}
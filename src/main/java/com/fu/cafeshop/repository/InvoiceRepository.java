@@ -2,7 +2,11 @@ package com.fu.cafeshop.repository;
 
 import com.fu.cafeshop.entity.Invoice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,5 +18,10 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
 
     boolean existsByOrderId(Long orderId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Invoice i SET i.pdfUrl = :pdfUrl WHERE i.id = :id")
+    int updatePdfUrl(@Param("id") Long id, @Param("pdfUrl") String pdfUrl);
 }
 
@@ -1,12 +1,17 @@
 package com.fu.cafeshop.repository;
 
+import com.fu.cafeshop.dto.KitchenTicket;
+import com.fu.cafeshop.dto.OrderItemLine;
 import com.fu.cafeshop.entity.OrderItem;
+import com.fu.cafeshop.entity.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,16 +19,51 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByOrderId(Long orderId);
 
-    @Query("SELECT oi.productName, SUM(oi.quantity) as totalQty FROM OrderItem oi " +
-           "JOIN oi.order o WHERE o.status = 'DONE' AND o.createdAt BETWEEN :startDate AND :endDate " +
-           "GROUP BY oi.productName ORDER BY totalQty DESC")
-    List<Object[]> findBestSellersByDateRange(@Param("startDate") LocalDateTime startDate, 
-                                               @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT new com.fu.cafeshop.dto.OrderItemLine(oi.order.id, oi.productName, oi.quantity) " +
+           "FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItemLine> findLinesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 
-    @Query("SELECT oi.product.id, oi.productName, SUM(oi.quantity) as totalQty, SUM(oi.totalPrice) as totalRevenue " +
-           "FROM OrderItem oi JOIN oi.order o WHERE o.status = 'DONE' " +
-           "GROUP BY oi.product.id, oi.productName ORDER BY totalQty DESC")
-    List<Object[]> findProductSalesReport();
+    String KITCHEN_TICKET_SELECT = "SELECT new com.fu.cafeshop.dto.KitchenTicket(oi.id, o.id, o.orderNumber, " +
+           "t.tableNumber, oi.productName, oi.quantity, oi.customizationNotes, c.station, o.createdAt, " +
+           "o.estimatedCompletionTime) FROM OrderItem oi JOIN oi.order o LEFT JOIN o.cafeTable t " +
+           "JOIN oi.product p JOIN p.category c WHERE oi.readyAt IS NULL ";
+
+    @Query(KITCHEN_TICKET_SELECT + "AND o.status IN :statuses")
+    List<KitchenTicket> findKitchenTicketsByOrderStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query(KITCHEN_TICKET_SELECT + "AND o.id = :orderId")
+    List<KitchenTicket> findKitchenTicketsByOrderId(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.readyAt = :now WHERE oi.id = :id AND oi.readyAt IS NULL")
+    int markReady(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    long countByOrderIdAndReadyAtIsNull(Long orderId);
+
+    // Fixes the cost of the items as their orders complete, so reversing them takes out the same cost
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.unitCost = " +
+           "(SELECT COALESCE(p.costPrice, 0) FROM Product p WHERE p.id = oi.product.id) " +
+           "WHERE oi.order.id IN :orderIds")
+    int recordUnitCost(@Param("orderIds") Collection<Long> orderIds);
+
+    // [day, product id, product name, quantity, revenue, cost] for the sales rollups; items completed
+    // before their cost was kept fall back to the current cost price
+    String PRODUCT_SALES_SELECT = "SELECT extract(date from o.createdAt), p.id, MAX(oi.productName), SUM(oi.quantity), " +
+           "SUM(oi.totalPrice), SUM(oi.quantity * COALESCE(oi.unitCost, p.costPrice, 0)) " +
+           "FROM OrderItem oi JOIN oi.order o JOIN oi.product p ";
+
+    @Query(PRODUCT_SALES_SELECT + "WHERE o.id IN :orderIds GROUP BY extract(date from o.createdAt), p.id")
+    List<Object[]> sumByDayAndProductForOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query(PRODUCT_SALES_SELECT + "WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE " +
+           "AND o.createdAt >= :start AND o.createdAt < :end GROUP BY extract(date from o.createdAt), p.id")
+    List<Object[]> sumCompletedByDayAndProduct(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // [order id, product id, product name, quantity]
+    @Query("SELECT oi.order.id, oi.product.id, oi.productName, oi.quantity FROM OrderItem oi " +
+           "WHERE oi.order.id IN :orderIds")
+    List<Object[]> findProductQuantitiesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 
     void deleteByOrderId(Long orderId);
 }
@@ -1,26 +1,94 @@
 package com.fu.cafeshop.repository;
 
+import com.fu.cafeshop.dto.OrderSummary;
 import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Header columns for list pages; the item count is a correlated subquery, not a collection load
+    String SUMMARY_SELECT = "SELECT new com.fu.cafeshop.dto.OrderSummary(o.id, o.orderNumber, o.status, t.tableNumber, " +
+            "o.guestName, o.guestPhone, c.fullName, o.totalAmount, SIZE(o.orderItems), o.createdAt, o.updatedAt, " +
+            "o.actualCompletionTime) FROM Order o LEFT JOIN o.cafeTable t LEFT JOIN o.customer c ";
+
     Optional<Order> findByOrderNumber(String orderNumber);
 
-    List<Order> findByStatusOrderByCreatedAtDesc(String status);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT o.status FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<OrderStatus> findStatusByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    // [id, customer id, guest phone, total, created at, completed at] of completed orders, for the sales analytics
+    String COMPLETION_SELECT = "SELECT o.id, c.id, o.guestPhone, o.totalAmount, o.createdAt, o.actualCompletionTime " +
+            "FROM Order o LEFT JOIN o.customer c WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE ";
+
+    @Query(COMPLETION_SELECT + "AND o.id IN :ids")
+    List<Object[]> findCompletionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(COMPLETION_SELECT + "AND o.actualCompletionTime >= :since")
+    List<Object[]> findCompletionsSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT o.createdAt FROM Order o WHERE o.id = :id")
+    Optional<LocalDateTime> findCreatedAtById(@Param("id") Long id);
+
+    @Query("SELECT o.orderNumber FROM Order o WHERE o.orderNumber IN :orderNumbers")
+    List<String> findExistingOrderNumbers(@Param("orderNumbers") Collection<String> orderNumbers);
+
+    // Locked in id order, so a bulk update changes exactly the rows whose status was read here
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id, o.orderNumber, o.status FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Object[]> findStatusesByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now WHERE o.id IN :ids AND o.status IN :from")
+    int transitionStatus(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from,
+                         @Param("to") OrderStatus to, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = com.fu.cafeshop.entity.OrderStatus.APPROVED, o.approvedByStaff = :staff, o.updatedAt = :now " +
+            "WHERE o.id IN :ids AND o.status = com.fu.cafeshop.entity.OrderStatus.PENDING")
+    int approveAll(@Param("ids") Collection<Long> ids, @Param("staff") User staff, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = com.fu.cafeshop.entity.OrderStatus.DONE, o.actualCompletionTime = :now, o.updatedAt = :now " +
+            "WHERE o.id IN :ids AND o.status IN :from")
+    int completeAll(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from,
+                    @Param("now") LocalDateTime now);
 
-    List<Order> findByStatusInOrderByCreatedAtDesc(List<String> statuses);
+    @Query(SUMMARY_SELECT + "ORDER BY o.createdAt DESC")
+    List<OrderSummary> findSummaries();
 
-    @Query("SELECT o FROM Order o WHERE o.status IN :statuses ORDER BY o.createdAt ASC")
-    List<Order> findPendingOrders(@Param("statuses") List<String> statuses);
+    @Query(SUMMARY_SELECT + "ORDER BY o.createdAt DESC")
+    List<OrderSummary> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE o.status = :status ORDER BY o.createdAt DESC")
+    List<OrderSummary> findSummariesByStatus(@Param("status") OrderStatus status);
+
+    @Query(SUMMARY_SELECT + "WHERE o.status IN :statuses")
+    List<OrderSummary> findSummariesByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query(SUMMARY_SELECT + "WHERE o.id IN :ids")
+    List<OrderSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id, o.status, o.updatedAt FROM Order o WHERE o.status IN :statuses")
+    List<Object[]> findStatusSummariesByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
 
     @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId ORDER BY o.createdAt DESC")
     List<Order> findByCustomerId(@Param("customerId") Long customerId);
@@ -28,27 +96,52 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate ORDER BY o.createdAt DESC")
     List<Order> findByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT o FROM Order o WHERE o.status = 'DONE' AND o.createdAt BETWEEN :startDate AND :endDate")
-    List<Order> findCompletedOrdersByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    @Query(SUMMARY_SELECT + "WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE " +
+           "AND o.createdAt >= :start AND o.createdAt < :end ORDER BY o.createdAt")
+    List<OrderSummary> findCompletedSummariesBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Report buckets: [day or hour, order count, revenue] for completed orders, only buckets that have any
+    @Query("SELECT extract(date from o.createdAt), COUNT(o), SUM(o.totalAmount) FROM Order o " +
+           "WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE AND o.createdAt >= :start AND o.createdAt < :end " +
+           "GROUP BY extract(date from o.createdAt)")
+    List<Object[]> sumCompletedByDay(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT extract(date from o.createdAt), COUNT(o), SUM(o.totalAmount) FROM Order o " +
+           "WHERE o.id IN :ids GROUP BY extract(date from o.createdAt)")
+    List<Object[]> sumByDayForOrders(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT extract(hour from o.createdAt), COUNT(o), SUM(o.totalAmount) FROM Order o " +
+           "WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE AND o.createdAt >= :start AND o.createdAt < :end " +
+           "GROUP BY extract(hour from o.createdAt)")
+    List<Object[]> sumCompletedByHour(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
-    long countByStatus(@Param("status") String status);
+    long countByStatus(@Param("status") OrderStatus status);
+
+    // [status, count] for every status that has orders
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupByStatus();
+
+    // A single [count, revenue] row of the completed orders placed in the range
+    @Query("SELECT COUNT(o), SUM(o.totalAmount) FROM Order o " +
+           "WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE AND o.createdAt >= :start AND o.createdAt < :end")
+    List<Object[]> sumCompletedBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.status = 'DONE' AND o.createdAt >= :startOfDay")
+    // [created at, total] of one order
+    @Query("SELECT o.createdAt, o.totalAmount FROM Order o WHERE o.id = :id")
+    List<Object[]> findCreatedAtAndTotalById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE AND o.createdAt >= :startOfDay")
     long countTodayCompletedOrders(@Param("startOfDay") LocalDateTime startOfDay);
 
-    @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = 'DONE' AND o.createdAt >= :startOfDay")
+    @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE AND o.createdAt >= :startOfDay")
     java.math.BigDecimal sumTodayRevenue(@Param("startOfDay") LocalDateTime startOfDay);
 
-    @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = 'DONE' AND o.createdAt BETWEEN :startDate AND :endDate")
+    @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE AND o.createdAt BETWEEN :startDate AND :endDate")
     java.math.BigDecimal sumRevenueByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id = :id")
     Optional<Order> findByIdWithItems(@Param("id") Long id);
 
-    List<Order> findTop10ByOrderByCreatedAtDesc();
-
-    @Query("SELECT MAX(o.orderNumber) FROM Order o WHERE o.orderNumber LIKE :prefix%")
-    Optional<String> findMaxOrderNumberByPrefix(@Param("prefix") String prefix);
 }
 
@@ -1,12 +1,15 @@
 package com.fu.cafeshop.repository;
 
 import com.fu.cafeshop.entity.Payment;
+import com.fu.cafeshop.entity.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,17 +18,21 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByOrderId(Long orderId);
 
-    List<Payment> findByStatus(String status);
+    List<Payment> findByStatus(PaymentStatus status);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.fu.cafeshop.entity.PaymentStatus.COMPLETED, p.paidAt = :now, p.updatedAt = :now WHERE p.order.id IN :orderIds")
+    int completeForOrders(@Param("orderIds") Collection<Long> orderIds, @Param("now") LocalDateTime now);
 
     List<Payment> findByPaymentMethod(String paymentMethod);
 
-    @Query("SELECT p FROM Payment p WHERE p.status = 'COMPLETED' AND p.paidAt BETWEEN :startDate AND :endDate")
+    @Query("SELECT p FROM Payment p WHERE p.status = com.fu.cafeshop.entity.PaymentStatus.COMPLETED AND p.paidAt BETWEEN :startDate AND :endDate")
     List<Payment> findCompletedPaymentsByDateRange(@Param("startDate") LocalDateTime startDate, 
                                                     @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED' AND p.paidAt >= :startOfDay")
+    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = com.fu.cafeshop.entity.PaymentStatus.COMPLETED AND p.paidAt >= :startOfDay")
     java.math.BigDecimal sumTodayPayments(@Param("startOfDay") LocalDateTime startOfDay);
 
-    long countByStatus(String status);
+    long countByStatus(PaymentStatus status);
 }
 
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,6 +24,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.modifiers WHERE p.id = :id")
     Product findByIdWithModifiers(@Param("id") Long id);
 
+    // Everything the public menu shows, in one query
+    @Query("SELECT DISTINCT p FROM Product p JOIN FETCH p.category LEFT JOIN FETCH p.modifiers WHERE p.isAvailable = true")
+    List<Product> findAllAvailableWithModifiers();
+
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.modifiers WHERE p.id IN :ids")
+    List<Product> findAllByIdWithModifiers(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) AND p.isAvailable = true")
     List<Product> searchByName(@Param("keyword") String keyword);
 
@@ -0,0 +1,15 @@
+package com.fu.cafeshop.repository;
+
+import com.fu.cafeshop.entity.RejectedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RejectedOrderRepository extends JpaRepository<RejectedOrder, Long> {
+
+    List<RejectedOrder> findByResolvedAtIsNullOrderByRejectedAtDesc();
+
+    long countByResolvedAtIsNull();
+}
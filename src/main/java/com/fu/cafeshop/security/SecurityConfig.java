@@ -1,10 +1,12 @@
 package com.fu.cafeshop.security;
 
+import com.fu.cafeshop.config.StaticResourceConfig;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -23,11 +25,11 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Public access - no login required
                         .requestMatchers("/", "/menu/**", "/order/**", "/cart/**").permitAll()
-                        .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**").permitAll()
+                        .requestMatchers("/media/**").permitAll()
                         .requestMatchers("/login", "/error").permitAll()
                         
                         // Admin only
-                        .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/admin/**", "/actuator/**").hasRole("ADMIN")
                         
                         // Staff access (both Admin and Staff can access)
                         .requestMatchers("/staff/**").hasAnyRole("ADMIN", "STAFF")
@@ -55,6 +57,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Static assets carry no user data; skip the filter chain (session, CSRF, headers) entirely
+    @Bean
+    public WebSecurityCustomizer staticResources() {
+        return web -> web.ignoring().requestMatchers(StaticResourceConfig.PATHS);
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
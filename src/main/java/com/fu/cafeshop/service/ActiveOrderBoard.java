@@ -0,0 +1,277 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.OrderItemLine;
+import com.fu.cafeshop.dto.OrderSummary;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import com.fu.cafeshop.repository.OrderItemRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory projection of the orders staff are working on (pending through in progress).
+ *
+ * <p>Loaded once at startup and kept current by the after-commit order events, so the staff
+ * pages read it without touching the database. Readers see an immutable snapshot that is
+ * swapped on every change; writers are serialized. A scheduled reconciliation compares the
+ * board with {@code orders} and repairs and reports any drift.
+ */
+@Service
+@Slf4j
+public class ActiveOrderBoard {
+
+    public static final Set<OrderStatus> ACTIVE_STATUSES =
+            EnumSet.of(OrderStatus.PENDING, OrderStatus.APPROVED, OrderStatus.COOKING, OrderStatus.IN_PROGRESS);
+
+    private static final Comparator<ActiveOrderView> NEWEST_FIRST = Comparator
+            .comparing(ActiveOrderView::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ActiveOrderView::getId, Comparator.reverseOrder());
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final long reconcileGraceMillis;
+    private final Counter driftCounter;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of());
+    private volatile boolean loaded;
+    // Bumped on every change so reconciliation can tell it raced with an event
+    private long version;
+
+    public ActiveOrderBoard(OrderRepository orderRepository,
+                            OrderItemRepository orderItemRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${cafeshop.active-board.reconcile-grace-ms:10000}") long reconcileGraceMillis) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.reconcileGraceMillis = reconcileGraceMillis;
+        Gauge.builder("cafeshop.active-board.size", this, board -> board.snapshot.all.size())
+                .description("Orders currently on the active order board")
+                .register(meterRegistry);
+        this.driftCounter = Counter.builder("cafeshop.active-board.drift")
+                .description("Board entries found out of sync with the database and repaired")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Map<Long, ActiveOrderView> byId = new HashMap<>();
+        for (ActiveOrderView view : fetch(orderRepository.findSummariesByStatusIn(ACTIVE_STATUSES))) {
+            byId.put(view.getId(), view);
+        }
+        replace(byId);
+        loaded = true;
+        log.info("Active order board loaded with {} orders", byId.size());
+    }
+
+    /**
+     * Active orders, newest first.
+     */
+    public List<ActiveOrderView> getActiveOrders() {
+        return current().all;
+    }
+
+    public List<ActiveOrderView> getOrders(OrderStatus status) {
+        return current().byStatus.getOrDefault(status, List.of());
+    }
+
+    public Optional<ActiveOrderView> find(Long orderId) {
+        return Optional.ofNullable(current().byId.get(orderId));
+    }
+
+    // Runs before the other listeners so dashboards told about a change find the board updated
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        refresh(List.of(event.orderId()), Map.of());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        synchronized (this) {
+            ActiveOrderView current = snapshot.byId.get(event.orderId());
+            if (!ACTIVE_STATUSES.contains(event.status())) {
+                if (current != null) {
+                    Map<Long, ActiveOrderView> byId = new HashMap<>(snapshot.byId);
+                    byId.remove(event.orderId());
+                    replace(byId);
+                }
+                return;
+            }
+            if (current != null) {
+                // A late event for a transition the board has already moved past is ignored
+                if (current.getStatus() != event.status() && current.getStatus().canTransitionTo(event.status())) {
+                    Map<Long, ActiveOrderView> byId = new HashMap<>(snapshot.byId);
+                    byId.put(event.orderId(), current.toBuilder()
+                            .status(event.status())
+                            .updatedAt(LocalDateTime.now())
+                            .build());
+                    replace(byId);
+                }
+                return;
+            }
+        }
+        // Not on the board yet (for instance a missed creation); the event's status wins over a
+        // row read before the change became visible
+        refresh(List.of(event.orderId()), Map.of(event.orderId(), event.status()));
+    }
+
+    @Scheduled(fixedDelayString = "${cafeshop.active-board.reconcile-ms:60000}",
+            initialDelayString = "${cafeshop.active-board.reconcile-ms:60000}")
+    public void reconcile() {
+        if (!loaded) {
+            return;
+        }
+        long versionBefore;
+        synchronized (this) {
+            versionBefore = version;
+        }
+        List<Object[]> rows = orderRepository.findStatusSummariesByStatusIn(ACTIVE_STATUSES);
+        LocalDateTime settledBefore = LocalDateTime.now().minusNanos(reconcileGraceMillis * 1_000_000);
+
+        List<Long> stale = new ArrayList<>();
+        Set<Long> missingOrChanged = new HashSet<>();
+        synchronized (this) {
+            if (version != versionBefore) {
+                log.debug("Active order board changed during reconciliation, retrying next round");
+                return;
+            }
+            Map<Long, ActiveOrderView> board = snapshot.byId;
+            Set<Long> inDatabase = new HashSet<>();
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                OrderStatus status = (OrderStatus) row[1];
+                LocalDateTime updatedAt = (LocalDateTime) row[2];
+                inDatabase.add(id);
+                // Committed just now; its event may still be on its way
+                if (updatedAt != null && updatedAt.isAfter(settledBefore)) {
+                    continue;
+                }
+                ActiveOrderView view = board.get(id);
+                if (view == null || view.getStatus() != status) {
+                    missingOrChanged.add(id);
+                }
+            }
+            for (Long id : board.keySet()) {
+                if (!inDatabase.contains(id)) {
+                    stale.add(id);
+                }
+            }
+            if (stale.isEmpty() && missingOrChanged.isEmpty()) {
+                return;
+            }
+            Map<Long, ActiveOrderView> byId = new HashMap<>(board);
+            stale.forEach(byId::remove);
+            replace(byId);
+        }
+
+        driftCounter.increment(stale.size() + missingOrChanged.size());
+        log.warn("Active order board drifted from the database: {} missing or changed {}, {} no longer active {}",
+                missingOrChanged.size(), missingOrChanged, stale.size(), stale);
+        if (!missingOrChanged.isEmpty()) {
+            refresh(missingOrChanged, Map.of());
+        }
+    }
+
+    private Snapshot current() {
+        if (!loaded) {
+            // Requests that arrive before the startup load has run
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private void refresh(Collection<Long> orderIds, Map<Long, OrderStatus> statusOverrides) {
+        List<ActiveOrderView> views = fetch(orderRepository.findSummariesByIdIn(orderIds));
+        synchronized (this) {
+            Map<Long, ActiveOrderView> byId = new HashMap<>(snapshot.byId);
+            for (ActiveOrderView view : views) {
+                OrderStatus status = statusOverrides.get(view.getId());
+                if (status != null) {
+                    view = view.toBuilder().status(status).build();
+                }
+                if (ACTIVE_STATUSES.contains(view.getStatus())) {
+                    byId.put(view.getId(), view);
+                } else {
+                    byId.remove(view.getId());
+                }
+            }
+            replace(byId);
+        }
+    }
+
+    // Two queries however many orders: the headers, then every item line of those orders
+    private List<ActiveOrderView> fetch(List<OrderSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<ActiveOrderView.Item>> items = new HashMap<>();
+        List<Long> orderIds = summaries.stream().map(OrderSummary::getId).toList();
+        for (OrderItemLine line : orderItemRepository.findLinesByOrderIdIn(orderIds)) {
+            items.computeIfAbsent(line.getOrderId(), id -> new ArrayList<>())
+                    .add(new ActiveOrderView.Item(line.getProductName(), line.getQuantity()));
+        }
+        List<ActiveOrderView> views = new ArrayList<>(summaries.size());
+        for (OrderSummary summary : summaries) {
+            views.add(ActiveOrderView.of(summary, items.getOrDefault(summary.getId(), List.of())));
+        }
+        return views;
+    }
+
+    // Callers hold the monitor
+    private void replace(Map<Long, ActiveOrderView> byId) {
+        snapshot = new Snapshot(byId);
+        version++;
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Long, ActiveOrderView> byId;
+        private final List<ActiveOrderView> all;
+        private final Map<OrderStatus, List<ActiveOrderView>> byStatus;
+
+        Snapshot(Map<Long, ActiveOrderView> byId) {
+            this.byId = Map.copyOf(byId);
+            List<ActiveOrderView> sorted = new ArrayList<>(byId.values());
+            sorted.sort(NEWEST_FIRST);
+            this.all = List.copyOf(sorted);
+
+            Map<OrderStatus, List<ActiveOrderView>> grouped = new EnumMap<>(OrderStatus.class);
+            for (ActiveOrderView view : all) {
+                grouped.computeIfAbsent(view.getStatus(), status -> new ArrayList<>()).add(view);
+            }
+            grouped.replaceAll((status, views) -> List.copyOf(views));
+            this.byStatus = grouped;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.OrderSummary;
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.OrderStatus;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable summary of an active order, as kept on the {@link ActiveOrderBoard}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ActiveOrderView {
+    Long id;
+    String orderNumber;
+    OrderStatus status;
+    Integer tableNumber;
+    String guestName;
+    String guestPhone;
+    String customerName;
+    Money totalAmount;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    List<Item> items;
+
+    public static ActiveOrderView of(OrderSummary summary, List<Item> items) {
+        return ActiveOrderView.builder()
+                .id(summary.getId())
+                .orderNumber(summary.getOrderNumber())
+                .status(summary.getStatus())
+                .tableNumber(summary.getTableNumber())
+                .guestName(summary.getGuestName())
+                .guestPhone(summary.getGuestPhone())
+                .customerName(summary.getCustomerName())
+                .totalAmount(summary.getTotalAmount())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .items(List.copyOf(items))
+                .build();
+    }
+
+    public String getStatusDisplay() {
+        return status.getLabel();
+    }
+
+    public String getStatusBadgeClass() {
+        return status.getBadgeClass();
+    }
+
+    @Value
+    public static class Item {
+        String productName;
+        Integer quantity;
+    }
+}
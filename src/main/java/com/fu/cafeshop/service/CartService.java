@@ -1,12 +1,12 @@
 package com.fu.cafeshop.service;
 
+import com.fu.cafeshop.entity.Money;
 import com.fu.cafeshop.entity.Product;
 import com.fu.cafeshop.entity.ProductModifier;
 import lombok.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.annotation.SessionScope;
 
-import java.math.BigDecimal;
 import java.util.*;
 
 @Service
@@ -14,6 +14,9 @@ import java.util.*;
 public class CartService {
 
     private final Map<String, CartItem> cartItems = new LinkedHashMap<>();
+    // Epoch millis of the last change, for the Last-Modified of pages that depend on the cart
+    @Getter
+    private long modifiedAt;
 
     public void addToCart(Product product, int quantity, List<ProductModifier> selectedModifiers) {
         String key = generateKey(product.getId(), selectedModifiers);
@@ -22,9 +25,10 @@ public class CartService {
             CartItem existingItem = cartItems.get(key);
             existingItem.setQuantity(existingItem.getQuantity() + quantity);
         } else {
-            BigDecimal modifiersPrice = selectedModifiers.stream()
-                    .map(ProductModifier::getPriceDelta)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            Money modifiersPrice = Money.ZERO;
+            for (ProductModifier modifier : selectedModifiers) {
+                modifiersPrice = modifiersPrice.plus(Money.of(modifier.getPriceDelta()));
+            }
 
             List<String> modifierNames = selectedModifiers.stream()
                     .map(ProductModifier::getName)
@@ -34,7 +38,7 @@ public class CartService {
                     .productId(product.getId())
                     .productName(product.getName())
                     .imageUrl(product.getImageUrl())
-                    .unitPrice(product.getDefaultPrice())
+                    .unitPrice(Money.of(product.getDefaultPrice()))
                     .quantity(quantity)
                     .modifiersPrice(modifiersPrice)
                     .modifierNames(modifierNames)
@@ -42,6 +46,7 @@ public class CartService {
 
             cartItems.put(key, item);
         }
+        modifiedAt = System.currentTimeMillis();
     }
 
     public void updateQuantity(String key, int quantity) {
@@ -51,15 +56,19 @@ public class CartService {
             } else {
                 cartItems.get(key).setQuantity(quantity);
             }
+            modifiedAt = System.currentTimeMillis();
         }
     }
 
     public void removeFromCart(String key) {
-        cartItems.remove(key);
+        if (cartItems.remove(key) != null) {
+            modifiedAt = System.currentTimeMillis();
+        }
     }
 
     public void clearCart() {
         cartItems.clear();
+        modifiedAt = System.currentTimeMillis();
     }
 
     public List<CartItem> getCartItems() {
@@ -70,19 +79,24 @@ public class CartService {
         return new LinkedHashMap<>(cartItems);
     }
 
+    // Rendered on every page through the cart badge, so these loop over primitives only
     public int getCartItemCount() {
-        return cartItems.values().stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+        int count = 0;
+        for (CartItem item : cartItems.values()) {
+            count += item.getQuantity();
+        }
+        return count;
     }
 
-    public BigDecimal getSubtotal() {
-        return cartItems.values().stream()
-                .map(CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public Money getSubtotal() {
+        long subtotalMinor = 0;
+        for (CartItem item : cartItems.values()) {
+            subtotalMinor = Math.addExact(subtotalMinor, item.getTotalPriceMinor());
+        }
+        return Money.ofMinor(subtotalMinor);
     }
 
-    public BigDecimal getTotalAmount() {
+    public Money getTotalAmount() {
         return getSubtotal();
     }
 
@@ -122,18 +136,22 @@ public class CartService {
         private Long productId;
         private String productName;
         private String imageUrl;
-        private BigDecimal unitPrice;
+        private Money unitPrice;
         private int quantity;
-        private BigDecimal modifiersPrice;
+        private Money modifiersPrice;
         private List<String> modifierNames;
 
-        public BigDecimal getTotalPrice() {
-            return unitPrice.add(modifiersPrice != null ? modifiersPrice : BigDecimal.ZERO)
-                    .multiply(new BigDecimal(quantity));
+        public Money getTotalPrice() {
+            return Money.ofMinor(getTotalPriceMinor());
+        }
+
+        public Money getItemPrice() {
+            return unitPrice.plus(Money.orZero(modifiersPrice));
         }
 
-        public BigDecimal getItemPrice() {
-            return unitPrice.add(modifiersPrice != null ? modifiersPrice : BigDecimal.ZERO);
+        long getTotalPriceMinor() {
+            long itemMinor = Math.addExact(unitPrice.getMinorUnits(), Money.orZero(modifiersPrice).getMinorUnits());
+            return Math.multiplyExact(itemMinor, quantity);
         }
     }
 }
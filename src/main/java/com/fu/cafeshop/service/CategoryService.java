@@ -1,8 +1,11 @@
 package com.fu.cafeshop.service;
 
 import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.event.CategoryCreatedEvent;
+import com.fu.cafeshop.event.MenuChangedEvent;
 import com.fu.cafeshop.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +16,7 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Category> getAllCategories() {
         return categoryRepository.findAllOrderByDisplayOrder();
@@ -36,7 +40,10 @@ public class CategoryService {
         if (categoryRepository.existsByName(category.getName())) {
             throw new RuntimeException("Category name already exists");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryCreatedEvent(saved.getId()));
+        eventPublisher.publishEvent(new MenuChangedEvent());
+        return saved;
     }
 
     @Transactional
@@ -46,7 +53,12 @@ public class CategoryService {
         category.setDescription(categoryDetails.getDescription());
         category.setDisplayOrder(categoryDetails.getDisplayOrder());
         category.setIsActive(categoryDetails.getIsActive());
-        return categoryRepository.save(category);
+        if (categoryDetails.getStation() != null) {
+            category.setStation(categoryDetails.getStation());
+        }
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new MenuChangedEvent());
+        return saved;
     }
 
     @Transactional
@@ -54,6 +66,7 @@ public class CategoryService {
         Category category = getCategoryById(id);
         category.setIsActive(false);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new MenuChangedEvent());
     }
 
     public long countCategories() {
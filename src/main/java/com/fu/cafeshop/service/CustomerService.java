@@ -8,6 +8,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -59,7 +60,8 @@ public class CustomerService {
 
         // Generate unique values to avoid UNIQUE constraint violations on NULL columns
         // Both username and email have UNIQUE constraints in the database
-        String timestamp = String.valueOf(System.currentTimeMillis());
+        // Suffix keeps values unique when several guests are saved in the same millisecond (batched intake)
+        String timestamp = System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
         String generatedUsername = "guest_" + timestamp;
         String generatedEmail = (email == null || email.isBlank()) ? "guest_" + timestamp + "@temp.local" : email;
         
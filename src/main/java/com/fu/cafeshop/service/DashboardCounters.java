@@ -0,0 +1,294 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.event.CategoryCreatedEvent;
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import com.fu.cafeshop.event.ProductAvailabilityChangedEvent;
+import com.fu.cafeshop.event.UserRoleChangedEvent;
+import com.fu.cafeshop.repository.CategoryRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import com.fu.cafeshop.repository.ProductRepository;
+import com.fu.cafeshop.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live counts for the admin dashboards: orders per status, today's completed orders and revenue,
+ * available products, categories and staff.
+ *
+ * <p>Loaded once at startup and kept current by the after-commit order, product, category and
+ * user events, so the dashboards read them without touching the database. Today's figures count
+ * completed orders placed today, like the reports, and start over at local midnight. A scheduled
+ * reconciliation recounts everything from the database and repairs and reports any drift.
+ */
+@Service
+@Slf4j
+public class DashboardCounters {
+
+    static final String STAFF_ROLE = "STAFF";
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final Counter driftCounter;
+
+    private final LongAdder[] byStatus = new LongAdder[OrderStatus.values().length];
+    private final LongAdder availableProducts = new LongAdder();
+    private final LongAdder categories = new LongAdder();
+    private final LongAdder staff = new LongAdder();
+    private volatile Today today = new Today(LocalDate.now());
+    private volatile boolean loaded;
+
+    // Events update under the read lock, concurrently; reconciliation and rollover take the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Bumped by every event so reconciliation can tell it raced with one
+    private final AtomicLong changes = new AtomicLong();
+
+    public DashboardCounters(OrderRepository orderRepository,
+                             ProductRepository productRepository,
+                             CategoryRepository categoryRepository,
+                             UserRepository userRepository,
+                             MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.userRepository = userRepository;
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new LongAdder();
+        }
+        this.driftCounter = Counter.builder("cafeshop.dashboard-counters.drift")
+                .description("Dashboard counters found out of sync with the database and repaired")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Counts counts = count(LocalDate.now());
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            apply(counts);
+            loaded = true;
+        } finally {
+            write.unlock();
+        }
+        log.info("Dashboard counters loaded: {} pending orders, {} completed today", counts.byStatus()[
+                OrderStatus.PENDING.ordinal()], counts.completedToday());
+    }
+
+    public long countByStatus(OrderStatus status) {
+        return byStatus[status.ordinal()].sum();
+    }
+
+    public long getTodayCompletedOrders() {
+        return currentDay().completed().sum();
+    }
+
+    public Money getTodayRevenue() {
+        return Money.ofMinor(currentDay().revenueMinor().sum());
+    }
+
+    public long getAvailableProducts() {
+        return availableProducts.sum();
+    }
+
+    public long getCategories() {
+        return categories.sum();
+    }
+
+    public long getStaff() {
+        return staff.sum();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        update(() -> byStatus[OrderStatus.PENDING.ordinal()].increment());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Today day = currentDay();
+        boolean completed = event.status() == OrderStatus.DONE;
+        long revenueMinor = 0;
+        boolean placedToday = false;
+        // Only entering or leaving DONE moves today's figures
+        if (completed || event.previousStatus() == OrderStatus.DONE) {
+            for (Object[] row : orderRepository.findCreatedAtAndTotalById(event.orderId())) {
+                placedToday = row[0] != null && ((LocalDateTime) row[0]).toLocalDate().equals(day.date());
+                revenueMinor = row[1] != null ? ((Money) row[1]).getMinorUnits() : 0;
+            }
+        }
+        boolean countsToday = placedToday;
+        long revenueDelta = completed ? revenueMinor : -revenueMinor;
+        update(() -> {
+            if (event.previousStatus() != null) {
+                byStatus[event.previousStatus().ordinal()].decrement();
+            }
+            byStatus[event.status().ordinal()].increment();
+            if (countsToday) {
+                day.completed().add(completed ? 1 : -1);
+                day.revenueMinor().add(revenueDelta);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductAvailabilityChanged(ProductAvailabilityChangedEvent event) {
+        update(() -> availableProducts.add(event.available() ? 1 : -1));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCategoryCreated(CategoryCreatedEvent event) {
+        update(categories::increment);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserRoleChanged(UserRoleChangedEvent event) {
+        update(() -> {
+            if (STAFF_ROLE.equals(event.previousRole())) {
+                staff.decrement();
+            }
+            if (STAFF_ROLE.equals(event.role())) {
+                staff.increment();
+            }
+        });
+    }
+
+    /**
+     * Starts today's figures over once the date has changed; reads do the same on their own.
+     */
+    @Scheduled(cron = "${cafeshop.dashboard-counters.rollover-cron:0 0 0 * * *}")
+    public void rollOver() {
+        currentDay();
+    }
+
+    @Scheduled(fixedDelayString = "${cafeshop.dashboard-counters.reconcile-ms:300000}",
+            initialDelayString = "${cafeshop.dashboard-counters.reconcile-ms:300000}")
+    public void reconcile() {
+        if (!loaded) {
+            return;
+        }
+        long changesBefore = changes.get();
+        Counts counts = count(LocalDate.now());
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            if (changes.get() != changesBefore) {
+                log.debug("Dashboard counters changed during reconciliation, retrying next round");
+                return;
+            }
+            int drifted = apply(counts);
+            if (drifted > 0) {
+                driftCounter.increment(drifted);
+                log.warn("Dashboard counters drifted from the database: {} repaired", drifted);
+            }
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private void update(Runnable change) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            changes.incrementAndGet();
+            change.run();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private Today currentDay() {
+        Today current = today;
+        LocalDate date = LocalDate.now();
+        if (current.date().equals(date)) {
+            return current;
+        }
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            if (!today.date().equals(date)) {
+                log.debug("Dashboard counters rolled over from {} to {}", today.date(), date);
+                today = new Today(date);
+            }
+            return today;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private Counts count(LocalDate date) {
+        long[] statusCounts = new long[byStatus.length];
+        for (Object[] row : orderRepository.countGroupByStatus()) {
+            statusCounts[((OrderStatus) row[0]).ordinal()] = ((Number) row[1]).longValue();
+        }
+        Object[] completed = orderRepository.sumCompletedBetween(date.atStartOfDay(),
+                date.plusDays(1).atStartOfDay()).get(0);
+        return new Counts(statusCounts, date,
+                ((Number) completed[0]).longValue(),
+                completed[1] != null ? Money.of((BigDecimal) completed[1]).getMinorUnits() : 0,
+                productRepository.countByIsAvailableTrue(),
+                categoryRepository.count(),
+                userRepository.countByRole(STAFF_ROLE));
+    }
+
+    /**
+     * Sets every counter to {@code counts}. Called under the write lock, so no update runs
+     * concurrently with the resets.
+     *
+     * @return how many counters had a different value
+     */
+    private int apply(Counts counts) {
+        int drifted = 0;
+        for (int i = 0; i < byStatus.length; i++) {
+            drifted += set(byStatus[i], counts.byStatus()[i]);
+        }
+        if (!today.date().equals(counts.date())) {
+            today = new Today(counts.date());
+        }
+        drifted += set(today.completed(), counts.completedToday());
+        drifted += set(today.revenueMinor(), counts.revenueTodayMinor());
+        drifted += set(availableProducts, counts.availableProducts());
+        drifted += set(categories, counts.categories());
+        drifted += set(staff, counts.staff());
+        return drifted;
+    }
+
+    private static int set(LongAdder adder, long value) {
+        if (adder.sum() == value) {
+            return 0;
+        }
+        adder.reset();
+        adder.add(value);
+        return 1;
+    }
+
+    private record Today(LocalDate date, LongAdder completed, LongAdder revenueMinor) {
+
+        Today(LocalDate date) {
+            this(date, new LongAdder(), new LongAdder());
+        }
+    }
+
+    private record Counts(long[] byStatus, LocalDate date, long completedToday, long revenueTodayMinor,
+                          long availableProducts, long categories, long staff) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.fu.cafeshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out order and invoice numbers from blocks reserved in the database.
+ * Each node reserves its own block, so numbers stay unique across nodes and restarts,
+ * while the per-call path is a single atomic increment with no lock and no query.
+ *
+ * <p>Blocks come from the native sequence when the database has it, otherwise from the
+ * document_sequences table; either counter starts after the highest number already issued.
+ * The choice is made once, at startup, and never changes afterwards: two nodes drawing from
+ * different counters would issue the same numbers. A failed reservation is retried on the
+ * same counter.
+ */
+@Service
+@Slf4j
+public class DocumentNumberService {
+
+    public enum DocumentType {
+        ORDER("seq_order_number", "%s-%06d"),
+        INVOICE("seq_invoice_number", "INV-%s-%06d");
+
+        private final String sequenceName;
+        private final String format;
+
+        DocumentType(String sequenceName, String format) {
+            this.sequenceName = sequenceName;
+            this.format = format;
+        }
+
+        public String getSequenceName() {
+            return sequenceName;
+        }
+    }
+
+    private static final DateTimeFormatter DATE_PREFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private final DocumentSequenceAllocator allocator;
+    private final int blockSize;
+    private final Map<DocumentType, AtomicReference<Block>> blocks = new EnumMap<>(DocumentType.class);
+    private final Map<DocumentType, Boolean> usesSequence = new ConcurrentHashMap<>();
+
+    public DocumentNumberService(DocumentSequenceAllocator allocator,
+                                 @Value("${cafeshop.numbering.block-size:50}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.allocator = allocator;
+        this.blockSize = blockSize;
+        for (DocumentType type : DocumentType.values()) {
+            blocks.put(type, new AtomicReference<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void selectCounters() {
+        for (DocumentType type : DocumentType.values()) {
+            usesSequence(type);
+        }
+    }
+
+    public String nextOrderNumber() {
+        return next(DocumentType.ORDER);
+    }
+
+    public String nextInvoiceNumber() {
+        return next(DocumentType.INVOICE);
+    }
+
+    public String next(DocumentType type) {
+        String datePrefix = LocalDate.now().format(DATE_PREFIX);
+        return String.format(type.format, datePrefix, nextValue(type));
+    }
+
+    long nextValue(DocumentType type) {
+        AtomicReference<Block> ref = blocks.get(type);
+        while (true) {
+            Block block = ref.get();
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            refill(ref, block, type);
+        }
+    }
+
+    private void refill(AtomicReference<Block> ref, Block exhausted, DocumentType type) {
+        synchronized (ref) {
+            // Another thread may already have installed a fresh block while we waited
+            if (ref.get() != exhausted) {
+                return;
+            }
+            long first = reserve(type);
+            ref.set(new Block(first, first + blockSize));
+        }
+    }
+
+    private long reserve(DocumentType type) {
+        boolean sequence = usesSequence(type);
+        RuntimeException lastError = null;
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                pause(attempt);
+            }
+            try {
+                return sequence
+                        ? allocator.reserveFromSequence(type, blockSize)
+                        : allocator.reserveFromTable(type, blockSize);
+            } catch (RuntimeException e) {
+                // Lock timeout, dropped connection, or two nodes creating the counter row at once
+                log.warn("Reserving {} numbers failed (attempt {}): {}", type, attempt + 1, e.getMessage());
+                lastError = e;
+            }
+        }
+        throw new RuntimeException("Could not reserve " + type + " numbers", lastError);
+    }
+
+    private boolean usesSequence(DocumentType type) {
+        return usesSequence.computeIfAbsent(type, t -> {
+            boolean sequence = allocator.hasSequence(t);
+            if (sequence) {
+                allocator.alignSequence(t);
+            }
+            log.info("{} numbers are reserved from {}", t,
+                    sequence ? "sequence " + t.getSequenceName() : "the document_sequences table");
+            return sequence;
+        });
+    }
+
+    private static void pause(int attempt) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(RETRY_BACKOFF_MILLIS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reserving document numbers", e);
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+}
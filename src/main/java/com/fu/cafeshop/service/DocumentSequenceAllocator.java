@@ -0,0 +1,81 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.DocumentSequence;
+import com.fu.cafeshop.repository.DocumentSequenceRepository;
+import com.fu.cafeshop.service.DocumentNumberService.DocumentType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reserves blocks of sequence values from the database. Every reservation runs in
+ * its own transaction so a block is never handed out twice, even if the caller rolls back.
+ */
+@Service
+@RequiredArgsConstructor
+public class DocumentSequenceAllocator {
+
+    private final DocumentSequenceRepository documentSequenceRepository;
+
+    /**
+     * Whether the database has the native sequence for {@code type}; decides, once, which of the
+     * two reservation methods {@link DocumentNumberService} uses.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public boolean hasSequence(DocumentType type) {
+        return documentSequenceRepository.countSequences(type.getSequenceName()) > 0;
+    }
+
+    /**
+     * Moves the native sequence for {@code type} past the highest number already issued. A database
+     * that numbered its orders before the sequence existed would otherwise reissue them.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void alignSequence(DocumentType type) {
+        documentSequenceRepository.restartSequenceAfter(type.getSequenceName(), maxIssuedValue(type));
+    }
+
+    /**
+     * Reserves {@code blockSize} values from a native database sequence.
+     *
+     * @return the first value of the reserved range
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveFromSequence(DocumentType type, int blockSize) {
+        Long first = documentSequenceRepository.reserveSequenceRange(type.getSequenceName(), blockSize);
+        if (first == null) {
+            throw new IllegalStateException("Sequence " + type.getSequenceName() + " returned no value");
+        }
+        return first;
+    }
+
+    /**
+     * Reserves {@code blockSize} values from the document_sequences table, locking the row
+     * so concurrent nodes always receive disjoint ranges. The row is created on first use,
+     * starting after the highest number already issued.
+     *
+     * @return the first value of the reserved range
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveFromTable(DocumentType type, int blockSize) {
+        DocumentSequence sequence = documentSequenceRepository.findByNameForUpdate(type.getSequenceName())
+                .orElseGet(() -> DocumentSequence.builder()
+                        .name(type.getSequenceName())
+                        .nextValue(maxIssuedValue(type) + 1)
+                        .build());
+
+        long first = sequence.getNextValue();
+        sequence.setNextValue(first + blockSize);
+        documentSequenceRepository.saveAndFlush(sequence);
+        return first;
+    }
+
+    private long maxIssuedValue(DocumentType type) {
+        Long max = switch (type) {
+            case ORDER -> documentSequenceRepository.findMaxIssuedOrderValue();
+            case INVOICE -> documentSequenceRepository.findMaxIssuedInvoiceValue();
+        };
+        return max != null ? max : 0;
+    }
+}
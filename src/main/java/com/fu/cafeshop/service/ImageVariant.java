@@ -0,0 +1,26 @@
+package com.fu.cafeshop.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The sizes product images are served in. An image is scaled down to fit a {@code size} pixel
+ * square, keeping its proportions, and never scaled up.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageVariant {
+    THUMBNAIL("thumb", 160),
+    CARD("card", 480),
+    DETAIL("detail", 1080);
+
+    private final String path;
+    private final int size;
+
+    public static Optional<ImageVariant> fromPath(String path) {
+        return Arrays.stream(values()).filter(variant -> variant.path.equals(path)).findFirst();
+    }
+}
@@ -0,0 +1,224 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Invoice;
+import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.event.InvoiceCreatedEvent;
+import com.fu.cafeshop.repository.InvoiceRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder.FontStyle;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders invoice PDFs on a bounded worker pool once the invoice has been committed, stores
+ * them in the {@link InvoicePdfStore} and records the download URL on the invoice. Reprints
+ * are served from disk and never re-rendered.
+ *
+ * <p>Text is set in the bundled DejaVu Sans, which covers Vietnamese, unless
+ * {@code cafeshop.invoice.pdf.font-path} names another TTF.
+ */
+@Service
+@Slf4j
+public class InvoicePdfService {
+
+    public static final String URL_PREFIX = "/staff/invoices/";
+    private static final String TEMPLATE = "staff/invoice-pdf";
+    private static final String FONT_FAMILY = "InvoiceFont";
+    private static final String BUNDLED_FONT = "/fonts/DejaVuSans.ttf";
+    private static final String BUNDLED_BOLD_FONT = "/fonts/DejaVuSans-Bold.ttf";
+
+    private final InvoiceRepository invoiceRepository;
+    private final OrderRepository orderRepository;
+    private final ITemplateEngine templateEngine;
+    private final InvoicePdfStore store;
+    private final String fontSource;
+    private final byte[] font;
+    private final byte[] boldFont;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Timer renderTimer;
+    private final Counter rejectedCounter;
+
+    public InvoicePdfService(InvoiceRepository invoiceRepository,
+                             OrderRepository orderRepository,
+                             ITemplateEngine templateEngine,
+                             InvoicePdfStore store,
+                             MeterRegistry meterRegistry,
+                             @Value("${cafeshop.invoice.pdf.workers:2}") int workers,
+                             @Value("${cafeshop.invoice.pdf.queue-capacity:100}") int queueCapacity,
+                             @Value("${cafeshop.invoice.pdf.font-path:}") String fontPath) {
+        this.invoiceRepository = invoiceRepository;
+        this.orderRepository = orderRepository;
+        this.templateEngine = templateEngine;
+        this.store = store;
+        if (fontPath != null && !fontPath.isBlank() && Files.isRegularFile(Path.of(fontPath))) {
+            // One face only: bold text is drawn with the regular glyphs
+            this.fontSource = fontPath;
+            this.font = readFont(Path.of(fontPath));
+            this.boldFont = font;
+        } else {
+            if (fontPath != null && !fontPath.isBlank()) {
+                log.warn("Invoice PDF font {} not found, using the bundled DejaVu Sans", fontPath);
+            }
+            this.fontSource = BUNDLED_FONT;
+            this.font = readBundledFont(BUNDLED_FONT);
+            this.boldFont = readBundledFont(BUNDLED_BOLD_FONT);
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "invoice-pdf-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("cafeshop.invoice.pdf.queue.depth", executor, e -> e.getQueue().size())
+                .description("Invoice PDFs waiting for a render worker")
+                .register(meterRegistry);
+        Gauge.builder("cafeshop.invoice.pdf.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Render workers currently busy")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("cafeshop.invoice.pdf.render")
+                .description("Time to render one invoice PDF")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("cafeshop.invoice.pdf.rejected")
+                .description("Renders dropped because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onInvoiceCreated(InvoiceCreatedEvent event) {
+        enqueue(event.invoiceId());
+    }
+
+    /**
+     * Queues a render for the invoice unless one is already queued or running.
+     *
+     * @return false if the queue is full; the render is retried the next time the PDF is requested
+     */
+    public boolean enqueue(Long invoiceId) {
+        if (!inFlight.add(invoiceId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(invoiceId);
+                } catch (Exception e) {
+                    log.error("Failed to render PDF for invoice {}", invoiceId, e);
+                } finally {
+                    inFlight.remove(invoiceId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(invoiceId);
+            rejectedCounter.increment();
+            log.warn("Invoice PDF queue is full, skipped invoice {}", invoiceId);
+            return false;
+        }
+    }
+
+    public Optional<Path> findPdf(String key) {
+        return store.find(key);
+    }
+
+    void render(Long invoiceId) throws IOException {
+        Invoice invoice = invoiceRepository.findById(invoiceId).orElse(null);
+        if (invoice == null) {
+            return;
+        }
+        Order order = orderRepository.findByIdWithItems(invoice.getOrder().getId())
+                .orElseThrow(() -> new RuntimeException("Order not found: " + invoice.getOrder().getId()));
+
+        String html = renderHtml(invoice, order);
+        // A different font makes a different file, so a font change is never served from the old one
+        String key = store.keyOf(fontSource + "\n" + html);
+        if (!store.contains(key)) {
+            Timer.Sample sample = Timer.start();
+            byte[] pdf = toPdf(html);
+            sample.stop(renderTimer);
+            store.put(key, pdf);
+        }
+        invoiceRepository.updatePdfUrl(invoiceId, URL_PREFIX + key + ".pdf");
+    }
+
+    String renderHtml(Invoice invoice, Order order) {
+        Context context = new Context(Locale.forLanguageTag("vi-VN"));
+        context.setVariable("invoice", invoice);
+        context.setVariable("order", order);
+        context.setVariable("fontFamily", FONT_FAMILY);
+        return templateEngine.process(TEMPLATE, context);
+    }
+
+    byte[] toPdf(String html) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        builder.withHtmlContent(html, null);
+        builder.useFont(() -> new ByteArrayInputStream(font), FONT_FAMILY, 400, FontStyle.NORMAL, true);
+        builder.useFont(() -> new ByteArrayInputStream(boldFont), FONT_FAMILY, 700, FontStyle.NORMAL, true);
+        builder.toStream(out);
+        builder.run();
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Shutting down with {} invoice PDFs not rendered", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] readFont(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read invoice PDF font " + path, e);
+        }
+    }
+
+    private static byte[] readBundledFont(String resource) {
+        try (InputStream in = InvoicePdfService.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Bundled font " + resource + " is missing from the classpath");
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read bundled font " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.fu.cafeshop.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for rendered invoice PDFs. Files are keyed by the SHA-256 of the
+ * invoice markup they were rendered from, so identical content is only rendered and stored once.
+ *
+ * <pre>
+ * {root}/ab/abcdef...(64 hex).pdf
+ * </pre>
+ */
+@Component
+public class InvoicePdfStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public InvoicePdfStore(@Value("${cafeshop.invoice.pdf.storage-path:data/invoices}") String root) {
+        this.root = Path.of(root);
+    }
+
+    public String keyOf(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean contains(String key) {
+        return find(key).isPresent();
+    }
+
+    /**
+     * Writes the file under a temporary name and moves it into place, so readers never see a partial PDF.
+     */
+    public Path put(String key, byte[] pdf) throws IOException {
+        Path target = pathOf(key);
+        if (Files.exists(target)) {
+            return target;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+        try {
+            Files.write(temp, pdf);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    public Optional<Path> find(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path pathOf(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key + ".pdf");
+    }
+}
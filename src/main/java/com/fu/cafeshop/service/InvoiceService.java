@@ -2,17 +2,17 @@ package com.fu.cafeshop.service;
 
 import com.fu.cafeshop.entity.Invoice;
 import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderStatus;
 import com.fu.cafeshop.entity.User;
+import com.fu.cafeshop.event.InvoiceCreatedEvent;
 import com.fu.cafeshop.repository.InvoiceRepository;
 import com.fu.cafeshop.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -20,8 +20,8 @@ public class InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
     private final OrderRepository orderRepository;
-
-    private static final AtomicLong invoiceSequence = new AtomicLong(1);
+    private final DocumentNumberService documentNumberService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Invoice getInvoiceByOrderId(Long orderId) {
         return invoiceRepository.findByOrderId(orderId).orElse(null);
@@ -42,11 +42,11 @@ public class InvoiceService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
 
-        if (!"DONE".equals(order.getStatus())) {
+        if (order.getStatus() != OrderStatus.DONE) {
             throw new RuntimeException("Cannot create invoice for incomplete order");
         }
 
-        String invoiceNumber = generateInvoiceNumber();
+        String invoiceNumber = documentNumberService.nextInvoiceNumber();
 
         Invoice invoice = Invoice.builder()
                 .order(order)
@@ -55,7 +55,10 @@ public class InvoiceService {
                 .printedAt(LocalDateTime.now())
                 .build();
 
-        return invoiceRepository.save(invoice);
+        invoice = invoiceRepository.save(invoice);
+        // The PDF is rendered off the request thread once this transaction commits
+        eventPublisher.publishEvent(new InvoiceCreatedEvent(invoice.getId(), orderId));
+        return invoice;
     }
 
     @Transactional
@@ -74,12 +77,6 @@ public class InvoiceService {
         return invoice;
     }
 
-    private String generateInvoiceNumber() {
-        String datePrefix = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long seq = invoiceSequence.getAndIncrement();
-        return String.format("INV-%s-%06d", datePrefix, seq);
-    }
-
     public boolean hasInvoice(Long orderId) {
         return invoiceRepository.existsByOrderId(orderId);
     }
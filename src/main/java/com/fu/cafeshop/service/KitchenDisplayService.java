@@ -0,0 +1,200 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.KitchenTicket;
+import com.fu.cafeshop.entity.KitchenStation;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.entity.User;
+import com.fu.cafeshop.event.KitchenItemReadyEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import com.fu.cafeshop.repository.OrderItemRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Kitchen display system: per-station queues of order items that still have to be prepared.
+ *
+ * <p>Each station's queue is a skip list ordered oldest order first, then by estimated
+ * completion time, so adding or removing a ticket is O(log n) and station screens iterate it
+ * without locking. Items of approved, cooking and in-progress orders are queued; the queues are
+ * loaded at startup and follow the after-commit order and item events.
+ */
+@Service
+@Slf4j
+public class KitchenDisplayService {
+
+    public static final Set<OrderStatus> KITCHEN_STATUSES =
+            EnumSet.of(OrderStatus.APPROVED, OrderStatus.COOKING, OrderStatus.IN_PROGRESS);
+
+    static final Comparator<KitchenTicket> QUEUE_ORDER = Comparator
+            .comparing(KitchenTicket::getOrderedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(KitchenTicket::getEstimatedCompletionTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(KitchenTicket::getItemId);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderService orderService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<KitchenStation, NavigableSet<KitchenTicket>> queues = new EnumMap<>(KitchenStation.class);
+    private final Map<Long, KitchenTicket> ticketsByItem = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> itemsByOrder = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public KitchenDisplayService(OrderRepository orderRepository,
+                                 OrderItemRepository orderItemRepository,
+                                 OrderService orderService,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderService = orderService;
+        this.eventPublisher = eventPublisher;
+        for (KitchenStation station : KitchenStation.values()) {
+            queues.put(station, new ConcurrentSkipListSet<>(QUEUE_ORDER));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        queues.values().forEach(Set::clear);
+        ticketsByItem.clear();
+        itemsByOrder.clear();
+        List<KitchenTicket> tickets = orderItemRepository.findKitchenTicketsByOrderStatusIn(KITCHEN_STATUSES);
+        tickets.forEach(this::add);
+        loaded = true;
+        log.info("Kitchen display loaded with {} open items", tickets.size());
+    }
+
+    /**
+     * Open items for a station, oldest first. The list is a copy; the queue keeps changing.
+     */
+    public List<KitchenTicket> getQueue(KitchenStation station) {
+        ensureLoaded();
+        return List.copyOf(queues.get(station));
+    }
+
+    public Map<KitchenStation, Integer> getQueueSizes() {
+        ensureLoaded();
+        Map<KitchenStation, Integer> sizes = new EnumMap<>(KitchenStation.class);
+        queues.forEach((station, queue) -> sizes.put(station, queue.size()));
+        return sizes;
+    }
+
+    /**
+     * Marks one item ready. Starting on an approved order moves it to cooking, and the last
+     * ready item completes the order through {@link OrderService#updateOrderStatus}.
+     *
+     * @return true if this completed the order
+     */
+    @Transactional
+    public boolean markReady(Long itemId, User staff) {
+        ensureLoaded();
+        KitchenTicket ticket = ticketsByItem.get(itemId);
+        if (ticket == null) {
+            throw new RuntimeException("Món không còn trong hàng đợi");
+        }
+        // Serializes stations finishing items of the same order, so exactly one completes it
+        com.fu.cafeshop.entity.Order order = orderRepository.findByIdForUpdate(ticket.getOrderId())
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + ticket.getOrderId()));
+        if (!KITCHEN_STATUSES.contains(order.getStatus())) {
+            throw new RuntimeException("Đơn hàng " + order.getOrderNumber() + " không còn được chế biến");
+        }
+        if (orderItemRepository.markReady(itemId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Món đã được đánh dấu xong");
+        }
+        eventPublisher.publishEvent(new KitchenItemReadyEvent(itemId, ticket.getOrderId(), ticket.getStation()));
+
+        if (order.getStatus() == OrderStatus.APPROVED) {
+            orderService.updateOrderStatus(order.getId(), OrderStatus.COOKING, staff);
+        }
+        if (orderItemRepository.countByOrderIdAndReadyAtIsNull(order.getId()) > 0) {
+            return false;
+        }
+        orderService.updateOrderStatus(order.getId(), OrderStatus.DONE, staff);
+        return true;
+    }
+
+    // Ahead of the staff event stream so station screens reloading on an event see the change
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean wasQueued = event.previousStatus() != null && KITCHEN_STATUSES.contains(event.previousStatus());
+        boolean queued = KITCHEN_STATUSES.contains(event.status());
+        if (queued && !wasQueued) {
+            List<KitchenTicket> tickets = orderItemRepository.findKitchenTicketsByOrderId(event.orderId());
+            synchronized (this) {
+                tickets.forEach(this::add);
+            }
+        } else if (!queued && wasQueued) {
+            synchronized (this) {
+                Set<Long> itemIds = itemsByOrder.remove(event.orderId());
+                if (itemIds != null) {
+                    itemIds.forEach(this::remove);
+                }
+            }
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onItemReady(KitchenItemReadyEvent event) {
+        remove(event.itemId());
+        itemsByOrder.computeIfPresent(event.orderId(), (orderId, itemIds) -> {
+            itemIds.remove(event.itemId());
+            return itemIds.isEmpty() ? null : itemIds;
+        });
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            // Requests that arrive before the startup load has run
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    // Callers hold the monitor
+    private void add(KitchenTicket ticket) {
+        KitchenTicket previous = ticketsByItem.put(ticket.getItemId(), ticket);
+        if (previous != null) {
+            // The category may have moved to another station since the item was queued
+            queueOf(previous).remove(previous);
+        }
+        queueOf(ticket).add(ticket);
+        itemsByOrder.computeIfAbsent(ticket.getOrderId(), orderId -> new HashSet<>()).add(ticket.getItemId());
+    }
+
+    private void remove(Long itemId) {
+        KitchenTicket ticket = ticketsByItem.remove(itemId);
+        if (ticket != null) {
+            queueOf(ticket).remove(ticket);
+        }
+    }
+
+    private NavigableSet<KitchenTicket> queueOf(KitchenTicket ticket) {
+        return queues.get(ticket.getStation() != null ? ticket.getStation() : KitchenStation.BAR);
+    }
+}
@@ -0,0 +1,133 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.Product;
+import com.fu.cafeshop.event.MenuChangedEvent;
+import com.fu.cafeshop.repository.CategoryRepository;
+import com.fu.cafeshop.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The public menu, served from an in-memory {@link MenuSnapshot}.
+ *
+ * <p>Built at startup (or on the first read) and rebuilt from the database after every committed
+ * {@link MenuChangedEvent}. Each rebuild is a new snapshot with the next version number, swapped
+ * in whole, so a page always renders from one consistent version and reads take no lock.
+ * Rebuilds run on their own thread: neither the request that changed the menu nor the readers
+ * wait for one, they keep the current version until the next is ready.
+ */
+@Service
+@Slf4j
+public class MenuCatalog {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+
+    private final Executor rebuilder;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile MenuSnapshot snapshot;
+
+    @Autowired
+    public MenuCatalog(CategoryRepository categoryRepository,
+                       ProductRepository productRepository,
+                       MeterRegistry meterRegistry) {
+        this(categoryRepository, productRepository, meterRegistry, Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "menu-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    MenuCatalog(CategoryRepository categoryRepository,
+                ProductRepository productRepository,
+                MeterRegistry meterRegistry,
+                Executor rebuilder) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.rebuilder = rebuilder;
+        Gauge.builder("cafeshop.menu.version", this, catalog -> catalog.getVersion())
+                .description("Version of the menu snapshot served to the public pages")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    public MenuSnapshot getSnapshot() {
+        MenuSnapshot current = snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Increases by one with every rebuild; 0 before the menu was first built.
+     */
+    public long getVersion() {
+        MenuSnapshot current = snapshot;
+        return current != null ? current.getVersion() : 0;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMenuChanged(MenuChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    /**
+     * Queues a rebuild unless one is already queued; that one has not read the database yet, so
+     * it picks up this change too and a burst of edits builds once. A failed rebuild keeps the
+     * current version.
+     */
+    void scheduleRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        rebuilder.execute(() -> {
+            rebuildPending.set(false);
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Menu rebuild failed, still serving version {}", getVersion(), e);
+            }
+        });
+    }
+
+    /**
+     * Serialized, so each rebuild reads the database after the previous one was swapped in and
+     * a later version never holds older data.
+     */
+    synchronized MenuSnapshot rebuild() {
+        MenuSnapshot previous = snapshot;
+        long version = previous != null ? previous.getVersion() + 1 : 1;
+        List<Category> categories = categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
+        List<Product> products = productRepository.findAllAvailableWithModifiers();
+        MenuSnapshot rebuilt = MenuSnapshot.of(version, categories, products, previous);
+        snapshot = rebuilt;
+        log.debug("Menu snapshot {} built: {} categories, {} products", version,
+                rebuilt.getCategories().size(), rebuilt.getProducts().size());
+        return rebuilt;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuilder instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.Product;
+import com.fu.cafeshop.entity.ProductModifier;
+import lombok.Getter;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One version of the public menu: the active categories, the available products with their
+ * modifiers, and the featured list. Immutable, so it is shared by every request until
+ * {@link MenuCatalog} replaces it.
+ */
+public final class MenuSnapshot {
+
+    private static final Comparator<ProductView> MENU_ORDER = Comparator
+            .comparing(ProductView::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ProductView::getId);
+
+    @Getter
+    private final long version;
+    @Getter
+    private final Instant builtAt = Instant.now();
+    @Getter
+    private final List<CategoryView> categories;
+    @Getter
+    private final List<ProductView> products;
+    @Getter
+    private final List<ProductView> featuredProducts;
+    private final Map<Long, List<ProductView>> byCategory;
+    private final Map<Long, ProductView> byId;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestTrie suggestTrie;
+
+    private MenuSnapshot(long version, List<CategoryView> categories, List<ProductView> products,
+                         MenuSnapshot previous) {
+        this.version = version;
+        this.categories = List.copyOf(categories);
+        this.products = List.copyOf(products);
+        Map<Long, List<ProductView>> grouped = new LinkedHashMap<>();
+        Map<Long, ProductView> indexed = new HashMap<>();
+        List<ProductView> featured = new ArrayList<>();
+        for (ProductView product : this.products) {
+            grouped.computeIfAbsent(product.getCategoryId(), id -> new ArrayList<>()).add(product);
+            indexed.put(product.getId(), product);
+            if (Boolean.TRUE.equals(product.getIsFeatured())) {
+                featured.add(product);
+            }
+        }
+        grouped.replaceAll((id, list) -> List.copyOf(list));
+        this.byCategory = Map.copyOf(grouped);
+        this.byId = Map.copyOf(indexed);
+        this.featuredProducts = List.copyOf(featured);
+        this.searchIndex = ProductSearchIndex.build(this.products, previous != null ? previous.searchIndex : null);
+        this.suggestTrie = ProductSuggestTrie.build(this.products);
+    }
+
+    public static MenuSnapshot of(long version, List<Category> categories, List<Product> products) {
+        return of(version, categories, products, null);
+    }
+
+    /**
+     * @param categories active categories, in display order
+     * @param products   available products with their category and modifiers loaded
+     * @param previous   the version this one replaces, so the search index can reuse what did not
+     *                   change; may be null
+     */
+    public static MenuSnapshot of(long version, List<Category> categories, List<Product> products,
+                                  MenuSnapshot previous) {
+        List<CategoryView> categoryViews = categories.stream().map(CategoryView::of).toList();
+        List<ProductView> productViews = products.stream().map(ProductView::of).sorted(MENU_ORDER).toList();
+        return new MenuSnapshot(version, categoryViews, productViews, previous);
+    }
+
+    public List<ProductView> getProductsByCategory(Long categoryId) {
+        return byCategory.getOrDefault(categoryId, List.of());
+    }
+
+    public Optional<ProductView> findProduct(Long id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Available products matching {@code keyword} by name, category or description, best match
+     * first; see {@link ProductSearchIndex}.
+     */
+    public List<ProductView> search(String keyword) {
+        return searchIndex.search(keyword);
+    }
+
+    /**
+     * Up to {@code limit} available products with a word of their name starting with
+     * {@code prefix}, featured first, then in menu order; see {@link ProductSuggestTrie}.
+     */
+    public List<ProductView> suggest(String prefix, int limit) {
+        return suggestTrie.suggest(prefix, Math.min(limit, ProductSuggestTrie.MAX_SUGGESTIONS));
+    }
+
+    @Value
+    public static class CategoryView {
+        Long id;
+        String name;
+        String description;
+        Integer displayOrder;
+
+        static CategoryView of(Category category) {
+            return new CategoryView(category.getId(), category.getName(), category.getDescription(),
+                    category.getDisplayOrder());
+        }
+    }
+
+    @Value
+    public static class ProductView {
+        Long id;
+        String name;
+        String description;
+        Long categoryId;
+        String categoryName;
+        BigDecimal defaultPrice;
+        String imageUrl;
+        Boolean isFeatured;
+        Integer displayOrder;
+        List<ModifierView> modifiers;
+
+        static ProductView of(Product product) {
+            List<ModifierView> modifiers = product.getModifiers() == null ? List.of() : product.getModifiers().stream()
+                    .sorted(Comparator.comparing(ProductModifier::getId))
+                    .map(ModifierView::of)
+                    .toList();
+            return new ProductView(product.getId(), product.getName(), product.getDescription(),
+                    product.getCategory().getId(), product.getCategory().getName(), product.getDefaultPrice(),
+                    product.getImageUrl(), product.getIsFeatured(), product.getDisplayOrder(), modifiers);
+        }
+    }
+
+    @Value
+    public static class ModifierView {
+        Long id;
+        String name;
+        BigDecimal priceDelta;
+        Boolean isDefault;
+
+        static ModifierView of(ProductModifier modifier) {
+            return new ModifierView(modifier.getId(), modifier.getName(), modifier.getPriceDelta(),
+                    modifier.getIsDefault());
+        }
+    }
+}
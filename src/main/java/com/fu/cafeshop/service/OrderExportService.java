@@ -0,0 +1,249 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.entity.PaymentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Writes orders, order items and payments of a date range as CSV.
+ *
+ * <p>Rows are read through a forward-only, read-only JDBC cursor and written to the output one
+ * at a time, so memory stays flat however many rows the range holds. Nothing goes through the
+ * persistence context. Ranges are by order date, like the reports.
+ */
+@Service
+@Slf4j
+public class OrderExportService {
+
+    public enum Dataset {
+        ORDERS("orders",
+                "id,order_number,created_at,status,table_id,guest_name,guest_phone,subtotal,tax_amount,"
+                        + "discount_amount,total_amount,actual_completion_time",
+                "SELECT o.id, o.order_number, o.created_at, o.status_code, o.table_id, o.guest_name, o.guest_phone, "
+                        + "o.subtotal, o.tax_amount, o.discount_amount, o.total_amount, o.actual_completion_time "
+                        + "FROM orders o WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, o.id"),
+        ORDER_ITEMS("order-items",
+                "id,order_id,order_number,order_created_at,product_id,product_name,quantity,unit_price,"
+                        + "modifiers_price,total_price,customization_notes",
+                "SELECT i.id, i.order_id, o.order_number, o.created_at, i.product_id, i.product_name, i.quantity, "
+                        + "i.unit_price, i.modifiers_price, i.total_price, i.customization_notes "
+                        + "FROM order_items i JOIN orders o ON o.id = i.order_id "
+                        + "WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, i.order_id, i.id"),
+        PAYMENTS("payments",
+                "id,order_id,order_number,order_created_at,payment_method,amount,status,transaction_id,paid_at",
+                "SELECT p.id, p.order_id, o.order_number, o.created_at, p.payment_method, p.amount, p.status_code, "
+                        + "p.transaction_id, p.paid_at "
+                        + "FROM payments p JOIN orders o ON o.id = p.order_id "
+                        + "WHERE o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, p.order_id");
+
+        private final String path;
+        private final String header;
+        private final String sql;
+
+        Dataset(String path, String header, String sql) {
+            this.path = path;
+            this.header = header;
+            this.sql = sql;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public static Dataset fromPath(String path) {
+            for (Dataset dataset : values()) {
+                if (dataset.path.equals(path)) {
+                    return dataset;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export: " + path);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public OrderExportService(JdbcTemplate jdbcTemplate,
+                              @Value("${cafeshop.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the header and every row of {@code dataset} with an order date from
+     * {@code startDate} to {@code endDate} inclusive. The writer is flushed but not closed.
+     *
+     * @return the number of rows written
+     */
+    public long export(Dataset dataset, LocalDate startDate, LocalDate endDate, Writer out) throws IOException {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("Ngày kết thúc phải sau ngày bắt đầu");
+        }
+        out.write(dataset.header);
+        out.write("\r\n");
+
+        CsvRowWriter rows = new CsvRowWriter(out);
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(dataset.sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setTimestamp(1, Timestamp.valueOf(startDate.atStartOfDay()));
+                statement.setTimestamp(2, Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+                return statement;
+            }, resultSet -> {
+                switch (dataset) {
+                    case ORDERS -> rows.orderRow(resultSet);
+                    case ORDER_ITEMS -> rows.itemRow(resultSet);
+                    case PAYMENTS -> rows.paymentRow(resultSet);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // The client went away mid-download
+            throw e.getCause();
+        }
+        out.flush();
+        log.info("Exported {} {} rows from {} to {}", rows.count, dataset.path, startDate, endDate);
+        return rows.count;
+    }
+
+    /**
+     * Formats one result set row per call, reusing a single line buffer.
+     */
+    private static final class CsvRowWriter {
+
+        private final Writer out;
+        private final StringBuilder line = new StringBuilder(256);
+        private boolean rowStarted;
+        private long count;
+
+        CsvRowWriter(Writer out) {
+            this.out = out;
+        }
+
+        void orderRow(ResultSet rs) throws SQLException {
+            number(rs.getLong(1));
+            text(rs.getString(2));
+            time(rs.getTimestamp(3));
+            text(OrderStatus.fromCode(rs.getByte(4)).name());
+            number(rs.getObject(5) != null ? rs.getLong(5) : null);
+            text(rs.getString(6));
+            text(rs.getString(7));
+            amount(rs.getBigDecimal(8));
+            amount(rs.getBigDecimal(9));
+            amount(rs.getBigDecimal(10));
+            amount(rs.getBigDecimal(11));
+            time(rs.getTimestamp(12));
+            endRow();
+        }
+
+        void itemRow(ResultSet rs) throws SQLException {
+            number(rs.getLong(1));
+            number(rs.getLong(2));
+            text(rs.getString(3));
+            time(rs.getTimestamp(4));
+            number(rs.getLong(5));
+            text(rs.getString(6));
+            number((long) rs.getInt(7));
+            amount(rs.getBigDecimal(8));
+            amount(rs.getBigDecimal(9));
+            amount(rs.getBigDecimal(10));
+            text(rs.getString(11));
+            endRow();
+        }
+
+        void paymentRow(ResultSet rs) throws SQLException {
+            number(rs.getLong(1));
+            number(rs.getLong(2));
+            text(rs.getString(3));
+            time(rs.getTimestamp(4));
+            text(rs.getString(5));
+            amount(rs.getBigDecimal(6));
+            text(PaymentStatus.fromCode(rs.getByte(7)).name());
+            text(rs.getString(8));
+            time(rs.getTimestamp(9));
+            endRow();
+        }
+
+        private void number(Long value) {
+            separator();
+            if (value != null) {
+                line.append(value.longValue());
+            }
+        }
+
+        private void amount(BigDecimal value) {
+            separator();
+            if (value != null) {
+                line.append(value.toPlainString());
+            }
+        }
+
+        private void time(Timestamp value) {
+            separator();
+            if (value != null) {
+                line.append(value.toLocalDateTime());
+            }
+        }
+
+        private void text(String value) {
+            separator();
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            // Guest-entered text must not turn into a formula when the file is opened in a spreadsheet
+            char first = value.charAt(0);
+            boolean formula = first == '=' || first == '+' || first == '-' || first == '@';
+            boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            if (formula) {
+                line.append('\'');
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+
+        private void separator() {
+            if (rowStarted) {
+                line.append(',');
+            }
+            rowStarted = true;
+        }
+
+        private void endRow() {
+            line.append("\r\n");
+            try {
+                out.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            line.setLength(0);
+            rowStarted = false;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.fu.cafeshop.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * A filtered group-by over the order fact store: items of orders completed with an order date
+ * from {@code startDate} to {@code endDate} inclusive, matching every filter that is set,
+ * grouped by {@code groupBy}.
+ */
+@Value
+@Builder
+public class OrderFactQuery {
+
+    public enum Dimension {
+        /** Everything in one group with key 0. */
+        ALL,
+        /** Hour of the order, 0 to 23. */
+        HOUR,
+        /** ISO day of week of the order, 1 (Monday) to 7. */
+        WEEKDAY,
+        /** Order date as an epoch day. */
+        DAY,
+        PRODUCT,
+        CATEGORY,
+        /** Table id, -1 for orders without a table. */
+        TABLE,
+        /** Approving staff id, else the creating staff id, -1 for neither. */
+        STAFF
+    }
+
+    LocalDate startDate;
+    LocalDate endDate;
+    @Builder.Default
+    Dimension groupBy = Dimension.ALL;
+    Integer productId;
+    Integer categoryId;
+    Integer tableId;
+    Integer staffId;
+    /** First hour of day included, 0 to 23. */
+    Integer fromHour;
+    /** Last hour of day included, 0 to 23. */
+    Integer toHour;
+}
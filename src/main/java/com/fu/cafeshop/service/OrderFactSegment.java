@@ -0,0 +1,302 @@
+package com.fu.cafeshop.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * One day of order facts, one row per item of a completed order, stored column by column.
+ *
+ * <p>Layout: a 32-byte header (magic, version, day, row count) followed by each column as a
+ * packed little-endian array in the order of {@link Builder#add}. Rows are sorted by order id, so
+ * the items of an order are adjacent. Sealed days are memory-mapped read-only; the open day is
+ * the same layout in a heap buffer. Immutable.
+ */
+final class OrderFactSegment {
+
+    static final int MAGIC = 0x43465331; // "CFS1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    // order id, amount (8 bytes each); minute, product, category, quantity, modifiers, table, staff (4 each)
+    static final int ROW_BYTES = 2 * 8 + 7 * 4;
+    // Marks a missing table or staff id
+    static final int NONE = -1;
+
+    private final LocalDate date;
+    private final int rows;
+    private final ByteBuffer buffer;
+    private final int orderIds;
+    private final int minutes;
+    private final int products;
+    private final int categories;
+    private final int quantities;
+    private final int amounts;
+    private final int modifiers;
+    private final int tables;
+    private final int staff;
+
+    private OrderFactSegment(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not an order fact segment");
+        }
+        this.date = LocalDate.ofEpochDay(buffer.getLong(8));
+        this.rows = buffer.getInt(16);
+        if (buffer.capacity() != HEADER_BYTES + (long) rows * ROW_BYTES) {
+            throw new IllegalStateException("Truncated order fact segment for " + date);
+        }
+        this.orderIds = HEADER_BYTES;
+        this.minutes = orderIds + rows * 8;
+        this.products = minutes + rows * 4;
+        this.categories = products + rows * 4;
+        this.quantities = categories + rows * 4;
+        this.amounts = quantities + rows * 4;
+        this.modifiers = amounts + rows * 8;
+        this.tables = modifiers + rows * 4;
+        this.staff = tables + rows * 4;
+    }
+
+    static OrderFactSegment map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new OrderFactSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    LocalDate date() {
+        return date;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    long orderId(int row) {
+        return buffer.getLong(orderIds + (row << 3));
+    }
+
+    /**
+     * Order time as minutes since 1970-01-01T00:00 local time.
+     */
+    int minute(int row) {
+        return buffer.getInt(minutes + (row << 2));
+    }
+
+    int productId(int row) {
+        return buffer.getInt(products + (row << 2));
+    }
+
+    int categoryId(int row) {
+        return buffer.getInt(categories + (row << 2));
+    }
+
+    int quantity(int row) {
+        return buffer.getInt(quantities + (row << 2));
+    }
+
+    /**
+     * Line total in hundredths of a dong.
+     */
+    long amountMinor(int row) {
+        return buffer.getLong(amounts + (row << 3));
+    }
+
+    int modifierCount(int row) {
+        return buffer.getInt(modifiers + (row << 2));
+    }
+
+    int tableId(int row) {
+        return buffer.getInt(tables + (row << 2));
+    }
+
+    int staffId(int row) {
+        return buffer.getInt(staff + (row << 2));
+    }
+
+    /**
+     * Collects rows in memory and encodes them as a segment.
+     */
+    static final class Builder {
+
+        private final LocalDate date;
+        private int size;
+        private long[] orderIds = new long[64];
+        private int[] minutes = new int[64];
+        private int[] products = new int[64];
+        private int[] categories = new int[64];
+        private int[] quantities = new int[64];
+        private long[] amounts = new long[64];
+        private int[] modifiers = new int[64];
+        private int[] tables = new int[64];
+        private int[] staff = new int[64];
+
+        Builder(LocalDate date) {
+            this.date = date;
+        }
+
+        LocalDate date() {
+            return date;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(long orderId, int minute, int productId, int categoryId, int quantity, long amountMinor,
+                 int modifierCount, int tableId, int staffId) {
+            if (size == orderIds.length) {
+                int capacity = size * 2;
+                orderIds = Arrays.copyOf(orderIds, capacity);
+                minutes = Arrays.copyOf(minutes, capacity);
+                products = Arrays.copyOf(products, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                modifiers = Arrays.copyOf(modifiers, capacity);
+                tables = Arrays.copyOf(tables, capacity);
+                staff = Arrays.copyOf(staff, capacity);
+            }
+            orderIds[size] = orderId;
+            minutes[size] = minute;
+            products[size] = productId;
+            categories[size] = categoryId;
+            quantities[size] = quantity;
+            amounts[size] = amountMinor;
+            modifiers[size] = modifierCount;
+            tables[size] = tableId;
+            staff[size] = staffId;
+            size++;
+        }
+
+        /**
+         * Drops every row of {@code orderId}.
+         */
+        void remove(long orderId) {
+            int kept = 0;
+            for (int row = 0; row < size; row++) {
+                if (orderIds[row] != orderId) {
+                    orderIds[kept] = orderIds[row];
+                    minutes[kept] = minutes[row];
+                    products[kept] = products[row];
+                    categories[kept] = categories[row];
+                    quantities[kept] = quantities[row];
+                    amounts[kept] = amounts[row];
+                    modifiers[kept] = modifiers[row];
+                    tables[kept] = tables[row];
+                    staff[kept] = staff[row];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        OrderFactSegment build() {
+            return new OrderFactSegment(encode());
+        }
+
+        /**
+         * Writes the segment under a temporary name and moves it into place, so a reader never
+         * maps a partial file.
+         */
+        void writeTo(Path file) throws IOException {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    ByteBuffer encoded = encode();
+                    while (encoded.hasRemaining()) {
+                        channel.write(encoded);
+                    }
+                    channel.force(true);
+                }
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private ByteBuffer encode() {
+            // Orders must be contiguous; appends arrive in completion order, not id order
+            sortByOrderId();
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + size * ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(date.toEpochDay()).putInt(size);
+            buffer.position(HEADER_BYTES);
+            for (int row = 0; row < size; row++) {
+                buffer.putLong(orderIds[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                buffer.putInt(minutes[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                buffer.putInt(products[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                buffer.putInt(categories[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                buffer.putInt(quantities[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                buffer.putLong(amounts[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                buffer.putInt(modifiers[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                buffer.putInt(tables[row]);
+            }
+            for (int row = 0; row < size; row++) {
+                buffer.putInt(staff[row]);
+            }
+            return buffer.flip();
+        }
+
+        private void sortByOrderId() {
+            boolean sorted = true;
+            for (int row = 1; row < size && sorted; row++) {
+                sorted = orderIds[row - 1] <= orderIds[row];
+            }
+            if (sorted) {
+                return;
+            }
+            Integer[] order = new Integer[size];
+            for (int row = 0; row < size; row++) {
+                order[row] = row;
+            }
+            // Stable, so the items of an order keep their order
+            Arrays.sort(order, (a, b) -> Long.compare(orderIds[a], orderIds[b]));
+            orderIds = permute(orderIds, order);
+            minutes = permute(minutes, order);
+            products = permute(products, order);
+            categories = permute(categories, order);
+            quantities = permute(quantities, order);
+            amounts = permute(amounts, order);
+            modifiers = permute(modifiers, order);
+            tables = permute(tables, order);
+            staff = permute(staff, order);
+        }
+
+        private static long[] permute(long[] column, Integer[] order) {
+            long[] permuted = new long[column.length];
+            for (int row = 0; row < order.length; row++) {
+                permuted[row] = column[order[row]];
+            }
+            return permuted;
+        }
+
+        private static int[] permute(int[] column, Integer[] order) {
+            int[] permuted = new int[column.length];
+            for (int row = 0; row < order.length; row++) {
+                permuted[row] = column[order[row]];
+            }
+            return permuted;
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.OrderFactGroup;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import com.fu.cafeshop.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Columnar store of order facts for ad-hoc analysis: one row per item of a completed order with
+ * primitive columns (see {@link OrderFactSegment}), bucketed by order date like the reports.
+ *
+ * <p>Each past day is an immutable segment file, memory-mapped read-only. A day is sealed from
+ * the database by the nightly job, and sealed again into a new file version when a completion,
+ * cancellation or refund later touches it. Today's completed orders are appended in memory
+ * after commit and reloaded at startup. {@link #query} scans the segments on a fork-join pool,
+ * in slices cut at order boundaries, and merges the partial groups.
+ */
+@Service
+@Slf4j
+public class OrderFactStore {
+
+    private static final String FACT_SELECT =
+            "SELECT o.id, o.created_at, i.product_id, " +
+            "(SELECT p.category_id FROM products p WHERE p.id = i.product_id), i.quantity, i.total_price, " +
+            "(SELECT COUNT(*) FROM order_item_modifiers m WHERE m.order_item_id = i.id), o.table_id, " +
+            "COALESCE(o.approved_by_staff_id, o.created_by_staff_id) " +
+            "FROM orders o JOIN order_items i ON i.order_id = o.id " +
+            "WHERE o.status_code = ? ";
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("facts-(\\d{8})\\.v(\\d+)\\.seg");
+    private static final int SLICE_ROWS = 1 << 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final Path root;
+    private final int backfillDays;
+    private final ForkJoinPool pool;
+
+    private final NavigableMap<LocalDate, Sealed> sealed = new ConcurrentSkipListMap<>();
+    private OrderFactSegment.Builder open;
+    private volatile OrderFactSegment openSegment;
+
+    public OrderFactStore(JdbcTemplate jdbcTemplate,
+                          OrderRepository orderRepository,
+                          @Value("${cafeshop.facts.storage-path:data/facts}") String root,
+                          @Value("${cafeshop.facts.backfill-days:90}") int backfillDays,
+                          @Value("${cafeshop.facts.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderRepository = orderRepository;
+        this.root = Path.of(root);
+        this.backfillDays = backfillDays;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() throws IOException {
+        mapExisting();
+        reloadOpenDay();
+        sealMissing();
+    }
+
+    /**
+     * Seals every day of the backfill window up to yesterday that has no segment yet, and
+     * starts a new open day after midnight.
+     */
+    @Scheduled(cron = "${cafeshop.facts.seal-cron:0 45 3 * * *}")
+    public synchronized void sealMissing() {
+        LocalDate today = LocalDate.now();
+        for (LocalDate day = today.minusDays(backfillDays); day.isBefore(today); day = day.plusDays(1)) {
+            if (!sealed.containsKey(day)) {
+                seal(day);
+            }
+        }
+        if (open == null || !open.date().equals(today)) {
+            reloadOpenDay();
+        }
+    }
+
+    /**
+     * Rebuilds the segment of {@code date} from the database as a new file version.
+     */
+    public synchronized void seal(LocalDate date) {
+        OrderFactSegment.Builder builder = new OrderFactSegment.Builder(date);
+        fetch(builder, "AND o.created_at >= ? AND o.created_at < ? ORDER BY o.id, i.id",
+                Timestamp.valueOf(date.atStartOfDay()), Timestamp.valueOf(date.plusDays(1).atStartOfDay()));
+        Sealed previous = sealed.get(date);
+        int version = previous != null ? previous.version + 1 : 1;
+        Path file = root.resolve("facts-" + date.format(FILE_DATE) + ".v" + version + ".seg");
+        try {
+            builder.writeTo(file);
+            sealed.put(date, new Sealed(OrderFactSegment.map(file), version));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write order facts of " + date, e);
+        }
+        if (previous != null) {
+            deleteQuietly(previous.version, date);
+        }
+        log.debug("Sealed {} order facts for {} (v{})", builder.size(), date, version);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean completed = event.status() == OrderStatus.DONE;
+        if (!completed && event.previousStatus() != OrderStatus.DONE) {
+            return;
+        }
+        LocalDateTime createdAt = orderRepository.findCreatedAtById(event.orderId()).orElse(null);
+        if (createdAt == null) {
+            return;
+        }
+        LocalDate date = createdAt.toLocalDate();
+        synchronized (this) {
+            if (open != null && open.date().equals(date)) {
+                open.remove(event.orderId());
+                if (completed) {
+                    fetch(open, "AND o.id = ? ORDER BY i.id", event.orderId());
+                }
+                openSegment = open.build();
+            } else if (date.isBefore(LocalDate.now()) && (sealed.containsKey(date)
+                    || !date.isBefore(LocalDate.now().minusDays(backfillDays)))) {
+                seal(date);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code query} over every segment in its date range.
+     */
+    public List<OrderFactGroup> query(OrderFactQuery query) {
+        if (query.getEndDate().isBefore(query.getStartDate())) {
+            throw new RuntimeException("Ngày kết thúc phải sau ngày bắt đầu");
+        }
+        List<Slice> slices = new ArrayList<>();
+        for (Sealed segment : sealed.subMap(query.getStartDate(), true, query.getEndDate(), true).values()) {
+            slice(segment.segment, slices);
+        }
+        OrderFactSegment today = openSegment;
+        if (today != null && !sealed.containsKey(today.date())
+                && !today.date().isBefore(query.getStartDate()) && !today.date().isAfter(query.getEndDate())) {
+            slice(today, slices);
+        }
+        if (slices.isEmpty()) {
+            return List.of();
+        }
+        return pool.invoke(new ScanTask(new Scan(query), slices, 0, slices.size())).toGroups();
+    }
+
+    public int sealedDays() {
+        return sealed.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private synchronized void reloadOpenDay() {
+        LocalDate today = LocalDate.now();
+        if (open != null && !open.date().equals(today) && !sealed.containsKey(open.date())) {
+            seal(open.date());
+        }
+        OrderFactSegment.Builder builder = new OrderFactSegment.Builder(today);
+        fetch(builder, "AND o.created_at >= ? ORDER BY o.id, i.id", Timestamp.valueOf(today.atStartOfDay()));
+        open = builder;
+        openSegment = builder.build();
+    }
+
+    private void fetch(OrderFactSegment.Builder builder, String condition, Object... parameters) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FACT_SELECT + condition,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(1000);
+            statement.setByte(1, OrderStatus.DONE.getCode());
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 2, parameters[i]);
+            }
+            return statement;
+        }, rs -> {
+            LocalDateTime createdAt = rs.getTimestamp(2).toLocalDateTime();
+            BigDecimal total = rs.getBigDecimal(6);
+            builder.add(rs.getLong(1),
+                    (int) (createdAt.toEpochSecond(ZoneOffset.UTC) / 60),
+                    Math.toIntExact(rs.getLong(3)),
+                    Math.toIntExact(rs.getLong(4)),
+                    rs.getInt(5),
+                    total != null ? total.movePointRight(2).longValue() : 0,
+                    rs.getInt(7),
+                    rs.getObject(8) != null ? Math.toIntExact(rs.getLong(8)) : OrderFactSegment.NONE,
+                    rs.getObject(9) != null ? Math.toIntExact(rs.getLong(9)) : OrderFactSegment.NONE);
+        });
+    }
+
+    private void mapExisting() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Map<LocalDate, Integer> latest = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "facts-*.seg")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    latest.merge(LocalDate.parse(matcher.group(1), FILE_DATE), Integer.parseInt(matcher.group(2)),
+                            Math::max);
+                }
+            }
+        }
+        for (Map.Entry<LocalDate, Integer> day : latest.entrySet()) {
+            LocalDate date = day.getKey();
+            int version = day.getValue();
+            sealed.put(date, new Sealed(OrderFactSegment.map(root.resolve(
+                    "facts-" + date.format(FILE_DATE) + ".v" + version + ".seg")), version));
+            for (int older = version - 1; older > 0; older--) {
+                deleteQuietly(older, date);
+            }
+        }
+        log.info("Order fact store mapped {} sealed days from {}", sealed.size(), root.toAbsolutePath());
+    }
+
+    private void deleteQuietly(int version, LocalDate date) {
+        try {
+            Files.deleteIfExists(root.resolve("facts-" + date.format(FILE_DATE) + ".v" + version + ".seg"));
+        } catch (IOException e) {
+            // Windows refuses to delete a file that is still mapped; the next startup removes it
+            log.debug("Could not delete old order facts of {} v{}: {}", date, version, e.getMessage());
+        }
+    }
+
+    private static void slice(OrderFactSegment segment, List<Slice> slices) {
+        int from = 0;
+        while (from < segment.rows()) {
+            int to = Math.min(from + SLICE_ROWS, segment.rows());
+            // Never split an order, so distinct order counts add up across slices
+            while (to < segment.rows() && segment.orderId(to) == segment.orderId(to - 1)) {
+                to++;
+            }
+            slices.add(new Slice(segment, from, to));
+            from = to;
+        }
+    }
+
+    private record Sealed(OrderFactSegment segment, int version) {
+    }
+
+    private record Slice(OrderFactSegment segment, int from, int to) {
+    }
+
+    private static final class ScanTask extends RecursiveTask<Groups> {
+
+        private final Scan scan;
+        private final List<Slice> slices;
+        private final int from;
+        private final int to;
+
+        ScanTask(Scan scan, List<Slice> slices, int from, int to) {
+            this.scan = scan;
+            this.slices = slices;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Groups compute() {
+            if (to - from == 1) {
+                return scan.run(slices.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(scan, slices, from, middle);
+            left.fork();
+            Groups right = new ScanTask(scan, slices, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * The filters and grouping of a query, unboxed once for the row loop.
+     */
+    private static final class Scan {
+
+        private static final int ANY = Integer.MIN_VALUE;
+
+        private final OrderFactQuery.Dimension groupBy;
+        private final int productId;
+        private final int categoryId;
+        private final int tableId;
+        private final int staffId;
+        private final int fromHour;
+        private final int toHour;
+
+        Scan(OrderFactQuery query) {
+            this.groupBy = query.getGroupBy();
+            this.productId = query.getProductId() != null ? query.getProductId() : ANY;
+            this.categoryId = query.getCategoryId() != null ? query.getCategoryId() : ANY;
+            this.tableId = query.getTableId() != null ? query.getTableId() : ANY;
+            this.staffId = query.getStaffId() != null ? query.getStaffId() : ANY;
+            this.fromHour = query.getFromHour() != null ? query.getFromHour() : 0;
+            this.toHour = query.getToHour() != null ? query.getToHour() : 23;
+        }
+
+        Groups run(Slice slice) {
+            OrderFactSegment segment = slice.segment();
+            Groups groups = new Groups();
+            for (int row = slice.from(); row < slice.to(); row++) {
+                if (productId != ANY && segment.productId(row) != productId
+                        || categoryId != ANY && segment.categoryId(row) != categoryId
+                        || tableId != ANY && segment.tableId(row) != tableId
+                        || staffId != ANY && segment.staffId(row) != staffId) {
+                    continue;
+                }
+                int minute = segment.minute(row);
+                int hour = (minute / 60) % 24;
+                if (hour < fromHour || hour > toHour) {
+                    continue;
+                }
+                int key = switch (groupBy) {
+                    case ALL -> 0;
+                    case HOUR -> hour;
+                    // 1970-01-01 was a Thursday
+                    case WEEKDAY -> (minute / 1440 + 3) % 7 + 1;
+                    case DAY -> minute / 1440;
+                    case PRODUCT -> segment.productId(row);
+                    case CATEGORY -> segment.categoryId(row);
+                    case TABLE -> segment.tableId(row);
+                    case STAFF -> segment.staffId(row);
+                };
+                int quantity = segment.quantity(row);
+                groups.add(key, segment.orderId(row), quantity, segment.amountMinor(row),
+                        segment.modifierCount(row) > 0 ? quantity : 0);
+            }
+            return groups;
+        }
+    }
+
+    /**
+     * Partial aggregates by group key: small keys in an array, the rest in a map.
+     */
+    private static final class Groups {
+
+        private static final int DIRECT_KEYS = 1024;
+        // [items, orders, quantity, amount minor, quantity with modifiers, last order id]
+        private final long[][] direct = new long[DIRECT_KEYS][];
+        private final Map<Integer, long[]> other = new HashMap<>();
+
+        void add(int key, long orderId, int quantity, long amountMinor, int quantityWithModifiers) {
+            long[] group = group(key);
+            group[0]++;
+            // Rows are sorted by order id, so a new order id means a new order for this group
+            if (group[5] != orderId) {
+                group[1]++;
+                group[5] = orderId;
+            }
+            group[2] += quantity;
+            group[3] += amountMinor;
+            group[4] += quantityWithModifiers;
+        }
+
+        Groups merge(Groups from) {
+            for (int key = 0; key < DIRECT_KEYS; key++) {
+                if (from.direct[key] != null) {
+                    addAll(key, from.direct[key]);
+                }
+            }
+            from.other.forEach(this::addAll);
+            return this;
+        }
+
+        List<OrderFactGroup> toGroups() {
+            Map<Integer, long[]> all = new TreeMap<>(other);
+            for (int key = 0; key < DIRECT_KEYS; key++) {
+                if (direct[key] != null) {
+                    all.put(key, direct[key]);
+                }
+            }
+            List<OrderFactGroup> groups = new ArrayList<>(all.size());
+            all.forEach((key, group) -> groups.add(new OrderFactGroup(key, group[0], group[1], group[2],
+                    BigDecimal.valueOf(group[3], 2), group[4])));
+            return groups;
+        }
+
+        private void addAll(int key, long[] from) {
+            long[] group = group(key);
+            for (int i = 0; i < 5; i++) {
+                group[i] += from[i];
+            }
+        }
+
+        private long[] group(int key) {
+            if (key >= 0 && key < DIRECT_KEYS) {
+                long[] group = direct[key];
+                if (group == null) {
+                    group = direct[key] = newGroup();
+                }
+                return group;
+            }
+            return other.computeIfAbsent(key, k -> newGroup());
+        }
+
+        private static long[] newGroup() {
+            return new long[]{0, 0, 0, 0, 0, Long.MIN_VALUE};
+        }
+    }
+}
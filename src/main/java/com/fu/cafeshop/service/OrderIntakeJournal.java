@@ -0,0 +1,176 @@
+package com.fu.cafeshop.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal backed by a memory-mapped file.
+ *
+ * <pre>
+ * header : magic(int) version(int) writePosition(long) drainedPosition(long)
+ * record : length(int) crc32(int) payload(length bytes)
+ * </pre>
+ *
+ * Records between drainedPosition and writePosition have been accepted but not yet
+ * written to the database; they are replayed after a restart. Once everything is
+ * drained the journal rewinds to the start of the file.
+ */
+public class OrderIntakeJournal implements Closeable {
+
+    static final int HEADER_SIZE = 64;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAGIC = 0x4A524E4C; // "JRNL"
+    private static final int VERSION = 1;
+    private static final int WRITE_POSITION_OFFSET = 8;
+    private static final int DRAINED_POSITION_OFFSET = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean fsync;
+
+    private int writePosition;
+    private int drainedPosition;
+
+    public OrderIntakeJournal(Path file, int capacity, boolean fsync) throws IOException {
+        if (capacity <= HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Journal capacity too small: " + capacity);
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        int existingSize = (int) Math.min(channel.size(), Integer.MAX_VALUE);
+        this.capacity = Math.max(capacity, existingSize);
+        this.fsync = fsync;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, this.capacity);
+
+        if (existingSize >= HEADER_SIZE && buffer.getInt(0) == MAGIC) {
+            writePosition = buffer.getInt(WRITE_POSITION_OFFSET);
+            drainedPosition = buffer.getInt(DRAINED_POSITION_OFFSET);
+            writePosition = lastValidPosition(drainedPosition, writePosition);
+        } else {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            writePosition = HEADER_SIZE;
+            drainedPosition = HEADER_SIZE;
+            writeHeader();
+        }
+    }
+
+    /**
+     * Appends a record and, when fsync is enabled, forces it to disk before returning.
+     *
+     * @return false if the journal has no room left for the record
+     */
+    public synchronized boolean append(byte[] payload) {
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (writePosition + recordSize > capacity) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        int start = writePosition;
+        buffer.putInt(start, payload.length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.put(start + RECORD_HEADER_SIZE, payload);
+        if (fsync) {
+            buffer.force(start, recordSize);
+        }
+        writePosition = start + recordSize;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records that have not been drained yet, oldest first.
+     */
+    public synchronized Batch readPending(int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        int position = drainedPosition;
+        while (position < writePosition && records.size() < maxRecords) {
+            int length = buffer.getInt(position);
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+            records.add(payload);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return new Batch(records, position);
+    }
+
+    /**
+     * Marks everything up to {@code position} as written to the database.
+     */
+    public synchronized void markDrained(int position) {
+        if (position < drainedPosition || position > writePosition) {
+            throw new IllegalArgumentException("Invalid drain position " + position);
+        }
+        drainedPosition = position;
+        if (drainedPosition == writePosition) {
+            // Nothing outstanding: rewind so the file is reused from the start
+            writePosition = HEADER_SIZE;
+            drainedPosition = HEADER_SIZE;
+        }
+        writeHeader();
+    }
+
+    public synchronized boolean hasPending() {
+        return drainedPosition < writePosition;
+    }
+
+    public synchronized int pendingBytes() {
+        return writePosition - drainedPosition;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void writeHeader() {
+        buffer.putInt(WRITE_POSITION_OFFSET, writePosition);
+        buffer.putInt(DRAINED_POSITION_OFFSET, drainedPosition);
+        if (fsync) {
+            buffer.force(0, HEADER_SIZE);
+        }
+    }
+
+    // Stops at the first torn or corrupt record left behind by a crash mid-append
+    private int lastValidPosition(int from, int to) {
+        int position = from;
+        while (position + RECORD_HEADER_SIZE <= to) {
+            int length = buffer.getInt(position);
+            if (length < 0 || position + RECORD_HEADER_SIZE + length > to) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    public record Batch(List<byte[]> records, int endPosition) {
+
+        public boolean isEmpty() {
+            return records.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.fu.cafeshop.service;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A validated checkout, as accepted from the customer and recorded in the intake journal.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeRequest {
+    private String orderNumber;
+    private Long tableId;
+    private String guestName;
+    private String guestPhone;
+    private String customerNotes;
+    private LocalDateTime submittedAt;
+    private List<OrderService.CartItem> cartItems;
+}
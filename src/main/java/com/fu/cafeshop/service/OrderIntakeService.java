@@ -0,0 +1,260 @@
+package com.fu.cafeshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point for checkout. In {@code sync} mode orders are written to the database on the
+ * request thread. In {@code journal} mode the checkout is appended to a memory-mapped
+ * {@link OrderIntakeJournal}, the customer gets the order number immediately, and a background
+ * writer drains the journal to the database in batches.
+ *
+ * <p>Either way the cart is checked against the menu before the order number is issued. A
+ * journaled checkout the writer still cannot place, or a journal record it cannot read, is kept
+ * as a {@link com.fu.cafeshop.entity.RejectedOrder} for staff to follow up.
+ */
+@Service
+@Slf4j
+public class OrderIntakeService {
+
+    private static final long IDLE_WAIT_MILLIS = 200;
+    private static final long RETRY_BACKOFF_MILLIS = 2000;
+
+    private final OrderPlacementService placementService;
+    private final RejectedOrderService rejectedOrderService;
+    private final DocumentNumberService documentNumberService;
+    private final ObjectMapper objectMapper;
+    private final boolean journalMode;
+    private final Path journalPath;
+    private final int journalSize;
+    private final boolean fsync;
+    private final int batchSize;
+
+    private final Set<String> pendingOrderNumbers = ConcurrentHashMap.newKeySet();
+    private final Object signal = new Object();
+
+    private OrderIntakeJournal journal;
+    private Thread writer;
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    public OrderIntakeService(OrderPlacementService placementService,
+                              RejectedOrderService rejectedOrderService,
+                              DocumentNumberService documentNumberService,
+                              ObjectMapper objectMapper,
+                              @Value("${cafeshop.intake.mode:sync}") String mode,
+                              @Value("${cafeshop.intake.journal-path:data/order-intake.journal}") String journalPath,
+                              @Value("${cafeshop.intake.journal-size-mb:16}") int journalSizeMb,
+                              @Value("${cafeshop.intake.fsync:true}") boolean fsync,
+                              @Value("${cafeshop.intake.batch-size:50}") int batchSize) {
+        this.placementService = placementService;
+        this.rejectedOrderService = rejectedOrderService;
+        this.documentNumberService = documentNumberService;
+        this.objectMapper = objectMapper;
+        this.journalMode = "journal".equalsIgnoreCase(mode);
+        this.journalPath = Path.of(journalPath);
+        this.journalSize = journalSizeMb * 1024 * 1024;
+        this.fsync = fsync;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!journalMode) {
+            return;
+        }
+        journal = new OrderIntakeJournal(journalPath, journalSize, fsync);
+
+        // Orders accepted before a crash are still in the journal; keep them visible until replayed
+        for (byte[] record : journal.readPending(Integer.MAX_VALUE).records()) {
+            OrderIntakeRequest request = decodeOrNull(record);
+            if (request != null) {
+                pendingOrderNumbers.add(request.getOrderNumber());
+            }
+        }
+        if (!pendingOrderNumbers.isEmpty()) {
+            log.info("Replaying {} journaled orders from {}", pendingOrderNumbers.size(), journalPath);
+        }
+
+        running = true;
+        accepting = true;
+        writer = new Thread(this::drainLoop, "order-intake-writer");
+        writer.start();
+    }
+
+    /**
+     * Accepts a validated checkout.
+     *
+     * @return the order number to show the customer
+     */
+    public String submit(OrderIntakeRequest request) {
+        placementService.validate(request);
+        request.setSubmittedAt(LocalDateTime.now());
+        if (!journalMode || !accepting) {
+            return placementService.place(request).getOrderNumber();
+        }
+
+        request.setOrderNumber(documentNumberService.nextOrderNumber());
+        pendingOrderNumbers.add(request.getOrderNumber());
+        if (!journal.append(encode(request))) {
+            pendingOrderNumbers.remove(request.getOrderNumber());
+            log.warn("Order intake journal is full, placing order {} synchronously", request.getOrderNumber());
+            return placementService.place(request).getOrderNumber();
+        }
+
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        return request.getOrderNumber();
+    }
+
+    /**
+     * Whether the order has been accepted but not yet written to the database.
+     */
+    public boolean isPending(String orderNumber) {
+        return pendingOrderNumbers.contains(orderNumber);
+    }
+
+    public int getPendingCount() {
+        return pendingOrderNumbers.size();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        accepting = false;
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        // The writer exits only once the journal is empty (or the database stays unreachable)
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (journal.hasPending()) {
+            log.warn("Shutting down with {} journaled orders not yet written; they will be replayed on startup",
+                    pendingOrderNumbers.size());
+        }
+        journal.close();
+    }
+
+    private void drainLoop() {
+        while (true) {
+            OrderIntakeJournal.Batch batch = journal.readPending(batchSize);
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                await(IDLE_WAIT_MILLIS);
+                continue;
+            }
+
+            List<OrderIntakeRequest> requests = new ArrayList<>(batch.records().size());
+            List<byte[]> unreadable = new ArrayList<>();
+            for (byte[] record : batch.records()) {
+                OrderIntakeRequest request = decodeOrNull(record);
+                if (request != null) {
+                    requests.add(request);
+                } else {
+                    unreadable.add(record);
+                }
+            }
+
+            try {
+                persist(requests);
+                for (byte[] record : unreadable) {
+                    rejectedOrderService.record(null, new String(record, StandardCharsets.UTF_8),
+                            "Unreadable journal record");
+                }
+            } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                log.warn("Database unavailable, {} journaled orders waiting: {}", requests.size(), e.getMessage());
+                if (!running) {
+                    return;
+                }
+                await(RETRY_BACKOFF_MILLIS);
+                continue;
+            } catch (RuntimeException e) {
+                // Keep the writer alive; the batch stays in the journal and is tried again
+                log.error("Failed to write {} journaled orders, retrying", requests.size(), e);
+                if (!running) {
+                    return;
+                }
+                await(RETRY_BACKOFF_MILLIS);
+                continue;
+            }
+
+            journal.markDrained(batch.endPosition());
+            requests.forEach(request -> pendingOrderNumbers.remove(request.getOrderNumber()));
+        }
+    }
+
+    private void persist(List<OrderIntakeRequest> requests) {
+        try {
+            placementService.placeAll(requests);
+        } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            throw e;
+        } catch (RuntimeException batchError) {
+            // One bad checkout must not block the rest of the batch
+            for (OrderIntakeRequest request : requests) {
+                try {
+                    placementService.placeIfAbsent(request);
+                } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    log.error("Rejected journaled order {}: {}", request.getOrderNumber(), e.getMessage());
+                    rejectedOrderService.record(request, new String(encode(request), StandardCharsets.UTF_8),
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void await(long millis) {
+        synchronized (signal) {
+            try {
+                signal.wait(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private byte[] encode(OrderIntakeRequest request) {
+        try {
+            return objectMapper.writeValueAsBytes(request);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Null if the record is not a checkout this version can read.
+     */
+    private OrderIntakeRequest decodeOrNull(byte[] record) {
+        try {
+            return objectMapper.readValue(record, OrderIntakeRequest.class);
+        } catch (IOException e) {
+            log.error("Unreadable journal record of {} bytes: {}", record.length, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.CafeTable;
+import com.fu.cafeshop.entity.Customer;
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.repository.OrderRepository;
+import com.fu.cafeshop.service.MenuSnapshot.ModifierView;
+import com.fu.cafeshop.service.MenuSnapshot.ProductView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns an accepted checkout into a persisted order: customer upsert, table lookup and
+ * {@link OrderService#createOrder}. Used directly for synchronous checkout and by the
+ * intake journal writer for queued ones.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderPlacementService {
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final CustomerService customerService;
+    private final CafeTableService cafeTableService;
+    private final MenuCatalog menuCatalog;
+
+    /**
+     * Checks the cart against the current menu before the checkout is accepted: every product
+     * still served, every modifier still offered, and the prices the customer saw unchanged.
+     * Runs on the request thread, so journaled checkouts are refused before they get a number.
+     */
+    public void validate(OrderIntakeRequest request) {
+        List<OrderService.CartItem> cartItems = request.getCartItems();
+        if (cartItems == null || cartItems.isEmpty()) {
+            throw new RuntimeException("Giỏ hàng trống!");
+        }
+        MenuSnapshot menu = menuCatalog.getSnapshot();
+        for (OrderService.CartItem item : cartItems) {
+            ProductView product = menu.findProduct(item.getProductId())
+                    .orElseThrow(() -> new RuntimeException("Món " + item.getProductName() + " hiện không còn phục vụ"));
+            if (item.getQuantity() < 1) {
+                throw new RuntimeException("Số lượng món " + product.getName() + " không hợp lệ");
+            }
+            Money modifiersPrice = Money.ZERO;
+            if (item.getModifierNames() != null) {
+                for (String name : item.getModifierNames()) {
+                    ModifierView modifier = product.getModifiers().stream()
+                            .filter(candidate -> candidate.getName().equals(name))
+                            .findFirst()
+                            .orElseThrow(() -> new RuntimeException(
+                                    "Tùy chọn " + name + " của món " + product.getName() + " không còn"));
+                    modifiersPrice = modifiersPrice.plus(Money.orZero(Money.of(modifier.getPriceDelta())));
+                }
+            }
+            if (!Money.of(product.getDefaultPrice()).equals(item.getUnitPrice())
+                    || !modifiersPrice.equals(Money.orZero(item.getModifiersPrice()))) {
+                throw new RuntimeException("Giá món " + product.getName()
+                        + " đã thay đổi, vui lòng kiểm tra lại giỏ hàng");
+            }
+        }
+    }
+
+    @Transactional
+    public Order place(OrderIntakeRequest request) {
+        CafeTable cafeTable = cafeTableService.getTableById(request.getTableId());
+        String guestName = request.getGuestName();
+        String guestPhone = request.getGuestPhone();
+
+        // Create or find customer if info provided
+        Customer customer = null;
+        if ((guestPhone != null && !guestPhone.isBlank()) ||
+            (guestName != null && !guestName.isBlank())) {
+            customer = customerService.createOrUpdateCustomer(guestName, guestPhone, null);
+        }
+
+        Order order = Order.builder()
+                .orderNumber(request.getOrderNumber())
+                .customer(customer)
+                .cafeTable(cafeTable)
+                .guestName(customer == null ? guestName : null)
+                .guestPhone(customer == null ? guestPhone : null)
+                .customerNotes(request.getCustomerNotes())
+                .createdAt(request.getSubmittedAt())
+                .build();
+
+        return orderService.createOrder(order, request.getCartItems());
+    }
+
+    /**
+     * Persists a batch of journaled checkouts in one transaction. Orders whose number is
+     * already in the database (written before a crash, replayed afterwards) are skipped.
+     */
+    @Transactional
+    public int placeAll(List<OrderIntakeRequest> requests) {
+        Set<String> existing = new HashSet<>(orderRepository.findExistingOrderNumbers(
+                requests.stream().map(OrderIntakeRequest::getOrderNumber).toList()));
+        int placed = 0;
+        for (OrderIntakeRequest request : requests) {
+            if (existing.add(request.getOrderNumber())) {
+                place(request);
+                placed++;
+            }
+        }
+        return placed;
+    }
+
+    @Transactional
+    public boolean placeIfAbsent(OrderIntakeRequest request) {
+        if (!orderRepository.findExistingOrderNumbers(List.of(request.getOrderNumber())).isEmpty()) {
+            return false;
+        }
+        place(request);
+        return true;
+    }
+}
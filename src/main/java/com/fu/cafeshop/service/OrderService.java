@@ -1,19 +1,29 @@
 package com.fu.cafeshop.service;
 
+import com.fu.cafeshop.dto.OrderSummary;
 import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
 import com.fu.cafeshop.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,26 +33,20 @@ public class OrderService {
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final PaymentRepository paymentRepository;
+    private final DocumentNumberService documentNumberService;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public List<OrderSummary> getOrderSummaries() {
+        return orderRepository.findSummaries();
     }
 
-    public List<Order> getRecentOrders() {
-        return orderRepository.findTop10ByOrderByCreatedAtDesc();
+    public List<OrderSummary> getOrderSummaries(OrderStatus status) {
+        return orderRepository.findSummariesByStatus(status);
     }
 
-    public List<Order> getOrdersByStatus(String status) {
-        return orderRepository.findByStatusOrderByCreatedAtDesc(status);
-    }
-
-    public List<Order> getPendingOrders() {
-        return orderRepository.findPendingOrders(Arrays.asList("PENDING", "APPROVED", "COOKING"));
-    }
-
-    public List<Order> getActiveOrders() {
-        return orderRepository.findByStatusInOrderByCreatedAtDesc(
-                Arrays.asList("PENDING", "APPROVED", "COOKING", "IN_PROGRESS"));
+    public List<OrderSummary> getRecentOrderSummaries() {
+        return orderRepository.findSummaries(PageRequest.of(0, 10));
     }
 
     public Order getOrderById(Long id) {
@@ -55,6 +59,10 @@ public class OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found with number: " + orderNumber));
     }
 
+    public Optional<OrderStatus> findStatusByNumber(String orderNumber) {
+        return orderRepository.findStatusByOrderNumber(orderNumber);
+    }
+
     public Order getOrderWithItems(Long id) {
         return orderRepository.findByIdWithItems(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
@@ -62,139 +70,213 @@ public class OrderService {
 
     @Transactional
     public Order createOrder(Order order, List<CartItem> cartItems) {
-        // Generate order number
-        String orderNumber = generateOrderNumber();
-        order.setOrderNumber(orderNumber);
-        order.setStatus("PENDING");
+        // Generate order number (journaled orders arrive with the number already handed to the customer)
+        if (order.getOrderNumber() == null) {
+            order.setOrderNumber(documentNumberService.nextOrderNumber());
+        }
+        order.setStatus(OrderStatus.PENDING);
         
         // Initialize default values if null (builder doesn't apply field defaults)
-        if (order.getTaxAmount() == null) order.setTaxAmount(BigDecimal.ZERO);
-        if (order.getDiscountAmount() == null) order.setDiscountAmount(BigDecimal.ZERO);
+        if (order.getTaxAmount() == null) order.setTaxAmount(Money.ZERO);
+        if (order.getDiscountAmount() == null) order.setDiscountAmount(Money.ZERO);
+
+        // Resolve every product (and its modifiers) in a single query
+        Set<Long> productIds = cartItems.stream()
+                .map(CartItem::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllByIdWithModifiers(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
         // Calculate totals
-        BigDecimal subtotal = BigDecimal.ZERO;
-        List<OrderItem> orderItems = new ArrayList<>();
+        long subtotalMinor = 0;
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
 
         for (CartItem cartItem : cartItems) {
-            Product product = productRepository.findById(cartItem.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            Product product = products.get(cartItem.getProductId());
+            if (product == null) {
+                throw new RuntimeException("Product not found");
+            }
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
             orderItem.setProductName(product.getName());
             orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setUnitPrice(product.getDefaultPrice());
-            // Handle null modifiersPrice
-            BigDecimal modPrice = cartItem.getModifiersPrice() != null ? cartItem.getModifiersPrice() : BigDecimal.ZERO;
-            orderItem.setModifiersPrice(modPrice);
+            orderItem.setUnitPrice(Money.of(product.getDefaultPrice()));
+            orderItem.setModifiersPrice(Money.orZero(cartItem.getModifiersPrice()));
+            orderItem.setItemModifiers(buildItemModifiers(orderItem, product, cartItem.getModifierNames()));
             orderItem.calculateTotalPrice();
 
-            subtotal = subtotal.add(orderItem.getTotalPrice());
+            subtotalMinor = Math.addExact(subtotalMinor, orderItem.getTotalPrice().getMinorUnits());
             orderItems.add(orderItem);
         }
 
+        Money subtotal = Money.ofMinor(subtotalMinor);
         order.setSubtotal(subtotal);
-        order.setTotalAmount(subtotal.add(order.getTaxAmount()).subtract(order.getDiscountAmount()));
+        order.setTotalAmount(subtotal.plus(order.getTaxAmount()).minus(order.getDiscountAmount()));
         order.setOrderItems(orderItems);
 
-        Order savedOrder = orderRepository.save(order);
-
-        // Create pending payment
+        // Create pending payment; persisted with the order, its items and modifiers in one batched flush
         Payment payment = Payment.builder()
-                .order(savedOrder)
+                .order(order)
                 .paymentMethod("CASH")
-                .amount(savedOrder.getTotalAmount())
-                .status("PENDING")
+                .amount(order.getTotalAmount().toBigDecimal())
+                .status(PaymentStatus.PENDING)
                 .build();
-        paymentRepository.save(payment);
+        order.setPayment(payment);
+
+        Order saved = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderCreatedEvent(saved.getId(), saved.getOrderNumber()));
+        return saved;
+    }
+
+    private List<OrderItemModifier> buildItemModifiers(OrderItem orderItem, Product product, List<String> modifierNames) {
+        List<OrderItemModifier> itemModifiers = new ArrayList<>();
+        if (modifierNames == null || modifierNames.isEmpty()) {
+            return itemModifiers;
+        }
+
+        Map<String, ProductModifier> modifiersByName = new HashMap<>();
+        if (product.getModifiers() != null) {
+            for (ProductModifier modifier : product.getModifiers()) {
+                modifiersByName.putIfAbsent(modifier.getName(), modifier);
+            }
+        }
 
-        return savedOrder;
+        for (String name : modifierNames) {
+            ProductModifier modifier = modifiersByName.get(name);
+            itemModifiers.add(OrderItemModifier.builder()
+                    .orderItem(orderItem)
+                    .modifierName(name)
+                    .priceDelta(modifier != null && modifier.getPriceDelta() != null
+                            ? modifier.getPriceDelta() : BigDecimal.ZERO)
+                    .build());
+        }
+        return itemModifiers;
     }
 
     @Transactional
-    public Order updateOrderStatus(Long orderId, String newStatus, User staff) {
-        Order order = getOrderById(orderId);
-        String oldStatus = order.getStatus();
+    public Order updateOrderStatus(Long orderId, OrderStatus newStatus, User staff) {
+        // Serializes concurrent updates of the order, so only one of them records a completion
+        Order order = orderRepository.findByIdForUpdate(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        OrderStatus oldStatus = order.getStatus();
 
         // Validate status transition
-        if (!isValidStatusTransition(oldStatus, newStatus)) {
+        if (!oldStatus.canTransitionTo(newStatus)) {
             throw new RuntimeException("Invalid status transition from " + oldStatus + " to " + newStatus);
         }
 
         order.setStatus(newStatus);
 
-        if ("APPROVED".equals(newStatus)) {
+        if (newStatus == OrderStatus.APPROVED) {
             order.setApprovedByStaff(staff);
         }
 
-        if ("DONE".equals(newStatus)) {
+        if (newStatus == OrderStatus.DONE) {
             order.setActualCompletionTime(LocalDateTime.now());
             // Mark payment as completed
             Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
             if (payment != null) {
-                payment.setStatus("COMPLETED");
+                payment.setStatus(PaymentStatus.COMPLETED);
                 payment.setPaidAt(LocalDateTime.now());
                 paymentRepository.save(payment);
             }
         }
 
-        return orderRepository.save(order);
+        if (newStatus == OrderStatus.REFUNDED) {
+            paymentRepository.findByOrderId(orderId).ifPresent(payment -> {
+                payment.setStatus(PaymentStatus.REFUNDED);
+                paymentRepository.save(payment);
+            });
+        }
+
+        Order saved = orderRepository.save(order);
+        if (newStatus == OrderStatus.DONE) {
+            salesRollupService.recordCompleted(List.of(orderId));
+        } else if (oldStatus == OrderStatus.DONE) {
+            salesRollupService.reverseCompleted(List.of(orderId));
+        }
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, order.getOrderNumber(), oldStatus, newStatus));
+        return saved;
+    }
+
+    /**
+     * Moves every selected order to {@code newStatus} with set-based updates in one transaction.
+     * Orders whose current status does not allow the transition are left untouched and reported.
+     * The selected rows stay locked from the status read to the commit, so a concurrent update waits
+     * and then sees the new status instead of applying the same transition twice.
+     */
+    @Transactional
+    public List<StatusChange> bulkUpdateStatus(Collection<Long> orderIds, OrderStatus newStatus, User staff) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return List.of();
+        }
+        Set<OrderStatus> fromStatuses = OrderStatus.sourcesOf(newStatus);
+        if (fromStatuses.isEmpty()) {
+            throw new RuntimeException("Bulk transition to " + newStatus + " is not supported");
+        }
+
+        Map<Long, StatusChange> results = new LinkedHashMap<>();
+        for (Long id : orderIds) {
+            results.put(id, new StatusChange(id, null, null, false, "Không tìm thấy đơn hàng"));
+        }
+        List<Long> eligible = new ArrayList<>();
+        for (Object[] row : orderRepository.findStatusesByIdInForUpdate(results.keySet())) {
+            Long id = (Long) row[0];
+            OrderStatus status = (OrderStatus) row[2];
+            boolean valid = fromStatuses.contains(status);
+            results.put(id, new StatusChange(id, (String) row[1], status, valid,
+                    valid ? null : "Không thể chuyển từ " + status + " sang " + newStatus));
+            if (valid) {
+                eligible.add(id);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return new ArrayList<>(results.values());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        switch (newStatus) {
+            case APPROVED -> orderRepository.approveAll(eligible, staff, now);
+            case DONE -> orderRepository.completeAll(eligible, fromStatuses, now);
+            default -> orderRepository.transitionStatus(eligible, fromStatuses, newStatus, now);
+        }
+
+        if (newStatus == OrderStatus.DONE) {
+            paymentRepository.completeForOrders(eligible, now);
+            salesRollupService.recordCompleted(eligible);
+        }
+        for (Long id : eligible) {
+            StatusChange change = results.get(id);
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(id, change.getOrderNumber(),
+                    change.getPreviousStatus(), newStatus));
+        }
+        return new ArrayList<>(results.values());
     }
 
     @Transactional
     public void cancelOrder(Long orderId) {
         Order order = getOrderById(orderId);
-        if ("DONE".equals(order.getStatus())) {
+        if (order.getStatus() == OrderStatus.DONE || order.getStatus() == OrderStatus.REFUNDED) {
             throw new RuntimeException("Cannot cancel completed order");
         }
-        order.setStatus("CANCELLED");
+        OrderStatus oldStatus = order.getStatus();
+        order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, order.getOrderNumber(), oldStatus,
+                OrderStatus.CANCELLED));
 
         // Cancel payment
         Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
         if (payment != null) {
-            payment.setStatus("CANCELLED");
+            payment.setStatus(PaymentStatus.CANCELLED);
             paymentRepository.save(payment);
         }
     }
 
-    private boolean isValidStatusTransition(String from, String to) {
-        return switch (from) {
-            case "PENDING" -> "APPROVED".equals(to) || "CANCELLED".equals(to);
-            case "APPROVED" -> "COOKING".equals(to) || "CANCELLED".equals(to);
-            case "COOKING" -> "DONE".equals(to) || "IN_PROGRESS".equals(to);
-            case "IN_PROGRESS" -> "DONE".equals(to);
-            default -> false;
-        };
-    }
-
-    private synchronized String generateOrderNumber() {
-        String datePrefix = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        
-        // Query database for the max order number with today's prefix
-        Optional<String> maxOrderNumber = orderRepository.findMaxOrderNumberByPrefix(datePrefix);
-        
-        long seq = 1;
-        if (maxOrderNumber.isPresent()) {
-            String maxNumber = maxOrderNumber.get();
-            // Extract the sequence number from format: yyyyMMdd-NNNNNN
-            String[] parts = maxNumber.split("-");
-            if (parts.length == 2) {
-                try {
-                    seq = Long.parseLong(parts[1]) + 1;
-                } catch (NumberFormatException e) {
-                    // If parsing fails, start from 1
-                    seq = 1;
-                }
-            }
-        }
-        
-        return String.format("%s-%06d", datePrefix, seq);
-    }
-
     // Statistics
-    public long countByStatus(String status) {
+    public long countByStatus(OrderStatus status) {
         return orderRepository.countByStatus(status);
     }
 
@@ -218,6 +300,18 @@ public class OrderService {
         return orderRepository.findByDateRange(start, end);
     }
 
+    // Per-order outcome of a bulk status change
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    @lombok.NoArgsConstructor
+    public static class StatusChange {
+        private Long orderId;
+        private String orderNumber;
+        private OrderStatus previousStatus;
+        private boolean applied;
+        private String message;
+    }
+
     // Inner class for cart items
     @lombok.Data
     @lombok.AllArgsConstructor
@@ -225,13 +319,13 @@ public class OrderService {
     public static class CartItem {
         private Long productId;
         private String productName;
-        private BigDecimal unitPrice;
+        private Money unitPrice;
         private int quantity;
-        private BigDecimal modifiersPrice;
+        private Money modifiersPrice;
         private List<String> modifierNames;
 
-        public BigDecimal getTotalPrice() {
-            return unitPrice.add(modifiersPrice).multiply(new BigDecimal(quantity));
+        public Money getTotalPrice() {
+            return unitPrice.plus(Money.orZero(modifiersPrice)).times(quantity);
         }
     }
 }
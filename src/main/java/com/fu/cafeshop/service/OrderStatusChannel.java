@@ -0,0 +1,252 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Per-order status subscriptions for the customer's order page.
+ *
+ * <p>Subscribers are keyed by order number, so a status change is delivered only to the phones
+ * waiting on that order. Both SSE streams and long-poll requests are servlet-async and hold no
+ * request thread while idle. Everything for an order is dropped once it reaches a final status.
+ */
+@Service
+@Slf4j
+public class OrderStatusChannel {
+
+    /**
+     * Statuses after which the customer page stops listening.
+     */
+    public static final Set<OrderStatus> FINAL_STATUSES =
+            EnumSet.of(OrderStatus.DONE, OrderStatus.CANCELLED, OrderStatus.REFUNDED);
+
+    private final Map<String, Subscribers> subscribers = new ConcurrentHashMap<>();
+    private final Executor dispatcher;
+    private final long streamTimeoutMillis;
+    private final long pollTimeoutMillis;
+
+    @Autowired
+    public OrderStatusChannel(MeterRegistry meterRegistry,
+                              @Value("${cafeshop.order-status.stream-timeout-ms:600000}") long streamTimeoutMillis,
+                              @Value("${cafeshop.order-status.poll-timeout-ms:25000}") long pollTimeoutMillis) {
+        this(Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "order-status-events");
+            thread.setDaemon(true);
+            return thread;
+        }), streamTimeoutMillis, pollTimeoutMillis);
+        Gauge.builder("cafeshop.order-status.subscribers", this, OrderStatusChannel::getSubscriberCount)
+                .description("Open customer status streams and parked long-polls")
+                .register(meterRegistry);
+    }
+
+    OrderStatusChannel(Executor dispatcher, long streamTimeoutMillis, long pollTimeoutMillis) {
+        this.dispatcher = dispatcher;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+    }
+
+    /**
+     * Opens an SSE stream that sends the current status and then every later change.
+     *
+     * <p>The subscriber is registered before {@code statusLookup} runs, so a change committed
+     * in between is never missed.
+     *
+     * @param statusLookup reads the current status; null while the order is still queued
+     */
+    public SseEmitter stream(String orderNumber, Supplier<OrderStatus> statusLookup) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        // EventSource reconnects after a timeout and gets the current status again on subscribe
+        emitter.onCompletion(() -> remove(orderNumber, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> emitter.complete());
+        subscribers.computeIfAbsent(orderNumber, key -> new Subscribers()).add(emitter);
+
+        OrderStatus current = statusLookup.get();
+        if (current != null) {
+            send(orderNumber, emitter, current);
+            if (FINAL_STATUSES.contains(current)) {
+                emitter.complete();
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Long-poll fallback: completes as soon as the status differs from {@code since}, or with
+     * the unchanged status once the poll timeout expires.
+     */
+    public DeferredResult<Map<String, Object>> poll(String orderNumber, OrderStatus since,
+                                                    Supplier<OrderStatus> statusLookup) {
+        DeferredResult<Map<String, Object>> result = new DeferredResult<>(pollTimeoutMillis, () -> payload(since));
+        result.onCompletion(() -> remove(orderNumber, result));
+        subscribers.computeIfAbsent(orderNumber, key -> new Subscribers()).add(result);
+
+        OrderStatus current = statusLookup.get();
+        if (current != since || (current != null && FINAL_STATUSES.contains(current))) {
+            remove(orderNumber, result);
+            result.setResult(payload(current));
+        }
+        return result;
+    }
+
+    public int getSubscriberCount() {
+        int count = 0;
+        for (Subscribers entry : subscribers.values()) {
+            count += entry.size();
+        }
+        return count;
+    }
+
+    // Journaled orders reach the database after the customer is already on the page
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        publish(event.orderNumber(), OrderStatus.PENDING);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish(event.orderNumber(), event.status());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.keySet().forEach(orderNumber -> {
+            Subscribers entry = subscribers.remove(orderNumber);
+            if (entry != null) {
+                entry.drain().forEach(subscriber -> {
+                    if (subscriber instanceof SseEmitter emitter) {
+                        emitter.complete();
+                    }
+                });
+            }
+        });
+        if (dispatcher instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    private void publish(String orderNumber, OrderStatus status) {
+        boolean finished = FINAL_STATUSES.contains(status);
+        Subscribers entry = finished ? subscribers.remove(orderNumber) : subscribers.get(orderNumber);
+        if (entry == null) {
+            return;
+        }
+        // Long-polls are one-shot, so they leave the registry as they are answered
+        List<Object> targets = finished ? entry.drain() : entry.takeForUpdate();
+        if (!finished) {
+            subscribers.computeIfPresent(orderNumber, (key, current) -> current.isEmpty() ? null : current);
+        }
+        try {
+            dispatcher.execute(() -> deliver(orderNumber, status, finished, targets));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; open connections are being closed anyway
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(String orderNumber, OrderStatus status, boolean finished, List<Object> targets) {
+        for (Object subscriber : targets) {
+            if (subscriber instanceof DeferredResult<?> result) {
+                ((DeferredResult<Map<String, Object>>) result).setResult(payload(status));
+            } else if (subscriber instanceof SseEmitter emitter) {
+                send(orderNumber, emitter, status);
+                if (finished) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+
+    private void send(String orderNumber, SseEmitter emitter, OrderStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(payload(status), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Customer closed the page
+            log.debug("Dropping status subscriber for order {}: {}", orderNumber, e.getMessage());
+            emitter.complete();
+        }
+    }
+
+    private void remove(String orderNumber, Object subscriber) {
+        subscribers.computeIfPresent(orderNumber, (key, entry) -> {
+            entry.remove(subscriber);
+            return entry.isEmpty() ? null : entry;
+        });
+    }
+
+    private static Map<String, Object> payload(OrderStatus status) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("status", status != null ? status.name() : null);
+        data.put("label", status != null ? status.getLabel() : null);
+        data.put("finished", status != null && FINAL_STATUSES.contains(status));
+        return data;
+    }
+
+    /**
+     * Everything waiting on one order; usually a single phone, so a small list is enough.
+     */
+    private static final class Subscribers {
+
+        private final List<Object> emitters = new ArrayList<>(1);
+        private final List<Object> polls = new ArrayList<>(1);
+
+        synchronized void add(Object subscriber) {
+            (subscriber instanceof SseEmitter ? emitters : polls).add(subscriber);
+        }
+
+        synchronized void remove(Object subscriber) {
+            emitters.remove(subscriber);
+            polls.remove(subscriber);
+        }
+
+        synchronized boolean isEmpty() {
+            return emitters.isEmpty() && polls.isEmpty();
+        }
+
+        synchronized int size() {
+            return emitters.size() + polls.size();
+        }
+
+        synchronized List<Object> takeForUpdate() {
+            List<Object> taken = new ArrayList<>(polls);
+            taken.addAll(emitters);
+            polls.clear();
+            return taken;
+        }
+
+        synchronized List<Object> drain() {
+            List<Object> drained = new ArrayList<>(emitters);
+            drained.addAll(polls);
+            emitters.clear();
+            polls.clear();
+            return drained;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.fu.cafeshop.service;
 
 import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderStatus;
 import com.fu.cafeshop.entity.Payment;
+import com.fu.cafeshop.entity.PaymentStatus;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
 import com.fu.cafeshop.repository.OrderRepository;
 import com.fu.cafeshop.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,13 +23,14 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Payment getPaymentByOrderId(Long orderId) {
         return paymentRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new RuntimeException("Payment not found for order: " + orderId));
     }
 
-    public List<Payment> getPaymentsByStatus(String status) {
+    public List<Payment> getPaymentsByStatus(PaymentStatus status) {
         return paymentRepository.findByStatus(status);
     }
 
@@ -34,8 +39,8 @@ public class PaymentService {
         Payment payment = Payment.builder()
                 .order(order)
                 .paymentMethod("CASH")
-                .amount(order.getTotalAmount())
-                .status("PENDING")
+                .amount(order.getTotalAmount().toBigDecimal())
+                .status(PaymentStatus.PENDING)
                 .build();
         return paymentRepository.save(payment);
     }
@@ -44,18 +49,21 @@ public class PaymentService {
     public Payment processPayment(Long orderId) {
         Payment payment = getPaymentByOrderId(orderId);
         
-        if (!"PENDING".equals(payment.getStatus())) {
+        if (payment.getStatus() != PaymentStatus.PENDING) {
             throw new RuntimeException("Payment already processed");
         }
 
-        payment.setStatus("COMPLETED");
+        payment.setStatus(PaymentStatus.COMPLETED);
         payment.setPaidAt(LocalDateTime.now());
 
         // Update order status to DONE
         Order order = payment.getOrder();
-        order.setStatus("DONE");
+        OrderStatus oldStatus = order.getStatus();
+        order.setStatus(OrderStatus.DONE);
         order.setActualCompletionTime(LocalDateTime.now());
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(), oldStatus,
+                OrderStatus.DONE));
 
         return paymentRepository.save(payment);
     }
@@ -63,7 +71,7 @@ public class PaymentService {
     @Transactional
     public void cancelPayment(Long orderId) {
         Payment payment = getPaymentByOrderId(orderId);
-        payment.setStatus("CANCELLED");
+        payment.setStatus(PaymentStatus.CANCELLED);
         paymentRepository.save(payment);
     }
 
@@ -78,11 +86,11 @@ public class PaymentService {
     }
 
     public long countPendingPayments() {
-        return paymentRepository.countByStatus("PENDING");
+        return paymentRepository.countByStatus(PaymentStatus.PENDING);
     }
 
     public long countCompletedPayments() {
-        return paymentRepository.countByStatus("COMPLETED");
+        return paymentRepository.countByStatus(PaymentStatus.COMPLETED);
     }
 }
 
@@ -0,0 +1,254 @@
+package com.fu.cafeshop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uploaded product images and their {@link ImageVariant}s.
+ *
+ * <p>An upload is stored as is in the {@link ProductImageStore} and its variants are resized on
+ * a small background pool right away, so customers are served the prepared files. A variant
+ * that is still missing (the pool was full, or the file was removed) is resized on the first
+ * request for it; concurrent requests for the same variant wait for that one resize.
+ */
+@Service
+@Slf4j
+public class ProductImageService {
+
+    public static final String URL_PREFIX = "/media/products/";
+    // Decoding needs 4 bytes a pixel; refuse images that would take more than ~160 MB
+    private static final long MAX_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ProductImageStore store;
+    private final Executor executor;
+    private final Map<String, CompletableFuture<Path>> resizing = new ConcurrentHashMap<>();
+    private final Timer resizeTimer;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public ProductImageService(ProductImageStore store,
+                               MeterRegistry meterRegistry,
+                               @Value("${cafeshop.images.workers:1}") int workers,
+                               @Value("${cafeshop.images.queue-capacity:50}") int queueCapacity) {
+        this(store, meterRegistry, newExecutor(workers, queueCapacity));
+    }
+
+    ProductImageService(ProductImageStore store, MeterRegistry meterRegistry, Executor executor) {
+        this.store = store;
+        this.executor = executor;
+        this.resizeTimer = Timer.builder("cafeshop.images.resize")
+                .description("Time to resize one product image variant")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("cafeshop.images.rejected")
+                .description("Variant pre-generations dropped because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores an uploaded image and queues its variants.
+     *
+     * @return the URL to keep in {@code Product.imageUrl}
+     */
+    public String store(MultipartFile file) {
+        try {
+            byte[] image = file.getBytes();
+            checkImage(image);
+            String key = store.keyOf(image);
+            store.putOriginal(key, image);
+            pregenerate(key);
+            return URL_PREFIX + key;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store the uploaded image", e);
+        }
+    }
+
+    /**
+     * The URL of {@code imageUrl} in the given variant. Images that were not uploaded here, such
+     * as links to other sites, are returned unchanged.
+     */
+    public String variantUrl(String imageUrl, String variant) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return imageUrl;
+        }
+        return imageUrl + "/" + variant + ".jpg";
+    }
+
+    /**
+     * The variant file, resized now if it was not prepared; empty if there is no such image.
+     */
+    public Optional<Path> findVariant(String key, ImageVariant variant) {
+        Optional<Path> prepared = store.findVariant(key, variant);
+        if (prepared.isPresent() || store.findOriginal(key).isEmpty()) {
+            return prepared;
+        }
+        return Optional.of(resize(key, variant));
+    }
+
+    private void pregenerate(String key) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        findVariant(key, variant);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to resize image {} to {}", key, variant, e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejectedCounter.increment();
+                log.warn("Image resize queue is full, {} of {} will be resized when first requested", variant, key);
+            }
+        }
+    }
+
+    private Path resize(String key, ImageVariant variant) {
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = resizing.putIfAbsent(key + "-" + variant.getSize(), mine);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            Path path = store.findVariant(key, variant).orElse(null);
+            if (path == null) {
+                Path original = store.findOriginal(key)
+                        .orElseThrow(() -> new RuntimeException("Image not found: " + key));
+                Timer.Sample sample = Timer.start();
+                byte[] resized = toJpeg(scale(ImageIO.read(original.toFile()), variant.getSize()));
+                sample.stop(resizeTimer);
+                path = store.putVariant(key, variant, resized);
+            }
+            mine.complete(path);
+            return path;
+        } catch (IOException e) {
+            mine.completeExceptionally(e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            resizing.remove(key + "-" + variant.getSize());
+        }
+    }
+
+    /**
+     * Reads only the header, so an oversized image is refused before it is decoded.
+     */
+    static void checkImage(byte[] image) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new RuntimeException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new RuntimeException("Image is too large");
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Fits the image into a {@code size} square on a white background (JPEG has no transparency),
+     * halving first while it is more than twice too large, which keeps bilinear scaling sharp.
+     */
+    static BufferedImage scale(BufferedImage source, int size) {
+        if (source == null) {
+            throw new RuntimeException("Unsupported image format");
+        }
+        double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage current = source;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = Math.max(height, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (current.getWidth() != width || current.getHeight() != height);
+        return current;
+    }
+
+    static byte[] toJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int workers, int queueCapacity) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "product-image-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
@@ -0,0 +1,94 @@
+package com.fu.cafeshop.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for uploaded product images and their resized variants. Originals are
+ * keyed by the SHA-256 of their bytes, variants by that key and the variant's pixel size, so a
+ * new upload or a changed size never serves a stale file.
+ *
+ * <pre>
+ * {root}/ab/abcdef...(64 hex)
+ * {root}/ab/abcdef...(64 hex)-480.jpg
+ * </pre>
+ */
+@Component
+public class ProductImageStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public ProductImageStore(@Value("${cafeshop.images.storage-path:data/images}") String root) {
+        this.root = Path.of(root);
+    }
+
+    public String keyOf(byte[] image) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Path putOriginal(String key, byte[] image) throws IOException {
+        return put(originalPath(key), image);
+    }
+
+    public Path putVariant(String key, ImageVariant variant, byte[] image) throws IOException {
+        return put(variantPath(key, variant), image);
+    }
+
+    public Optional<Path> findOriginal(String key) {
+        return isKey(key) ? existing(originalPath(key)) : Optional.empty();
+    }
+
+    public Optional<Path> findVariant(String key, ImageVariant variant) {
+        return isKey(key) ? existing(variantPath(key, variant)) : Optional.empty();
+    }
+
+    /**
+     * Writes the file under a temporary name and moves it into place, so readers never see a partial image.
+     */
+    private Path put(Path target, byte[] image) throws IOException {
+        if (Files.exists(target)) {
+            return target;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, image);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    private static boolean isKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    private static Optional<Path> existing(Path path) {
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path originalPath(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private Path variantPath(String key, ImageVariant variant) {
+        return root.resolve(key.substring(0, 2)).resolve(key + "-" + variant.getSize() + ".jpg");
+    }
+}
@@ -0,0 +1,258 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.service.MenuSnapshot.ProductView;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the name, category and description of the menu's products.
+ *
+ * <p>Text is folded to lower case without Vietnamese diacritics ("Cà phê" and "ca phe" are the
+ * same), then split into terms. A query term matches an indexed term exactly, as a prefix, inside
+ * it (through the term trigrams), or, from four letters on, with one typo (insertion, deletion,
+ * substitution or swap of neighbours). Every query term must match; products are ranked by the
+ * summed quality of their matches, weighted by field, then by display order. Immutable.
+ */
+final class ProductSearchIndex {
+
+    private static final float NAME = 3f;
+    private static final float CATEGORY = 2f;
+    private static final float DESCRIPTION = 1f;
+
+    private static final float EXACT = 1f;
+    private static final float PREFIX = 0.8f;
+    private static final float INFIX = 0.6f;
+    private static final float TYPO = 0.5f;
+
+    private static final int MIN_INFIX = 3;
+    private static final int MIN_TYPO = 4;
+    // An edit changes at most three trigrams of the padded term, a swap of neighbours four
+    private static final int TRIGRAMS_PER_EDIT = 4;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<ProductView> products;
+    // Analysed products by id, handed to the next index so unchanged products are not analysed again
+    private final Map<Long, Document> documents;
+    // Sorted, so the terms sharing a prefix are one range
+    private final String[] terms;
+    private final int[][] postingDocs;
+    private final float[][] postingWeights;
+    private final Map<String, int[]> trigramTerms;
+
+    private ProductSearchIndex(List<ProductView> products, Map<Long, Document> documents) {
+        this.products = products;
+        this.documents = documents;
+        TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+        for (int doc = 0; doc < products.size(); doc++) {
+            int docId = doc;
+            documents.get(products.get(doc).getId()).terms()
+                    .forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(docId, weight));
+        }
+        this.terms = postings.keySet().toArray(String[]::new);
+        this.postingDocs = new int[terms.length][];
+        this.postingWeights = new float[terms.length][];
+        Map<String, List<Integer>> trigrams = new HashMap<>();
+        for (int term = 0; term < terms.length; term++) {
+            Map<Integer, Float> posting = postings.get(terms[term]);
+            int[] docs = posting.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            float[] weights = new float[docs.length];
+            for (int i = 0; i < docs.length; i++) {
+                weights[i] = posting.get(docs[i]);
+            }
+            postingDocs[term] = docs;
+            postingWeights[term] = weights;
+            for (String trigram : trigrams(terms[term], true)) {
+                trigrams.computeIfAbsent(trigram, t -> new ArrayList<>()).add(term);
+            }
+        }
+        Map<String, int[]> trigramIndex = new HashMap<>();
+        trigrams.forEach((trigram, list) -> trigramIndex.put(trigram,
+                list.stream().mapToInt(Integer::intValue).distinct().toArray()));
+        this.trigramTerms = trigramIndex;
+    }
+
+    /**
+     * @param previous the index of the previous menu version, whose analysis of products that
+     *                 did not change is reused; may be null
+     */
+    static ProductSearchIndex build(List<ProductView> products, ProductSearchIndex previous) {
+        Map<Long, Document> documents = new HashMap<>();
+        for (ProductView product : products) {
+            Document known = previous != null ? previous.documents.get(product.getId()) : null;
+            documents.put(product.getId(), known != null && known.product().equals(product) ? known : analyse(product));
+        }
+        return new ProductSearchIndex(List.copyOf(products), documents);
+    }
+
+    List<ProductView> search(String query) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        float[] total = null;
+        for (String queryTerm : queryTerms) {
+            float[] scores = match(queryTerm);
+            if (total == null) {
+                total = scores;
+            } else {
+                for (int doc = 0; doc < total.length; doc++) {
+                    total[doc] = total[doc] > 0 && scores[doc] > 0 ? total[doc] + scores[doc] : 0;
+                }
+            }
+        }
+        List<Integer> hits = new ArrayList<>();
+        for (int doc = 0; doc < total.length; doc++) {
+            if (total[doc] > 0) {
+                hits.add(doc);
+            }
+        }
+        float[] ranking = total;
+        // The products are in menu order already, so a stable sort breaks ties by display order
+        hits.sort(Comparator.comparingDouble(doc -> -ranking[doc]));
+        return hits.stream().map(products::get).toList();
+    }
+
+    /**
+     * Best score per product for one query term, 0 where it does not match.
+     */
+    private float[] match(String queryTerm) {
+        float[] scores = new float[products.size()];
+        int from = Arrays.binarySearch(terms, queryTerm);
+        if (from >= 0) {
+            add(scores, from, EXACT);
+            from++;
+        } else {
+            from = -from - 1;
+        }
+        for (int term = from; term < terms.length && terms[term].startsWith(queryTerm); term++) {
+            add(scores, term, PREFIX);
+        }
+        if (queryTerm.length() < MIN_INFIX) {
+            return scores;
+        }
+
+        // Trigram candidates: terms containing the query term have all its inner trigrams, terms one
+        // typo away all but a few of its padded ones
+        List<String> inner = trigrams(queryTerm, false);
+        List<String> padded = trigrams(queryTerm, true);
+        int[] innerShared = new int[terms.length];
+        int[] paddedShared = new int[terms.length];
+        List<Integer> candidates = new ArrayList<>();
+        for (String trigram : new LinkedHashSet<>(padded)) {
+            int[] found = trigramTerms.get(trigram);
+            if (found == null) {
+                continue;
+            }
+            boolean isInner = inner.contains(trigram);
+            for (int term : found) {
+                if (paddedShared[term]++ == 0) {
+                    candidates.add(term);
+                }
+                if (isInner) {
+                    innerShared[term]++;
+                }
+            }
+        }
+        int innerNeeded = new LinkedHashSet<>(inner).size();
+        int typoNeeded = Math.max(1, new LinkedHashSet<>(padded).size() - TRIGRAMS_PER_EDIT);
+        for (int term : candidates) {
+            String candidate = terms[term];
+            if (innerShared[term] == innerNeeded && candidate.length() > queryTerm.length()
+                    && !candidate.startsWith(queryTerm) && candidate.contains(queryTerm)) {
+                add(scores, term, INFIX);
+            } else if (queryTerm.length() >= MIN_TYPO && paddedShared[term] >= typoNeeded
+                    && !candidate.equals(queryTerm) && withinOneEdit(queryTerm, candidate)) {
+                add(scores, term, TYPO);
+            }
+        }
+        return scores;
+    }
+
+    private void add(float[] scores, int term, float quality) {
+        int[] docs = postingDocs[term];
+        float[] weights = postingWeights[term];
+        for (int i = 0; i < docs.length; i++) {
+            scores[docs[i]] = Math.max(scores[docs[i]], quality * weights[i]);
+        }
+    }
+
+    private static Document analyse(ProductView product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME);
+        addField(weights, product.getCategoryName(), CATEGORY);
+        addField(weights, product.getDescription(), DESCRIPTION);
+        return new Document(product, Map.copyOf(weights));
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(fold(text))).filter(term -> !term.isEmpty()).toList();
+    }
+
+    /**
+     * Lower case without diacritics; đ is not a combining mark, so it is mapped by hand.
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").replace('đ', 'd');
+    }
+
+    private static List<String> trigrams(String term, boolean padded) {
+        String text = padded ? "$" + term + "$" : term;
+        List<String> trigrams = new ArrayList<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        int prefix = 0;
+        int shorter = Math.min(a.length(), b.length());
+        while (prefix < shorter && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        if (lengthDifference != 0) {
+            // One insertion or deletion: the rest lines up after skipping a character of the longer
+            String longer = lengthDifference > 0 ? a : b;
+            String other = lengthDifference > 0 ? b : a;
+            return longer.regionMatches(prefix + 1, other, prefix, other.length() - prefix);
+        }
+        if (prefix == a.length()) {
+            return true;
+        }
+        // Substitution, or a swap of this character and the next
+        return a.regionMatches(prefix + 1, b, prefix + 1, a.length() - prefix - 1)
+                || (prefix + 1 < a.length() && a.charAt(prefix) == b.charAt(prefix + 1)
+                && a.charAt(prefix + 1) == b.charAt(prefix)
+                && a.regionMatches(prefix + 2, b, prefix + 2, a.length() - prefix - 2));
+    }
+
+    private record Document(ProductView product, Map<String, Float> terms) {
+    }
+}
@@ -2,9 +2,12 @@ package com.fu.cafeshop.service;
 
 import com.fu.cafeshop.entity.Product;
 import com.fu.cafeshop.entity.ProductModifier;
+import com.fu.cafeshop.event.MenuChangedEvent;
+import com.fu.cafeshop.event.ProductAvailabilityChangedEvent;
 import com.fu.cafeshop.repository.ProductModifierRepository;
 import com.fu.cafeshop.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +19,7 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final ProductModifierRepository modifierRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Product> getAllProducts() {
         return productRepository.findAll();
@@ -56,12 +60,18 @@ public class ProductService {
 
     @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        if (Boolean.TRUE.equals(saved.getIsAvailable())) {
+            eventPublisher.publishEvent(new ProductAvailabilityChangedEvent(saved.getId(), true));
+        }
+        eventPublisher.publishEvent(new MenuChangedEvent());
+        return saved;
     }
 
     @Transactional
     public Product updateProduct(Long id, Product productDetails) {
         Product product = getProductById(id);
+        boolean wasAvailable = Boolean.TRUE.equals(product.getIsAvailable());
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setCategory(productDetails.getCategory());
@@ -71,21 +81,30 @@ public class ProductService {
         product.setIsAvailable(productDetails.getIsAvailable());
         product.setIsFeatured(productDetails.getIsFeatured());
         product.setDisplayOrder(productDetails.getDisplayOrder());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        publishIfChanged(saved, wasAvailable);
+        eventPublisher.publishEvent(new MenuChangedEvent());
+        return saved;
     }
 
     @Transactional
     public void toggleAvailability(Long id) {
         Product product = getProductById(id);
-        product.setIsAvailable(!product.getIsAvailable());
+        boolean wasAvailable = Boolean.TRUE.equals(product.getIsAvailable());
+        product.setIsAvailable(!wasAvailable);
         productRepository.save(product);
+        publishIfChanged(product, wasAvailable);
+        eventPublisher.publishEvent(new MenuChangedEvent());
     }
 
     @Transactional
     public void deleteProduct(Long id) {
         Product product = getProductById(id);
+        boolean wasAvailable = Boolean.TRUE.equals(product.getIsAvailable());
         product.setIsAvailable(false);
         productRepository.save(product);
+        publishIfChanged(product, wasAvailable);
+        eventPublisher.publishEvent(new MenuChangedEvent());
     }
 
     // Modifier methods
@@ -97,12 +116,15 @@ public class ProductService {
     public ProductModifier addModifier(Long productId, ProductModifier modifier) {
         Product product = getProductById(productId);
         modifier.setProduct(product);
-        return modifierRepository.save(modifier);
+        ProductModifier saved = modifierRepository.save(modifier);
+        eventPublisher.publishEvent(new MenuChangedEvent());
+        return saved;
     }
 
     @Transactional
     public void deleteModifier(Long modifierId) {
         modifierRepository.deleteById(modifierId);
+        eventPublisher.publishEvent(new MenuChangedEvent());
     }
 
     public long countAvailableProducts() {
@@ -112,5 +134,12 @@ public class ProductService {
     public long countProductsByCategory(Long categoryId) {
         return productRepository.countByCategoryId(categoryId);
     }
+
+    private void publishIfChanged(Product product, boolean wasAvailable) {
+        boolean available = Boolean.TRUE.equals(product.getIsAvailable());
+        if (available != wasAvailable) {
+            eventPublisher.publishEvent(new ProductAvailabilityChangedEvent(product.getId(), available));
+        }
+    }
 }
 
@@ -0,0 +1,168 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.service.MenuSnapshot.ProductView;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Prefix trie over the folded product names, for the search box suggestions.
+ *
+ * <p>Every word start of a name is a key, so "dao" suggests "Trà đào". Keys are folded like the
+ * search index, so "ca p" suggests "Cà phê". Nodes are stored breadth-first in flat arrays, the
+ * children of a node contiguous and sorted by character, and every node keeps its best products
+ * (featured first, then menu order) precomputed. A lookup is one binary search per typed
+ * character plus copying at most {@link #MAX_SUGGESTIONS} products. Immutable.
+ */
+final class ProductSuggestTrie {
+
+    static final int MAX_SUGGESTIONS = 10;
+    // Longer keys add nodes nobody types down to
+    private static final int MAX_KEY_LENGTH = 40;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<ProductView> products;
+    // Per node, by breadth-first index; node 0 is the root
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    // The best products of node n are top[topStart[n]] to top[topStart[n + 1]], best first
+    private final int[] topStart;
+    private final int[] top;
+
+    private ProductSuggestTrie(List<ProductView> products, char[] labels, int[] firstChild, int[] childCount,
+                               int[] topStart, int[] top) {
+        this.products = products;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topStart = topStart;
+        this.top = top;
+    }
+
+    /**
+     * @param products in menu order
+     */
+    static ProductSuggestTrie build(List<ProductView> products) {
+        // Inserting in rank order fills every node's list with its best products first
+        int[] ranked = IntStream.range(0, products.size()).boxed()
+                .sorted(Comparator.comparing((Integer i) -> !Boolean.TRUE.equals(products.get(i).getIsFeatured())))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        Node root = new Node();
+        for (int product : ranked) {
+            String name = normalize(products.get(product).getName()).strip();
+            for (int start = 0; start < name.length(); start++) {
+                if (start == 0 || name.charAt(start - 1) == ' ') {
+                    insert(root, name.substring(start, Math.min(name.length(), start + MAX_KEY_LENGTH)), product);
+                }
+            }
+        }
+
+        List<Node> nodes = new ArrayList<>();
+        List<Character> nodeLabels = new ArrayList<>();
+        Deque<Node> queue = new ArrayDeque<>();
+        nodes.add(root);
+        nodeLabels.add('\0');
+        queue.add(root);
+        List<int[]> childRanges = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            childRanges.add(new int[] {nodes.size(), node.children.size()});
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                nodes.add(child.getValue());
+                nodeLabels.add(child.getKey());
+                queue.add(child.getValue());
+            }
+        }
+        int count = nodes.size();
+        char[] labels = new char[count];
+        int[] firstChild = new int[count];
+        int[] childCount = new int[count];
+        int[] topStart = new int[count + 1];
+        int topSize = 0;
+        for (int node = 0; node < count; node++) {
+            labels[node] = nodeLabels.get(node);
+            firstChild[node] = childRanges.get(node)[0];
+            childCount[node] = childRanges.get(node)[1];
+            topStart[node] = topSize;
+            topSize += nodes.get(node).top.size();
+        }
+        topStart[count] = topSize;
+        int[] top = new int[topSize];
+        for (int node = 0; node < count; node++) {
+            List<Integer> best = nodes.get(node).top;
+            for (int i = 0; i < best.size(); i++) {
+                top[topStart[node] + i] = best.get(i);
+            }
+        }
+        return new ProductSuggestTrie(products, labels, firstChild, childCount, topStart, top);
+    }
+
+    List<ProductView> suggest(String prefix, int limit) {
+        String key = normalize(prefix).stripLeading();
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        if (node < 0) {
+            return List.of();
+        }
+        int from = topStart[node];
+        int to = Math.min(topStart[node + 1], from + limit);
+        List<ProductView> suggestions = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            suggestions.add(products.get(top[i]));
+        }
+        return suggestions;
+    }
+
+    private int child(int node, char label) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < label) {
+                low = mid + 1;
+            } else if (labels[mid] > label) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Folded, with every run of separators as one space.
+     */
+    private static String normalize(String text) {
+        return text == null ? "" : SEPARATORS.matcher(ProductSearchIndex.fold(text)).replaceAll(" ");
+    }
+
+    private static void insert(Node root, String key, int product) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            // A name reaches a node at most once per word start; keep each product once
+            if (node.top.size() < MAX_SUGGESTIONS && !node.top.contains(product)) {
+                node.top.add(product);
+            }
+        }
+    }
+
+    private static final class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        final List<Integer> top = new ArrayList<>(1);
+    }
+}
@@ -0,0 +1,59 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.RejectedOrder;
+import com.fu.cafeshop.entity.User;
+import com.fu.cafeshop.repository.RejectedOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Journaled checkouts the intake writer could not place, kept for staff instead of dropped.
+ */
+@Service
+@RequiredArgsConstructor
+public class RejectedOrderService {
+
+    private static final int MAX_REASON_LENGTH = 1000;
+    private static final int MAX_PAYLOAD_LENGTH = 100_000;
+
+    private final RejectedOrderRepository rejectedOrderRepository;
+
+    /**
+     * @param request the decoded checkout, or null if the journal record could not be read
+     * @param payload the journal record as text
+     */
+    @Transactional
+    public RejectedOrder record(OrderIntakeRequest request, String payload, String reason) {
+        return rejectedOrderRepository.save(RejectedOrder.builder()
+                .orderNumber(request != null ? request.getOrderNumber() : null)
+                .guestName(request != null ? request.getGuestName() : null)
+                .guestPhone(request != null ? request.getGuestPhone() : null)
+                .reason(truncate(reason != null ? reason : "Unknown error", MAX_REASON_LENGTH))
+                .payload(truncate(payload, MAX_PAYLOAD_LENGTH))
+                .build());
+    }
+
+    public List<RejectedOrder> getUnresolved() {
+        return rejectedOrderRepository.findByResolvedAtIsNullOrderByRejectedAtDesc();
+    }
+
+    public long countUnresolved() {
+        return rejectedOrderRepository.countByResolvedAtIsNull();
+    }
+
+    @Transactional
+    public void resolve(Long id, User staff) {
+        RejectedOrder rejected = rejectedOrderRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Rejected order not found with id: " + id));
+        rejected.setResolvedAt(LocalDateTime.now());
+        rejected.setResolvedBy(staff);
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,201 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import com.fu.cafeshop.event.SalesRollupsRebuiltEvent;
+import com.fu.cafeshop.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Results of the admin reports, keyed by report type and period.
+ *
+ * <p>A period that ended before today no longer changes on its own, so its report is kept until
+ * evicted by the size bound. A period reaching today or later is kept for a short time only.
+ * Either kind is dropped as soon as a committed order completion, cancellation or refund, or a
+ * rollup rebuild, touches a day inside it. A report computed while such a change committed is
+ * returned but not stored, so it cannot outlive the change.
+ */
+@Service
+@Slf4j
+public class ReportCache {
+
+    private final OrderRepository orderRepository;
+    private final long openTtlNanos;
+    private final Lru closed;
+    private final Lru open;
+    private final Counter hits;
+    private final Counter misses;
+    // Bumped on every invalidation so a report computed across one is not stored
+    private volatile long generation;
+
+    public ReportCache(OrderRepository orderRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${cafeshop.report-cache.max-closed:500}") int maxClosed,
+                       @Value("${cafeshop.report-cache.max-open:100}") int maxOpen,
+                       @Value("${cafeshop.report-cache.open-ttl-ms:60000}") long openTtlMillis) {
+        this.orderRepository = orderRepository;
+        this.openTtlNanos = openTtlMillis * 1_000_000L;
+        this.closed = new Lru(maxClosed);
+        this.open = new Lru(maxOpen);
+        this.hits = Counter.builder("cafeshop.report-cache.gets")
+                .tag("result", "hit")
+                .description("Report requests answered from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cafeshop.report-cache.gets")
+                .tag("result", "miss")
+                .description("Report requests that had to be computed")
+                .register(meterRegistry);
+        Gauge.builder("cafeshop.report-cache.size", closed, Lru::size)
+                .tag("period", "closed")
+                .description("Cached reports of periods that have ended")
+                .register(meterRegistry);
+        Gauge.builder("cafeshop.report-cache.size", open, Lru::size)
+                .tag("period", "open")
+                .description("Cached reports of periods still running")
+                .register(meterRegistry);
+        Gauge.builder("cafeshop.report-cache.hit-ratio", this, ReportCache::hitRatio)
+                .description("Share of report requests answered from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached report of {@code type} for {@code startDate} to {@code endDate} inclusive,
+     * computed by {@code loader} on a miss. Cached reports are shared and must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String type, LocalDate startDate, LocalDate endDate, Supplier<T> loader) {
+        Key key = new Key(type, startDate, endDate);
+        boolean isClosed = endDate.isBefore(LocalDate.now());
+        Lru entries = isClosed ? closed : open;
+        long now = System.nanoTime();
+
+        Entry entry = entries.get(key);
+        if (entry != null && (isClosed || now - entry.storedAt() < openTtlNanos)) {
+            hits.increment();
+            return (T) entry.value();
+        }
+        misses.increment();
+        long startGeneration = generation;
+        T value = loader.get();
+        synchronized (this) {
+            if (generation == startGeneration) {
+                entries.put(key, new Entry(value, now));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops every report whose period contains {@code date}.
+     */
+    public void invalidate(LocalDate date) {
+        invalidate(date, date);
+    }
+
+    /**
+     * Drops every report whose period overlaps {@code startDate} to {@code endDate} inclusive.
+     */
+    public synchronized void invalidate(LocalDate startDate, LocalDate endDate) {
+        generation++;
+        int removed = closed.removeOverlapping(startDate, endDate) + open.removeOverlapping(startDate, endDate);
+        if (removed > 0) {
+            log.debug("Dropped {} cached reports overlapping {} to {}", removed, startDate, endDate);
+        }
+    }
+
+    public synchronized void invalidateType(String type) {
+        generation++;
+        closed.removeType(type);
+        open.removeType(type);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        closed.clear();
+        open.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        // Only entering or leaving DONE changes revenue; reports bucket orders by their order date
+        if (event.status() == OrderStatus.DONE || event.previousStatus() == OrderStatus.DONE) {
+            orderRepository.findCreatedAtById(event.orderId())
+                    .ifPresentOrElse(createdAt -> invalidate(createdAt.toLocalDate()), this::clear);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRollupsRebuilt(SalesRollupsRebuiltEvent event) {
+        invalidate(event.startDate(), event.endDate());
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private record Key(String type, LocalDate startDate, LocalDate endDate) {
+
+        boolean overlaps(LocalDate start, LocalDate end) {
+            return !startDate.isAfter(end) && !endDate.isBefore(start);
+        }
+    }
+
+    private record Entry(Object value, long storedAt) {
+    }
+
+    /**
+     * Size-bounded map evicting the least recently read entry.
+     */
+    private static final class Lru {
+
+        private final Map<Key, Entry> entries;
+
+        Lru(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized Entry get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Key key, Entry entry) {
+            entries.put(key, entry);
+        }
+
+        synchronized int removeOverlapping(LocalDate start, LocalDate end) {
+            int before = entries.size();
+            entries.keySet().removeIf(key -> key.overlaps(start, end));
+            return before - entries.size();
+        }
+
+        synchronized void removeType(String type) {
+            entries.keySet().removeIf(key -> key.type().equals(type));
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -1,42 +1,81 @@
 package com.fu.cafeshop.service;
 
-import com.fu.cafeshop.entity.Order;
-import com.fu.cafeshop.repository.OrderItemRepository;
+import com.fu.cafeshop.entity.DailySales;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.repository.DailyProductSalesRepository;
+import com.fu.cafeshop.repository.DailySalesRepository;
 import com.fu.cafeshop.repository.OrderRepository;
-import com.fu.cafeshop.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Admin reports. Results go through {@link ReportCache}; the maps returned are shared between
+ * requests and read-only.
+ */
 @Service
 @RequiredArgsConstructor
 public class ReportService {
 
+    static final String DAILY = "daily";
+    static final String RANGE = "range";
+    static final String MONTHLY = "monthly";
+    static final String BEST_SELLERS = "bestsellers";
+    static final String PRODUCT_SALES = "product-sales";
+
     private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
-    private final PaymentRepository paymentRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final ReportCache reportCache;
+    private final DashboardCounters dashboardCounters;
 
     public Map<String, Object> getDailyReport(LocalDate date) {
+        return reportCache.get(DAILY, date, date, () -> Collections.unmodifiableMap(buildDailyReport(date)));
+    }
+
+    private Map<String, Object> buildDailyReport(LocalDate date) {
         LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+        LocalDateTime endOfDay = startOfDay.plusDays(1);
 
         Map<String, Object> report = new HashMap<>();
-        
-        List<Order> orders = orderRepository.findCompletedOrdersByDateRange(startOfDay, endOfDay);
-        BigDecimal revenue = orderRepository.sumRevenueByDateRange(startOfDay, endOfDay);
+
+        // One aggregate query for the 24 hourly buckets; totals are summed from them
+        long[] hourlyOrders = new long[24];
+        BigDecimal[] hourlyRevenue = new BigDecimal[24];
+        for (Object[] row : orderRepository.sumCompletedByHour(startOfDay, endOfDay)) {
+            int hour = ((Number) row[0]).intValue();
+            hourlyOrders[hour] = ((Number) row[1]).longValue();
+            hourlyRevenue[hour] = (BigDecimal) row[2];
+        }
+        long totalOrders = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        List<Map<String, Object>> hourlyData = new ArrayList<>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            BigDecimal revenue = hourlyRevenue[hour] != null ? hourlyRevenue[hour] : BigDecimal.ZERO;
+            totalOrders += hourlyOrders[hour];
+            totalRevenue = totalRevenue.add(revenue);
+
+            Map<String, Object> hourReport = new HashMap<>();
+            hourReport.put("hour", hour);
+            hourReport.put("orderCount", hourlyOrders[hour]);
+            hourReport.put("revenue", revenue);
+            hourlyData.add(hourReport);
+        }
 
         report.put("date", date);
-        report.put("totalOrders", orders.size());
-        report.put("totalRevenue", revenue != null ? revenue : BigDecimal.ZERO);
-        report.put("orders", orders);
+        report.put("totalOrders", totalOrders);
+        report.put("totalRevenue", totalRevenue);
+        report.put("hourlyData", hourlyData);
+        report.put("orders", orderRepository.findCompletedSummariesBetween(startOfDay, endOfDay));
 
         return report;
     }
@@ -44,56 +83,81 @@ public class ReportService {
     public Map<String, Object> getMonthlyReport(int year, int month) {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.plusMonths(1).minusDays(1);
-        
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
 
-        Map<String, Object> report = new HashMap<>();
+        return reportCache.get(MONTHLY, startDate, endDate, () -> {
+            Map<String, Object> report = buildRangeReport(startDate, endDate);
+            report.put("year", year);
+            report.put("month", month);
+            return Collections.unmodifiableMap(report);
+        });
+    }
 
-        List<Order> orders = orderRepository.findCompletedOrdersByDateRange(startDateTime, endDateTime);
-        BigDecimal revenue = orderRepository.sumRevenueByDateRange(startDateTime, endDateTime);
+    /**
+     * Monday to Sunday of the week containing {@code date}.
+     */
+    public Map<String, Object> getWeeklyReport(LocalDate date) {
+        LocalDate monday = date.with(DayOfWeek.MONDAY);
+        return getRangeReport(monday, monday.plusDays(6));
+    }
 
-        report.put("year", year);
-        report.put("month", month);
-        report.put("totalOrders", orders.size());
-        report.put("totalRevenue", revenue != null ? revenue : BigDecimal.ZERO);
+    /**
+     * Completed orders and revenue from {@code startDate} to {@code endDate} inclusive, with one
+     * entry per day (days without orders included) in {@code dailyData}.
+     */
+    public Map<String, Object> getRangeReport(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("Ngày kết thúc phải sau ngày bắt đầu");
+        }
+        return reportCache.get(RANGE, startDate, endDate,
+                () -> Collections.unmodifiableMap(buildRangeReport(startDate, endDate)));
+    }
+
+    private Map<String, Object> buildRangeReport(LocalDate startDate, LocalDate endDate) {
+        Map<String, Object> report = new HashMap<>();
 
-        // Daily breakdown
+        // One row per day with sales from the rollup; days without completed orders are filled in here
+        Map<LocalDate, DailySales> byDay = new HashMap<>();
+        for (DailySales day : dailySalesRepository.findBySalesDateBetweenOrderBySalesDate(startDate, endDate)) {
+            byDay.put(day.getSalesDate(), day);
+        }
+        long totalOrders = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
         List<Map<String, Object>> dailyData = new ArrayList<>();
         for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
-            LocalDateTime dayStart = d.atStartOfDay();
-            LocalDateTime dayEnd = d.atTime(LocalTime.MAX);
-            BigDecimal dayRevenue = orderRepository.sumRevenueByDateRange(dayStart, dayEnd);
-            
+            DailySales day = byDay.get(d);
+            long orderCount = day != null ? day.getOrderCount() : 0;
+            BigDecimal revenue = day != null ? day.getRevenue() : BigDecimal.ZERO;
+            totalOrders += orderCount;
+            totalRevenue = totalRevenue.add(revenue);
+
             Map<String, Object> dayReport = new HashMap<>();
             dayReport.put("date", d);
-            dayReport.put("revenue", dayRevenue != null ? dayRevenue : BigDecimal.ZERO);
+            dayReport.put("orderCount", orderCount);
+            dayReport.put("revenue", revenue);
             dailyData.add(dayReport);
         }
+
+        report.put("startDate", startDate);
+        report.put("endDate", endDate);
+        report.put("totalOrders", totalOrders);
+        report.put("totalRevenue", totalRevenue);
         report.put("dailyData", dailyData);
 
         return report;
     }
 
     public List<Map<String, Object>> getBestSellers(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime start = startDate.atStartOfDay();
-        LocalDateTime end = endDate.atTime(LocalTime.MAX);
-
-        List<Object[]> results = orderItemRepository.findBestSellersByDateRange(start, end);
-        List<Map<String, Object>> bestSellers = new ArrayList<>();
-
-        for (Object[] row : results) {
-            Map<String, Object> item = new HashMap<>();
-            item.put("productName", row[0]);
-            item.put("totalQuantity", row[1]);
-            bestSellers.add(item);
-        }
-
-        return bestSellers;
+        return reportCache.get(BEST_SELLERS, startDate, endDate,
+                () -> productSales(dailyProductSalesRepository.sumByProductBetween(startDate, endDate)));
     }
 
     public List<Map<String, Object>> getProductSalesReport() {
-        List<Object[]> results = orderItemRepository.findProductSalesReport();
+        // All time, so any change invalidates it
+        return reportCache.get(PRODUCT_SALES, LocalDate.MIN, LocalDate.MAX,
+                () -> productSales(dailyProductSalesRepository.sumByProduct()));
+    }
+
+    private static List<Map<String, Object>> productSales(List<Object[]> results) {
         List<Map<String, Object>> salesReport = new ArrayList<>();
 
         for (Object[] row : results) {
@@ -102,33 +166,28 @@ public class ReportService {
             item.put("productName", row[1]);
             item.put("totalQuantity", row[2]);
             item.put("totalRevenue", row[3]);
+            item.put("totalCost", row[4]);
             salesReport.add(item);
         }
 
-        return salesReport;
+        return Collections.unmodifiableList(salesReport);
     }
 
+    /**
+     * Read from the live {@link DashboardCounters}, so not cached.
+     */
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        
         // Today's stats
-        stats.put("todayOrders", orderRepository.countTodayCompletedOrders(startOfDay));
-        stats.put("todayRevenue", getTodayRevenue());
+        stats.put("todayOrders", dashboardCounters.getTodayCompletedOrders());
+        stats.put("todayRevenue", dashboardCounters.getTodayRevenue());
         
         // Order status counts
-        stats.put("pendingOrders", orderRepository.countByStatus("PENDING"));
-        stats.put("cookingOrders", orderRepository.countByStatus("COOKING"));
-        stats.put("completedOrders", orderRepository.countByStatus("DONE"));
+        stats.put("pendingOrders", dashboardCounters.countByStatus(OrderStatus.PENDING));
+        stats.put("cookingOrders", dashboardCounters.countByStatus(OrderStatus.COOKING));
+        stats.put("completedOrders", dashboardCounters.countByStatus(OrderStatus.DONE));
 
         return stats;
     }
-
-    private BigDecimal getTodayRevenue() {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        BigDecimal revenue = orderRepository.sumTodayRevenue(startOfDay);
-        return revenue != null ? revenue : BigDecimal.ZERO;
-    }
 }
-
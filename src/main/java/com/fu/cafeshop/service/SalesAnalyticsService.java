@@ -0,0 +1,276 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.SalesAnalyticsView;
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import com.fu.cafeshop.repository.OrderItemRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live sales analytics over sliding windows, kept in memory from orders completed through
+ * {@link OrderService}: best sellers (Space-Saving), distinct customers by customer id or guest
+ * phone (HyperLogLog), and order value and pending-to-done time percentiles (t-digest).
+ *
+ * <p>Each window is a ring of time buckets holding one set of sketches. Reads return views
+ * merged from the live buckets, rebuilt when an order is recorded or a bucket boundary passes,
+ * so a read is a map lookup. The figures are approximate, bucketed by completion time, and
+ * refunds are not taken back out. The last day is reloaded from the database at startup.
+ */
+@Service
+@Slf4j
+public class SalesAnalyticsService {
+
+    public enum Window {
+        LAST_HOUR("1 giờ qua", Duration.ofMinutes(5), 12),
+        LAST_DAY("24 giờ qua", Duration.ofHours(1), 24);
+
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(String label, Duration bucket, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucket.toMillis();
+            this.buckets = buckets;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        Duration span() {
+            return Duration.ofMillis(bucketMillis * buckets);
+        }
+    }
+
+    static final int TOP_PRODUCTS = 10;
+    private static final int PRODUCT_COUNTERS = 64;
+    private static final int HLL_PRECISION = 12;
+    private static final double DIGEST_COMPRESSION = 100;
+    private static final int LOAD_CHUNK = 1000;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<Window, Bucket[]> rings = new EnumMap<>(Window.class);
+    private final Map<Long, String> productNames = new ConcurrentHashMap<>();
+    // Orders already counted, with their completion time, so a replayed event is not counted twice
+    private final Map<Long, Long> recorded = new HashMap<>();
+
+    private volatile Map<Window, SalesAnalyticsView> views = Map.of();
+    private volatile long viewsValidUntil;
+
+    public SalesAnalyticsService(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        for (Window window : Window.values()) {
+            Bucket[] ring = new Bucket[window.buckets];
+            for (int i = 0; i < ring.length; i++) {
+                ring[i] = new Bucket();
+            }
+            rings.put(window, ring);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime since = LocalDateTime.now().minus(Window.LAST_DAY.span());
+        List<Object[]> completions = orderRepository.findCompletionsSince(since);
+        for (int from = 0; from < completions.size(); from += LOAD_CHUNK) {
+            record(completions.subList(from, Math.min(from + LOAD_CHUNK, completions.size())));
+        }
+        log.info("Sales analytics loaded with {} orders completed since {}", completions.size(), since);
+    }
+
+    public SalesAnalyticsView getView(Window window) {
+        if (System.currentTimeMillis() >= viewsValidUntil) {
+            refreshViews();
+        }
+        return views.get(window);
+    }
+
+    public List<SalesAnalyticsView> getViews() {
+        List<SalesAnalyticsView> all = new ArrayList<>();
+        for (Window window : Window.values()) {
+            all.add(getView(window));
+        }
+        return all;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.status() == OrderStatus.DONE) {
+            record(orderRepository.findCompletionsByIdIn(List.of(event.orderId())));
+        }
+    }
+
+    private void record(List<Object[]> completions) {
+        if (completions.isEmpty()) {
+            return;
+        }
+        List<Long> orderIds = new ArrayList<>(completions.size());
+        for (Object[] row : completions) {
+            orderIds.add((Long) row[0]);
+        }
+        Map<Long, List<Object[]>> itemsByOrder = new HashMap<>();
+        for (Object[] item : orderItemRepository.findProductQuantitiesByOrderIdIn(orderIds)) {
+            itemsByOrder.computeIfAbsent((Long) item[0], id -> new ArrayList<>()).add(item);
+        }
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            forgetBefore(now - Window.LAST_DAY.span().toMillis());
+            for (Object[] row : completions) {
+                Long orderId = (Long) row[0];
+                LocalDateTime completedAt = row[5] != null ? (LocalDateTime) row[5] : LocalDateTime.now();
+                long completedMillis = completedAt.atZone(zone).toInstant().toEpochMilli();
+                if (recorded.containsKey(orderId)) {
+                    continue;
+                }
+                recorded.put(orderId, completedMillis);
+                for (Window window : Window.values()) {
+                    Bucket bucket = bucketFor(window, completedMillis, now);
+                    if (bucket != null) {
+                        bucket.add(row, itemsByOrder.getOrDefault(orderId, List.of()), productNames);
+                    }
+                }
+            }
+            rebuildViews(now);
+        }
+    }
+
+    private Bucket bucketFor(Window window, long millis, long now) {
+        long current = now / window.bucketMillis;
+        // Clocks may differ slightly between nodes; count a completion "from the future" as now
+        long index = Math.min(millis / window.bucketMillis, current);
+        if (index <= current - window.buckets) {
+            return null;
+        }
+        Bucket bucket = rings.get(window)[(int) (index % window.buckets)];
+        if (bucket.index != index) {
+            bucket.reset(index);
+        }
+        return bucket;
+    }
+
+    private synchronized void refreshViews() {
+        long now = System.currentTimeMillis();
+        if (now >= viewsValidUntil) {
+            rebuildViews(now);
+        }
+    }
+
+    private void rebuildViews(long now) {
+        Map<Window, SalesAnalyticsView> rebuilt = new EnumMap<>(Window.class);
+        long validUntil = Long.MAX_VALUE;
+        for (Window window : Window.values()) {
+            long current = now / window.bucketMillis;
+            Bucket merged = new Bucket();
+            for (Bucket bucket : rings.get(window)) {
+                if (bucket.index > current - window.buckets && bucket.index <= current) {
+                    merged.merge(bucket);
+                }
+            }
+            rebuilt.put(window, merged.toView(window.label, productNames,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(now), zone)));
+            // The oldest bucket leaves the window at the next boundary
+            validUntil = Math.min(validUntil, (current + 1) * window.bucketMillis);
+        }
+        views = rebuilt;
+        viewsValidUntil = validUntil;
+    }
+
+    private void forgetBefore(long millis) {
+        recorded.values().removeIf(completedMillis -> completedMillis < millis);
+    }
+
+    /**
+     * Sketches of the orders completed in one time slot.
+     */
+    private static final class Bucket {
+
+        private long index = Long.MIN_VALUE;
+        private long orders;
+        private final SpaceSavingSketch<Long> products = new SpaceSavingSketch<>(PRODUCT_COUNTERS);
+        private final HyperLogLogSketch customers = new HyperLogLogSketch(HLL_PRECISION);
+        private TDigestSketch orderValues = new TDigestSketch(DIGEST_COMPRESSION);
+        private TDigestSketch prepMinutes = new TDigestSketch(DIGEST_COMPRESSION);
+
+        void reset(long index) {
+            this.index = index;
+            orders = 0;
+            products.clear();
+            customers.clear();
+            orderValues = new TDigestSketch(DIGEST_COMPRESSION);
+            prepMinutes = new TDigestSketch(DIGEST_COMPRESSION);
+        }
+
+        void add(Object[] completion, Collection<Object[]> items, Map<Long, String> productNames) {
+            orders++;
+            Long customerId = (Long) completion[1];
+            String guestPhone = (String) completion[2];
+            if (customerId != null) {
+                customers.add("c:" + customerId);
+            } else if (guestPhone != null && !guestPhone.isBlank()) {
+                customers.add("p:" + guestPhone.trim());
+            }
+            if (completion[3] != null) {
+                orderValues.add(((Money) completion[3]).doubleValue());
+            }
+            LocalDateTime createdAt = (LocalDateTime) completion[4];
+            LocalDateTime completedAt = (LocalDateTime) completion[5];
+            if (createdAt != null && completedAt != null) {
+                prepMinutes.add(Duration.between(createdAt, completedAt).toMillis() / 60000.0);
+            }
+            for (Object[] item : items) {
+                Long productId = (Long) item[1];
+                productNames.putIfAbsent(productId, (String) item[2]);
+                products.offer(productId, ((Number) item[3]).longValue());
+            }
+        }
+
+        void merge(Bucket other) {
+            orders += other.orders;
+            products.merge(other.products);
+            customers.merge(other.customers);
+            orderValues.merge(other.orderValues);
+            prepMinutes.merge(other.prepMinutes);
+        }
+
+        SalesAnalyticsView toView(String label, Map<Long, String> productNames, LocalDateTime computedAt) {
+            List<SalesAnalyticsView.TopProduct> top = new ArrayList<>();
+            for (SpaceSavingSketch.Entry<Long> entry : products.top(TOP_PRODUCTS)) {
+                top.add(new SalesAnalyticsView.TopProduct(entry.item(),
+                        productNames.getOrDefault(entry.item(), "#" + entry.item()), entry.count(), entry.error()));
+            }
+            return new SalesAnalyticsView(label, orders, customers.estimate(), List.copyOf(top),
+                    quantile(orderValues, 0.5), quantile(orderValues, 0.9), quantile(orderValues, 0.99),
+                    quantile(prepMinutes, 0.5), quantile(prepMinutes, 0.9), quantile(prepMinutes, 0.99),
+                    computedAt);
+        }
+
+        private static Double quantile(TDigestSketch digest, double q) {
+            double value = digest.quantile(q);
+            return Double.isNaN(value) ? null : value;
+        }
+    }
+}
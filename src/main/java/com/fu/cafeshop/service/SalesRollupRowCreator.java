@@ -0,0 +1,45 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.DailyProductSales;
+import com.fu.cafeshop.entity.DailySales;
+import com.fu.cafeshop.repository.DailyProductSalesRepository;
+import com.fu.cafeshop.repository.DailySalesRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Creates the first, empty rollup row of a day or of a product's day. Every row is created in
+ * its own transaction, so when two orders complete at once only this short insert can hit the
+ * unique key, never the transaction completing the order. An empty row left by an order that
+ * rolls back afterwards adds nothing to the reports.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesRollupRowCreator {
+
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createDay(LocalDate date) {
+        dailySalesRepository.saveAndFlush(DailySales.builder()
+                .salesDate(date)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createProductDay(LocalDate date, Long productId, String productName) {
+        dailyProductSalesRepository.saveAndFlush(DailyProductSales.builder()
+                .salesDate(date)
+                .productId(productId)
+                .productName(productName)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,176 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.DailyProductSales;
+import com.fu.cafeshop.entity.DailySales;
+import com.fu.cafeshop.event.SalesRollupsRebuiltEvent;
+import com.fu.cafeshop.repository.DailyProductSalesRepository;
+import com.fu.cafeshop.repository.DailySalesRepository;
+import com.fu.cafeshop.repository.OrderItemRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Maintains the {@code daily_sales} and {@code daily_product_sales} rollups that the reports read.
+ *
+ * <p>{@link OrderService} applies each completed order, and reverses an order that leaves DONE,
+ * inside its own transaction, so the rollups commit or roll back with the status change. Rows
+ * are bucketed by order date like the reports. {@link #rebuild} recomputes any range from the
+ * raw orders; a nightly run over the last days repairs anything the increments missed. The first
+ * row of a day or product is created by {@link SalesRollupRowCreator} in its own transaction, so
+ * two first orders of a day do not fail each other's completion on the unique key.
+ */
+@Service
+@Slf4j
+public class SalesRollupService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final DailyProductSalesRepository dailyProductSalesRepository;
+    private final SalesRollupRowCreator rowCreator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int rebuildDays;
+
+    public SalesRollupService(OrderRepository orderRepository,
+                              OrderItemRepository orderItemRepository,
+                              DailySalesRepository dailySalesRepository,
+                              DailyProductSalesRepository dailyProductSalesRepository,
+                              SalesRollupRowCreator rowCreator,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${cafeshop.rollups.rebuild-days:7}") int rebuildDays) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.dailySalesRepository = dailySalesRepository;
+        this.dailyProductSalesRepository = dailyProductSalesRepository;
+        this.rowCreator = rowCreator;
+        this.eventPublisher = eventPublisher;
+        this.rebuildDays = rebuildDays;
+    }
+
+    /**
+     * Adds orders that just reached DONE to the rollups.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCompleted(Collection<Long> orderIds) {
+        if (!orderIds.isEmpty()) {
+            orderItemRepository.recordUnitCost(orderIds);
+        }
+        apply(orderIds, BigDecimal.ONE);
+    }
+
+    /**
+     * Takes completed orders that were cancelled or refunded back out of the rollups, at the cost
+     * recorded when they completed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reverseCompleted(Collection<Long> orderIds) {
+        apply(orderIds, BigDecimal.ONE.negate());
+    }
+
+    /**
+     * Recomputes the rollups of {@code startDate} to {@code endDate} inclusive from the raw orders.
+     */
+    @Transactional
+    public void rebuild(LocalDate startDate, LocalDate endDate) {
+        LocalDateTime now = LocalDateTime.now();
+        dailySalesRepository.deleteBetween(startDate, endDate);
+        dailyProductSalesRepository.deleteBetween(startDate, endDate);
+
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+        int days = 0;
+        for (Object[] row : orderRepository.sumCompletedByDay(start, end)) {
+            dailySalesRepository.save(DailySales.builder()
+                    .salesDate(toLocalDate(row[0]))
+                    .orderCount(((Number) row[1]).longValue())
+                    .revenue(amount(row[2]))
+                    .updatedAt(now)
+                    .build());
+            days++;
+        }
+        for (Object[] row : orderItemRepository.sumCompletedByDayAndProduct(start, end)) {
+            dailyProductSalesRepository.save(productSales(row, BigDecimal.ONE, now));
+        }
+        eventPublisher.publishEvent(new SalesRollupsRebuiltEvent(startDate, endDate));
+        log.info("Rebuilt sales rollups from {} to {}: {} days with sales", startDate, endDate, days);
+    }
+
+    @Scheduled(cron = "${cafeshop.rollups.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildRecent() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(rebuildDays), today.minusDays(1));
+    }
+
+    private void apply(Collection<Long> orderIds, BigDecimal sign) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : orderRepository.sumByDayForOrders(orderIds)) {
+            LocalDate date = toLocalDate(row[0]);
+            long orders = sign.longValue() * ((Number) row[1]).longValue();
+            BigDecimal revenue = amount(row[2]).multiply(sign);
+            if (dailySalesRepository.addTo(date, orders, revenue, now) == 0) {
+                createRow(() -> rowCreator.createDay(date));
+                dailySalesRepository.addTo(date, orders, revenue, now);
+            }
+        }
+        for (Object[] row : orderItemRepository.sumByDayAndProductForOrders(orderIds)) {
+            DailyProductSales delta = productSales(row, sign, now);
+            if (addTo(delta, now) == 0) {
+                createRow(() -> rowCreator.createProductDay(delta.getSalesDate(), delta.getProductId(),
+                        delta.getProductName()));
+                addTo(delta, now);
+            }
+        }
+    }
+
+    private int addTo(DailyProductSales delta, LocalDateTime now) {
+        return dailyProductSalesRepository.addTo(delta.getSalesDate(), delta.getProductId(), delta.getProductName(),
+                delta.getQuantity(), delta.getRevenue(), delta.getCost(), now);
+    }
+
+    private static void createRow(Runnable create) {
+        try {
+            create.run();
+        } catch (DataIntegrityViolationException e) {
+            // Another order created the row first
+        }
+    }
+
+    private static DailyProductSales productSales(Object[] row, BigDecimal sign, LocalDateTime now) {
+        return DailyProductSales.builder()
+                .salesDate(toLocalDate(row[0]))
+                .productId((Long) row[1])
+                .productName((String) row[2])
+                .quantity(sign.longValue() * ((Number) row[3]).longValue())
+                .revenue(amount(row[4]).multiply(sign))
+                .cost(amount(row[5]).multiply(sign))
+                .updatedAt(now)
+                .build();
+    }
+
+    private static BigDecimal amount(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+}
@@ -0,0 +1,123 @@
+package com.fu.cafeshop.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters: at most {@code capacity} counters, and every item seen more than
+ * {@code total / capacity} times is guaranteed to hold one. A count may overestimate the true
+ * count by up to its {@code error}, never underestimate it. Sketches of the same capacity merge,
+ * so per-bucket or per-node sketches can be combined. Not thread safe.
+ */
+public class SpaceSavingSketch<K> {
+
+    public record Entry<K>(K item, long count, long error) {
+    }
+
+    private static final Comparator<Map.Entry<?, long[]>> BY_COUNT_DESC =
+            Comparator.comparingLong((Map.Entry<?, long[]> e) -> e.getValue()[0]).reversed();
+
+    private final int capacity;
+    // item -> [count, error]
+    private final Map<K, long[]> counters;
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(K item, long weight) {
+        total += weight;
+        long[] counter = counters.get(item);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new long[]{weight, 0});
+            return;
+        }
+        // The newcomer takes over the smallest counter, whose count becomes its possible error
+        Map.Entry<K, long[]> smallest = null;
+        for (Map.Entry<K, long[]> entry : counters.entrySet()) {
+            if (smallest == null || entry.getValue()[0] < smallest.getValue()[0]) {
+                smallest = entry;
+            }
+        }
+        long floor = smallest.getValue()[0];
+        counters.remove(smallest.getKey());
+        counters.put(item, new long[]{floor + weight, floor});
+    }
+
+    /**
+     * Adds {@code other} into this sketch. An item missing from one side may still have occurred
+     * there up to that side's smallest count, which is added to its count and error.
+     */
+    public void merge(SpaceSavingSketch<K> other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException("Cannot merge sketches of different capacity");
+        }
+        long thisFloor = floor();
+        long otherFloor = other.floor();
+        Map<K, long[]> merged = new HashMap<>(counters.size() + other.counters.size());
+        for (Map.Entry<K, long[]> entry : counters.entrySet()) {
+            long[] theirs = other.counters.get(entry.getKey());
+            long[] mine = entry.getValue();
+            merged.put(entry.getKey(), theirs != null
+                    ? new long[]{mine[0] + theirs[0], mine[1] + theirs[1]}
+                    : new long[]{mine[0] + otherFloor, mine[1] + otherFloor});
+        }
+        for (Map.Entry<K, long[]> entry : other.counters.entrySet()) {
+            if (!counters.containsKey(entry.getKey())) {
+                long[] theirs = entry.getValue();
+                merged.put(entry.getKey(), new long[]{theirs[0] + thisFloor, theirs[1] + thisFloor});
+            }
+        }
+        counters.clear();
+        merged.entrySet().stream()
+                .sorted(BY_COUNT_DESC)
+                .limit(capacity)
+                .forEach(entry -> counters.put(entry.getKey(), entry.getValue()));
+        total += other.total;
+    }
+
+    /**
+     * The {@code n} largest counters, largest first.
+     */
+    public List<Entry<K>> top(int n) {
+        List<Entry<K>> top = new ArrayList<>(Math.min(n, counters.size()));
+        counters.entrySet().stream()
+                .sorted(BY_COUNT_DESC)
+                .limit(n)
+                .forEach(entry -> top.add(new Entry<>(entry.getKey(), entry.getValue()[0], entry.getValue()[1])));
+        return top;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public void clear() {
+        counters.clear();
+        total = 0;
+    }
+
+    // Smallest count an unmonitored item could have reached; zero while counters are free
+    private long floor() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        long floor = Long.MAX_VALUE;
+        for (long[] counter : counters.values()) {
+            floor = Math.min(floor, counter[0]);
+        }
+        return floor;
+    }
+}
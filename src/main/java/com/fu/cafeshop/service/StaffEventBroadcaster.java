@@ -0,0 +1,280 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.event.KitchenItemReadyEvent;
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes order events to open staff dashboards over Server-Sent Events.
+ *
+ * <p>Every registry change runs on one dispatcher thread, so publishing never holds up the
+ * transaction that published the event and no locking is needed. The dispatcher only queues
+ * events; each client has its own bounded outbox, drained by a sender thread, so a stalled tablet
+ * delays nobody else. A client that falls a whole replay buffer behind is disconnected. Recent
+ * events are kept in a ring buffer so a reconnecting client can ask for everything after its
+ * {@code Last-Event-ID}; if that id is no longer buffered (or comes from a previous run) the
+ * client is told to reload instead.
+ */
+@Service
+@Slf4j
+public class StaffEventBroadcaster {
+
+    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    // Distinguishes ids issued by this run from ids a client kept across a restart
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final int replaySize;
+    private final Deque<BufferedEvent> replay = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "staff-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // One busy thread per client with a send in flight; an idle client holds none
+    private final ExecutorService senders = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "staff-events-send");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Written only on the dispatcher thread
+    private volatile long sequence;
+
+    public StaffEventBroadcaster(@Value("${cafeshop.staff-events.replay-size:256}") int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(new SseEmitter(EMITTER_TIMEOUT_MILLIS), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> dispatch(() -> subscribers.remove(subscriber)));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> emitter.complete());
+
+        dispatch(() -> {
+            if (lastEventId != null && !replayAfter(subscriber, lastEventId)) {
+                return;
+            }
+            subscribers.add(subscriber);
+        });
+        return emitter;
+    }
+
+    /**
+     * Id of the newest event, embedded in freshly rendered pages so events published between
+     * rendering and connecting are replayed.
+     */
+    public String getLastEventId() {
+        return runId + "-" + sequence;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        publish("order-created", payload(event.orderId(), event.orderNumber(), null, OrderStatus.PENDING));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish("order-status", payload(event.orderId(), event.orderNumber(), event.previousStatus(), event.status()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onKitchenItemReady(KitchenItemReadyEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("itemId", event.itemId());
+        data.put("orderId", event.orderId());
+        data.put("station", event.station() != null ? event.station().name() : null);
+        publish("kitchen-item", data);
+    }
+
+    // Keeps idle connections from being closed by proxies and detects dead clients
+    @Scheduled(fixedRateString = "${cafeshop.staff-events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        dispatch(() -> {
+            for (Subscriber subscriber : List.copyOf(subscribers)) {
+                deliver(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatch(() -> {
+            subscribers.forEach(Subscriber::close);
+            subscribers.clear();
+            senders.shutdown();
+        });
+        dispatcher.shutdown();
+    }
+
+    private void publish(String name, Map<String, Object> data) {
+        dispatch(() -> {
+            BufferedEvent event = new BufferedEvent(++sequence, name, data);
+            replay.addLast(event);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            for (Subscriber subscriber : List.copyOf(subscribers)) {
+                deliver(subscriber, event.toSse(runId));
+            }
+        });
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; open connections are being closed anyway
+        }
+    }
+
+    /**
+     * @return false if the client missed more than the buffer holds and was asked to resync
+     */
+    private boolean replayAfter(Subscriber subscriber, String lastEventId) {
+        long lastSeen = parseSequence(lastEventId);
+        BufferedEvent oldest = replay.peekFirst();
+        long oldestSequence = oldest != null ? oldest.sequence() : sequence + 1;
+        if (lastSeen < 0 || lastSeen > sequence || lastSeen < oldestSequence - 1) {
+            subscriber.offer(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+            subscriber.close();
+            return false;
+        }
+        // The outbox holds as many events as the buffer, so a replay always fits
+        for (BufferedEvent event : replay) {
+            if (event.sequence() > lastSeen) {
+                subscriber.offer(event.toSse(runId));
+            }
+        }
+        return true;
+    }
+
+    private long parseSequence(String lastEventId) {
+        int separator = lastEventId.indexOf('-');
+        if (separator < 0 || !runId.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void deliver(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.offer(event)) {
+            log.debug("Dropping staff event subscriber that fell {} events behind", replaySize);
+            subscribers.remove(subscriber);
+            subscriber.close();
+        }
+    }
+
+    private static Map<String, Object> payload(Long orderId, String orderNumber, OrderStatus previousStatus,
+                                               OrderStatus status) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("orderId", orderId);
+        data.put("orderNumber", orderNumber);
+        data.put("previousStatus", previousStatus != null ? previousStatus.name() : null);
+        data.put("status", status.name());
+        return data;
+    }
+
+    /**
+     * An open connection and the events queued for it. Queued tasks run one at a time, in order,
+     * on a sender thread; the emitter is only ever written or completed from there, because both
+     * block while a send to a stalled client is in flight.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Runnable> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Called on the dispatcher thread only.
+         *
+         * @return false if the outbox is full
+         */
+        boolean offer(SseEmitter.SseEventBuilder event) {
+            if (pending.get() >= replaySize) {
+                return false;
+            }
+            enqueue(() -> send(event));
+            return true;
+        }
+
+        void close() {
+            enqueue(emitter::complete);
+        }
+
+        private void enqueue(Runnable task) {
+            outbox.add(task);
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; open connections are being closed anyway
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                outbox.poll().run();
+            } while (pending.decrementAndGet() > 0);
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                log.debug("Dropping staff event subscriber: {}", e.getMessage());
+                dispatch(() -> subscribers.remove(this));
+                emitter.complete();
+            }
+        }
+    }
+
+    private record BufferedEvent(long sequence, String name, Map<String, Object> data) {
+
+        SseEmitter.SseEventBuilder toSse(String runId) {
+            return SseEmitter.event()
+                    .id(runId + "-" + sequence)
+                    .name(name)
+                    .data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.fu.cafeshop.service;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest for quantiles of a stream of values. Values are buffered and folded into
+ * weighted centroids that are kept small near the tails and large near the median, so extreme
+ * quantiles stay accurate; size grows with {@code compression}, not with the number of values.
+ * Digests merge by re-adding the other digest's centroids. Not thread safe.
+ */
+public class TDigestSketch {
+
+    private final double compression;
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroidCount;
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int bufferCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigestSketch(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10");
+        }
+        this.compression = compression;
+        int bufferSize = (int) (5 * compression);
+        this.bufferMeans = new double[bufferSize];
+        this.bufferWeights = new double[bufferSize];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double mean, double weight) {
+        if (bufferCount == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[bufferCount] = mean;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+        min = Math.min(min, mean);
+        max = Math.max(max, mean);
+    }
+
+    public void merge(TDigestSketch other) {
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        for (int i = 0; i < other.bufferCount; i++) {
+            add(other.bufferMeans[i], other.bufferWeights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        double total = 0;
+        for (int i = 0; i < centroidCount; i++) {
+            total += weights[i];
+        }
+        for (int i = 0; i < bufferCount; i++) {
+            total += bufferWeights[i];
+        }
+        return Math.round(total);
+    }
+
+    /**
+     * Estimated value at quantile {@code q} (0 to 1), or NaN when empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        double total = 0;
+        for (int i = 0; i < centroidCount; i++) {
+            total += weights[i];
+        }
+        double target = q * total;
+
+        // Each centroid's weight is centred on its mean; interpolate between neighbouring centres
+        double firstHalf = weights[0] / 2;
+        if (target <= firstHalf) {
+            return min + (means[0] - min) * (target / firstHalf);
+        }
+        double cumulative = firstHalf;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + gap >= target) {
+                return means[i] + (means[i + 1] - means[i]) * ((target - cumulative) / gap);
+            }
+            cumulative += gap;
+        }
+        int last = centroidCount - 1;
+        double lastHalf = weights[last] / 2;
+        return Math.min(max, means[last] + (max - means[last]) * ((target - cumulative) / lastHalf));
+    }
+
+    public int centroidCount() {
+        compress();
+        return centroidCount;
+    }
+
+    private void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+        int n = centroidCount + bufferCount;
+        double[] allMeans = Arrays.copyOf(means, n);
+        double[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferMeans, 0, allMeans, centroidCount, bufferCount);
+        System.arraycopy(bufferWeights, 0, allWeights, centroidCount, bufferCount);
+        sortByMean(allMeans, allWeights);
+
+        double total = 0;
+        for (double weight : allWeights) {
+            total += weight;
+        }
+        double[] outMeans = new double[n];
+        double[] outWeights = new double[n];
+        int out = 0;
+        double mean = allMeans[0];
+        double weight = allWeights[0];
+        double before = 0;
+        for (int i = 1; i < n; i++) {
+            double proposed = weight + allWeights[i];
+            double q = (before + proposed / 2) / total;
+            // k1-style size bound: centroids near q = 0 or 1 stay close to single values
+            if (proposed <= Math.max(1, 4 * total * q * (1 - q) / compression)) {
+                mean += (allMeans[i] - mean) * allWeights[i] / proposed;
+                weight = proposed;
+            } else {
+                outMeans[out] = mean;
+                outWeights[out] = weight;
+                out++;
+                before += weight;
+                mean = allMeans[i];
+                weight = allWeights[i];
+            }
+        }
+        outMeans[out] = mean;
+        outWeights[out] = weight;
+        out++;
+
+        means = Arrays.copyOf(outMeans, out);
+        weights = Arrays.copyOf(outWeights, out);
+        centroidCount = out;
+        bufferCount = 0;
+    }
+
+    private static void sortByMean(double[] means, double[] weights) {
+        int n = means.length;
+        Integer[] index = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        Arrays.sort(index, (a, b) -> Double.compare(means[a], means[b]));
+        double[] sortedMeans = new double[n];
+        double[] sortedWeights = new double[n];
+        for (int i = 0; i < n; i++) {
+            sortedMeans[i] = means[index[i]];
+            sortedWeights[i] = weights[index[i]];
+        }
+        System.arraycopy(sortedMeans, 0, means, 0, n);
+        System.arraycopy(sortedWeights, 0, weights, 0, n);
+    }
+}
@@ -1,13 +1,16 @@
 package com.fu.cafeshop.service;
 
 import com.fu.cafeshop.entity.User;
+import com.fu.cafeshop.event.UserRoleChangedEvent;
 import com.fu.cafeshop.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -15,6 +18,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -51,18 +55,25 @@ public class UserService {
             throw new RuntimeException("Email already exists");
         }
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserRoleChangedEvent(saved.getId(), null, saved.getRole()));
+        return saved;
     }
 
     @Transactional
     public User updateUser(Long id, User userDetails) {
         User user = getUserById(id);
+        String previousRole = user.getRole();
         user.setFullName(userDetails.getFullName());
         user.setEmail(userDetails.getEmail());
         user.setPhone(userDetails.getPhone());
         user.setRole(userDetails.getRole());
         user.setIsActive(userDetails.getIsActive());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (!Objects.equals(previousRole, saved.getRole())) {
+            eventPublisher.publishEvent(new UserRoleChangedEvent(saved.getId(), previousRole, saved.getRole()));
+        }
+        return saved;
     }
 
     @Transactional
@@ -0,0 +1,22 @@
+tailwind.config = {
+    theme: {
+        extend: {
+            colors: {
+                coffee: {
+                    50: '#fdf8f6',
+                    100: '#f2e8e5',
+                    200: '#eaddd7',
+                    300: '#e0cec7',
+                    400: '#d2bab0',
+                    500: '#bfa094',
+                    600: '#a18072',
+                    700: '#977669',
+                    800: '#846358',
+                    900: '#43302b',
+                },
+                cream: '#F5F5DC',
+                espresso: '#3C2415',
+            }
+        }
+    }
+}
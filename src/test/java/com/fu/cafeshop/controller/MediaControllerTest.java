@@ -0,0 +1,70 @@
+package com.fu.cafeshop.controller;
+
+import com.fu.cafeshop.security.CustomUserDetailsService;
+import com.fu.cafeshop.security.LoginSuccessHandler;
+import com.fu.cafeshop.security.SecurityConfig;
+import com.fu.cafeshop.service.ImageVariant;
+import com.fu.cafeshop.service.ProductImageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(MediaController.class)
+@Import(SecurityConfig.class)
+class MediaControllerTest {
+
+    private static final String KEY = "ab".repeat(32);
+
+    @TempDir
+    Path storage;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ProductImageService productImageService;
+
+    @MockitoBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @MockitoBean
+    private LoginSuccessHandler loginSuccessHandler;
+
+    @Test
+    void variantsAreCachedForGoodAndRevalidatedByEtag() throws Exception {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9};
+        Path card = Files.write(storage.resolve("card.jpg"), jpeg);
+        when(productImageService.findVariant(KEY, ImageVariant.CARD)).thenReturn(Optional.of(card));
+
+        String etag = mockMvc.perform(get("/media/products/{key}/card.jpg", KEY))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(content().bytes(jpeg))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/media/products/{key}/card.jpg", KEY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/media/products/{key}/detail.jpg", KEY))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/media/products/{key}/huge.jpg", KEY))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,187 @@
+package com.fu.cafeshop.controller;
+
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.Product;
+import com.fu.cafeshop.security.CustomUserDetailsService;
+import com.fu.cafeshop.security.LoginSuccessHandler;
+import com.fu.cafeshop.security.SecurityConfig;
+import com.fu.cafeshop.service.CartService;
+import com.fu.cafeshop.service.MenuCatalog;
+import com.fu.cafeshop.service.MenuSnapshot;
+import com.fu.cafeshop.service.ProductImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({HomeController.class, MenuController.class})
+@Import({SecurityConfig.class, MenuPageValidator.class})
+class MenuControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private SpringTemplateEngine templateEngine;
+
+    @MockitoBean
+    private MenuCatalog menuCatalog;
+
+    @MockitoBean
+    private CartService cartService;
+
+    // Named, as the templates look it up by name for the image URLs
+    @MockitoBean(name = "productImageService")
+    private ProductImageService productImageService;
+
+    @MockitoBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @MockitoBean
+    private LoginSuccessHandler loginSuccessHandler;
+
+    private final MockHttpSession session = new MockHttpSession();
+
+    @BeforeEach
+    void serveMenu() {
+        when(menuCatalog.getSnapshot()).thenReturn(menu(1));
+    }
+
+    @Test
+    void repeatedVisitsAreAnsweredWithoutRendering() throws Exception {
+        MvcResult first = mockMvc.perform(get("/menu").session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().string(HttpHeaders.VARY, "Cookie"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertEquals(1, renders());
+
+        mockMvc.perform(get("/menu").session(session).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/menu").session(session).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        assertEquals(1, renders());
+
+        // Another category is another page
+        MvcResult category = mockMvc.perform(get("/menu").param("categoryId", "1").session(session)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, category.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(2, renders());
+
+        mockMvc.perform(get("/").session(session)).andExpect(status().isOk());
+        assertEquals(3, renders());
+    }
+
+    @Test
+    void menuAndSessionChangesAreRenderedAgain() throws Exception {
+        String etag = mockMvc.perform(get("/menu").session(session))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        when(menuCatalog.getSnapshot()).thenReturn(menu(2));
+        String changedMenu = mockMvc.perform(get("/menu").session(session).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        when(cartService.getCartItemCount()).thenReturn(2);
+        mockMvc.perform(get("/menu").session(session).header(HttpHeaders.IF_NONE_MATCH, changedMenu))
+                .andExpect(status().isOk());
+
+        // The confirmation after adding to the cart is shown once and never cached
+        mockMvc.perform(get("/menu").session(session).flashAttr("success", "Đã thêm vào giỏ hàng!"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        assertEquals(4, renders());
+    }
+
+    @Test
+    void suggestionsAreJson() throws Exception {
+        mockMvc.perform(get("/menu/suggest").param("q", "bac x"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(10))
+                .andExpect(jsonPath("$[0].name").value("Bạc xỉu"))
+                .andExpect(jsonPath("$[0].categoryName").value("Cà phê"));
+        mockMvc.perform(get("/menu/suggest").param("q", "tra"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        assertEquals(0, renders());
+    }
+
+    @Test
+    void assetsAreFingerprintedGzippedAndServedWithoutSecurity() throws Exception {
+        String page = mockMvc.perform(get("/menu").session(session))
+                .andExpect(header().exists("X-Content-Type-Options"))
+                .andReturn().getResponse().getContentAsString();
+        Matcher script = Pattern.compile("/js/tailwind\\.config-[0-9a-f]{32}\\.js").matcher(page);
+        assertTrue(script.find(), "The page should link the fingerprinted script");
+        assertTrue(Pattern.compile("/css/cafeshop-[0-9a-f]{32}\\.css").matcher(page).find());
+
+        byte[] gzipped = mockMvc.perform(get(script.group()).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().doesNotExist("X-Content-Type-Options"))
+                .andReturn().getResponse().getContentAsByteArray();
+        String plain = mockMvc.perform(get(script.group()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(plain.startsWith("tailwind.config"));
+    }
+
+    // Counts the entry point the Thymeleaf view calls, not the overloads it delegates to
+    private long renders() {
+        return mockingDetails(templateEngine).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("process")
+                        && invocation.getMethod().getParameterCount() == 4)
+                .count();
+    }
+
+    private static MenuSnapshot menu(long version) {
+        Category coffee = new Category();
+        coffee.setId(1L);
+        coffee.setName("Cà phê");
+        Product product = new Product();
+        product.setId(10L);
+        product.setName("Bạc xỉu");
+        product.setCategory(coffee);
+        product.setDefaultPrice(new BigDecimal("35000"));
+        product.setIsFeatured(true);
+        return MenuSnapshot.of(version, List.of(coffee), List.of(product));
+    }
+}
@@ -0,0 +1,147 @@
+package com.fu.cafeshop.controller;
+
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.entity.RejectedOrder;
+import com.fu.cafeshop.security.CustomUserDetailsService;
+import com.fu.cafeshop.security.LoginSuccessHandler;
+import com.fu.cafeshop.security.SecurityConfig;
+import com.fu.cafeshop.service.ActiveOrderBoard;
+import com.fu.cafeshop.service.ActiveOrderView;
+import com.fu.cafeshop.service.OrderService;
+import com.fu.cafeshop.service.RejectedOrderService;
+import com.fu.cafeshop.service.StaffEventBroadcaster;
+import com.fu.cafeshop.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StaffDashboardController.class)
+@Import(SecurityConfig.class)
+@WithMockUser(roles = "STAFF")
+class StaffDashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @MockitoBean
+    private ActiveOrderBoard activeOrderBoard;
+
+    @MockitoBean
+    private StaffEventBroadcaster staffEventBroadcaster;
+
+    @MockitoBean
+    private RejectedOrderService rejectedOrderService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @MockitoBean
+    private LoginSuccessHandler loginSuccessHandler;
+
+    @Test
+    void dashboardRendersCardsAndSubscribesFromRenderedEvent() throws Exception {
+        when(staffEventBroadcaster.getLastEventId()).thenReturn("abc-7");
+        when(activeOrderBoard.getOrders(OrderStatus.PENDING)).thenReturn(List.of(order(1L, OrderStatus.PENDING)));
+        when(activeOrderBoard.getOrders(OrderStatus.APPROVED)).thenReturn(List.of());
+        when(activeOrderBoard.getOrders(OrderStatus.COOKING)).thenReturn(List.of(order(2L, OrderStatus.COOKING)));
+
+        mockMvc.perform(get("/staff/dashboard"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("id=\"order-1\""),
+                        containsString("data-status=\"COOKING\""),
+                        containsString("events?lastEventId=abc-7"),
+                        not(containsString("cần liên hệ khách")),
+                        not(containsString("http-equiv=\"refresh\"")))));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void cardEndpointReturnsOnlyTheCard() throws Exception {
+        when(activeOrderBoard.find(5L)).thenReturn(Optional.of(order(5L, OrderStatus.APPROVED)));
+
+        mockMvc.perform(get("/staff/dashboard/orders/5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("id=\"order-5\""),
+                        containsString("form=\"bulk-cooking\""),
+                        containsString("/staff/order/5/cooking"),
+                        not(containsString("<html")))));
+    }
+
+    @Test
+    void cardEndpointReturnsNotFoundOnceOrderLeftTheBoard() throws Exception {
+        when(activeOrderBoard.find(6L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/staff/dashboard/orders/6"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void activeOrdersPageIsServedFromTheBoard() throws Exception {
+        when(activeOrderBoard.getActiveOrders()).thenReturn(List.of(order(3L, OrderStatus.COOKING)));
+
+        mockMvc.perform(get("/staff/orders"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("20260101-000003")));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void rejectedOrdersAreListedAndFlaggedOnTheDashboard() throws Exception {
+        when(rejectedOrderService.countUnresolved()).thenReturn(1L);
+        when(rejectedOrderService.getUnresolved()).thenReturn(List.of(RejectedOrder.builder()
+                .id(9L)
+                .orderNumber("20260101-000042")
+                .guestPhone("0901234567")
+                .reason("Không tìm thấy bàn với id: 99")
+                .payload("{\"orderNumber\":\"20260101-000042\"}")
+                .rejectedAt(LocalDateTime.now())
+                .build()));
+
+        mockMvc.perform(get("/staff/dashboard"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("cần liên hệ khách")));
+        mockMvc.perform(get("/staff/rejected-orders"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("20260101-000042"),
+                        containsString("0901234567"),
+                        containsString("/staff/rejected-orders/9/resolve"))));
+    }
+
+    private ActiveOrderView order(Long id, OrderStatus status) {
+        return ActiveOrderView.builder()
+                .id(id)
+                .orderNumber("20260101-00000" + id)
+                .status(status)
+                .createdAt(LocalDateTime.now())
+                .totalAmount(Money.of(45000))
+                .items(List.of(new ActiveOrderView.Item("Bạc xỉu", 1)))
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.fu.cafeshop.controller;
+
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.entity.User;
+import com.fu.cafeshop.security.CustomUserDetailsService;
+import com.fu.cafeshop.security.LoginSuccessHandler;
+import com.fu.cafeshop.security.SecurityConfig;
+import com.fu.cafeshop.service.InvoicePdfService;
+import com.fu.cafeshop.service.InvoiceService;
+import com.fu.cafeshop.service.OrderService;
+import com.fu.cafeshop.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StaffOrderController.class)
+@Import(SecurityConfig.class)
+@WithMockUser(username = "barista", roles = "STAFF")
+class StaffOrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @MockitoBean
+    private InvoiceService invoiceService;
+
+    @MockitoBean
+    private InvoicePdfService invoicePdfService;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private CustomUserDetailsService customUserDetailsService;
+
+    @MockitoBean
+    private LoginSuccessHandler loginSuccessHandler;
+
+    @Test
+    void unknownBulkActionIsABadRequest() throws Exception {
+        mockMvc.perform(post("/staff/order/bulk/explode").param("orderIds", "1", "2").with(csrf())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/staff/order/bulk/explode").param("orderIds", "1").with(csrf()))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void bulkActionReportsEveryOrder() throws Exception {
+        User staff = new User();
+        when(userService.getUserByUsername("barista")).thenReturn(staff);
+        when(orderService.bulkUpdateStatus(anyList(), eq(OrderStatus.APPROVED), any())).thenReturn(List.of(
+                new OrderService.StatusChange(1L, "20260101-000001", OrderStatus.PENDING, true, null),
+                new OrderService.StatusChange(2L, "20260101-000002", OrderStatus.DONE, false, "Invalid status transition")));
+
+        mockMvc.perform(post("/staff/order/bulk/approve").param("orderIds", "1", "2").with(csrf())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].applied").value(true))
+                .andExpect(jsonPath("$[1].applied").value(false));
+        mockMvc.perform(post("/staff/order/bulk/approve").param("orderIds", "1", "2").with(csrf()))
+                .andExpect(redirectedUrl("/staff/dashboard"));
+    }
+}
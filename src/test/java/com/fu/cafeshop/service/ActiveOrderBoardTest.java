@@ -0,0 +1,160 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "cafeshop.active-board.reconcile-grace-ms=0",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({OrderService.class, SalesRollupService.class, SalesRollupRowCreator.class, ActiveOrderBoard.class,
+        SimpleMeterRegistry.class})
+class ActiveOrderBoardTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ActiveOrderBoard board;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private final List<Order> orders = new ArrayList<>();
+    private Product product;
+
+    @BeforeEach
+    void seedOrders() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+
+        Category category = new Category();
+        category.setName("Coffee");
+        entityManager.persist(category);
+        product = new Product();
+        product.setName("Bạc xỉu");
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal("35000"));
+        entityManager.persist(product);
+
+        for (int i = 0; i < 5; i++) {
+            orders.add(placeOrder());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        board.load();
+    }
+
+    @Test
+    void readsAreServedWithoutTheDatabase() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ActiveOrderView> pending = board.getOrders(OrderStatus.PENDING);
+        List<ActiveOrderView> all = board.getActiveOrders();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(5, pending.size());
+        assertEquals(5, all.size());
+        assertEquals("Bạc xỉu", pending.get(0).getItems().get(0).getProductName());
+        assertEquals(orders.get(4).getId(), all.get(0).getId(), "Newest order first");
+    }
+
+    @Test
+    void followsOrderEvents() {
+        Order first = orders.get(0);
+        board.onOrderStatusChanged(new OrderStatusChangedEvent(first.getId(), first.getOrderNumber(),
+                OrderStatus.PENDING, OrderStatus.APPROVED));
+        assertEquals(OrderStatus.APPROVED, board.find(first.getId()).orElseThrow().getStatus());
+        assertEquals(4, board.getOrders(OrderStatus.PENDING).size());
+
+        // A stale event must not move the order backwards
+        board.onOrderStatusChanged(new OrderStatusChangedEvent(first.getId(), first.getOrderNumber(),
+                null, OrderStatus.PENDING));
+        assertEquals(OrderStatus.APPROVED, board.find(first.getId()).orElseThrow().getStatus());
+
+        Order second = orders.get(1);
+        board.onOrderStatusChanged(new OrderStatusChangedEvent(second.getId(), second.getOrderNumber(),
+                OrderStatus.PENDING, OrderStatus.CANCELLED));
+        assertTrue(board.find(second.getId()).isEmpty());
+
+        Order created = placeOrder();
+        // The listener runs after commit, when the new order is no longer pending in the session
+        entityManager.flush();
+        entityManager.clear();
+        board.onOrderCreated(new OrderCreatedEvent(created.getId(), created.getOrderNumber()));
+        assertEquals(OrderStatus.PENDING, board.find(created.getId()).orElseThrow().getStatus());
+        assertEquals(5, board.getActiveOrders().size());
+    }
+
+    @Test
+    void reconciliationRepairsAndCountsDrift() {
+        // Changed behind the board's back: one moved on, one finished, one new
+        Order moved = orders.get(0);
+        Order finished = orders.get(1);
+        entityManager.createQuery("UPDATE Order o SET o.status = :status, o.updatedAt = :at WHERE o.id = :id")
+                .setParameter("status", OrderStatus.COOKING)
+                .setParameter("at", moved.getCreatedAt())
+                .setParameter("id", moved.getId())
+                .executeUpdate();
+        entityManager.createQuery("UPDATE Order o SET o.status = :status WHERE o.id = :id")
+                .setParameter("status", OrderStatus.DONE)
+                .setParameter("id", finished.getId())
+                .executeUpdate();
+        Order unseen = placeOrder();
+        entityManager.flush();
+        entityManager.clear();
+
+        board.reconcile();
+
+        assertEquals(OrderStatus.COOKING, board.find(moved.getId()).orElseThrow().getStatus());
+        assertTrue(board.find(finished.getId()).isEmpty());
+        assertTrue(board.find(unseen.getId()).isPresent());
+        assertEquals(3.0, meterRegistry.get("cafeshop.active-board.drift").counter().count());
+
+        board.reconcile();
+        assertEquals(3.0, meterRegistry.get("cafeshop.active-board.drift").counter().count());
+    }
+
+    private Order placeOrder() {
+        return orderService.createOrder(new Order(), List.of(
+                new OrderService.CartItem(product.getId(), product.getName(), Money.of(product.getDefaultPrice()),
+                        1, Money.ZERO, List.of())));
+    }
+}
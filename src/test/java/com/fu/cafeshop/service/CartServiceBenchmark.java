@@ -0,0 +1,85 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Product;
+import com.fu.cafeshop.entity.ProductModifier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bytes allocated computing the cart badge totals, {@code Money} against BigDecimal arithmetic.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+class CartServiceBenchmark {
+
+    private static final int ROUNDS = 200_000;
+
+    @Test
+    void cartTotalsAllocateLessThanBigDecimalArithmetic() {
+        CartService cart = new CartService();
+        List<BigDecimal[]> decimals = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            String price = String.valueOf(20000 + id * 5000);
+            cart.addToCart(product(id, price), (int) id, List.of(modifier(100 + id, "8000")));
+            decimals.add(new BigDecimal[] {new BigDecimal(price), new BigDecimal("8000"), BigDecimal.valueOf(id)});
+        }
+
+        // The subtotal and the item count are computed on every page view for the cart badge.
+        // Measured after two warm-up passes so both sides run compiled.
+        long decimalBytes = 0;
+        long moneyBytes = 0;
+        for (int pass = 0; pass < 3; pass++) {
+            decimalBytes = allocatedBytes(() -> {
+                for (int i = 0; i < ROUNDS; i++) {
+                    BigDecimal subtotal = decimals.stream()
+                            .map(item -> item[0].add(item[1]).multiply(new BigDecimal(item[2].intValue())))
+                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+                    int count = decimals.stream().mapToInt(item -> item[2].intValue()).sum();
+                    if (subtotal.signum() < 0 || count < 0) {
+                        throw new AssertionError();
+                    }
+                }
+            });
+            moneyBytes = allocatedBytes(() -> {
+                for (int i = 0; i < ROUNDS; i++) {
+                    if (cart.getSubtotal().isNegative() || cart.getCartItemCount() < 0) {
+                        throw new AssertionError();
+                    }
+                }
+            });
+        }
+
+        log.info("Cart subtotal and count over 8 items: BigDecimal={} bytes/op, Money={} bytes/op",
+                decimalBytes / ROUNDS, moneyBytes / ROUNDS);
+    }
+
+    private static long allocatedBytes(Runnable work) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        work.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDefaultPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private static ProductModifier modifier(Long id, String priceDelta) {
+        ProductModifier modifier = new ProductModifier();
+        modifier.setId(id);
+        modifier.setName("Modifier " + id);
+        modifier.setPriceDelta(new BigDecimal(priceDelta));
+        return modifier;
+    }
+}
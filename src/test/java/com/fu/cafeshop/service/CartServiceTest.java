@@ -0,0 +1,68 @@
+package com.fu.cafeshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.MoneyConverter;
+import com.fu.cafeshop.entity.Product;
+import com.fu.cafeshop.entity.ProductModifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CartServiceTest {
+
+    @Test
+    void totalsAreExactAndOverflowIsRejected() {
+        CartService cart = new CartService();
+        cart.addToCart(product(1L, "35000"), 2, List.of(modifier(10L, "5000.50"), modifier(11L, "0")));
+        cart.addToCart(product(2L, "25000"), 1, List.of());
+        cart.addToCart(product(1L, "35000"), 1, List.of(modifier(11L, "0"), modifier(10L, "5000.50")));
+
+        assertEquals(4, cart.getCartItemCount());
+        assertEquals(Money.ofMinor(4_000_050), cart.getCartItems().get(0).getItemPrice());
+        assertEquals("145001.50", cart.getSubtotal().toString());
+        assertEquals(new BigDecimal("145001.50"), new MoneyConverter().convertToDatabaseColumn(cart.getSubtotal()));
+        assertEquals(cart.getSubtotal(), new MoneyConverter().convertToEntityAttribute(new BigDecimal("145001.5")));
+
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.005")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE / 2).times(3));
+    }
+
+    @Test
+    void cartItemsSurviveTheJournalJsonRoundTrip() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        OrderService.CartItem item = new OrderService.CartItem(1L, "Bạc xỉu", Money.of(new BigDecimal("35000.50")),
+                2, Money.ofMinor(800_000), List.of("Extra shot"));
+
+        String json = objectMapper.writeValueAsString(item);
+        assertTrue(json.contains("\"unitPrice\":35000.50"), json);
+
+        OrderService.CartItem read = objectMapper.readValue(json, OrderService.CartItem.class);
+        assertEquals(item, read);
+        assertEquals(Money.of(new BigDecimal("86001.00")), read.getTotalPrice());
+        assertEquals(Money.ZERO, objectMapper.readValue("0", Money.class));
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDefaultPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private static ProductModifier modifier(Long id, String priceDelta) {
+        ProductModifier modifier = new ProductModifier();
+        modifier.setId(id);
+        modifier.setName("Modifier " + id);
+        modifier.setPriceDelta(new BigDecimal(priceDelta));
+        return modifier;
+    }
+}
@@ -0,0 +1,205 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.event.CategoryCreatedEvent;
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import com.fu.cafeshop.event.ProductAvailabilityChangedEvent;
+import com.fu.cafeshop.event.UserRoleChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({OrderService.class, SalesRollupService.class, SalesRollupRowCreator.class, ReportService.class,
+        ReportCache.class, DashboardCounters.class, SimpleMeterRegistry.class})
+class DashboardCountersTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private DashboardCounters counters;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private final List<Order> orders = new ArrayList<>();
+    private Product product;
+
+    @BeforeEach
+    void seed() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+
+        Category category = new Category();
+        category.setName("Coffee");
+        entityManager.persist(category);
+        product = new Product();
+        product.setName("Bạc xỉu");
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal("35000"));
+        entityManager.persist(product);
+        Product soldOut = new Product();
+        soldOut.setName("Cà phê trứng");
+        soldOut.setCategory(category);
+        soldOut.setDefaultPrice(new BigDecimal("45000"));
+        soldOut.setIsAvailable(false);
+        entityManager.persist(soldOut);
+        User staff = new User();
+        staff.setUsername("staff01");
+        staff.setPassword("secret");
+        staff.setFullName("Nguyễn Văn A");
+        staff.setEmail("staff01@cafeshop.vn");
+        staff.setRole("STAFF");
+        entityManager.persist(staff);
+
+        for (int i = 0; i < 3; i++) {
+            orders.add(placeOrder());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        counters.load();
+    }
+
+    @Test
+    void dashboardsReadWithoutTheDatabase() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Object> stats = reportService.getDashboardStats();
+        long available = counters.getAvailableProducts();
+        long categories = counters.getCategories();
+        long staff = counters.getStaff();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(3L, stats.get("pendingOrders"));
+        assertEquals(0L, stats.get("todayOrders"));
+        assertEquals(Money.ZERO, stats.get("todayRevenue"));
+        assertEquals(1, available);
+        assertEquals(1, categories);
+        assertEquals(1, staff);
+    }
+
+    @Test
+    void followsLifecycleEvents() {
+        Order order = orders.get(0);
+        complete(order);
+        assertEquals(2, counters.countByStatus(OrderStatus.PENDING));
+        assertEquals(1, counters.countByStatus(OrderStatus.DONE));
+        assertEquals(1, counters.getTodayCompletedOrders());
+        assertEquals(order.getTotalAmount(), counters.getTodayRevenue());
+
+        // A refund takes the order back out of today's figures
+        orderService.updateOrderStatus(order.getId(), OrderStatus.REFUNDED, null);
+        entityManager.flush();
+        entityManager.clear();
+        counters.onOrderStatusChanged(new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(),
+                OrderStatus.DONE, OrderStatus.REFUNDED));
+        assertEquals(0, counters.countByStatus(OrderStatus.DONE));
+        assertEquals(1, counters.countByStatus(OrderStatus.REFUNDED));
+        assertEquals(0, counters.getTodayCompletedOrders());
+        assertEquals(Money.ZERO, counters.getTodayRevenue());
+
+        Order created = placeOrder();
+        entityManager.flush();
+        entityManager.clear();
+        counters.onOrderCreated(new OrderCreatedEvent(created.getId(), created.getOrderNumber()));
+        assertEquals(3, counters.countByStatus(OrderStatus.PENDING));
+
+        counters.onProductAvailabilityChanged(new ProductAvailabilityChangedEvent(product.getId(), false));
+        counters.onCategoryCreated(new CategoryCreatedEvent(99L));
+        counters.onUserRoleChanged(new UserRoleChangedEvent(98L, null, "STAFF"));
+        counters.onUserRoleChanged(new UserRoleChangedEvent(97L, "STAFF", "ADMIN"));
+        counters.onUserRoleChanged(new UserRoleChangedEvent(96L, null, "ADMIN"));
+        assertEquals(0, counters.getAvailableProducts());
+        assertEquals(2, counters.getCategories());
+        assertEquals(1, counters.getStaff());
+    }
+
+    @Test
+    void reconciliationRepairsAndCountsDrift() {
+        complete(orders.get(0));
+        counters.reconcile();
+        assertEquals(0.0, meterRegistry.get("cafeshop.dashboard-counters.drift").counter().count());
+
+        // Changed behind the counters' back: one order completed, one product taken off the menu
+        Order finished = orders.get(1);
+        entityManager.createQuery("UPDATE Order o SET o.status = :status WHERE o.id = :id")
+                .setParameter("status", OrderStatus.DONE)
+                .setParameter("id", finished.getId())
+                .executeUpdate();
+        entityManager.createQuery("UPDATE Product p SET p.isAvailable = false WHERE p.id = :id")
+                .setParameter("id", product.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        counters.reconcile();
+
+        assertEquals(1, counters.countByStatus(OrderStatus.PENDING));
+        assertEquals(2, counters.countByStatus(OrderStatus.DONE));
+        assertEquals(2, counters.getTodayCompletedOrders());
+        assertEquals(orders.get(0).getTotalAmount().plus(finished.getTotalAmount()), counters.getTodayRevenue());
+        assertEquals(0, counters.getAvailableProducts());
+        // Pending, done, today's count and revenue, available products
+        assertEquals(5.0, meterRegistry.get("cafeshop.dashboard-counters.drift").counter().count());
+
+        counters.reconcile();
+        assertEquals(5.0, meterRegistry.get("cafeshop.dashboard-counters.drift").counter().count());
+    }
+
+    private void complete(Order order) {
+        OrderStatus previous = OrderStatus.PENDING;
+        for (OrderStatus status : List.of(OrderStatus.APPROVED, OrderStatus.COOKING, OrderStatus.DONE)) {
+            orderService.updateOrderStatus(order.getId(), status, null);
+            entityManager.flush();
+            entityManager.clear();
+            counters.onOrderStatusChanged(new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(),
+                    previous, status));
+            previous = status;
+        }
+    }
+
+    private Order placeOrder() {
+        return orderService.createOrder(new Order(), List.of(
+                new OrderService.CartItem(product.getId(), product.getName(), Money.of(product.getDefaultPrice()),
+                        1, Money.ZERO, List.of())));
+    }
+}
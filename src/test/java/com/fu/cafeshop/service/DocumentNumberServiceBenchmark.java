@@ -0,0 +1,104 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.service.DocumentNumberService.DocumentType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checkout numbering throughput, block allocation against the old serialized MAX scan.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+class DocumentNumberServiceBenchmark {
+
+    private static final int SUBMITTERS = 64;
+    private static final int ORDERS_PER_SUBMITTER = 500;
+    private static final long DB_ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Test
+    void checkoutThroughputWith64ConcurrentSubmitters() throws Exception {
+        SimulatedDatabase database = new SimulatedDatabase();
+        DocumentNumberService blockAllocated = new DocumentNumberService(database, 50);
+
+        // Previous behaviour: JVM-wide lock around one MAX(order_number) query per checkout
+        Object legacyLock = new Object();
+        AtomicLong legacyCounter = new AtomicLong();
+        Supplier<String> legacy = () -> {
+            synchronized (legacyLock) {
+                LockSupport.parkNanos(DB_ROUND_TRIP_NANOS);
+                return String.valueOf(legacyCounter.incrementAndGet());
+            }
+        };
+
+        double legacyRate = runSubmitters(legacy);
+        double blockRate = runSubmitters(blockAllocated::nextOrderNumber);
+
+        log.info("Order numbers/s with {} submitters: synchronized scan={}, block allocated={} ({} reservations)",
+                SUBMITTERS, Math.round(legacyRate), Math.round(blockRate), database.reservations.get());
+    }
+
+    private double runSubmitters(Supplier<String> nextNumber) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(SUBMITTERS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(SUBMITTERS);
+        for (int i = 0; i < SUBMITTERS; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < ORDERS_PER_SUBMITTER; n++) {
+                        nextNumber.get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+        return SUBMITTERS * ORDERS_PER_SUBMITTER / (elapsed / 1_000_000_000.0);
+    }
+
+    private static class SimulatedDatabase extends DocumentSequenceAllocator {
+
+        private final AtomicLong sequence = new AtomicLong(1);
+        private final AtomicLong reservations = new AtomicLong();
+
+        SimulatedDatabase() {
+            super(null);
+        }
+
+        @Override
+        public boolean hasSequence(DocumentType type) {
+            return true;
+        }
+
+        @Override
+        public long reserveFromSequence(DocumentType type, int blockSize) {
+            LockSupport.parkNanos(DB_ROUND_TRIP_NANOS);
+            reservations.incrementAndGet();
+            return sequence.getAndAdd(blockSize);
+        }
+
+        @Override
+        public long reserveFromTable(DocumentType type, int blockSize) {
+            return reserveFromSequence(type, blockSize);
+        }
+    }
+}
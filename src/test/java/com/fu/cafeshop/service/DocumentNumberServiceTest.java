@@ -0,0 +1,140 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.service.DocumentNumberService.DocumentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentNumberServiceTest {
+
+    private static final int SUBMITTERS = 16;
+    private static final int ORDERS_PER_SUBMITTER = 500;
+
+    @Test
+    void numbersStayUniqueAcrossNodesUnderContention() throws Exception {
+        SimulatedDatabase database = new SimulatedDatabase(true);
+        DocumentNumberService nodeA = new DocumentNumberService(database, 50);
+        DocumentNumberService nodeB = new DocumentNumberService(database, 50);
+
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(SUBMITTERS);
+        CountDownLatch done = new CountDownLatch(SUBMITTERS);
+        for (int i = 0; i < SUBMITTERS; i++) {
+            DocumentNumberService node = i % 2 == 0 ? nodeA : nodeB;
+            pool.execute(() -> {
+                try {
+                    for (int n = 0; n < ORDERS_PER_SUBMITTER; n++) {
+                        issued.add(node.nextOrderNumber());
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(1, TimeUnit.MINUTES));
+        pool.shutdown();
+
+        assertEquals(SUBMITTERS * ORDERS_PER_SUBMITTER, issued.size());
+    }
+
+    @Test
+    void transientFailuresAreRetriedOnTheSameCounter() {
+        SimulatedDatabase database = new SimulatedDatabase(true);
+        DocumentNumberService service = new DocumentNumberService(database, 50);
+        service.selectCounters();
+        database.failuresLeft.set(2);
+
+        assertEquals(1, service.nextValue(DocumentType.ORDER));
+        assertEquals(3, database.sequenceCalls.get());
+        assertEquals(0, database.tableCalls.get());
+    }
+
+    @Test
+    void counterIsChosenOnceAndNeverSwitched() {
+        SimulatedDatabase database = new SimulatedDatabase(false);
+        DocumentNumberService service = new DocumentNumberService(database, 1);
+        service.selectCounters();
+        database.failuresLeft.set(10);
+
+        assertThrows(RuntimeException.class, () -> service.nextValue(DocumentType.INVOICE));
+        assertEquals(0, database.sequenceCalls.get());
+
+        database.failuresLeft.set(0);
+        assertEquals(1, service.nextValue(DocumentType.INVOICE));
+        assertEquals(0, database.sequenceCalls.get());
+        // Asked once per type, at startup
+        assertEquals(2, database.lookups.get());
+    }
+
+    @Test
+    void sequenceStartsAfterTheNumbersAlreadyIssued() {
+        // Orders numbered before the sequence existed, which still sits at its start value
+        SimulatedDatabase database = new SimulatedDatabase(true);
+        database.maxIssued = 120;
+        DocumentNumberService service = new DocumentNumberService(database, 50);
+        service.selectCounters();
+
+        assertEquals(121, service.nextValue(DocumentType.ORDER));
+
+        // A second node starting later leaves the sequence where the first one took it
+        new DocumentNumberService(database, 50).selectCounters();
+        assertEquals(171, database.reserveFromSequence(DocumentType.ORDER, 50));
+    }
+
+    private static class SimulatedDatabase extends DocumentSequenceAllocator {
+
+        private final boolean hasSequence;
+        private final AtomicLong counter = new AtomicLong(1);
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+        private final AtomicInteger lookups = new AtomicInteger();
+        private final AtomicInteger sequenceCalls = new AtomicInteger();
+        private final AtomicInteger tableCalls = new AtomicInteger();
+        private long maxIssued;
+
+        SimulatedDatabase(boolean hasSequence) {
+            super(null);
+            this.hasSequence = hasSequence;
+        }
+
+        @Override
+        public boolean hasSequence(DocumentType type) {
+            lookups.incrementAndGet();
+            return hasSequence;
+        }
+
+        @Override
+        public void alignSequence(DocumentType type) {
+            counter.accumulateAndGet(maxIssued + 1, Math::max);
+        }
+
+        @Override
+        public long reserveFromSequence(DocumentType type, int blockSize) {
+            sequenceCalls.incrementAndGet();
+            return reserve(blockSize);
+        }
+
+        @Override
+        public long reserveFromTable(DocumentType type, int blockSize) {
+            tableCalls.incrementAndGet();
+            return reserve(blockSize);
+        }
+
+        private long reserve(int blockSize) {
+            if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new RuntimeException("Lock request time out period exceeded");
+            }
+            return counter.getAndAdd(blockSize);
+        }
+    }
+}
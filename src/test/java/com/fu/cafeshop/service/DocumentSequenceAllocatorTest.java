@@ -0,0 +1,75 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Invoice;
+import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.repository.DocumentSequenceRepository;
+import com.fu.cafeshop.repository.InvoiceRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import com.fu.cafeshop.service.DocumentNumberService.DocumentType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import(DocumentSequenceAllocator.class)
+// The allocator reserves in its own transaction, which only sees committed rows
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DocumentSequenceAllocatorTest {
+
+    @Autowired
+    private DocumentSequenceAllocator allocator;
+
+    @Autowired
+    private DocumentSequenceRepository documentSequenceRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @AfterEach
+    void cleanUp() {
+        invoiceRepository.deleteAll();
+        orderRepository.deleteAll();
+        documentSequenceRepository.deleteAll();
+    }
+
+    @Test
+    void tableCounterStartsAfterTheNumbersAlreadyIssued() {
+        Order older = orderRepository.save(order("20251231-000120"));
+        orderRepository.save(order("20260101-000007"));
+        invoiceRepository.save(Invoice.builder().order(older).invoiceNumber("INV-20251231-000045").build());
+
+        // The test schema has no native sequences, as on a database without the migrations
+        assertFalse(allocator.hasSequence(DocumentType.ORDER));
+        assertEquals(121, allocator.reserveFromTable(DocumentType.ORDER, 50));
+        assertEquals(171, allocator.reserveFromTable(DocumentType.ORDER, 50));
+        assertEquals(46, allocator.reserveFromTable(DocumentType.INVOICE, 50));
+    }
+
+    @Test
+    void emptyDatabaseStartsAtOne() {
+        assertEquals(1, allocator.reserveFromTable(DocumentType.INVOICE, 10));
+        assertEquals(11, allocator.reserveFromTable(DocumentType.INVOICE, 10));
+    }
+
+    private static Order order(String orderNumber) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setStatus(OrderStatus.DONE);
+        return order;
+    }
+}
@@ -0,0 +1,93 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Invoice;
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderItem;
+import com.fu.cafeshop.repository.InvoiceRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoicePdfServiceTest {
+
+    @TempDir
+    Path storage;
+
+    @Test
+    void rendersOnceAndReusesStoredFile() throws Exception {
+        Order order = new Order();
+        order.setId(7L);
+        order.setOrderNumber("20260101-000007");
+        order.setGuestName("Nguyễn Văn A");
+        order.setCreatedAt(LocalDateTime.of(2026, 1, 1, 9, 30));
+        order.setSubtotal(Money.of(90000));
+        order.setTotalAmount(Money.of(90000));
+        order.setOrderItems(List.of(OrderItem.builder()
+                .productName("Cà phê sữa đá").quantity(2)
+                .unitPrice(Money.of(45000)).totalPrice(Money.of(90000))
+                .build()));
+        Invoice invoice = Invoice.builder().id(3L).order(order).invoiceNumber("INV-20260101-000003").build();
+
+        InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(invoiceRepository.findById(3L)).thenReturn(Optional.of(invoice));
+        when(orderRepository.findByIdWithItems(7L)).thenReturn(Optional.of(order));
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InvoicePdfService service = new InvoicePdfService(invoiceRepository, orderRepository, templateEngine,
+                new InvoicePdfStore(storage.toString()), registry, 1, 10, "");
+
+        service.render(3L);
+        service.render(3L);
+
+        verify(invoiceRepository, times(2)).updatePdfUrl(eq(3L), startsWith(InvoicePdfService.URL_PREFIX));
+        assertEquals(1, registry.get("cafeshop.invoice.pdf.render").timer().count());
+        try (var files = Files.walk(storage)) {
+            List<Path> pdfs = files.filter(p -> p.toString().endsWith(".pdf")).toList();
+            assertEquals(1, pdfs.size());
+            assertTrue(new String(Files.readAllBytes(pdfs.get(0)), 0, 5).startsWith("%PDF"));
+            // Vietnamese text is set in the bundled font, not the built-in Latin-1 Helvetica
+            try (PDDocument pdf = Loader.loadPDF(pdfs.get(0).toFile())) {
+                List<String> fonts = new ArrayList<>();
+                PDResources resources = pdf.getPage(0).getResources();
+                for (COSName name : resources.getFontNames()) {
+                    fonts.add(resources.getFont(name).getName());
+                }
+                assertFalse(fonts.isEmpty());
+                assertTrue(fonts.stream().allMatch(font -> font.contains("DejaVuSans")), fonts.toString());
+            }
+        }
+        service.shutdown();
+    }
+}
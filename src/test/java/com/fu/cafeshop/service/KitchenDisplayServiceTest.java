@@ -0,0 +1,167 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.KitchenTicket;
+import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.event.KitchenItemReadyEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import({OrderService.class, SalesRollupService.class, SalesRollupRowCreator.class, KitchenDisplayService.class})
+class KitchenDisplayServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private KitchenDisplayService kitchen;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private final List<Order> orders = new ArrayList<>();
+    private Product coffee;
+    private Product croissant;
+
+    @BeforeEach
+    void seedOrders() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+
+        coffee = product("Bạc xỉu", category("Coffee", KitchenStation.BAR));
+        croissant = product("Croissant", category("Pastries", KitchenStation.KITCHEN));
+
+        for (int i = 0; i < 3; i++) {
+            Order order = orderService.createOrder(new Order(), List.of(cartItem(coffee), cartItem(croissant)));
+            orders.add(order);
+        }
+        // The last order is still waiting for staff and must not reach the kitchen yet
+        orderService.updateOrderStatus(orders.get(0).getId(), OrderStatus.APPROVED, null);
+        orderService.updateOrderStatus(orders.get(1).getId(), OrderStatus.APPROVED, null);
+        entityManager.flush();
+        entityManager.clear();
+        kitchen.load();
+    }
+
+    @Test
+    void splitsItemsIntoStationQueuesOldestFirst() {
+        List<KitchenTicket> bar = kitchen.getQueue(KitchenStation.BAR);
+        List<KitchenTicket> food = kitchen.getQueue(KitchenStation.KITCHEN);
+
+        assertEquals(2, bar.size());
+        assertEquals(2, food.size());
+        assertTrue(bar.stream().allMatch(ticket -> ticket.getProductName().equals("Bạc xỉu")));
+        assertTrue(food.stream().allMatch(ticket -> ticket.getProductName().equals("Croissant")));
+        assertEquals(orders.get(0).getId(), bar.get(0).getOrderId());
+        assertEquals(orders.get(1).getId(), bar.get(1).getOrderId());
+
+        // Approving the waiting order queues its items
+        Order third = orders.get(2);
+        orderService.updateOrderStatus(third.getId(), OrderStatus.APPROVED, null);
+        entityManager.flush();
+        entityManager.clear();
+        kitchen.onOrderStatusChanged(new OrderStatusChangedEvent(third.getId(), third.getOrderNumber(),
+                OrderStatus.PENDING, OrderStatus.APPROVED));
+        assertEquals(3, kitchen.getQueueSizes().get(KitchenStation.BAR));
+        assertEquals(third.getId(), kitchen.getQueue(KitchenStation.KITCHEN).get(2).getOrderId());
+    }
+
+    @Test
+    void lastReadyItemCompletesTheOrder() {
+        Order order = orders.get(0);
+        KitchenTicket drink = kitchen.getQueue(KitchenStation.BAR).get(0);
+        KitchenTicket food = kitchen.getQueue(KitchenStation.KITCHEN).get(0);
+
+        assertFalse(kitchen.markReady(drink.getItemId(), null));
+        assertEquals(OrderStatus.COOKING, orderService.getOrderById(order.getId()).getStatus());
+        entityManager.flush();
+        entityManager.clear();
+        kitchen.onItemReady(new KitchenItemReadyEvent(drink.getItemId(), order.getId(), KitchenStation.BAR));
+        assertEquals(1, kitchen.getQueueSizes().get(KitchenStation.BAR));
+        assertThrows(RuntimeException.class, () -> kitchen.markReady(drink.getItemId(), null));
+
+        assertTrue(kitchen.markReady(food.getItemId(), null));
+        Order done = orderService.getOrderById(order.getId());
+        assertEquals(OrderStatus.DONE, done.getStatus());
+        assertTrue(done.getActualCompletionTime() != null);
+        entityManager.flush();
+        entityManager.clear();
+
+        kitchen.onOrderStatusChanged(new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(),
+                OrderStatus.COOKING, OrderStatus.DONE));
+        assertTrue(kitchen.getQueue(KitchenStation.KITCHEN).stream()
+                .noneMatch(ticket -> ticket.getOrderId().equals(order.getId())));
+    }
+
+    @Test
+    void requeuedItemFollowsItsCategoryToTheNewStation() {
+        Category pastries = entityManager.find(Category.class, croissant.getCategory().getId());
+        pastries.setStation(KitchenStation.BAR);
+        entityManager.flush();
+        entityManager.clear();
+
+        Order order = orders.get(0);
+        kitchen.onOrderStatusChanged(new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(),
+                OrderStatus.PENDING, OrderStatus.APPROVED));
+
+        assertEquals(1, kitchen.getQueueSizes().get(KitchenStation.KITCHEN));
+        assertEquals(3, kitchen.getQueueSizes().get(KitchenStation.BAR));
+        assertTrue(kitchen.getQueue(KitchenStation.KITCHEN).stream()
+                .noneMatch(ticket -> ticket.getOrderId().equals(order.getId())));
+    }
+
+    @Test
+    void builtCategoriesKeepTheirDefaults() {
+        Category category = Category.builder().name("Tea").build();
+        assertEquals(KitchenStation.BAR, category.getStation());
+        assertEquals(0, category.getDisplayOrder());
+        assertTrue(category.getIsActive());
+    }
+
+    private Category category(String name, KitchenStation station) {
+        Category category = new Category();
+        category.setName(name);
+        category.setStation(station);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private Product product(String name, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal("35000"));
+        entityManager.persist(product);
+        return product;
+    }
+
+    private static OrderService.CartItem cartItem(Product product) {
+        return new OrderService.CartItem(product.getId(), product.getName(), Money.of(product.getDefaultPrice()),
+                1, Money.ZERO, List.of());
+    }
+}
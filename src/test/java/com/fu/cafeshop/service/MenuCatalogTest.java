@@ -0,0 +1,176 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.Product;
+import com.fu.cafeshop.entity.ProductModifier;
+import com.fu.cafeshop.event.MenuChangedEvent;
+import com.fu.cafeshop.repository.CategoryRepository;
+import com.fu.cafeshop.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({MenuCatalogTest.RebuildInline.class, ProductService.class, CategoryService.class, SimpleMeterRegistry.class})
+class MenuCatalogTest {
+
+    // The seeded menu is never committed, so the rebuild thread could not see it; rebuild on the caller
+    @TestConfiguration
+    static class RebuildInline {
+        @Bean
+        MenuCatalog menuCatalog(CategoryRepository categoryRepository, ProductRepository productRepository,
+                                SimpleMeterRegistry meterRegistry) {
+            return new MenuCatalog(categoryRepository, productRepository, meterRegistry, Runnable::run);
+        }
+    }
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category coffee;
+    private Product bacXiu;
+    private Product espresso;
+
+    @BeforeEach
+    void seedMenu() {
+        coffee = category("Cà phê", 1);
+        Category tea = category("Trà", 2);
+        bacXiu = product("Bạc xỉu", coffee, "35000", 2, true);
+        espresso = product("Espresso", coffee, "30000", 1, false);
+        product("Trà đào", tea, "40000", 1, false);
+        ProductModifier shot = new ProductModifier();
+        shot.setProduct(bacXiu);
+        shot.setName("Thêm shot");
+        shot.setPriceDelta(new BigDecimal("10000"));
+        entityManager.persist(shot);
+        Product soldOut = product("Cà phê trứng", coffee, "45000", 3, true);
+        soldOut.setIsAvailable(false);
+        entityManager.flush();
+        entityManager.clear();
+        menuCatalog.load();
+    }
+
+    @Test
+    void pagesReadTheSnapshotWithoutTheDatabase() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MenuSnapshot menu = menuCatalog.getSnapshot();
+        List<MenuSnapshot.ProductView> coffees = menu.getProductsByCategory(coffee.getId());
+        List<MenuSnapshot.ProductView> found = menu.search("TRÀ");
+        MenuSnapshot.ProductView detail = menu.findProduct(bacXiu.getId()).orElseThrow();
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(List.of("Cà phê", "Trà"), menu.getCategories().stream().map(MenuSnapshot.CategoryView::getName).toList());
+        assertEquals(List.of("Espresso", "Bạc xỉu"), coffees.stream().map(MenuSnapshot.ProductView::getName).toList());
+        assertEquals(3, menu.getProducts().size());
+        assertEquals(List.of("Bạc xỉu"), menu.getFeaturedProducts().stream().map(MenuSnapshot.ProductView::getName).toList());
+        assertEquals(List.of("Trà đào"), found.stream().map(MenuSnapshot.ProductView::getName).toList());
+        assertEquals("Thêm shot", detail.getModifiers().get(0).getName());
+        assertEquals("Cà phê", detail.getCategoryName());
+    }
+
+    @Test
+    void changesSwapInANewVersion() {
+        MenuSnapshot before = menuCatalog.getSnapshot();
+
+        productService.toggleAvailability(espresso.getId());
+        entityManager.flush();
+        entityManager.clear();
+        // Until the commit is announced the current version stands
+        assertEquals(before.getVersion(), menuCatalog.getVersion());
+        menuCatalog.onMenuChanged(new MenuChangedEvent());
+
+        MenuSnapshot after = menuCatalog.getSnapshot();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertTrue(after.findProduct(espresso.getId()).isEmpty());
+        assertEquals(1, after.getProductsByCategory(coffee.getId()).size());
+        // A page still rendering the old version keeps seeing all of it
+        assertTrue(before.findProduct(espresso.getId()).isPresent());
+        assertEquals(2, before.getProductsByCategory(coffee.getId()).size());
+    }
+
+    @Test
+    void aBurstOfChangesRebuildsOnceWhileReadersKeepTheCurrentVersion() {
+        List<Runnable> queued = new ArrayList<>();
+        MenuCatalog catalog = new MenuCatalog(categoryRepository, productRepository, new SimpleMeterRegistry(), queued::add);
+        catalog.load();
+
+        productService.toggleAvailability(espresso.getId());
+        catalog.onMenuChanged(new MenuChangedEvent());
+        catalog.onMenuChanged(new MenuChangedEvent());
+        catalog.onMenuChanged(new MenuChangedEvent());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, queued.size());
+        assertEquals(1, catalog.getVersion());
+        assertTrue(catalog.getSnapshot().findProduct(espresso.getId()).isPresent());
+
+        queued.remove(0).run();
+        assertEquals(2, catalog.getVersion());
+        assertTrue(catalog.getSnapshot().findProduct(espresso.getId()).isEmpty());
+        assertEquals(List.of("Bạc xỉu"), catalog.getSnapshot().suggest("ba", 5).stream()
+                .map(MenuSnapshot.ProductView::getName).toList());
+
+        // A change after the rebuild started queues the next one
+        catalog.onMenuChanged(new MenuChangedEvent());
+        assertEquals(1, queued.size());
+    }
+
+    private Category category(String name, int displayOrder) {
+        Category category = new Category();
+        category.setName(name);
+        category.setDisplayOrder(displayOrder);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private Product product(String name, Category category, String price, int displayOrder, boolean featured) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal(price));
+        product.setDisplayOrder(displayOrder);
+        product.setIsFeatured(featured);
+        entityManager.persist(product);
+        return product;
+    }
+}
@@ -0,0 +1,106 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Retained heap and time while exporting a year of orders as CSV. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import(OrderExportService.class)
+class OrderExportServiceBenchmark {
+
+    private static final int ROWS = 300_000;
+
+    @Autowired
+    private OrderExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void largeExportHeapGrowth() throws Exception {
+        // Same index as the migrations, so the cursor walks it instead of sorting; H2 streams
+        // rows only in lazy mode
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS IDX_orders_createdat ON orders(created_at, id)");
+        jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION TRUE");
+        jdbcTemplate.update("INSERT INTO orders (id, order_number, status_code, subtotal, tax_amount, discount_amount, "
+                + "total_amount, guest_name, created_at) "
+                + "SELECT 1000000000 + X, 'EXP-' || X, ?, 45000, 0, 0, 45000, 'Khách ' || X, "
+                + "DATEADD('SECOND', X, TIMESTAMP '2025-01-01 00:00:00') FROM SYSTEM_RANGE(1, ?)",
+                OrderStatus.DONE.getCode(), ROWS);
+
+        HeapSamplingSink sink = new HeapSamplingSink();
+        long began = System.nanoTime();
+        long rows;
+        try (Writer out = new OutputStreamWriter(sink, StandardCharsets.UTF_8)) {
+            rows = exportService.export(OrderExportService.Dataset.ORDERS,
+                    LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), out);
+        } finally {
+            jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION FALSE");
+        }
+
+        assertEquals(ROWS, rows);
+        log.info("Exported {} rows, {} MB of CSV in {} ms; retained heap grew by at most {} MB",
+                rows, String.format("%.1f", sink.bytes / 1048576.0), (System.nanoTime() - began) / 1_000_000,
+                String.format("%.1f", (sink.peakHeap - sink.baselineHeap) / 1048576.0));
+    }
+
+    /**
+     * Discards the CSV, measuring the live heap after a full GC every few megabytes.
+     */
+    private static final class HeapSamplingSink extends OutputStream {
+
+        private static final long SAMPLE_EVERY = 4L * 1024 * 1024;
+
+        private final long baselineHeap = liveHeap();
+        private long peakHeap = baselineHeap;
+        private long bytes;
+        private long nextSample = SAMPLE_EVERY;
+
+        @Override
+        public void write(int b) {
+            count(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count(len);
+        }
+
+        private void count(int len) {
+            bytes += len;
+            if (bytes >= nextSample) {
+                nextSample += SAMPLE_EVERY;
+                peakHeap = Math.max(peakHeap, liveHeap());
+            }
+        }
+
+        private static long liveHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import(OrderExportService.class)
+class OrderExportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+    private static final int SMALL_ROWS = 2_500;
+
+    @Autowired
+    private OrderExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void writesEachDatasetAsQuotedCsv() throws Exception {
+        Category category = new Category();
+        category.setName("Coffee");
+        entityManager.persist(category);
+        Product product = new Product();
+        product.setName("Bạc xỉu");
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal("35000"));
+        entityManager.persist(product);
+
+        Order order = new Order();
+        order.setOrderNumber("20250602-000001");
+        order.setStatus(OrderStatus.DONE);
+        order.setGuestName("Nguyễn \"Tí\", bàn 3");
+        order.setGuestPhone("=1+2");
+        order.setTotalAmount(Money.of(70000));
+        order.setCreatedAt(DAY.atTime(9, 15));
+        entityManager.persist(order);
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setProductName(product.getName());
+        item.setQuantity(2);
+        item.setUnitPrice(Money.of(35000));
+        item.setTotalPrice(Money.of(70000));
+        entityManager.persist(item);
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setAmount(new BigDecimal("70000.00"));
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setPaidAt(DAY.atTime(9, 40));
+        entityManager.persist(payment);
+        // Outside the range
+        Order nextDay = new Order();
+        nextDay.setOrderNumber("20250603-000001");
+        nextDay.setStatus(OrderStatus.PENDING);
+        nextDay.setCreatedAt(DAY.plusDays(1).atStartOfDay());
+        entityManager.persist(nextDay);
+        entityManager.flush();
+
+        List<String> orders = export(OrderExportService.Dataset.ORDERS);
+        assertEquals(2, orders.size());
+        assertEquals(order.getId() + ",20250602-000001,2025-06-02T09:15,DONE,,\"Nguyễn \"\"Tí\"\", bàn 3\","
+                + "\"'=1+2\",0.00,0.00,0.00,70000.00,", orders.get(1));
+
+        List<String> items = export(OrderExportService.Dataset.ORDER_ITEMS);
+        assertEquals(item.getId() + "," + order.getId() + ",20250602-000001,2025-06-02T09:15," + product.getId()
+                + ",Bạc xỉu,2,35000.00,0.00,70000.00,", items.get(1));
+
+        List<String> payments = export(OrderExportService.Dataset.PAYMENTS);
+        assertEquals(payment.getId() + "," + order.getId() + ",20250602-000001,2025-06-02T09:15,CASH,70000.00,"
+                + "COMPLETED,,2025-06-02T09:40", payments.get(1));
+    }
+
+    @Test
+    void streamsEveryRowInOrderAcrossFetchBatches() throws Exception {
+        // Ids run opposite to the order dates, so the rows only come out right if the cursor follows
+        // the ORDER BY through every fetch
+        jdbcTemplate.update("INSERT INTO orders (id, order_number, status_code, subtotal, tax_amount, discount_amount, "
+                + "total_amount, created_at) "
+                + "SELECT 1000000000 + X, 'EXP-' || X, ?, 45000, 0, 0, 45000, "
+                + "DATEADD('SECOND', -X, TIMESTAMP '2025-06-03 00:00:00') FROM SYSTEM_RANGE(1, ?)",
+                OrderStatus.DONE.getCode(), SMALL_ROWS);
+
+        OrderExportService smallFetches = new OrderExportService(jdbcTemplate, 100);
+        RecordingWriter out = new RecordingWriter();
+        long rows = smallFetches.export(OrderExportService.Dataset.ORDERS, DAY, DAY, out);
+
+        List<String> lines = List.of(out.toString().split("\r\n"));
+        assertEquals(SMALL_ROWS, rows);
+        assertEquals(SMALL_ROWS + 1, lines.size());
+        for (int i = 1; i <= SMALL_ROWS; i++) {
+            assertTrue(lines.get(i).startsWith((1000000000 + SMALL_ROWS + 1 - i) + ",EXP-" + (SMALL_ROWS + 1 - i) + ","),
+                    lines.get(i));
+        }
+        // Flushed for the download, but left open for the caller
+        assertTrue(out.flushed);
+        assertFalse(out.closed);
+    }
+
+    private List<String> export(OrderExportService.Dataset dataset) throws Exception {
+        StringWriter out = new StringWriter();
+        exportService.export(dataset, DAY, DAY, out);
+        return List.of(out.toString().split("\r\n"));
+    }
+
+    private static final class RecordingWriter extends StringWriter {
+
+        private boolean flushed;
+        private boolean closed;
+
+        @Override
+        public void flush() {
+            super.flush();
+            flushed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.OrderFactGroup;
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.entity.Product;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Category sales by hour over two million order items, scanned from the sealed fact columns
+ * against the same SQL aggregate. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cafeshop.facts.storage-path=target/order-facts-benchmark",
+        "cafeshop.facts.backfill-days=0",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import(OrderFactStore.class)
+class OrderFactStoreBenchmark {
+
+    private static final LocalDate BENCH_START = LocalDate.of(2025, 1, 1);
+    private static final int BENCH_DAYS = 60;
+    private static final int BENCH_ORDERS = 400_000;
+    private static final int ITEMS_PER_ORDER = 5;
+    private static final int BENCH_PRODUCTS = 40;
+    private static final int SEED_CHUNK = 50_000;
+
+    @Autowired
+    private OrderFactStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void clearSegments() {
+        FileSystemUtils.deleteRecursively(Path.of("target/order-facts-benchmark").toFile());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void columnScanAgainstTheSqlAggregate() {
+        // Seeded outside the test transaction: H2 keeps an undo record per row until commit.
+        // The date index comes from the migrations, which the test schema does not run.
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS IDX_orders_createdat ON orders(created_at, id)");
+        List<Long> categoryIds = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int c = 0; c < 8; c++) {
+                Category category = category("Category " + c);
+                ids.add(category.getId());
+                for (int p = 0; p < BENCH_PRODUCTS / 8; p++) {
+                    product("Product " + c + "-" + p, category, "35000");
+                }
+            }
+            return ids;
+        });
+        try {
+            benchmark(categoryIds.get(3).intValue());
+        } finally {
+            // Nothing else in this context's database is committed
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            for (String table : List.of("order_item_modifiers", "order_items", "orders", "products", "categories")) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + table);
+            }
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+
+    private void benchmark(int categoryId) {
+        long seedStart = System.nanoTime();
+        // One in ten orders is cancelled; every eighth item has a modifier
+        for (int first = 1; first <= BENCH_ORDERS; first += SEED_CHUNK) {
+            int last = Math.min(first + SEED_CHUNK - 1, BENCH_ORDERS);
+            jdbcTemplate.update("INSERT INTO orders (id, order_number, status_code, subtotal, tax_amount, "
+                    + "discount_amount, total_amount, created_at) SELECT 2000000000 + X, 'FACT-' || X, "
+                    + "CASE WHEN MOD(X, 10) = 0 THEN CAST(? AS TINYINT) ELSE CAST(? AS TINYINT) END, 0, 0, 0, 0, "
+                    + "DATEADD('MINUTE', MOD(X * 7, 900), DATEADD('DAY', MOD(X, ?), CAST(? AS TIMESTAMP))) "
+                    + "+ INTERVAL '7' HOUR FROM SYSTEM_RANGE(?, ?)",
+                    OrderStatus.CANCELLED.getCode(), OrderStatus.DONE.getCode(), BENCH_DAYS,
+                    Timestamp.valueOf(BENCH_START.atStartOfDay()), first, last);
+            jdbcTemplate.update("INSERT INTO order_items (id, order_id, product_id, product_name, quantity, "
+                    + "unit_price, modifiers_price, total_price) "
+                    + "SELECT (o.id - 2000000000) * 10 + r.X + 3000000000, o.id, p.id, p.name, "
+                    + "1 + MOD(o.id + r.X, 3), 35000, 0, 35000 * (1 + MOD(o.id + r.X, 3)) "
+                    + "FROM orders o CROSS JOIN SYSTEM_RANGE(1, ?) r "
+                    + "JOIN (SELECT id, name, ROW_NUMBER() OVER (ORDER BY id) - 1 AS n FROM products) p "
+                    + "ON p.n = MOD(o.id * 3 + r.X, ?) WHERE o.id BETWEEN ? AND ?",
+                    ITEMS_PER_ORDER, BENCH_PRODUCTS, 2_000_000_000L + first, 2_000_000_000L + last);
+            jdbcTemplate.update("INSERT INTO order_item_modifiers (id, order_item_id, modifier_name, price_delta) "
+                    + "SELECT id + 1000000000, id, 'Thêm shot', 10000 FROM order_items "
+                    + "WHERE id BETWEEN ? AND ? AND MOD(id, 8) = 0",
+                    3_000_000_000L + first * 10L, 3_000_000_000L + last * 10L + ITEMS_PER_ORDER);
+        }
+        // Gives H2 the row counts a production database keeps, so the per-day reads start from the date index
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded {} order items in {} ms", BENCH_ORDERS * ITEMS_PER_ORDER,
+                (System.nanoTime() - seedStart) / 1_000_000);
+
+        long sealStart = System.nanoTime();
+        for (int day = 0; day < BENCH_DAYS; day++) {
+            store.seal(BENCH_START.plusDays(day));
+        }
+        log.info("Sealed {} days in {} ms", BENCH_DAYS, (System.nanoTime() - sealStart) / 1_000_000);
+
+        Supplier<List<OrderFactGroup>> sql = () -> jdbcTemplate.query(
+                "SELECT EXTRACT(HOUR FROM o.created_at), COUNT(*), COUNT(DISTINCT o.id), SUM(i.quantity), "
+                        + "SUM(i.total_price), SUM(CASE WHEN EXISTS (SELECT 1 FROM order_item_modifiers m "
+                        + "WHERE m.order_item_id = i.id) THEN i.quantity ELSE 0 END) "
+                        + "FROM order_items i JOIN orders o ON o.id = i.order_id JOIN products p ON p.id = i.product_id "
+                        + "WHERE o.status_code = ? AND o.created_at >= ? AND o.created_at < ? AND p.category_id = ? "
+                        + "GROUP BY EXTRACT(HOUR FROM o.created_at) ORDER BY 1",
+                (rs, row) -> new OrderFactGroup(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                        rs.getBigDecimal(5).setScale(2), rs.getLong(6)),
+                OrderStatus.DONE.getCode(), Timestamp.valueOf(BENCH_START.atStartOfDay()),
+                Timestamp.valueOf(BENCH_START.plusDays(BENCH_DAYS).atStartOfDay()), categoryId);
+        Supplier<List<OrderFactGroup>> columns = () -> store.query(OrderFactQuery.builder()
+                .startDate(BENCH_START).endDate(BENCH_START.plusDays(BENCH_DAYS - 1))
+                .groupBy(OrderFactQuery.Dimension.HOUR).categoryId(categoryId).build());
+
+        List<OrderFactGroup> expected = sql.get();
+        assertEquals(15, expected.size());
+        assertEquals(expected, columns.get());
+
+        double sqlMillis = bestOf(sql);
+        double columnMillis = bestOf(columns);
+        log.info("Category sales by hour over {} items: SQL aggregate={} ms, column scan={} ms",
+                BENCH_ORDERS * ITEMS_PER_ORDER, String.format("%.1f", sqlMillis), String.format("%.1f", columnMillis));
+    }
+
+    private static double bestOf(Supplier<?> query) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long began = System.nanoTime();
+            query.get();
+            best = Math.min(best, System.nanoTime() - began);
+        }
+        return best / 1_000_000.0;
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private Product product(String name, Category category, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal(price));
+        entityManager.persist(product);
+        return product;
+    }
+}
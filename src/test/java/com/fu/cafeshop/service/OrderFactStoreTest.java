@@ -0,0 +1,161 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.OrderFactGroup;
+import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "cafeshop.facts.storage-path=target/order-facts-test",
+        "cafeshop.facts.backfill-days=0",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import(OrderFactStore.class)
+class OrderFactStoreTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 5, 6);
+
+    @Autowired
+    private OrderFactStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeAll
+    static void clearSegments() {
+        FileSystemUtils.deleteRecursively(Path.of("target/order-facts-test").toFile());
+    }
+
+    @Test
+    void groupsCompletedItemsAndFollowsLaterChanges() throws Exception {
+        Category drinks = category("Coffee");
+        Category food = category("Pastries");
+        Product coffee = product("Bạc xỉu", drinks, "35000");
+        Product cake = product("Croissant", food, "25000");
+
+        Order first = order(MONDAY.atTime(8, 10), OrderStatus.DONE);
+        OrderItem latte = item(first, coffee, 2, "5000");
+        modifier(latte);
+        item(first, cake, 1, "0");
+        Order second = order(MONDAY.atTime(9, 30), OrderStatus.DONE);
+        item(second, coffee, 1, "0");
+        Order cancelled = order(MONDAY.atTime(9, 45), OrderStatus.CANCELLED);
+        item(cancelled, coffee, 5, "0");
+        Order tuesday = order(MONDAY.plusDays(1).atTime(10, 0), OrderStatus.DONE);
+        item(tuesday, cake, 3, "0");
+        entityManager.flush();
+        entityManager.clear();
+
+        store.seal(MONDAY);
+        store.seal(MONDAY.plusDays(1));
+
+        List<OrderFactGroup> byHour = store.query(query(OrderFactQuery.Dimension.HOUR).build());
+        assertEquals(List.of(8L, 9L, 10L), byHour.stream().map(OrderFactGroup::getKey).toList());
+        assertGroup(byHour.get(0), 2, 1, 3, "105000.00", 2);
+        assertGroup(byHour.get(1), 1, 1, 1, "35000.00", 0);
+        assertGroup(byHour.get(2), 1, 1, 3, "75000.00", 0);
+
+        List<OrderFactGroup> coffeeByWeekday = store.query(query(OrderFactQuery.Dimension.WEEKDAY)
+                .categoryId(drinks.getId().intValue()).build());
+        assertEquals(1, coffeeByWeekday.size());
+        assertEquals(1, coffeeByWeekday.get(0).getKey());
+        assertGroup(coffeeByWeekday.get(0), 2, 2, 3, "115000.00", 2);
+        assertEquals(2.0 / 3, coffeeByWeekday.get(0).getModifierAttachRate(), 1e-9);
+
+        // A refund after the day was sealed rewrites its segment
+        jdbcTemplate.update("UPDATE orders SET status_code = ? WHERE id = ?", OrderStatus.REFUNDED.getCode(), second.getId());
+        store.onOrderStatusChanged(new OrderStatusChangedEvent(second.getId(), second.getOrderNumber(),
+                OrderStatus.DONE, OrderStatus.REFUNDED));
+        assertEquals(List.of(8L, 10L), store.query(query(OrderFactQuery.Dimension.HOUR).build()).stream()
+                .map(OrderFactGroup::getKey).toList());
+
+        // Today's completions are appended to the open day
+        store.load();
+        Order today = order(LocalDateTime.now().withSecond(0).withNano(0), OrderStatus.DONE);
+        item(today, coffee, 4, "0");
+        entityManager.flush();
+        entityManager.clear();
+        store.onOrderStatusChanged(new OrderStatusChangedEvent(today.getId(), today.getOrderNumber(),
+                OrderStatus.COOKING, OrderStatus.DONE));
+        List<OrderFactGroup> todayTotals = store.query(OrderFactQuery.builder()
+                .startDate(LocalDate.now()).endDate(LocalDate.now()).build());
+        assertGroup(todayTotals.get(0), 1, 1, 4, "140000.00", 0);
+    }
+
+    private static OrderFactQuery.OrderFactQueryBuilder query(OrderFactQuery.Dimension groupBy) {
+        return OrderFactQuery.builder().startDate(MONDAY).endDate(MONDAY.plusDays(1)).groupBy(groupBy);
+    }
+
+    private static void assertGroup(OrderFactGroup group, long items, long orders, long quantity, String revenue,
+                                    long quantityWithModifiers) {
+        assertEquals(items, group.getItems());
+        assertEquals(orders, group.getOrders());
+        assertEquals(quantity, group.getQuantity());
+        assertEquals(new BigDecimal(revenue), group.getRevenue());
+        assertEquals(quantityWithModifiers, group.getQuantityWithModifiers());
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private Product product(String name, Category category, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal(price));
+        entityManager.persist(product);
+        return product;
+    }
+
+    private Order order(LocalDateTime createdAt, OrderStatus status) {
+        Order order = new Order();
+        order.setOrderNumber("F-" + createdAt + "-" + status);
+        order.setStatus(status);
+        order.setCreatedAt(createdAt);
+        entityManager.persist(order);
+        return order;
+    }
+
+    private OrderItem item(Order order, Product product, int quantity, String modifiersPrice) {
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setProductName(product.getName());
+        item.setQuantity(quantity);
+        item.setUnitPrice(Money.of(product.getDefaultPrice()));
+        item.setModifiersPrice(Money.of(new BigDecimal(modifiersPrice)));
+        entityManager.persist(item);
+        return item;
+    }
+
+    private void modifier(OrderItem item) {
+        OrderItemModifier modifier = new OrderItemModifier();
+        modifier.setOrderItem(item);
+        modifier.setModifierName("Thêm shot");
+        entityManager.persist(modifier);
+    }
+}
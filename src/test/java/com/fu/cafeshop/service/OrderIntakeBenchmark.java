@@ -0,0 +1,176 @@
+package com.fu.cafeshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fu.cafeshop.entity.CafeTable;
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.Product;
+import com.fu.cafeshop.repository.CafeTableRepository;
+import com.fu.cafeshop.repository.CategoryRepository;
+import com.fu.cafeshop.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checkout latency as the customer sees it: synchronous {@code createOrder} against the intake
+ * journal, and the journal append on its own. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import({OrderPlacementService.class, RejectedOrderService.class, OrderService.class, SalesRollupService.class,
+        SalesRollupRowCreator.class, CustomerService.class, CafeTableService.class, MenuCatalog.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIntakeBenchmark {
+
+    private static final int WARM_UP = 200;
+    private static final int CHECKOUTS = 1000;
+    private static final int LINES = 3;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final AtomicLong orderSequence = new AtomicLong();
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private OrderPlacementService placementService;
+
+    @Autowired
+    private RejectedOrderService rejectedOrderService;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CafeTableRepository cafeTableRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    @Test
+    void checkoutLatencySynchronousVersusJournal() throws Exception {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+        Category category = new Category();
+        category.setName("Coffee");
+        categoryRepository.save(category);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setCategory(category);
+            product.setDefaultPrice(new BigDecimal("45000"));
+            products.add(productRepository.save(product));
+        }
+        CafeTable table = cafeTableRepository.save(CafeTable.builder().tableNumber(130).build());
+        menuCatalog.rebuild();
+
+        OrderIntakeService sync = intake("sync");
+        OrderIntakeService journal = intake("journal");
+        journal.start();
+        try {
+            long[] syncNanos = measure(sync, table, products);
+            long[] journalNanos = measure(journal, table, products);
+            log.info("Checkout latency over {} orders: createOrder p50={}us p99={}us, journal p50={}us p99={}us",
+                    CHECKOUTS, percentile(syncNanos, 50), percentile(syncNanos, 99),
+                    percentile(journalNanos, 50), percentile(journalNanos, 99));
+
+            long began = System.nanoTime();
+            while (journal.getPendingCount() > 0) {
+                assertTrue(System.nanoTime() - began < TimeUnit.MINUTES.toNanos(2), "Journal was not drained");
+                Thread.sleep(50);
+            }
+            log.info("Journal drained {} ms after the last checkout", (System.nanoTime() - began) / 1_000_000);
+        } finally {
+            journal.stop();
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            for (String name : List.of("payments", "order_item_modifiers", "order_items", "orders", "products",
+                    "categories")) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + name);
+            }
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            cafeTableRepository.deleteById(table.getId());
+        }
+    }
+
+    @Test
+    void journalAppendLatency() throws Exception {
+        byte[] payload = new byte[600]; // roughly one serialized checkout
+        long[] nanos = new long[2000];
+        try (OrderIntakeJournal journal = new OrderIntakeJournal(dir.resolve("latency.journal"), 4 * 1024 * 1024, true)) {
+            for (int i = 0; i < nanos.length; i++) {
+                long start = System.nanoTime();
+                assertTrue(journal.append(payload));
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        log.info("Journal append with fsync: p50={}us p99={}us", percentile(nanos, 50), percentile(nanos, 99));
+    }
+
+    private OrderIntakeService intake(String mode) {
+        return new OrderIntakeService(placementService, rejectedOrderService, documentNumberService, objectMapper,
+                mode, dir.resolve(mode + ".journal").toString(), 16, true, 50);
+    }
+
+    private long[] measure(OrderIntakeService intake, CafeTable table, List<Product> products) {
+        long[] nanos = new long[CHECKOUTS];
+        for (int i = -WARM_UP; i < CHECKOUTS; i++) {
+            OrderIntakeRequest request = OrderIntakeRequest.builder()
+                    .tableId(table.getId())
+                    .cartItems(products.stream()
+                            .map(product -> new OrderService.CartItem(product.getId(), product.getName(),
+                                    Money.of(product.getDefaultPrice()), 1, Money.ZERO, List.of()))
+                            .toList())
+                    .build();
+            long start = System.nanoTime();
+            intake.submit(request);
+            if (i >= 0) {
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        return nanos;
+    }
+
+    private static long percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)] / 1000;
+    }
+}
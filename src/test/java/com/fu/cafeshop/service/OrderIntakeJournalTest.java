@@ -0,0 +1,56 @@
+package com.fu.cafeshop.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIntakeJournalTest {
+
+    private static final int CAPACITY = 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysUndrainedRecordsAfterRestart() throws Exception {
+        Path file = dir.resolve("intake.journal");
+        OrderIntakeJournal journal = new OrderIntakeJournal(file, CAPACITY, true);
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(journal.append(("order-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        OrderIntakeJournal.Batch firstTwo = journal.readPending(2);
+        journal.markDrained(firstTwo.endPosition());
+        // Simulated crash: no drain of the remaining three records
+        journal.close();
+
+        try (OrderIntakeJournal reopened = new OrderIntakeJournal(file, CAPACITY, true)) {
+            List<String> replayed = reopened.readPending(100).records().stream()
+                    .map(record -> new String(record, StandardCharsets.UTF_8))
+                    .toList();
+            assertEquals(List.of("order-3", "order-4", "order-5"), replayed);
+        }
+    }
+
+    @Test
+    void rewindsOnceFullyDrainedAndRejectsWhenFull() throws Exception {
+        byte[] record = new byte[1000];
+        Arrays.fill(record, (byte) 'x');
+        try (OrderIntakeJournal journal = new OrderIntakeJournal(dir.resolve("full.journal"), 4096, false)) {
+            int accepted = 0;
+            while (journal.append(record)) {
+                accepted++;
+            }
+            assertEquals(4, accepted);
+
+            journal.markDrained(journal.readPending(100).endPosition());
+            assertFalse(journal.hasPending());
+            assertTrue(journal.append(record), "Drained journal should accept records again");
+        }
+    }
+}
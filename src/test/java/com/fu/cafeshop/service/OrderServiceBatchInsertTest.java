@@ -0,0 +1,125 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({OrderService.class, SalesRollupService.class, SalesRollupRowCreator.class})
+class OrderServiceBatchInsertTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void seedMenu() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+
+        Category category = new Category();
+        category.setName("Coffee");
+        entityManager.persist(category);
+
+        for (int i = 0; i < 50; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setCategory(category);
+            product.setDefaultPrice(new BigDecimal("45000"));
+            entityManager.persist(product);
+
+            ProductModifier modifier = new ProductModifier();
+            modifier.setProduct(product);
+            modifier.setName("Extra shot");
+            modifier.setPriceDelta(new BigDecimal("8000"));
+            entityManager.persist(modifier);
+            products.add(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Warm up the id pools so every measured order starts from the same state
+        placeOrder(50);
+    }
+
+    @Test
+    void statementCountStaysFlatAsCartGrows() {
+        long oneLine = placeOrder(1);
+        long tenLines = placeOrder(10);
+        long fiftyLines = placeOrder(50);
+
+        // Only the id pool refills may differ (one extra sequence call per entity type at most)
+        assertTrue(Math.max(tenLines, fiftyLines) - oneLine <= 3,
+                "Statement count grew with the cart: " + oneLine + " -> " + tenLines + " -> " + fiftyLines);
+        assertTrue(fiftyLines <= 10, "Too many statements for a 50 line order: " + fiftyLines);
+    }
+
+    @Test
+    void persistsItemModifiersAndPaymentWithOrder() {
+        Order order = orderService.createOrder(new Order(), cart(3));
+        entityManager.flush();
+        entityManager.clear();
+
+        Order saved = entityManager.find(Order.class, order.getId());
+        assertEquals(3, saved.getOrderItems().size());
+        saved.getOrderItems().forEach(item -> {
+            assertEquals(1, item.getItemModifiers().size());
+            assertEquals(0, new BigDecimal("8000").compareTo(item.getItemModifiers().get(0).getPriceDelta()));
+        });
+        assertEquals(PaymentStatus.PENDING, saved.getPayment().getStatus());
+        assertEquals(0, saved.getTotalAmount().toBigDecimal().compareTo(saved.getPayment().getAmount()));
+    }
+
+    private long placeOrder(int lines) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        orderService.createOrder(new Order(), cart(lines));
+        entityManager.flush();
+        entityManager.clear();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<OrderService.CartItem> cart(int lines) {
+        List<OrderService.CartItem> cart = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Product product = products.get(i);
+            cart.add(new OrderService.CartItem(product.getId(), product.getName(), Money.of(product.getDefaultPrice()),
+                    2, Money.of(8000), List.of("Extra shot")));
+        }
+        return cart;
+    }
+}
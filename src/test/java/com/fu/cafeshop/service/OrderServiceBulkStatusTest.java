@@ -0,0 +1,191 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.repository.DailySalesRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.mockito.stubbing.Answer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({OrderService.class, SalesRollupService.class, SalesRollupRowCreator.class})
+class OrderServiceBulkStatusTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DailySalesRepository dailySalesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    private OrderRepository orderRepository;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private final List<Long> orderIds = new ArrayList<>();
+    private Product product;
+
+    @BeforeEach
+    void seedOrders() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+
+        // Joins the test transaction, or commits on its own for the tests that run without one
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Category category = new Category();
+            category.setName("Coffee");
+            entityManager.persist(category);
+            product = new Product();
+            product.setName("Bạc xỉu");
+            product.setCategory(category);
+            product.setDefaultPrice(new BigDecimal("35000"));
+            entityManager.persist(product);
+
+            for (int i = 0; i < 30; i++) {
+                orderIds.add(orderService.createOrder(new Order(), List.of(
+                        new OrderService.CartItem(product.getId(), product.getName(), Money.of(product.getDefaultPrice()),
+                                1, Money.ZERO, List.of()))).getId());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    @Test
+    void rushOfThirtyOrdersMovesThroughInAFewStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<OrderService.StatusChange> approved = orderService.bulkUpdateStatus(orderIds, OrderStatus.APPROVED, null);
+        List<OrderService.StatusChange> cooking = orderService.bulkUpdateStatus(orderIds, OrderStatus.COOKING, null);
+        List<OrderService.StatusChange> done = orderService.bulkUpdateStatus(orderIds, OrderStatus.DONE, null);
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(approved.stream().allMatch(OrderService.StatusChange::isApplied));
+        assertTrue(cooking.stream().allMatch(OrderService.StatusChange::isApplied));
+        assertTrue(done.stream().allMatch(OrderService.StatusChange::isApplied));
+        // Plus the sales rollups: the item costs, two aggregate reads, then for the day and the product an
+        // update, the insert of a missing row and the update again
+        assertTrue(statements <= 7 + 9, "Expected set-based updates, got " + statements + " statements");
+
+        entityManager.clear();
+        Order order = entityManager.find(Order.class, orderIds.get(0));
+        assertEquals(OrderStatus.DONE, order.getStatus());
+        assertEquals(PaymentStatus.COMPLETED, order.getPayment().getStatus());
+        assertEquals(30, orderService.countTodayCompletedOrders());
+    }
+
+    @Test
+    void reportsOrdersThatCannotMove() {
+        orderService.bulkUpdateStatus(orderIds.subList(0, 10), OrderStatus.APPROVED, null);
+
+        List<OrderService.StatusChange> results = orderService.bulkUpdateStatus(
+                List.of(orderIds.get(0), orderIds.get(20), -1L), OrderStatus.COOKING, null);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isApplied());
+        assertFalse(results.get(1).isApplied());
+        assertEquals(OrderStatus.PENDING, results.get(1).getPreviousStatus());
+        assertFalse(results.get(2).isApplied());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void orderCompletedByAnotherStaffMemberMeanwhileIsCompletedOnce() throws Exception {
+        List<Long> selected = orderIds.subList(0, 3);
+        orderService.bulkUpdateStatus(selected, OrderStatus.APPROVED, null);
+        orderService.bulkUpdateStatus(selected, OrderStatus.COOKING, null);
+
+        // Another staff member completes the first order right after this bulk update read the statuses
+        ExecutorService otherStaff = Executors.newSingleThreadExecutor();
+        AtomicBoolean raced = new AtomicBoolean();
+        AtomicReference<Future<List<OrderService.StatusChange>>> other = new AtomicReference<>();
+        // The spy of a repository proxy delegates through its default answer rather than a real method
+        Answer<?> repository = mockingDetails(orderRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            Object rows = repository.answer(invocation);
+            if (raced.compareAndSet(false, true)) {
+                other.set(otherStaff.submit(() ->
+                        orderService.bulkUpdateStatus(List.of(selected.get(0)), OrderStatus.DONE, null)));
+                // It has to wait for this transaction instead of completing the order underneath it
+                assertThrows(TimeoutException.class, () -> other.get().get(300, TimeUnit.MILLISECONDS));
+            }
+            return rows;
+        }).when(orderRepository).findStatusesByIdInForUpdate(any());
+
+        try {
+            List<OrderService.StatusChange> mine = orderService.bulkUpdateStatus(selected, OrderStatus.DONE, null);
+            List<OrderService.StatusChange> theirs = other.get().get(10, TimeUnit.SECONDS);
+
+            assertTrue(mine.stream().allMatch(OrderService.StatusChange::isApplied));
+            assertFalse(theirs.get(0).isApplied());
+            assertEquals(OrderStatus.DONE, theirs.get(0).getPreviousStatus());
+            assertEquals(3, dailySalesRepository.findBySalesDate(LocalDate.now()).orElseThrow().getOrderCount());
+        } finally {
+            otherStaff.shutdownNow();
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            for (String table : List.of("daily_product_sales", "daily_sales", "payments", "order_item_modifiers",
+                    "order_items", "orders", "products", "categories")) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + table);
+            }
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusChannelTest {
+
+    private final OrderStatusChannel channel = new OrderStatusChannel(Runnable::run, 60_000, 25_000);
+
+    @Test
+    void pollAnswersImmediatelyWhenStatusAlreadyChanged() {
+        DeferredResult<Map<String, Object>> result =
+                channel.poll("A-1", OrderStatus.PENDING, () -> OrderStatus.APPROVED);
+
+        assertTrue(result.hasResult());
+        assertEquals("APPROVED", ((Map<?, ?>) result.getResult()).get("status"));
+        assertEquals(0, channel.getSubscriberCount());
+    }
+
+    @Test
+    void changeReachesOnlySubscribersOfThatOrder() {
+        DeferredResult<Map<String, Object>> waiting =
+                channel.poll("A-1", OrderStatus.PENDING, () -> OrderStatus.PENDING);
+        DeferredResult<Map<String, Object>> other =
+                channel.poll("A-2", OrderStatus.PENDING, () -> OrderStatus.PENDING);
+        assertEquals(2, channel.getSubscriberCount());
+
+        channel.onOrderStatusChanged(new OrderStatusChangedEvent(1L, "A-1", OrderStatus.PENDING, OrderStatus.APPROVED));
+
+        assertTrue(waiting.hasResult());
+        assertEquals("APPROVED", ((Map<?, ?>) waiting.getResult()).get("status"));
+        assertFalse(other.hasResult());
+        assertEquals(1, channel.getSubscriberCount());
+    }
+
+    @Test
+    void queuedOrderIsNotifiedWhenWrittenToDatabase() {
+        DeferredResult<Map<String, Object>> waiting = channel.poll("A-1", null, () -> null);
+
+        channel.onOrderCreated(new OrderCreatedEvent(1L, "A-1"));
+
+        assertEquals("PENDING", ((Map<?, ?>) waiting.getResult()).get("status"));
+    }
+
+    @Test
+    void finalStatusReleasesEverySubscriber() {
+        channel.stream("A-1", () -> OrderStatus.COOKING);
+        channel.stream("A-1", () -> OrderStatus.COOKING);
+        DeferredResult<Map<String, Object>> waiting =
+                channel.poll("A-1", OrderStatus.COOKING, () -> OrderStatus.COOKING);
+        assertEquals(3, channel.getSubscriberCount());
+
+        channel.onOrderStatusChanged(new OrderStatusChangedEvent(1L, "A-1", OrderStatus.COOKING, OrderStatus.DONE));
+
+        assertEquals(Boolean.TRUE, ((Map<?, ?>) waiting.getResult()).get("finished"));
+        assertEquals(0, channel.getSubscriberCount());
+    }
+}
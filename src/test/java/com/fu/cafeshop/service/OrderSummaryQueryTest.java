@@ -0,0 +1,129 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.OrderSummary;
+import com.fu.cafeshop.entity.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({OrderService.class, SalesRollupService.class, SalesRollupRowCreator.class, ActiveOrderBoard.class,
+        SimpleMeterRegistry.class})
+class OrderSummaryQueryTest {
+
+    private static final int ORDERS = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ActiveOrderBoard board;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+
+    @BeforeEach
+    void seedOrders() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+
+        Category category = new Category();
+        category.setName("Coffee");
+        entityManager.persist(category);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setCategory(category);
+            product.setDefaultPrice(new BigDecimal("35000"));
+            entityManager.persist(product);
+            products.add(product);
+        }
+        Customer customer = new Customer();
+        customer.setFullName("Nguyễn Văn A");
+        entityManager.persist(customer);
+        CafeTable table = new CafeTable();
+        table.setTableNumber(7);
+        table.setName("Bàn 7");
+        entityManager.persist(table);
+
+        List<OrderService.CartItem> cart = products.stream()
+                .map(product -> new OrderService.CartItem(product.getId(), product.getName(),
+                        Money.of(product.getDefaultPrice()), 1, Money.ZERO, List.of()))
+                .toList();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setCustomer(customer);
+            order.setCafeTable(table);
+            orderService.createOrder(order, cart);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void orderListsUseOneQueryWhateverTheirSize() {
+        List<OrderSummary> all = countingStatements(1, orderService::getOrderSummaries);
+        List<OrderSummary> pending = countingStatements(1, () -> orderService.getOrderSummaries(OrderStatus.PENDING));
+        countingStatements(1, orderService::getRecentOrderSummaries);
+
+        assertEquals(ORDERS, all.size());
+        assertEquals(ORDERS, pending.size());
+        OrderSummary summary = all.get(0);
+        assertEquals(3, summary.getItemCount());
+        assertEquals("Nguyễn Văn A", summary.getCustomerName());
+        assertEquals(7, summary.getTableNumber());
+    }
+
+    @Test
+    void activeBoardLoadsHeadersAndItemLinesInTwoQueries() {
+        countingStatements(2, () -> {
+            board.load();
+            return null;
+        });
+
+        assertEquals(ORDERS, board.getActiveOrders().size());
+        assertEquals(3, board.getActiveOrders().get(0).getItems().size());
+    }
+
+    private <T> T countingStatements(long expected, Supplier<T> page) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = page.get();
+        assertEquals(expected, statistics.getPrepareStatementCount(),
+                "Statements for " + ORDERS + " orders");
+        entityManager.clear();
+        return result;
+    }
+}
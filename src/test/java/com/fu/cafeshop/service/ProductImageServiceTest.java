@@ -0,0 +1,84 @@
+package com.fu.cafeshop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductImageServiceTest {
+
+    @TempDir
+    Path storage;
+
+    @Test
+    void uploadQueuesEveryVariantAndRequestsReadThePreparedFiles() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductImageService service = new ProductImageService(new ProductImageStore(storage.toString()),
+                meterRegistry, queued::add);
+
+        String url = service.store(new MockMultipartFile("imageFile", "latte.png", "image/png", png(2000, 1000)));
+        String key = url.substring(ProductImageService.URL_PREFIX.length());
+        assertEquals(url + "/card.jpg", service.variantUrl(url, "card"));
+        assertEquals("https://example.com/latte.jpg", service.variantUrl("https://example.com/latte.jpg", "card"));
+        assertEquals(ImageVariant.values().length, queued.size());
+
+        queued.forEach(Runnable::run);
+        assertEquals(ImageVariant.values().length, meterRegistry.get("cafeshop.images.resize").timer().count());
+        assertSize(service.findVariant(key, ImageVariant.THUMBNAIL).orElseThrow(), 160, 80);
+        assertSize(service.findVariant(key, ImageVariant.CARD).orElseThrow(), 480, 240);
+        assertSize(service.findVariant(key, ImageVariant.DETAIL).orElseThrow(), 1080, 540);
+        // Served from disk, not resized again
+        assertEquals(ImageVariant.values().length, meterRegistry.get("cafeshop.images.resize").timer().count());
+
+        // The same picture uploaded again is the same file
+        assertEquals(url, service.store(new MockMultipartFile("imageFile", "copy.png", "image/png", png(2000, 1000))));
+        assertTrue(service.findVariant("0".repeat(64), ImageVariant.CARD).isEmpty());
+        assertTrue(service.findVariant("../../etc/passwd", ImageVariant.CARD).isEmpty());
+    }
+
+    @Test
+    void missingVariantIsResizedOnRequestAndSmallImagesAreNotEnlarged() throws Exception {
+        ProductImageService service = new ProductImageService(new ProductImageStore(storage.toString()),
+                new SimpleMeterRegistry(), task -> { });
+
+        String url = service.store(new MockMultipartFile("imageFile", "cup.png", "image/png", png(300, 400)));
+        String key = url.substring(ProductImageService.URL_PREFIX.length());
+
+        assertSize(service.findVariant(key, ImageVariant.THUMBNAIL).orElseThrow(), 120, 160);
+        assertSize(service.findVariant(key, ImageVariant.DETAIL).orElseThrow(), 300, 400);
+        assertThrows(RuntimeException.class, () -> service.store(
+                new MockMultipartFile("imageFile", "menu.txt", "image/png", "not an image".getBytes())));
+    }
+
+    private static void assertSize(Path variant, int width, int height) throws Exception {
+        BufferedImage image = ImageIO.read(Files.newInputStream(variant));
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(111, 78, 55));
+        graphics.fillOval(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
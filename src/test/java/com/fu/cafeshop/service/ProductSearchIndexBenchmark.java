@@ -0,0 +1,97 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.Product;
+import com.fu.cafeshop.repository.CategoryRepository;
+import com.fu.cafeshop.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menu search over ten thousand products, the in-memory index against the LIKE query it
+ * replaced. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+class ProductSearchIndexBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final List<String> QUERIES = List.of("ca phe", "trà đào", "matcha", "xoai", "socola da");
+    private static final String[] DRINKS = {"Cà phê", "Trà", "Sinh tố", "Nước ép", "Sữa chua", "Bánh"};
+    private static final String[] FLAVOURS = {"sữa đá", "đào cam sả", "vải", "xoài", "dâu", "bạc hà", "caramel",
+            "socola", "matcha", "dừa", "chanh leo", "việt quất", "muối", "trứng", "hạnh nhân", "gừng"};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void indexAgainstTheLikeQueryAtTenThousandProducts() {
+        List<Category> categories = new ArrayList<>();
+        for (String drink : DRINKS) {
+            Category category = new Category();
+            category.setName(drink);
+            entityManager.persist(category);
+            categories.add(category);
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            Category category = categories.get(i % DRINKS.length);
+            Product product = new Product();
+            product.setName(category.getName() + " " + FLAVOURS[i % FLAVOURS.length] + " " + i);
+            product.setDescription("Công thức số " + i + " với " + FLAVOURS[(i / 7) % FLAVOURS.length]);
+            product.setCategory(category);
+            product.setDefaultPrice(new BigDecimal("35000"));
+            product.setDisplayOrder(i);
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        long buildStart = System.nanoTime();
+        MenuSnapshot menu = MenuSnapshot.of(1, categoryRepository.findByIsActiveTrueOrderByDisplayOrderAsc(),
+                productRepository.findAllAvailableWithModifiers());
+        long buildNanos = System.nanoTime() - buildStart;
+        assertEquals(PRODUCTS, menu.getProducts().size());
+        assertTrue(menu.search("matcha").size() >= PRODUCTS / FLAVOURS.length);
+
+        // Two warm-up passes so both sides run compiled, then the measured one
+        long likeNanos = 0;
+        long indexNanos = 0;
+        for (int pass = 0; pass < 3; pass++) {
+            likeNanos = time(() -> QUERIES.forEach(query -> productRepository.searchByName(query)));
+            indexNanos = time(() -> QUERIES.forEach(menu::search));
+        }
+
+        log.info("Search over {} products, {} queries: LIKE={} us, index={} us (menu load and index build {} ms)",
+                PRODUCTS, QUERIES.size(), likeNanos / 1000, indexNanos / 1000, buildNanos / 1_000_000);
+    }
+
+    private static long time(Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,70 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void foldsDiacriticsMatchesPartsAndToleratesATypo() {
+        Category coffee = category(1L, "Cà phê");
+        Category tea = category(2L, "Trà");
+        MenuSnapshot menu = MenuSnapshot.of(1, List.of(coffee, tea), List.of(
+                product(1L, "Bạc xỉu", coffee, 2, "Cà phê sữa nhiều sữa"),
+                product(2L, "Cà phê sữa đá", coffee, 3, null),
+                product(3L, "Espresso", coffee, 1, "Đậm đà"),
+                product(4L, "Trà đào cam sả", tea, 1, null),
+                product(5L, "Trà vải", tea, 2, "Thơm mát")));
+
+        // Name matches outrank category and description matches; ties keep the menu order
+        assertEquals(List.of("Cà phê sữa đá", "Espresso", "Bạc xỉu"), names(menu.search("ca phe")));
+        assertEquals(List.of("Cà phê sữa đá", "Bạc xỉu"), names(menu.search("CÀ PHÊ SỮA")));
+        assertEquals(List.of("Trà đào cam sả"), names(menu.search("tra dao")));
+        assertEquals(List.of("Bạc xỉu"), names(menu.search("bac x")));
+        assertEquals(List.of("Espresso"), names(menu.search("press")));
+        assertEquals(List.of("Espresso"), names(menu.search("expresso")));
+        assertEquals(List.of("Espresso"), names(menu.search("esprseso")));
+        assertEquals(List.of("Đậm đà"), menu.search("dam").stream().map(MenuSnapshot.ProductView::getDescription).toList());
+        assertTrue(menu.search("tra sua tran chau").isEmpty());
+        assertTrue(menu.search("  ,. ").isEmpty());
+
+        // The next version reuses what did not change and indexes what did
+        Product renamed = product(5L, "Trà vải hoa hồng", tea, 2, "Thơm mát");
+        MenuSnapshot next = MenuSnapshot.of(2, List.of(coffee, tea), List.of(
+                product(1L, "Bạc xỉu", coffee, 2, "Cà phê sữa nhiều sữa"), renamed), menu);
+        assertEquals(List.of("Trà vải hoa hồng"), names(next.search("hoa hong")));
+        assertEquals(List.of("Bạc xỉu"), names(next.search("bac xiu")));
+        assertTrue(next.search("espresso").isEmpty());
+        assertFalse(menu.search("espresso").isEmpty());
+    }
+
+    private static List<String> names(List<MenuSnapshot.ProductView> products) {
+        return products.stream().map(MenuSnapshot.ProductView::getName).toList();
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(Long id, String name, Category category, int displayOrder, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setDescription(description);
+        product.setDefaultPrice(new BigDecimal("35000"));
+        product.setDisplayOrder(displayOrder);
+        return product;
+    }
+}
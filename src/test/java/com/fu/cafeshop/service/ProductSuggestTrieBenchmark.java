@@ -0,0 +1,40 @@
+package com.fu.cafeshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Suggestion lookups over ten thousand products, and the time to build the snapshot with its
+ * trie. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+class ProductSuggestTrieBenchmark {
+
+    private static final List<String> PREFIXES = List.of("c", "ca p", "tra d", "mat", "sinh to x", "banh 99", "zz");
+    private static final int ROUNDS = 2_000;
+
+    @Test
+    void lookupLatencyAtTenThousandProducts() {
+        long buildStart = System.nanoTime();
+        MenuSnapshot menu = ProductSuggestTrieTest.largeMenu();
+        long buildNanos = System.nanoTime() - buildStart;
+
+        long nanos = 0;
+        // The first half warms up, the second is measured
+        for (int round = 0; round < 2 * ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String prefix : PREFIXES) {
+                menu.suggest(prefix, 8);
+            }
+            if (round >= ROUNDS) {
+                nanos += System.nanoTime() - start;
+            }
+        }
+        log.info("Suggest over {} products: {} ns per lookup (snapshot with trie built in {} ms)",
+                ProductSuggestTrieTest.PRODUCTS, nanos / ((long) ROUNDS * PREFIXES.size()), buildNanos / 1_000_000);
+    }
+}
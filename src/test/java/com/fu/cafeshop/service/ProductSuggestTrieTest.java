@@ -0,0 +1,93 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Category;
+import com.fu.cafeshop.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSuggestTrieTest {
+
+    static final int PRODUCTS = 10_000;
+    private static final String[] DRINKS = {"Cà phê", "Trà", "Sinh tố", "Nước ép", "Sữa chua", "Bánh"};
+    private static final String[] FLAVOURS = {"sữa đá", "đào cam sả", "vải", "xoài", "dâu", "bạc hà", "caramel",
+            "socola", "matcha", "dừa", "chanh leo", "việt quất", "muối", "trứng", "hạnh nhân", "gừng"};
+
+    @Test
+    void suggestsByAnyWordStartFeaturedFirst() {
+        Category coffee = category(1L, "Cà phê");
+        Category tea = category(2L, "Trà");
+        MenuSnapshot menu = MenuSnapshot.of(1, List.of(coffee, tea), List.of(
+                product(1L, "Bạc xỉu", coffee, 1, false),
+                product(2L, "Cà phê sữa đá", coffee, 2, false),
+                product(3L, "Cà phê muối", coffee, 3, true),
+                product(4L, "Trà đào cam sả", tea, 1, false),
+                product(5L, "Trà sữa", tea, 2, false)));
+
+        assertEquals(List.of("Cà phê muối", "Cà phê sữa đá"), names(menu.suggest("ca p", 10)));
+        assertEquals(List.of("Cà phê muối", "Cà phê sữa đá"), names(menu.suggest("CÀ  PHÊ", 10)));
+        assertEquals(List.of("Cà phê sữa đá", "Trà sữa"), names(menu.suggest("sua", 10)));
+        assertEquals(List.of("Trà đào cam sả"), names(menu.suggest("dao c", 10)));
+        assertEquals(List.of("Bạc xỉu"), names(menu.suggest("  bac-x", 10)));
+        // A trailing space asks for a whole word followed by another
+        assertEquals(List.of("Trà đào cam sả", "Trà sữa"), names(menu.suggest("tra ", 10)));
+        assertEquals(List.of("Cà phê sữa đá"), names(menu.suggest("sua ", 10)));
+        assertEquals(List.of("Cà phê muối"), names(menu.suggest("c", 1)));
+        assertTrue(menu.suggest("", 10).isEmpty());
+        assertTrue(menu.suggest("sua phe", 10).isEmpty());
+        assertTrue(menu.suggest("espresso", 10).isEmpty());
+    }
+
+    @Test
+    void ranksFeaturedFirstAtTenThousandProducts() {
+        MenuSnapshot menu = largeMenu();
+
+        // Featured products lead, then the menu order
+        assertEquals(List.of("Cà phê sữa đá 0", "Cà phê muối 300", "Cà phê matcha 600"),
+                names(menu.suggest("ca p", 3)));
+        assertEquals(List.of("Bánh gừng 3215"), names(menu.suggest("banh gung 321", 8)));
+        assertEquals(8, menu.suggest("c", 8).size());
+        assertTrue(menu.suggest("zz", 8).isEmpty());
+    }
+
+    static MenuSnapshot largeMenu() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < DRINKS.length; i++) {
+            categories.add(category((long) i, DRINKS[i]));
+        }
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Category category = categories.get(i % DRINKS.length);
+            products.add(product((long) i, category.getName() + " " + FLAVOURS[i % FLAVOURS.length] + " " + i,
+                    category, i, i % 100 == 0));
+        }
+        return MenuSnapshot.of(1, categories, products);
+    }
+
+    private static List<String> names(List<MenuSnapshot.ProductView> products) {
+        return products.stream().map(MenuSnapshot.ProductView::getName).toList();
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(Long id, String name, Category category, int displayOrder, boolean featured) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal("35000"));
+        product.setDisplayOrder(displayOrder);
+        product.setIsFeatured(featured);
+        return product;
+    }
+}
@@ -0,0 +1,153 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({ReportService.class, ReportCache.class, DashboardCounters.class, OrderService.class, SalesRollupService.class,
+        SalesRollupRowCreator.class, SimpleMeterRegistry.class})
+class ReportCacheTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 1);
+    private static final LocalDate APRIL = LocalDate.of(2025, 4, 1);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private Order marchOrder;
+
+    @BeforeEach
+    void seedOrders() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+        reportCache.clear();
+
+        marchOrder = pastOrder(MARCH.plusDays(2));
+        pastOrder(APRIL.plusDays(9));
+        entityManager.flush();
+        entityManager.clear();
+        salesRollupService.rebuild(MARCH, APRIL.plusMonths(1).minusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void closedPeriodsStayCachedUntilAnOrderInsideThemChanges() {
+        assertEquals(1L, countingStatements(1, () -> reportService.getMonthlyReport(2025, 3)).get("totalOrders"));
+        assertEquals(1L, countingStatements(1, () -> reportService.getMonthlyReport(2025, 4)).get("totalOrders"));
+        assertEquals(1L, countingStatements(0, () -> reportService.getMonthlyReport(2025, 3)).get("totalOrders"));
+
+        orderService.updateOrderStatus(marchOrder.getId(), OrderStatus.REFUNDED, null);
+        entityManager.flush();
+        entityManager.clear();
+        reportCache.onOrderStatusChanged(new OrderStatusChangedEvent(marchOrder.getId(),
+                marchOrder.getOrderNumber(), OrderStatus.DONE, OrderStatus.REFUNDED));
+
+        assertEquals(0L, countingStatements(1, () -> reportService.getMonthlyReport(2025, 3)).get("totalOrders"));
+        // April has no refunded order and is still served from the cache
+        assertEquals(1L, countingStatements(0, () -> reportService.getMonthlyReport(2025, 4)).get("totalOrders"));
+
+        assertEquals(2.0, meterRegistry.get("cafeshop.report-cache.gets").tag("result", "hit").counter().count());
+        assertEquals(3.0, meterRegistry.get("cafeshop.report-cache.gets").tag("result", "miss").counter().count());
+        assertEquals(2.0, meterRegistry.get("cafeshop.report-cache.size").tag("period", "closed").gauge().value());
+    }
+
+    @Test
+    void completingTodaysOrderInvalidatesTheCurrentPeriod() {
+        LocalDate today = LocalDate.now();
+        assertEquals(0L, reportService.getDailyReport(today).get("totalOrders"));
+
+        Category category = new Category();
+        category.setName("Coffee");
+        entityManager.persist(category);
+        Product coffee = new Product();
+        coffee.setName("Bạc xỉu");
+        coffee.setCategory(category);
+        coffee.setDefaultPrice(new BigDecimal("35000"));
+        entityManager.persist(coffee);
+        Order order = orderService.createOrder(new Order(), List.of(new OrderService.CartItem(
+                coffee.getId(), coffee.getName(), Money.of(coffee.getDefaultPrice()), 1, Money.ZERO, List.of())));
+        entityManager.flush();
+        entityManager.clear();
+        orderService.updateOrderStatus(order.getId(), OrderStatus.APPROVED, null);
+        orderService.updateOrderStatus(order.getId(), OrderStatus.COOKING, null);
+        orderService.updateOrderStatus(order.getId(), OrderStatus.DONE, null);
+        entityManager.flush();
+        entityManager.clear();
+        // Until the commit is announced the cached report stands
+        assertEquals(0L, reportService.getDailyReport(today).get("totalOrders"));
+
+        reportCache.onOrderStatusChanged(new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(),
+                OrderStatus.COOKING, OrderStatus.DONE));
+        assertEquals(1L, reportService.getDailyReport(today).get("totalOrders"));
+        assertEquals(1.0, meterRegistry.get("cafeshop.report-cache.size").tag("period", "open").gauge().value());
+    }
+
+    private Order pastOrder(LocalDate date) {
+        Order order = new Order();
+        order.setOrderNumber(String.format("%s-%06d", date, orderSequence.incrementAndGet()));
+        order.setStatus(OrderStatus.DONE);
+        order.setTotalAmount(Money.of(45000));
+        order.setCreatedAt(date.atTime(9, 30));
+        entityManager.persist(order);
+        return order;
+    }
+
+    private <T> T countingStatements(long expected, Supplier<T> report) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = report.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderStatus;
+import com.fu.cafeshop.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Twelve monthly reports over a year of orders, read from the daily rollups against the
+ * previous query per day. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import({ReportService.class, ReportCache.class, DashboardCounters.class, SalesRollupService.class, SalesRollupRowCreator.class,
+        SimpleMeterRegistry.class})
+class ReportServiceBenchmark {
+
+    private static final int YEAR = 2025;
+    private static final int ORDERS_PER_DAY = 20;
+    private static final BigDecimal ORDER_TOTAL = new BigDecimal("45000.00");
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seedYearOfOrders() {
+        int sequence = 0;
+        for (LocalDate day = LocalDate.of(YEAR, 1, 1); day.getYear() == YEAR; day = day.plusDays(1)) {
+            for (int i = 0; i < ORDERS_PER_DAY; i++) {
+                Order order = new Order();
+                order.setOrderNumber(String.format("%d-%06d", YEAR, ++sequence));
+                order.setStatus(i % 5 == 4 ? OrderStatus.CANCELLED : OrderStatus.DONE);
+                order.setTotalAmount(Money.of(ORDER_TOTAL));
+                order.setCreatedAt(day.atTime(7 + i % 14, i * 2));
+                entityManager.persist(order);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+        salesRollupService.rebuild(LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 31));
+    }
+
+    @Test
+    void monthlyReportLatencyOnAYearOfOrders() {
+        // Previous behaviour: load every completed order, one SUM for the month and one per day
+        IntFunction<Map<String, Object>> legacy = month -> {
+            LocalDate startDate = LocalDate.of(YEAR, month, 1);
+            LocalDate endDate = startDate.plusMonths(1).minusDays(1);
+            List<Order> orders = entityManager.createQuery(
+                            "SELECT o FROM Order o WHERE o.status = com.fu.cafeshop.entity.OrderStatus.DONE " +
+                            "AND o.createdAt BETWEEN :startDate AND :endDate", Order.class)
+                    .setParameter("startDate", startDate.atStartOfDay())
+                    .setParameter("endDate", endDate.atTime(LocalTime.MAX))
+                    .getResultList();
+            BigDecimal revenue = orderRepository.sumRevenueByDateRange(startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+            List<BigDecimal> daily = new ArrayList<>();
+            for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
+                daily.add(orderRepository.sumRevenueByDateRange(d.atStartOfDay(), d.atTime(LocalTime.MAX)));
+            }
+            entityManager.clear();
+            Map<String, Object> report = new HashMap<>();
+            report.put("totalOrders", (long) orders.size());
+            report.put("totalRevenue", revenue);
+            report.put("dailyData", daily);
+            return report;
+        };
+        // Measures the rollup read itself, not the report cache
+        IntFunction<Map<String, Object>> rollups = month -> {
+            reportCache.clear();
+            return reportService.getMonthlyReport(YEAR, month);
+        };
+
+        for (int month = 1; month <= 12; month++) {
+            Map<String, Object> before = legacy.apply(month);
+            Map<String, Object> after = rollups.apply(month);
+            assertEquals(before.get("totalOrders"), after.get("totalOrders"));
+            assertEquals(before.get("totalRevenue"), after.get("totalRevenue"));
+        }
+
+        double legacyMillis = millisPerYearOfReports(legacy);
+        double rollupMillis = millisPerYearOfReports(rollups);
+        log.info("Twelve monthly reports over {} orders: per-day SUMs={} ms, rollups={} ms",
+                orderRepository.count(), String.format("%.1f", legacyMillis), String.format("%.1f", rollupMillis));
+    }
+
+    private double millisPerYearOfReports(IntFunction<Map<String, Object>> report) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long began = System.nanoTime();
+            for (int month = 1; month <= 12; month++) {
+                report.apply(month);
+            }
+            best = Math.min(best, System.nanoTime() - began);
+        }
+        return best / 1_000_000.0;
+    }
+}
@@ -0,0 +1,113 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.entity.Order;
+import com.fu.cafeshop.entity.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({ReportService.class, ReportCache.class, DashboardCounters.class, SalesRollupService.class, SalesRollupRowCreator.class,
+        SimpleMeterRegistry.class})
+class ReportServiceTest {
+
+    private static final int YEAR = 2025;
+    private static final int ORDERS_PER_DAY = 20;
+    private static final BigDecimal ORDER_TOTAL = new BigDecimal("45000.00");
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seedYearOfOrders() {
+        int sequence = 0;
+        for (LocalDate day = LocalDate.of(YEAR, 1, 1); day.getYear() == YEAR; day = day.plusDays(1)) {
+            // Sundays stay empty so the reports have buckets to fill in
+            if (day.getDayOfWeek().getValue() == 7) {
+                continue;
+            }
+            for (int i = 0; i < ORDERS_PER_DAY; i++) {
+                Order order = new Order();
+                order.setOrderNumber(String.format("%d-%06d", YEAR, ++sequence));
+                // Every fifth order never completed and must not count
+                order.setStatus(i % 5 == 4 ? OrderStatus.CANCELLED : OrderStatus.DONE);
+                order.setTotalAmount(Money.of(ORDER_TOTAL));
+                order.setCreatedAt(day.atTime(7 + i % 14, i * 2));
+                entityManager.persist(order);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+        salesRollupService.rebuild(LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 31));
+    }
+
+    @Test
+    void reportsReadOneRowPerDay() {
+        Map<String, Object> monthly = countingStatements(1, () -> reportService.getMonthlyReport(YEAR, 3));
+        List<?> days = (List<?>) monthly.get("dailyData");
+        assertEquals(31, days.size());
+        assertEquals(26L * 16, monthly.get("totalOrders"));
+        assertEquals(ORDER_TOTAL.multiply(BigDecimal.valueOf(26L * 16)), monthly.get("totalRevenue"));
+        Map<?, ?> sunday = (Map<?, ?>) days.get(1);
+        assertEquals(LocalDate.of(YEAR, 3, 2), sunday.get("date"));
+        assertEquals(0L, sunday.get("orderCount"));
+        assertEquals(BigDecimal.ZERO, sunday.get("revenue"));
+
+        Map<String, Object> weekly = countingStatements(1, () -> reportService.getWeeklyReport(LocalDate.of(YEAR, 3, 12)));
+        assertEquals(LocalDate.of(YEAR, 3, 10), weekly.get("startDate"));
+        assertEquals(6L * 16, weekly.get("totalOrders"));
+
+        Map<String, Object> range = countingStatements(1,
+                () -> reportService.getRangeReport(LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 31)));
+        assertEquals(365, ((List<?>) range.get("dailyData")).size());
+
+        // Hourly buckets plus the order list of the day
+        Map<String, Object> daily = countingStatements(2, () -> reportService.getDailyReport(LocalDate.of(YEAR, 3, 3)));
+        List<?> hours = (List<?>) daily.get("hourlyData");
+        assertEquals(24, hours.size());
+        assertEquals(16L, daily.get("totalOrders"));
+        assertEquals(16, ((List<?>) daily.get("orders")).size());
+        assertEquals(2L, ((Map<?, ?>) hours.get(8)).get("orderCount"));
+        assertEquals(0L, ((Map<?, ?>) hours.get(3)).get("orderCount"));
+    }
+
+    private <T> T countingStatements(long expected, Supplier<T> report) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = report.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
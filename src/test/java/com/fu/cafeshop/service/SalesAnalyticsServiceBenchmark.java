@@ -0,0 +1,60 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.Money;
+import com.fu.cafeshop.repository.OrderItemRepository;
+import com.fu.cafeshop.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of reading a sales analytics view, the call the admin dashboard makes on every refresh.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+class SalesAnalyticsServiceBenchmark {
+
+    private static final int ORDERS = 5_000;
+    private static final int READS = 1_000_000;
+
+    @Test
+    void viewReadLatency() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> completions = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        for (long id = 1; id <= ORDERS; id++) {
+            LocalDateTime completedAt = now.minusSeconds(id * 10);
+            completions.add(new Object[] {id, null, "0901" + (id % 800), Money.of(45000),
+                    completedAt.minusMinutes(8), completedAt});
+            items.add(new Object[] {id, id % 40, "Product " + (id % 40), (int) (1 + id % 3)});
+        }
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+        when(orderRepository.findCompletionsSince(any())).thenReturn(completions);
+        when(orderItemRepository.findProductQuantitiesByOrderIdIn(anyCollection())).thenReturn(items);
+
+        SalesAnalyticsService analytics = new SalesAnalyticsService(orderRepository, orderItemRepository);
+        analytics.load();
+
+        SalesAnalyticsService.Window[] windows = SalesAnalyticsService.Window.values();
+        for (int i = 0; i < READS; i++) {
+            analytics.getView(windows[i % windows.length]);
+        }
+        long began = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            analytics.getView(windows[i % windows.length]);
+        }
+        double micros = (System.nanoTime() - began) / 1000.0 / READS;
+        log.info("Sales analytics read over {} completed orders: {} µs per view", ORDERS, String.format("%.3f", micros));
+    }
+}
@@ -0,0 +1,118 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.dto.SalesAnalyticsView;
+import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.event.OrderStatusChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import({OrderService.class, SalesRollupService.class, SalesRollupRowCreator.class, SalesAnalyticsService.class})
+class SalesAnalyticsServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesAnalyticsService analytics;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private final List<Order> orders = new ArrayList<>();
+    private Product coffee;
+    private Product croissant;
+
+    @BeforeEach
+    void seedOrders() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+
+        Category category = new Category();
+        category.setName("Coffee");
+        entityManager.persist(category);
+        coffee = product("Bạc xỉu", category, "35000");
+        croissant = product("Croissant", category, "25000");
+
+        // Two of the guests are the same customer coming back
+        orders.add(order("0901000001", cartItem(coffee, 2)));
+        orders.add(order("0901000002", cartItem(coffee, 1), cartItem(croissant, 1)));
+        orders.add(order("0901000001", cartItem(croissant, 3)));
+        orders.add(order("0901000003", cartItem(coffee, 1)));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void completedOrdersFeedTheWindows() {
+        // The last order is still open and must not count
+        for (Order order : orders.subList(0, 3)) {
+            orderService.updateOrderStatus(order.getId(), OrderStatus.APPROVED, null);
+            orderService.updateOrderStatus(order.getId(), OrderStatus.COOKING, null);
+            orderService.updateOrderStatus(order.getId(), OrderStatus.DONE, null);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        for (Order order : orders) {
+            analytics.onOrderStatusChanged(new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(),
+                    OrderStatus.COOKING, OrderStatus.DONE));
+        }
+        // A replayed event is not counted twice
+        analytics.onOrderStatusChanged(new OrderStatusChangedEvent(orders.get(0).getId(),
+                orders.get(0).getOrderNumber(), OrderStatus.COOKING, OrderStatus.DONE));
+
+        for (SalesAnalyticsService.Window window : SalesAnalyticsService.Window.values()) {
+            SalesAnalyticsView view = analytics.getView(window);
+            assertEquals(3, view.getOrders());
+            assertEquals(2, view.getDistinctCustomers());
+            assertEquals(List.of("Croissant", "Bạc xỉu"), view.getTopProducts().stream()
+                    .map(SalesAnalyticsView.TopProduct::getProductName).toList());
+            assertEquals(4, view.getTopProducts().get(0).getQuantity());
+            assertEquals(0, view.getTopProducts().get(0).getError());
+            assertEquals(70000, view.getOrderValueP50(), 0.01);
+            assertTrue(view.getPrepMinutesP99() >= 0);
+        }
+    }
+
+    private Order order(String guestPhone, OrderService.CartItem... items) {
+        Order order = new Order();
+        order.setGuestPhone(guestPhone);
+        return orderService.createOrder(order, List.of(items));
+    }
+
+    private Product product(String name, Category category, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal(price));
+        entityManager.persist(product);
+        return product;
+    }
+
+    private static OrderService.CartItem cartItem(Product product, int quantity) {
+        return new OrderService.CartItem(product.getId(), product.getName(), Money.of(product.getDefaultPrice()),
+                quantity, Money.ZERO, List.of());
+    }
+}
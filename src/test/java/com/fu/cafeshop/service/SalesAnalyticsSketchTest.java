@@ -0,0 +1,111 @@
+package com.fu.cafeshop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SalesAnalyticsSketchTest {
+
+    @Test
+    void spaceSavingFindsTheHeavyHittersAndMerges() {
+        // Item i is offered about 10000 / (i + 1) times: a long tail behind a few best sellers
+        Random random = new Random(7);
+        long[] truth = new long[1000];
+        SpaceSavingSketch<Integer> whole = new SpaceSavingSketch<>(64);
+        SpaceSavingSketch<Integer> firstHalf = new SpaceSavingSketch<>(64);
+        SpaceSavingSketch<Integer> secondHalf = new SpaceSavingSketch<>(64);
+        List<Integer> stream = IntStream.range(0, truth.length)
+                .boxed()
+                .flatMap(item -> IntStream.range(0, 10000 / (item + 1)).mapToObj(n -> item))
+                .collect(Collectors.toList());
+        Collections.shuffle(stream, random);
+        for (int i = 0; i < stream.size(); i++) {
+            int item = stream.get(i);
+            truth[item]++;
+            whole.offer(item, 1);
+            (i % 2 == 0 ? firstHalf : secondHalf).offer(item, 1);
+        }
+        firstHalf.merge(secondHalf);
+
+        Set<Integer> expected = Set.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        for (SpaceSavingSketch<Integer> sketch : List.of(whole, firstHalf)) {
+            List<SpaceSavingSketch.Entry<Integer>> top = sketch.top(10);
+            assertEquals(expected, top.stream().map(SpaceSavingSketch.Entry::item).collect(Collectors.toSet()));
+            for (SpaceSavingSketch.Entry<Integer> entry : top) {
+                assertTrue(entry.count() >= truth[entry.item()]);
+                assertTrue(entry.count() - entry.error() <= truth[entry.item()]);
+            }
+            assertEquals(stream.size(), sketch.total());
+        }
+    }
+
+    @Test
+    void hyperLogLogCountsDistinctValuesWithinAFewPercent() {
+        HyperLogLogSketch whole = new HyperLogLogSketch(12);
+        HyperLogLogSketch first = new HyperLogLogSketch(12);
+        HyperLogLogSketch second = new HyperLogLogSketch(12);
+        for (int i = 0; i < 100_000; i++) {
+            String phone = String.format("09%08d", i);
+            whole.add(phone);
+            // Overlapping halves, as two nodes seeing some of the same customers
+            if (i < 60_000) {
+                first.add(phone);
+            }
+            if (i >= 40_000) {
+                second.add(phone);
+            }
+        }
+        first.merge(second);
+        assertEquals(100_000, whole.estimate(), 5_000);
+        assertEquals(whole.estimate(), first.estimate());
+
+        HyperLogLogSketch small = new HyperLogLogSketch(12);
+        for (int i = 0; i < 50; i++) {
+            small.add("c:" + i % 20);
+        }
+        assertEquals(20, small.estimate(), 1);
+    }
+
+    @Test
+    void tDigestQuantilesStayWithinOnePercentOfRank() {
+        Random random = new Random(11);
+        double[] values = new double[100_000];
+        TDigestSketch whole = new TDigestSketch(100);
+        TDigestSketch[] parts = new TDigestSketch[10];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new TDigestSketch(100);
+        }
+        for (int i = 0; i < values.length; i++) {
+            // Skewed like order values: mostly small, a few large
+            values[i] = Math.exp(10.5 + 0.6 * random.nextGaussian());
+            whole.add(values[i]);
+            parts[i % parts.length].add(values[i]);
+        }
+        TDigestSketch merged = new TDigestSketch(100);
+        for (TDigestSketch part : parts) {
+            merged.merge(part);
+        }
+        Arrays.sort(values);
+
+        for (TDigestSketch digest : List.of(whole, merged)) {
+            assertEquals(values.length, digest.count());
+            assertTrue(digest.centroidCount() < 1000, "Digest size must not grow with the stream");
+            for (double q : new double[]{0.5, 0.9, 0.99}) {
+                double estimate = digest.quantile(q);
+                int rank = Math.abs(Arrays.binarySearch(values, estimate));
+                assertEquals(q, (double) rank / values.length, 0.01, "q=" + q);
+            }
+            assertEquals(values[0], digest.quantile(0), 1e-9);
+            assertEquals(values[values.length - 1], digest.quantile(1), 1e-9);
+        }
+    }
+}
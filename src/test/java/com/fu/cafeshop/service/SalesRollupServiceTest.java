@@ -0,0 +1,282 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.entity.*;
+import com.fu.cafeshop.repository.DailyProductSalesRepository;
+import com.fu.cafeshop.repository.DailySalesRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@Import({OrderService.class, SalesRollupService.class, SalesRollupRowCreator.class})
+class SalesRollupServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private DailySalesRepository dailySalesRepository;
+
+    @Autowired
+    private DailyProductSalesRepository dailyProductSalesRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    private SalesRollupRowCreator rowCreator;
+
+    @MockitoBean
+    private DocumentNumberService documentNumberService;
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private final List<Long> orderIds = new ArrayList<>();
+    private Product coffee;
+    private Product croissant;
+
+    @BeforeEach
+    void seedOrders() {
+        when(documentNumberService.nextOrderNumber())
+                .thenAnswer(invocation -> String.format("20260101-%06d", orderSequence.incrementAndGet()));
+
+        // Joins the test transaction, or commits on its own for the tests that run without one
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Category category = new Category();
+            category.setName("Coffee");
+            entityManager.persist(category);
+            coffee = product("Bạc xỉu", category, "35000", "12000");
+            croissant = product("Croissant", category, "25000", "10000");
+
+            for (int i = 0; i < 4; i++) {
+                orderIds.add(orderService.createOrder(new Order(), List.of(
+                        new OrderService.CartItem(coffee.getId(), coffee.getName(), Money.of(coffee.getDefaultPrice()),
+                                2, Money.ZERO, List.of()),
+                        new OrderService.CartItem(croissant.getId(), croissant.getName(),
+                                Money.of(croissant.getDefaultPrice()), 1, Money.ZERO, List.of()))).getId());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    // Rows made by the row creator are committed on their own and outlive the test transaction
+    @AfterTransaction
+    void dropCommittedRollupRows() {
+        jdbcTemplate.update("DELETE FROM daily_sales");
+        jdbcTemplate.update("DELETE FROM daily_product_sales");
+    }
+
+    @Test
+    void completionsAndRefundsUpdateTheRollupsInTheSameTransaction() {
+        // One order through the single-order path, two through the bulk path, one never completed
+        complete(orderIds.get(0));
+        orderService.bulkUpdateStatus(orderIds.subList(1, 3), OrderStatus.APPROVED, null);
+        orderService.bulkUpdateStatus(orderIds.subList(1, 3), OrderStatus.COOKING, null);
+        orderService.bulkUpdateStatus(orderIds.subList(1, 3), OrderStatus.DONE, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertDay(3, "285000.00");
+        assertProduct(coffee, 6, "210000.00", "72000.00");
+        assertProduct(croissant, 3, "75000.00", "30000.00");
+
+        orderService.updateOrderStatus(orderIds.get(1), OrderStatus.REFUNDED, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertDay(2, "190000.00");
+        assertProduct(coffee, 4, "140000.00", "48000.00");
+        assertProduct(croissant, 2, "50000.00", "20000.00");
+    }
+
+    @Test
+    void rebuildMatchesTheIncrementalRollups() {
+        complete(orderIds.get(0));
+        complete(orderIds.get(1));
+        orderService.updateOrderStatus(orderIds.get(1), OrderStatus.REFUNDED, null);
+        complete(orderIds.get(2));
+        entityManager.flush();
+        entityManager.clear();
+        List<String> incremental = snapshot();
+
+        // Drift the rollups, then recompute them from the orders
+        dailySalesRepository.deleteAll();
+        dailyProductSalesRepository.deleteAll();
+        entityManager.flush();
+        salesRollupService.rebuild(LocalDate.now().minusDays(1), LocalDate.now());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(incremental, snapshot());
+        assertDay(2, "190000.00");
+    }
+
+    @Test
+    void refundTakesOutTheCostRecordedAtCompletion() {
+        complete(orderIds.get(0));
+        complete(orderIds.get(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        Product repriced = entityManager.find(Product.class, coffee.getId());
+        repriced.setCostPrice(new BigDecimal("20000"));
+        entityManager.flush();
+        entityManager.clear();
+
+        orderService.updateOrderStatus(orderIds.get(0), OrderStatus.REFUNDED, null);
+        entityManager.flush();
+        entityManager.clear();
+        assertProduct(coffee, 2, "70000.00", "24000.00");
+    }
+
+    @Test
+    void orderCompletesWhenAnotherOrderCreatedTheDayFirst() {
+        // The row creator loses the race: another transaction commits the row before its insert runs
+        TransactionTemplate otherOrder = new TransactionTemplate(transactionManager);
+        otherOrder.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        doAnswer(invocation -> {
+            otherOrder.executeWithoutResult(status -> dailySalesRepository.save(DailySales.builder()
+                    .salesDate(invocation.getArgument(0))
+                    .build()));
+            throw new DataIntegrityViolationException("UQ_daily_sales");
+        }).when(rowCreator).createDay(any());
+
+        complete(orderIds.get(0));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(OrderStatus.DONE, orderService.getOrderById(orderIds.get(0)).getStatus());
+        assertDay(1, "95000.00");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentCompletionsOfOneOrderRecordTheSaleOnce() throws Exception {
+        Long orderId = orderIds.get(0);
+        orderService.updateOrderStatus(orderId, OrderStatus.APPROVED, null);
+        orderService.updateOrderStatus(orderId, OrderStatus.COOKING, null);
+
+        // Two staff members press "done" on the same order at the same time
+        ExecutorService staff = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Order>> attempts = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                attempts.add(staff.submit(() -> {
+                    start.await();
+                    return orderService.updateOrderStatus(orderId, OrderStatus.DONE, null);
+                }));
+            }
+            start.countDown();
+
+            int completed = 0;
+            for (Future<Order> attempt : attempts) {
+                try {
+                    attempt.get(10, TimeUnit.SECONDS);
+                    completed++;
+                } catch (ExecutionException rejected) {
+                    // The later one sees the order already done
+                }
+            }
+            assertEquals(1, completed);
+            assertDay(1, "95000.00");
+            assertProduct(coffee, 2, "70000.00", "24000.00");
+        } finally {
+            staff.shutdownNow();
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            for (String table : List.of("daily_product_sales", "daily_sales", "payments", "order_item_modifiers",
+                    "order_items", "orders", "products", "categories")) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + table);
+            }
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+
+    private void complete(Long orderId) {
+        orderService.updateOrderStatus(orderId, OrderStatus.APPROVED, null);
+        orderService.updateOrderStatus(orderId, OrderStatus.COOKING, null);
+        orderService.updateOrderStatus(orderId, OrderStatus.DONE, null);
+    }
+
+    private void assertDay(long orders, String revenue) {
+        DailySales today = dailySalesRepository.findBySalesDate(LocalDate.now()).orElseThrow();
+        assertEquals(orders, today.getOrderCount());
+        assertEquals(new BigDecimal(revenue), today.getRevenue());
+    }
+
+    private void assertProduct(Product product, long quantity, String revenue, String cost) {
+        DailyProductSales sales = dailyProductSalesRepository.findAll().stream()
+                .filter(row -> row.getProductId().equals(product.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(quantity, sales.getQuantity());
+        assertEquals(new BigDecimal(revenue), sales.getRevenue());
+        assertEquals(new BigDecimal(cost), sales.getCost());
+    }
+
+    private List<String> snapshot() {
+        List<String> rows = new ArrayList<>();
+        for (DailySales day : dailySalesRepository.findAll()) {
+            rows.add(day.getSalesDate() + " " + day.getOrderCount() + " " + day.getRevenue());
+        }
+        dailyProductSalesRepository.findAll().stream()
+                .sorted(Comparator.comparing(DailyProductSales::getProductId))
+                .forEach(row -> rows.add(row.getSalesDate() + " " + row.getProductName() + " " + row.getQuantity()
+                        + " " + row.getRevenue() + " " + row.getCost()));
+        return rows;
+    }
+
+    private Product product(String name, Category category, String price, String cost) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setDefaultPrice(new BigDecimal(price));
+        product.setCostPrice(new BigDecimal(cost));
+        entityManager.persist(product);
+        return product;
+    }
+}
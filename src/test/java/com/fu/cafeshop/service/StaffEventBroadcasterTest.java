@@ -0,0 +1,104 @@
+package com.fu.cafeshop.service;
+
+import com.fu.cafeshop.event.OrderCreatedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaffEventBroadcasterTest {
+
+    private static final int REPLAY_SIZE = 16;
+
+    private final StaffEventBroadcaster broadcaster = new StaffEventBroadcaster(REPLAY_SIZE);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutDown() {
+        release.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void stalledClientDoesNotHoldUpTheOthers() throws Exception {
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        broadcaster.subscribe(stalled, null);
+        broadcaster.subscribe(healthy, null);
+
+        broadcaster.onOrderCreated(new OrderCreatedEvent(1L, "20260101-000001"));
+        assertTrue(stalled.blocked.await(5, TimeUnit.SECONDS));
+        broadcaster.onOrderCreated(new OrderCreatedEvent(2L, "20260101-000002"));
+        broadcaster.onOrderCreated(new OrderCreatedEvent(3L, "20260101-000003"));
+
+        assertTrue(healthy.delivered.tryAcquire(3, 5, TimeUnit.SECONDS));
+        assertEquals(1, stalled.sendsStarted.get());
+
+        // Once the client reads again it gets the rest
+        release.countDown();
+        assertTrue(stalled.delivered.tryAcquire(3, 5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void clientThatFallsAWholeBufferBehindIsDisconnected() throws Exception {
+        int events = REPLAY_SIZE + 4;
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        broadcaster.subscribe(stalled, null);
+        broadcaster.subscribe(healthy, null);
+
+        // Paced by the healthy client, which keeps up with every event
+        for (long id = 1; id <= events; id++) {
+            broadcaster.onOrderCreated(new OrderCreatedEvent(id, String.format("20260101-%06d", id)));
+            assertTrue(healthy.delivered.tryAcquire(5, TimeUnit.SECONDS));
+        }
+
+        release.countDown();
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        // Only what fitted in its outbox; it reconnects with its Last-Event-ID for the rest
+        assertEquals(REPLAY_SIZE, stalled.sendsStarted.get());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+        private final AtomicInteger sendsStarted = new AtomicInteger();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final Semaphore delivered = new Semaphore(0);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sendsStarted.incrementAndGet();
+            if (release != null) {
+                blocked.countDown();
+                try {
+                    // A tablet on a dead Wi-Fi link: the write blocks until the socket gives up
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            delivered.release();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+            super.complete();
+        }
+    }
+}